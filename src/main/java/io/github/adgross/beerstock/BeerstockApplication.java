@@ -2,12 +2,28 @@ package io.github.adgross.beerstock;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling
 @SpringBootApplication
 public class BeerstockApplication {
 
+  private static final int STARTUP_STEPS_CAPACITY = 4096;
+
   public static void main(String[] args) {
-    SpringApplication.run(BeerstockApplication.class, args);
+    ConfigurableApplicationContext context = application().run(args);
+    if (context.getEnvironment()
+        .getProperty("beerstock.startup.training-run", Boolean.class, false)) {
+      System.exit(SpringApplication.exit(context));
+    }
+  }
+
+  public static SpringApplication application() {
+    SpringApplication application = new SpringApplication(BeerstockApplication.class);
+    application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+    return application;
   }
 
 }
@@ -0,0 +1,20 @@
+package io.github.adgross.beerstock.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties("beerstock.changes")
+public class ChangeFeedConfig {
+
+  private int queueCapacity = 100_000;
+  private int batchSize = 500;
+  private Duration flushInterval = Duration.ofMillis(50);
+  private Duration tombstoneRetention = Duration.ofDays(7);
+  private Duration compactionInterval = Duration.ofHours(1);
+}
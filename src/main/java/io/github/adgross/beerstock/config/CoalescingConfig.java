@@ -0,0 +1,19 @@
+package io.github.adgross.beerstock.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties("beerstock.coalescing")
+public class CoalescingConfig {
+
+  private boolean enabled = false;
+  private Duration window = Duration.ofMillis(2);
+  private int batchSize = 256;
+  private Duration timeout = Duration.ofSeconds(10);
+}
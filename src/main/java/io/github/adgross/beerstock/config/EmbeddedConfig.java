@@ -0,0 +1,24 @@
+package io.github.adgross.beerstock.config;
+
+import io.github.adgross.beerstock.repository.BeerRepository;
+import io.github.adgross.beerstock.repository.InMemoryBeerRepository;
+import io.github.adgross.beerstock.repository.InMemoryTransactionManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@Profile("embedded")
+public class EmbeddedConfig {
+
+  @Bean
+  public BeerRepository inMemoryBeerRepository() {
+    return new InMemoryBeerRepository();
+  }
+
+  @Bean
+  public PlatformTransactionManager transactionManager() {
+    return new InMemoryTransactionManager();
+  }
+}
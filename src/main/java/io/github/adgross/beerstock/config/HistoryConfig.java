@@ -0,0 +1,20 @@
+package io.github.adgross.beerstock.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties("beerstock.history")
+public class HistoryConfig {
+
+  private int queueCapacity = 100_000;
+  private int batchSize = 500;
+  private Duration flushInterval = Duration.ofMillis(200);
+  private Duration rollupInterval = Duration.ofMinutes(5);
+  private Duration hourlyRetention = Duration.ofDays(7);
+}
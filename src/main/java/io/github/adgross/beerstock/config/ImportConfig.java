@@ -0,0 +1,21 @@
+package io.github.adgross.beerstock.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties("beerstock.import")
+public class ImportConfig {
+
+  private int batchSize = 1000;
+  private int workers = 2;
+  private int queueCapacity = 4;
+  private Duration retention = Duration.ofHours(1);
+  private DataSize maxFileSize = DataSize.ofMegabytes(100);
+}
@@ -0,0 +1,29 @@
+package io.github.adgross.beerstock.config;
+
+import io.github.adgross.beerstock.jfr.JfrEndpoint;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties("beerstock.jfr")
+public class JfrConfig {
+
+  private boolean enabled = true;
+  private String settings = "profile";
+  private Duration maxAge = Duration.ofHours(1);
+  private DataSize maxSize = DataSize.ofMegabytes(250);
+
+  @Bean
+  @ConditionalOnProperty(value = "beerstock.jfr.enabled", matchIfMissing = true)
+  public JfrEndpoint jfrEndpoint() {
+    return new JfrEndpoint(settings, maxAge, maxSize.toBytes());
+  }
+}
@@ -0,0 +1,19 @@
+package io.github.adgross.beerstock.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties("beerstock.reservations")
+public class ReservationConfig {
+
+  private Duration defaultTtl = Duration.ofMinutes(15);
+  private Duration maxTtl = Duration.ofHours(24);
+  private Duration tick = Duration.ofMillis(100);
+  private int wheelSize = 512;
+}
@@ -0,0 +1,35 @@
+package io.github.adgross.beerstock.config;
+
+import io.github.adgross.beerstock.web.ResponseCacheFilter;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties("beerstock.response-cache")
+public class ResponseCacheConfig {
+
+  private boolean enabled = true;
+  private int maxEntries = 10_000;
+
+  @Bean
+  @ConditionalOnProperty(value = "beerstock.response-cache.enabled", matchIfMissing = true)
+  public ResponseCacheFilter responseCacheFilter() {
+    return new ResponseCacheFilter(maxEntries);
+  }
+
+  @Bean
+  @ConditionalOnProperty(value = "beerstock.response-cache.enabled", matchIfMissing = true)
+  public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilterRegistration(
+      ResponseCacheFilter responseCacheFilter) {
+    var registration = new FilterRegistrationBean<>(responseCacheFilter);
+    registration.addUrlPatterns("/api/v1/beers", "/api/v1/beers/*");
+    return registration;
+  }
+}
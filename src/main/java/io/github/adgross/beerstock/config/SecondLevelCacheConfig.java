@@ -0,0 +1,34 @@
+package io.github.adgross.beerstock.config;
+
+import java.net.URI;
+import java.util.UUID;
+import javax.cache.Caching;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gives each entity manager factory its own Ehcache manager for the Hibernate
+ * second level cache. The JCache provider shares managers by URI and Hibernate
+ * closes its manager on shutdown, so a shared one would leak entries between
+ * application contexts and be closed under the ones still running.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+  private static final String CONFIG = "/ehcache.xml";
+
+  @Bean
+  public HibernatePropertiesCustomizer secondLevelCacheManager() {
+    return properties -> {
+      var provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+          EhcacheCachingProvider.class.getName());
+      var configuration = new XmlConfiguration(getClass().getResource(CONFIG));
+      properties.put(ConfigSettings.CACHE_MANAGER, provider.getCacheManager(
+          URI.create("beerstock:second-level-cache:" + UUID.randomUUID()), configuration));
+    };
+  }
+}
@@ -0,0 +1,39 @@
+package io.github.adgross.beerstock.config;
+
+import io.github.adgross.beerstock.repository.BeerRepository;
+import io.github.adgross.beerstock.repository.ShardedBeerRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+@Getter
+@Setter
+@Configuration
+@Profile("sharded")
+@ConfigurationProperties("beerstock.sharding")
+public class ShardingConfig {
+
+  private List<String> urls = new ArrayList<>();
+  private String username;
+  private String password;
+
+  @Bean
+  @Primary
+  public BeerRepository shardedBeerRepository() {
+    return new ShardedBeerRepository(urls.stream()
+        .map(url -> DataSourceBuilder.create()
+            .url(url)
+            .username(username)
+            .password(password)
+            .build())
+        .collect(Collectors.toList()));
+  }
+}
@@ -0,0 +1,19 @@
+package io.github.adgross.beerstock.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties("beerstock.snapshot")
+public class SnapshotConfig {
+
+  private boolean enabled = false;
+  private String file = "beer-snapshot.bin";
+  private int initialSlots = 1 << 16;
+  private DataSize initialStrings = DataSize.ofMegabytes(4);
+}
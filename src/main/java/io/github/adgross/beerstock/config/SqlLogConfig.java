@@ -0,0 +1,54 @@
+package io.github.adgross.beerstock.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.adgross.beerstock.sql.SqlEndpoint;
+import io.github.adgross.beerstock.sql.SqlLog;
+import io.github.adgross.beerstock.sql.SqlLogDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import javax.sql.DataSource;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties("beerstock.sql-log")
+@ConditionalOnProperty(value = "beerstock.sql-log.enabled", matchIfMissing = true)
+public class SqlLogConfig {
+
+  private boolean enabled = true;
+  private double samplingRatio = 0.01;
+  private Duration slowThreshold = Duration.ofMillis(100);
+  private boolean explain = true;
+  private int queueCapacity = 10_000;
+  private int maxShapes = 500;
+
+  @Bean
+  public SqlLog sqlLog(MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+    return new SqlLog(meterRegistry, objectMapper, this);
+  }
+
+  @Bean
+  public SqlEndpoint sqlEndpoint(SqlLog sqlLog) {
+    return new SqlEndpoint(sqlLog);
+  }
+
+  @Bean
+  public static BeanPostProcessor sqlLogDataSourcePostProcessor(ObjectProvider<SqlLog> sqlLog) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource && !(bean instanceof SqlLogDataSource)
+            ? new SqlLogDataSource((DataSource) bean, sqlLog.getObject())
+            : bean;
+      }
+    };
+  }
+}
@@ -3,6 +3,7 @@ package io.github.adgross.beerstock.config;
 import static springfox.documentation.builders.RequestHandlerSelectors.basePackage;
 
 import lombok.Setter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,6 +16,7 @@ import springfox.documentation.spring.web.plugins.Docket;
 
 @Setter
 @Configuration
+@ConditionalOnProperty(value = "springfox.documentation.enabled", matchIfMissing = true)
 @ConfigurationProperties("api.swagger")
 public class SwaggerConfig {
 
@@ -0,0 +1,106 @@
+package io.github.adgross.beerstock.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.adgross.beerstock.enums.TraceExporter;
+import io.github.adgross.beerstock.tracing.FileSpanExporter;
+import io.github.adgross.beerstock.tracing.MemorySpanExporter;
+import io.github.adgross.beerstock.tracing.TracesEndpoint;
+import io.github.adgross.beerstock.tracing.TracingAspect;
+import io.github.adgross.beerstock.tracing.TracingDataSource;
+import io.github.adgross.beerstock.tracing.TracingFilter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import java.io.IOException;
+import java.nio.file.Path;
+import javax.sql.DataSource;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties("beerstock.tracing")
+@ConditionalOnProperty(value = "beerstock.tracing.enabled", matchIfMissing = true)
+public class TracingConfig {
+
+  private boolean enabled = true;
+  private double samplingRatio = 0.01;
+  private TraceExporter exporter = TraceExporter.MEMORY;
+  private int memoryCapacity = 10_000;
+  private Path file = Path.of("traces.jsonl");
+
+  @Bean
+  @ConditionalOnProperty(value = "beerstock.tracing.exporter", havingValue = "memory",
+      matchIfMissing = true)
+  public MemorySpanExporter memorySpanExporter() {
+    return new MemorySpanExporter(memoryCapacity);
+  }
+
+  @Bean
+  @ConditionalOnProperty(value = "beerstock.tracing.exporter", havingValue = "memory",
+      matchIfMissing = true)
+  public TracesEndpoint tracesEndpoint(MemorySpanExporter memorySpanExporter) {
+    return new TracesEndpoint(memorySpanExporter);
+  }
+
+  @Bean
+  @ConditionalOnProperty(value = "beerstock.tracing.exporter", havingValue = "file")
+  public FileSpanExporter fileSpanExporter(ObjectMapper objectMapper) throws IOException {
+    return new FileSpanExporter(file, objectMapper);
+  }
+
+  @Bean
+  public SdkTracerProvider tracerProvider(SpanExporter spanExporter) {
+    // the file exporter writes from a background thread, memory is cheap enough to do inline
+    SpanProcessor processor = exporter == TraceExporter.FILE
+        ? BatchSpanProcessor.builder(spanExporter).build()
+        : SimpleSpanProcessor.create(spanExporter);
+    return SdkTracerProvider.builder()
+        .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(samplingRatio)))
+        .addSpanProcessor(processor)
+        .build();
+  }
+
+  @Bean
+  public TracingFilter tracingFilter(SdkTracerProvider tracerProvider) {
+    return new TracingFilter(tracerProvider.get("beerstock"));
+  }
+
+  @Bean
+  public FilterRegistrationBean<TracingFilter> tracingFilterRegistration(
+      TracingFilter tracingFilter) {
+    var registration = new FilterRegistrationBean<>(tracingFilter);
+    registration.addUrlPatterns("/api/*");
+    // outside the response cache, so cached reads are traced too
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+    return registration;
+  }
+
+  @Bean
+  public TracingAspect tracingAspect() {
+    return new TracingAspect();
+  }
+
+  @Bean
+  public static BeanPostProcessor tracingDataSourcePostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource && !(bean instanceof TracingDataSource)
+            ? new TracingDataSource((DataSource) bean)
+            : bean;
+      }
+    };
+  }
+}
@@ -0,0 +1,61 @@
+package io.github.adgross.beerstock.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.adgross.beerstock.controller.BeerController;
+import io.github.adgross.beerstock.warmup.HotBeerFilter;
+import io.github.adgross.beerstock.warmup.WarmUp;
+import io.github.adgross.beerstock.warmup.WarmUpEndpoint;
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties("beerstock.warmup")
+public class WarmUpConfig {
+
+  private boolean enabled = true;
+  private Duration budget = Duration.ofSeconds(30);
+  private int rounds = 500;
+  private String hotBeersFile = "hot-beers.txt";
+  private int hotBeers = 100;
+  private Duration saveInterval = Duration.ofMinutes(5);
+
+  @Bean
+  @ConditionalOnProperty(value = "beerstock.warmup.enabled", matchIfMissing = true)
+  public HotBeerFilter hotBeerFilter() {
+    return new HotBeerFilter(Path.of(hotBeersFile), hotBeers);
+  }
+
+  @Bean
+  @ConditionalOnProperty(value = "beerstock.warmup.enabled", matchIfMissing = true)
+  public FilterRegistrationBean<HotBeerFilter> hotBeerFilterRegistration(
+      HotBeerFilter hotBeerFilter) {
+    var registration = new FilterRegistrationBean<>(hotBeerFilter);
+    registration.addUrlPatterns("/api/v1/beers/*");
+    // outside the response cache, so its hits are counted too
+    registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+    return registration;
+  }
+
+  @Bean
+  @ConditionalOnProperty(value = "beerstock.warmup.enabled", matchIfMissing = true)
+  public WarmUp warmUp(BeerController beerController, ObjectMapper objectMapper,
+      HotBeerFilter hotBeerFilter) {
+    return new WarmUp(beerController, objectMapper, hotBeerFilter, budget, rounds);
+  }
+
+  @Bean
+  @ConditionalOnProperty(value = "beerstock.warmup.enabled", matchIfMissing = true)
+  public WarmUpEndpoint warmUpEndpoint(WarmUp warmUp, HotBeerFilter hotBeerFilter) {
+    return new WarmUpEndpoint(warmUp, hotBeerFilter);
+  }
+}
@@ -1,25 +1,36 @@
 package io.github.adgross.beerstock.controller;
 
 import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.BeerFields;
+import io.github.adgross.beerstock.dto.BulkDeleteDto;
 import io.github.adgross.beerstock.dto.QuantityDto;
+import io.github.adgross.beerstock.dto.SparseBeerDto;
+import io.github.adgross.beerstock.dto.SuggestionDto;
+import io.github.adgross.beerstock.enums.BeerType;
 import io.github.adgross.beerstock.exception.BeerAlreadyRegisteredException;
 import io.github.adgross.beerstock.exception.BeerNotFoundException;
 import io.github.adgross.beerstock.exception.BeerStockExceededException;
 import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.MissingDeleteCriteriaException;
 import io.github.adgross.beerstock.services.BeerService;
+import io.github.adgross.beerstock.validation.BeerDtoValidator;
+import io.github.adgross.beerstock.validation.QuantityDtoValidator;
 import java.util.List;
 import javax.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -29,22 +40,75 @@ import org.springframework.web.bind.annotation.RestController;
 public class BeerController implements BeerControllerApi {
 
   private final BeerService beerService;
+  private final BeerDtoValidator beerDtoValidator = new BeerDtoValidator();
+  private final QuantityDtoValidator quantityDtoValidator = new QuantityDtoValidator();
+
+  @InitBinder("beerDto")
+  void initBeerDtoBinder(WebDataBinder binder) {
+    binder.setValidator(beerDtoValidator);
+  }
+
+  @InitBinder("quantityDto")
+  void initQuantityDtoBinder(WebDataBinder binder) {
+    binder.setValidator(quantityDtoValidator);
+  }
 
   @GetMapping
   public List<BeerDto> listAll() {
     return beerService.listAll();
   }
 
+  @GetMapping(params = "fields")
+  public List<SparseBeerDto> listAll(@RequestParam BeerFields fields) {
+    return beerService.listAll(fields);
+  }
+
+  @GetMapping("/search")
+  public List<BeerDto> search(@RequestParam String query,
+      @RequestParam(defaultValue = "10") int limit) {
+    return beerService.search(query, limit);
+  }
+
+  @GetMapping(value = "/search", params = "fields")
+  public List<SparseBeerDto> search(@RequestParam String query,
+      @RequestParam(defaultValue = "10") int limit, @RequestParam BeerFields fields) {
+    return beerService.search(query, limit, fields);
+  }
+
+  @GetMapping("/suggest")
+  public List<SuggestionDto> suggest(@RequestParam String prefix,
+      @RequestParam(defaultValue = "10") int limit) {
+    return beerService.suggest(prefix, limit);
+  }
+
+  @GetMapping("/low-stock")
+  public List<BeerDto> lowStock(@RequestParam(defaultValue = "50") int limit,
+      @RequestParam(defaultValue = "1") double threshold) {
+    return beerService.lowStock(limit, threshold);
+  }
+
   @GetMapping("/{id}")
   public BeerDto findById(@PathVariable Long id) throws BeerNotFoundException {
     return beerService.find(id);
   }
 
+  @GetMapping(value = "/{id}", params = "fields")
+  public SparseBeerDto findById(@PathVariable Long id, @RequestParam BeerFields fields)
+      throws BeerNotFoundException {
+    return beerService.find(id, fields);
+  }
+
   @GetMapping("/name/{name}")
   public BeerDto findByName(@PathVariable String name) throws BeerNotFoundException {
     return beerService.find(name);
   }
 
+  @GetMapping(value = "/name/{name}", params = "fields")
+  public SparseBeerDto findByName(@PathVariable String name, @RequestParam BeerFields fields)
+      throws BeerNotFoundException {
+    return beerService.find(name, fields);
+  }
+
   @PostMapping
   @ResponseStatus(HttpStatus.CREATED)
   public BeerDto createBeer(@RequestBody @Valid BeerDto beerDto)
@@ -64,6 +128,19 @@ public class BeerController implements BeerControllerApi {
     beerService.deleteBeer(name);
   }
 
+  @DeleteMapping(params = "ids")
+  public BulkDeleteDto deleteByIds(@RequestParam List<Long> ids) {
+    return new BulkDeleteDto(beerService.deleteBeers(ids));
+  }
+
+  @DeleteMapping(params = "!ids")
+  public BulkDeleteDto deleteMatching(@RequestParam(required = false) String brand,
+      @RequestParam(required = false) BeerType type,
+      @RequestParam(defaultValue = "false") boolean outOfStock)
+      throws MissingDeleteCriteriaException {
+    return new BulkDeleteDto(beerService.deleteBeers(brand, type, outOfStock));
+  }
+
   @PutMapping("/{id}")
   public BeerDto updateBeer(@PathVariable Long id, @RequestBody @Valid BeerDto beerDto)
       throws BeerNotFoundException, BeerStockExceededException, BeerAlreadyRegisteredException {
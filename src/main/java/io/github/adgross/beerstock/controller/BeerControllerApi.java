@@ -1,11 +1,17 @@
 package io.github.adgross.beerstock.controller;
 
 import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.BeerFields;
+import io.github.adgross.beerstock.dto.BulkDeleteDto;
 import io.github.adgross.beerstock.dto.QuantityDto;
+import io.github.adgross.beerstock.dto.SparseBeerDto;
+import io.github.adgross.beerstock.dto.SuggestionDto;
+import io.github.adgross.beerstock.enums.BeerType;
 import io.github.adgross.beerstock.exception.BeerAlreadyRegisteredException;
 import io.github.adgross.beerstock.exception.BeerNotFoundException;
 import io.github.adgross.beerstock.exception.BeerStockExceededException;
 import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.MissingDeleteCriteriaException;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -22,6 +28,41 @@ public interface BeerControllerApi {
   })
   List<BeerDto> listAll();
 
+  @ApiOperation(value = "List all beers with only the given fields")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "The fields of every registered beer"),
+      @ApiResponse(responseCode = "400", description = "Unknown field")
+  })
+  List<SparseBeerDto> listAll(BeerFields fields);
+
+  @ApiOperation(value = "Search beers by name or brand, tolerating typos and accents")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Beers ranked by similarity"),
+      @ApiResponse(responseCode = "400", description = "Missing query")
+  })
+  List<BeerDto> search(String query, int limit);
+
+  @ApiOperation(value = "Search beers by name or brand, returning only the given fields")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Beers ranked by similarity"),
+      @ApiResponse(responseCode = "400", description = "Missing query or unknown field")
+  })
+  List<SparseBeerDto> search(String query, int limit, BeerFields fields);
+
+  @ApiOperation(value = "Suggest beer names starting with the given prefix, most stocked first")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Beer names completing the prefix"),
+      @ApiResponse(responseCode = "400", description = "Missing prefix")
+  })
+  List<SuggestionDto> suggest(String prefix, int limit);
+
+  @ApiOperation(value = "Beers closest to running out, by quantity over max")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200",
+          description = "Beers filled up to the threshold, emptiest first")
+  })
+  List<BeerDto> lowStock(int limit, double threshold);
+
   @ApiOperation(value = "Return a beer by the given id")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Beer found"),
@@ -29,6 +70,14 @@ public interface BeerControllerApi {
   })
   BeerDto findById(@PathVariable Long id) throws BeerNotFoundException;
 
+  @ApiOperation(value = "Return the given fields of a beer by its id")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Beer found"),
+      @ApiResponse(responseCode = "400", description = "Unknown field"),
+      @ApiResponse(responseCode = "404", description = "Beer with given id not found")
+  })
+  SparseBeerDto findById(@PathVariable Long id, BeerFields fields) throws BeerNotFoundException;
+
   @ApiOperation(value = "Return a beer by the given name")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Beer found"),
@@ -36,6 +85,15 @@ public interface BeerControllerApi {
   })
   BeerDto findByName(@PathVariable String name) throws BeerNotFoundException;
 
+  @ApiOperation(value = "Return the given fields of a beer by its name")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Beer found"),
+      @ApiResponse(responseCode = "400", description = "Unknown field"),
+      @ApiResponse(responseCode = "404", description = "Beer with given name not found")
+  })
+  SparseBeerDto findByName(@PathVariable String name, BeerFields fields)
+      throws BeerNotFoundException;
+
   @ApiOperation(value = "Beer creation operation")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "201", description = "Beer created"),
@@ -57,6 +115,20 @@ public interface BeerControllerApi {
   })
   void deleteByName(@PathVariable String name);
 
+  @ApiOperation(value = "Delete the beers with the given ids")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Number of beers deleted")
+  })
+  BulkDeleteDto deleteByIds(List<Long> ids);
+
+  @ApiOperation(value = "Delete the beers of a brand, of a type or out of stock")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Number of beers deleted"),
+      @ApiResponse(responseCode = "400", description = "No criteria given")
+  })
+  BulkDeleteDto deleteMatching(String brand, BeerType type, boolean outOfStock)
+      throws MissingDeleteCriteriaException;
+
   @ApiOperation(value = "Update a beer")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Beer updated"),
@@ -0,0 +1,27 @@
+package io.github.adgross.beerstock.controller;
+
+import io.github.adgross.beerstock.dto.BeerChangesDto;
+import io.github.adgross.beerstock.exception.ChangesCompactedException;
+import io.github.adgross.beerstock.services.ChangeFeedService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/beers")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+@Profile("!embedded")
+public class ChangeFeedController implements ChangeFeedControllerApi {
+
+  private final ChangeFeedService changeFeedService;
+
+  @GetMapping("/changes")
+  public BeerChangesDto changes(@RequestParam(defaultValue = "0") long since,
+      @RequestParam(defaultValue = "500") int limit) throws ChangesCompactedException {
+    return changeFeedService.changes(since, limit);
+  }
+}
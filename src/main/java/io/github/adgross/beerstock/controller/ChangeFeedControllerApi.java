@@ -0,0 +1,21 @@
+package io.github.adgross.beerstock.controller;
+
+import io.github.adgross.beerstock.dto.BeerChangesDto;
+import io.github.adgross.beerstock.exception.ChangesCompactedException;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+@Api("Streams beer changes to clients keeping a copy of the catalog")
+public interface ChangeFeedControllerApi {
+
+  @ApiOperation(value = "Beers changed or deleted after the given sequence, oldest first")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200",
+          description = "A page of changes and the sequence to continue from"),
+      @ApiResponse(responseCode = "410",
+          description = "Changes after the sequence were compacted, sync again from 0")
+  })
+  BeerChangesDto changes(long since, int limit) throws ChangesCompactedException;
+}
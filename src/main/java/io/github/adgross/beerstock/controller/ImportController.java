@@ -0,0 +1,60 @@
+package io.github.adgross.beerstock.controller;
+
+import io.github.adgross.beerstock.dto.ImportJobDto;
+import io.github.adgross.beerstock.exception.ImportJobNotFoundException;
+import io.github.adgross.beerstock.exception.ImportRejectedException;
+import io.github.adgross.beerstock.exception.ImportTooLargeException;
+import io.github.adgross.beerstock.services.BeerImportService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+@RestController
+@RequestMapping("/api/v1/beers/import")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ImportController implements ImportControllerApi {
+
+  private static final String TEXT_CSV = "text/csv";
+
+  private final BeerImportService importService;
+
+  @PostMapping(consumes = TEXT_CSV)
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  public ImportJobDto importCsv(InputStream csv)
+      throws IOException, ImportRejectedException, ImportTooLargeException {
+    return importService.submit(csv);
+  }
+
+  @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  public ImportJobDto importFile(@RequestParam MultipartFile file)
+      throws IOException, ImportRejectedException, ImportTooLargeException {
+    try (var csv = file.getInputStream()) {
+      return importService.submit(csv);
+    }
+  }
+
+  @GetMapping("/{jobId}")
+  public ImportJobDto findImport(@PathVariable UUID jobId) throws ImportJobNotFoundException {
+    return importService.find(jobId);
+  }
+
+  @GetMapping(value = "/{jobId}/errors", produces = TEXT_CSV)
+  public Resource errorReport(@PathVariable UUID jobId) throws ImportJobNotFoundException {
+    return new FileSystemResource(importService.errorReport(jobId));
+  }
+}
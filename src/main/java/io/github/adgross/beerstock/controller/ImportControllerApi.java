@@ -0,0 +1,53 @@
+package io.github.adgross.beerstock.controller;
+
+import io.github.adgross.beerstock.dto.ImportJobDto;
+import io.github.adgross.beerstock.exception.ImportJobNotFoundException;
+import io.github.adgross.beerstock.exception.ImportRejectedException;
+import io.github.adgross.beerstock.exception.ImportTooLargeException;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+import org.springframework.core.io.Resource;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.multipart.MultipartFile;
+
+@Api("Imports beer catalogs from CSV")
+public interface ImportControllerApi {
+
+  @ApiOperation(value = "Import the beers of a CSV body with a name, brand, max, quantity and"
+      + " type header")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "202", description = "Import queued"),
+      @ApiResponse(responseCode = "413", description = "File larger than the import limit"),
+      @ApiResponse(responseCode = "429", description = "Too many imports waiting")
+  })
+  ImportJobDto importCsv(InputStream csv)
+      throws IOException, ImportRejectedException, ImportTooLargeException;
+
+  @ApiOperation(value = "Import the beers of an uploaded CSV file")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "202", description = "Import queued"),
+      @ApiResponse(responseCode = "413", description = "File larger than the import limit"),
+      @ApiResponse(responseCode = "429", description = "Too many imports waiting")
+  })
+  ImportJobDto importFile(MultipartFile file)
+      throws IOException, ImportRejectedException, ImportTooLargeException;
+
+  @ApiOperation(value = "Return the progress of an import")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Import found"),
+      @ApiResponse(responseCode = "404", description = "Import not found or expired")
+  })
+  ImportJobDto findImport(@PathVariable UUID jobId) throws ImportJobNotFoundException;
+
+  @ApiOperation(value = "Return the rejected rows of an import as CSV")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Line, field and message of each error"),
+      @ApiResponse(responseCode = "404", description = "Import not found or expired")
+  })
+  Resource errorReport(@PathVariable UUID jobId) throws ImportJobNotFoundException;
+}
@@ -0,0 +1,60 @@
+package io.github.adgross.beerstock.controller;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.ReservationDto;
+import io.github.adgross.beerstock.dto.ReservationRequestDto;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.BeerStockNotAvailableException;
+import io.github.adgross.beerstock.exception.ReservationNotFoundException;
+import io.github.adgross.beerstock.services.StockReservationService;
+import java.time.Duration;
+import java.util.UUID;
+import javax.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/beers")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ReservationController implements ReservationControllerApi {
+
+  private final StockReservationService reservationService;
+
+  @PostMapping("/{id}/reservations")
+  @ResponseStatus(HttpStatus.CREATED)
+  public ReservationDto reserve(@PathVariable Long id,
+      @RequestBody @Valid ReservationRequestDto reservation)
+      throws BeerNotFoundException, BeerStockNotAvailableException {
+    Duration ttl = reservation.getTtlSeconds() == null
+        ? null : Duration.ofSeconds(reservation.getTtlSeconds());
+    return reservationService.reserve(id, reservation.getQuantity(), ttl);
+  }
+
+  @GetMapping("/reservations/{reservationId}")
+  public ReservationDto findReservation(@PathVariable UUID reservationId)
+      throws ReservationNotFoundException {
+    return reservationService.find(reservationId);
+  }
+
+  @PostMapping("/reservations/{reservationId}/commit")
+  public BeerDto commit(@PathVariable UUID reservationId) throws ReservationNotFoundException,
+      BeerNotFoundException, BeerStockNonExistentQuantityException {
+    return reservationService.commit(reservationId);
+  }
+
+  @DeleteMapping("/reservations/{reservationId}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void release(@PathVariable UUID reservationId) throws ReservationNotFoundException {
+    reservationService.release(reservationId);
+  }
+}
@@ -0,0 +1,53 @@
+package io.github.adgross.beerstock.controller;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.ReservationDto;
+import io.github.adgross.beerstock.dto.ReservationRequestDto;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.BeerStockNotAvailableException;
+import io.github.adgross.beerstock.exception.ReservationNotFoundException;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.UUID;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@Api("Manages beer stock reservations")
+public interface ReservationControllerApi {
+
+  @ApiOperation(value = "Hold beer stock until the reservation is committed or released")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "201", description = "Reservation created"),
+      @ApiResponse(responseCode = "400",
+          description = "Invalid quantity or not enough available stock"),
+      @ApiResponse(responseCode = "404", description = "Beer with given id not found")
+  })
+  ReservationDto reserve(@PathVariable Long id, ReservationRequestDto reservation)
+      throws BeerNotFoundException, BeerStockNotAvailableException;
+
+  @ApiOperation(value = "Return a reservation by the given id")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Reservation found"),
+      @ApiResponse(responseCode = "404", description = "Reservation not found or expired")
+  })
+  ReservationDto findReservation(@PathVariable UUID reservationId)
+      throws ReservationNotFoundException;
+
+  @ApiOperation(value = "Remove the reserved quantity from the beer stock")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Reservation committed"),
+      @ApiResponse(responseCode = "400", description = "Reserved quantity no longer in stock"),
+      @ApiResponse(responseCode = "404", description = "Reservation or beer not found")
+  })
+  BeerDto commit(@PathVariable UUID reservationId) throws ReservationNotFoundException,
+      BeerNotFoundException, BeerStockNonExistentQuantityException;
+
+  @ApiOperation(value = "Release the reserved quantity")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "204", description = "Reservation released"),
+      @ApiResponse(responseCode = "404", description = "Reservation not found or expired")
+  })
+  void release(@PathVariable UUID reservationId) throws ReservationNotFoundException;
+}
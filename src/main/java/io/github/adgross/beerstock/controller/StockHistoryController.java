@@ -0,0 +1,42 @@
+package io.github.adgross.beerstock.controller;
+
+import io.github.adgross.beerstock.dto.StockBucketDto;
+import io.github.adgross.beerstock.enums.StockResolution;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.github.adgross.beerstock.services.StockHistoryService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/beers")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+@Profile("!embedded")
+public class StockHistoryController implements StockHistoryControllerApi {
+
+  private static final Duration DEFAULT_RANGE = Duration.ofDays(7);
+
+  private final StockHistoryService historyService;
+
+  @GetMapping("/{id}/history")
+  public List<StockBucketDto> history(@PathVariable Long id,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          Instant from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          Instant to,
+      @RequestParam(defaultValue = "DAILY") StockResolution resolution)
+      throws BeerNotFoundException {
+    Instant end = to == null ? Instant.now() : to;
+    Instant start = from == null ? end.minus(DEFAULT_RANGE) : from;
+    return historyService.history(id, start, end, resolution);
+  }
+}
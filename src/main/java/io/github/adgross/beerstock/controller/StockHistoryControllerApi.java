@@ -0,0 +1,25 @@
+package io.github.adgross.beerstock.controller;
+
+import io.github.adgross.beerstock.dto.StockBucketDto;
+import io.github.adgross.beerstock.enums.StockResolution;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@Api("Reports beer stock history")
+public interface StockHistoryControllerApi {
+
+  @ApiOperation(value = "Stock movements of a beer summed per hour or per day")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Buckets in the range, oldest first"),
+      @ApiResponse(responseCode = "400", description = "Invalid range or resolution"),
+      @ApiResponse(responseCode = "404", description = "Beer with given id not found")
+  })
+  List<StockBucketDto> history(@PathVariable Long id, Instant from, Instant to,
+      StockResolution resolution) throws BeerNotFoundException;
+}
@@ -0,0 +1,106 @@
+package io.github.adgross.beerstock.controller;
+
+import io.github.adgross.beerstock.dto.BeerStockDto;
+import io.github.adgross.beerstock.dto.QuantityDto;
+import io.github.adgross.beerstock.dto.StockTransferDto;
+import io.github.adgross.beerstock.dto.StockTransferRequestDto;
+import io.github.adgross.beerstock.dto.WarehouseDto;
+import io.github.adgross.beerstock.dto.WarehouseStockDto;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.github.adgross.beerstock.exception.BeerStockExceededException;
+import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.InvalidTransferException;
+import io.github.adgross.beerstock.exception.WarehouseAlreadyRegisteredException;
+import io.github.adgross.beerstock.exception.WarehouseNotFoundException;
+import io.github.adgross.beerstock.exception.WarehouseStockNotFoundException;
+import io.github.adgross.beerstock.services.WarehouseService;
+import io.github.adgross.beerstock.validation.QuantityDtoValidator;
+import java.util.List;
+import javax.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/warehouses")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+@Profile("!embedded")
+public class WarehouseController implements WarehouseControllerApi {
+
+  private final WarehouseService warehouseService;
+  private final QuantityDtoValidator quantityDtoValidator = new QuantityDtoValidator();
+
+  @InitBinder("quantityDto")
+  void initQuantityDtoBinder(WebDataBinder binder) {
+    binder.setValidator(quantityDtoValidator);
+  }
+
+  @GetMapping
+  public List<WarehouseDto> listAll() {
+    return warehouseService.listAll();
+  }
+
+  @GetMapping("/{warehouseId}")
+  public WarehouseDto findById(@PathVariable Long warehouseId) throws WarehouseNotFoundException {
+    return warehouseService.find(warehouseId);
+  }
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public WarehouseDto create(@RequestBody @Valid WarehouseDto warehouseDto)
+      throws WarehouseAlreadyRegisteredException {
+    return warehouseService.create(warehouseDto);
+  }
+
+  @PostMapping("/transfers")
+  public StockTransferDto transfer(@RequestBody @Valid StockTransferRequestDto transfer)
+      throws InvalidTransferException, WarehouseStockNotFoundException,
+      BeerStockNonExistentQuantityException, BeerStockExceededException {
+    return warehouseService.transfer(transfer.getFromWarehouseId(), transfer.getFromBeerId(),
+        transfer.getToWarehouseId(), transfer.getToBeerId(), transfer.getQuantity());
+  }
+
+  @GetMapping("/beers/{beerId}")
+  public BeerStockDto findBeerStock(@PathVariable Long beerId) throws BeerNotFoundException {
+    return warehouseService.findStock(beerId);
+  }
+
+  @GetMapping("/{warehouseId}/beers/{beerId}")
+  public WarehouseStockDto findStock(@PathVariable Long warehouseId, @PathVariable Long beerId)
+      throws WarehouseStockNotFoundException {
+    return warehouseService.findStock(warehouseId, beerId);
+  }
+
+  @PutMapping("/{warehouseId}/beers/{beerId}")
+  public WarehouseStockDto setStock(@PathVariable Long warehouseId, @PathVariable Long beerId,
+      @RequestBody @Valid WarehouseStockDto stock)
+      throws WarehouseNotFoundException, BeerNotFoundException, BeerStockExceededException {
+    return warehouseService.setStock(warehouseId, beerId, stock.getMax(), stock.getQuantity());
+  }
+
+  @PatchMapping("/{warehouseId}/beers/{beerId}/increment")
+  public WarehouseStockDto increment(@PathVariable Long warehouseId, @PathVariable Long beerId,
+      @RequestBody @Valid QuantityDto quantity)
+      throws WarehouseStockNotFoundException, BeerStockExceededException {
+    return warehouseService.increment(warehouseId, beerId, quantity.getQuantity());
+  }
+
+  @PatchMapping("/{warehouseId}/beers/{beerId}/decrement")
+  public WarehouseStockDto decrement(@PathVariable Long warehouseId, @PathVariable Long beerId,
+      @RequestBody @Valid QuantityDto quantity)
+      throws WarehouseStockNotFoundException, BeerStockNonExistentQuantityException {
+    return warehouseService.decrement(warehouseId, beerId, quantity.getQuantity());
+  }
+}
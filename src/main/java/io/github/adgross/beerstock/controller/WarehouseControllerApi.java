@@ -0,0 +1,103 @@
+package io.github.adgross.beerstock.controller;
+
+import io.github.adgross.beerstock.dto.BeerStockDto;
+import io.github.adgross.beerstock.dto.QuantityDto;
+import io.github.adgross.beerstock.dto.StockTransferDto;
+import io.github.adgross.beerstock.dto.StockTransferRequestDto;
+import io.github.adgross.beerstock.dto.WarehouseDto;
+import io.github.adgross.beerstock.dto.WarehouseStockDto;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.github.adgross.beerstock.exception.BeerStockExceededException;
+import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.InvalidTransferException;
+import io.github.adgross.beerstock.exception.WarehouseAlreadyRegisteredException;
+import io.github.adgross.beerstock.exception.WarehouseNotFoundException;
+import io.github.adgross.beerstock.exception.WarehouseStockNotFoundException;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.List;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@Api("Manages beer stock per warehouse")
+public interface WarehouseControllerApi {
+
+  @ApiOperation(value = "List all warehouses with the total stock of each")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "List of all registered warehouses"),
+  })
+  List<WarehouseDto> listAll();
+
+  @ApiOperation(value = "Return a warehouse by the given id")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Warehouse found"),
+      @ApiResponse(responseCode = "404", description = "Warehouse with given id not found")
+  })
+  WarehouseDto findById(@PathVariable Long warehouseId) throws WarehouseNotFoundException;
+
+  @ApiOperation(value = "Warehouse creation operation")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "201", description = "Warehouse created"),
+      @ApiResponse(responseCode = "400", description = "Missing name or name already exist")
+  })
+  WarehouseDto create(WarehouseDto warehouseDto) throws WarehouseAlreadyRegisteredException;
+
+  @ApiOperation(value = "Move stock from one beer or warehouse to another in one transaction")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Stock moved"),
+      @ApiResponse(responseCode = "400", description = "Missing fields, same source and"
+          + " target, not enough stock in the source or target max exceeded"),
+      @ApiResponse(responseCode = "404", description = "Source or target stock not found")
+  })
+  StockTransferDto transfer(StockTransferRequestDto transfer) throws InvalidTransferException,
+      WarehouseStockNotFoundException, BeerStockNonExistentQuantityException,
+      BeerStockExceededException;
+
+  @ApiOperation(value = "Return the stock of a beer in every warehouse and its total")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Stock per warehouse"),
+      @ApiResponse(responseCode = "404", description = "Beer with given id not found")
+  })
+  BeerStockDto findBeerStock(@PathVariable Long beerId) throws BeerNotFoundException;
+
+  @ApiOperation(value = "Return the stock of a beer in a warehouse")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Stock found"),
+      @ApiResponse(responseCode = "404", description = "Beer not stocked in the warehouse")
+  })
+  WarehouseStockDto findStock(@PathVariable Long warehouseId, @PathVariable Long beerId)
+      throws WarehouseStockNotFoundException;
+
+  @ApiOperation(value = "Set the max and the quantity of a beer in a warehouse")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Stock set"),
+      @ApiResponse(responseCode = "400",
+          description = "Missing required fields or quantity above the max"),
+      @ApiResponse(responseCode = "404", description = "Warehouse or beer not found")
+  })
+  WarehouseStockDto setStock(@PathVariable Long warehouseId, @PathVariable Long beerId,
+      WarehouseStockDto stock)
+      throws WarehouseNotFoundException, BeerNotFoundException, BeerStockExceededException;
+
+  @ApiOperation(value = "Increment the beer quantity in a warehouse")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Beer quantity incremented"),
+      @ApiResponse(responseCode = "400",
+          description = "Increment value lead to invalid quantity"),
+      @ApiResponse(responseCode = "404", description = "Beer not stocked in the warehouse")
+  })
+  WarehouseStockDto increment(@PathVariable Long warehouseId, @PathVariable Long beerId,
+      QuantityDto quantity) throws WarehouseStockNotFoundException, BeerStockExceededException;
+
+  @ApiOperation(value = "Decrement the beer quantity in a warehouse")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Beer quantity decremented"),
+      @ApiResponse(responseCode = "400",
+          description = "Decrement value lead to invalid quantity"),
+      @ApiResponse(responseCode = "404", description = "Beer not stocked in the warehouse")
+  })
+  WarehouseStockDto decrement(@PathVariable Long warehouseId, @PathVariable Long beerId,
+      QuantityDto quantity)
+      throws WarehouseStockNotFoundException, BeerStockNonExistentQuantityException;
+}
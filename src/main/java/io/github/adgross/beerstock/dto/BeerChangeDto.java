@@ -0,0 +1,37 @@
+package io.github.adgross.beerstock.dto;
+
+import io.github.adgross.beerstock.enums.BeerType;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A beer as of its latest change. Only {@code seq}, {@code id} and
+ * {@code changedAt} are set when {@code deleted} is true.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerChangeDto {
+
+  private long seq;
+
+  private Long id;
+
+  private boolean deleted;
+
+  private String name;
+
+  private String brand;
+
+  private Integer max;
+
+  private Integer quantity;
+
+  private BeerType type;
+
+  private Instant changedAt;
+}
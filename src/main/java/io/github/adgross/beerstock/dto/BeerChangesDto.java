@@ -0,0 +1,22 @@
+package io.github.adgross.beerstock.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerChangesDto {
+
+  private List<BeerChangeDto> changes;
+
+  private long next;
+
+  private boolean more;
+
+  private long horizon;
+}
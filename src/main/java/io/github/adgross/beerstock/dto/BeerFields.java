@@ -0,0 +1,109 @@
+package io.github.adgross.beerstock.dto;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import io.github.adgross.beerstock.enums.BeerField;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * A set of beer fields asked for with {@code ?fields=}, kept in declaration
+ * order whatever the order they were asked in.
+ *
+ * <p>There is one instance per distinct set, built up front with its JPQL
+ * select list and its serialized names, so a request only parses the parameter.
+ */
+public final class BeerFields {
+
+  private static final BeerField[] ALL = BeerField.values();
+  private static final BeerFields[] BY_MASK = new BeerFields[1 << ALL.length];
+
+  static {
+    for (int mask = 1; mask < BY_MASK.length; mask++) {
+      BY_MASK[mask] = new BeerFields(mask);
+    }
+  }
+
+  private final BeerField[] fields;
+  private final SerializedString[] names;
+  private final String select;
+
+  private BeerFields(int mask) {
+    this.fields = Arrays.stream(ALL)
+        .filter(field -> (mask & 1 << field.ordinal()) != 0)
+        .toArray(BeerField[]::new);
+    this.names = Arrays.stream(fields)
+        .map(field -> new SerializedString(field.getProperty()))
+        .toArray(SerializedString[]::new);
+    this.select = Arrays.stream(fields)
+        .map(field -> "b." + field.getProperty())
+        .collect(Collectors.joining(", "));
+  }
+
+  /**
+   * Parses a comma separated list of field names, as used by Spring to convert
+   * the request parameter.
+   *
+   * @throws IllegalArgumentException when no field or an unknown field is given
+   */
+  public static BeerFields valueOf(String value) {
+    int mask = 0;
+    for (String name : value.split(",")) {
+      String property = name.trim();
+      if (!property.isEmpty()) {
+        mask |= 1 << Arrays.stream(ALL)
+            .filter(field -> field.getProperty().equals(property))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown beer field " + property))
+            .ordinal();
+      }
+    }
+    return forMask(mask);
+  }
+
+  public static BeerFields of(BeerField... fields) {
+    int mask = 0;
+    for (BeerField field : fields) {
+      mask |= 1 << field.ordinal();
+    }
+    return forMask(mask);
+  }
+
+  private static BeerFields forMask(int mask) {
+    if (mask == 0) {
+      throw new IllegalArgumentException("No beer field given");
+    }
+    return BY_MASK[mask];
+  }
+
+  public int size() {
+    return fields.length;
+  }
+
+  public BeerField get(int index) {
+    return fields[index];
+  }
+
+  SerializedString name(int index) {
+    return names[index];
+  }
+
+  /**
+   * Returns the JPQL select list of the fields, for a beer aliased {@code b}.
+   */
+  public String getSelect() {
+    return select;
+  }
+
+  public Object[] values(BeerDto beer) {
+    Object[] values = new Object[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      values[i] = fields[i].getGetter().apply(beer);
+    }
+    return values;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.stream(fields).map(BeerField::getProperty).collect(Collectors.joining(","));
+  }
+}
@@ -0,0 +1,20 @@
+package io.github.adgross.beerstock.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerStockDto {
+
+  private Long beerId;
+
+  private long total;
+
+  private List<WarehouseStockDto> warehouses;
+}
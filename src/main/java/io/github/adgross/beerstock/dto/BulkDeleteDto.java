@@ -0,0 +1,13 @@
+package io.github.adgross.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteDto {
+
+  private int deleted;
+}
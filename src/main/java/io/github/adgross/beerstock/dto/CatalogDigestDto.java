@@ -0,0 +1,21 @@
+package io.github.adgross.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cheap aggregates of the catalog, used to tell whether a copy of it is still
+ * current.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogDigestDto {
+
+  private long count;
+
+  private long quantity;
+
+  private long lastId;
+}
@@ -0,0 +1,38 @@
+package io.github.adgross.beerstock.dto;
+
+import io.github.adgross.beerstock.enums.ImportStatus;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobDto {
+
+  private UUID id;
+
+  private ImportStatus status;
+
+  private double progress;
+
+  private long rowsRead;
+
+  private long imported;
+
+  private long rejected;
+
+  private long rowsPerSecond;
+
+  private Instant submittedAt;
+
+  private Instant startedAt;
+
+  private Instant finishedAt;
+
+  private String error;
+}
@@ -0,0 +1,25 @@
+package io.github.adgross.beerstock.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationDto {
+
+  private UUID id;
+
+  private Long beerId;
+
+  private int quantity;
+
+  private Instant expiresAt;
+
+  private int available;
+}
@@ -0,0 +1,21 @@
+package io.github.adgross.beerstock.dto;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequestDto {
+  @NotNull
+  @Positive
+  private Integer quantity;
+
+  @Positive
+  private Long ttlSeconds;
+}
@@ -0,0 +1,62 @@
+package io.github.adgross.beerstock.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * The requested fields of a beer, serialized as an object holding only them.
+ */
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+@JsonSerialize(using = SparseBeerDto.Serializer.class)
+public class SparseBeerDto {
+
+  private final BeerFields fields;
+  private final Object[] values;
+
+  public static SparseBeerDto of(BeerFields fields, BeerDto beer) {
+    return new SparseBeerDto(fields, fields.values(beer));
+  }
+
+  public Object get(int index) {
+    return values[index];
+  }
+
+  static class Serializer extends StdSerializer<SparseBeerDto> {
+
+    Serializer() {
+      super(SparseBeerDto.class);
+    }
+
+    // writes the values by their type, the names were serialized with the set
+    @Override
+    public void serialize(SparseBeerDto beer, JsonGenerator generator,
+        SerializerProvider provider) throws IOException {
+      BeerFields fields = beer.getFields();
+      generator.writeStartObject(beer);
+      for (int i = 0; i < fields.size(); i++) {
+        generator.writeFieldName(fields.name(i));
+        Object value = beer.get(i);
+        if (value == null) {
+          generator.writeNull();
+        } else if (value instanceof Long) {
+          generator.writeNumber((Long) value);
+        } else if (value instanceof Integer) {
+          generator.writeNumber((Integer) value);
+        } else if (value instanceof Enum) {
+          generator.writeString(((Enum<?>) value).name());
+        } else {
+          generator.writeString(value.toString());
+        }
+      }
+      generator.writeEndObject();
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package io.github.adgross.beerstock.dto;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBucketDto {
+
+  private Instant start;
+
+  private int increments;
+
+  private int decrements;
+
+  private int movements;
+
+  private int closingQuantity;
+}
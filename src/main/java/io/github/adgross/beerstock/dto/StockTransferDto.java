@@ -0,0 +1,17 @@
+package io.github.adgross.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTransferDto {
+
+  private WarehouseStockDto from;
+
+  private WarehouseStockDto to;
+}
@@ -0,0 +1,30 @@
+package io.github.adgross.beerstock.dto;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTransferRequestDto {
+  @NotNull
+  private Long fromWarehouseId;
+
+  @NotNull
+  private Long fromBeerId;
+
+  @NotNull
+  private Long toWarehouseId;
+
+  @NotNull
+  private Long toBeerId;
+
+  @NotNull
+  @Positive
+  private Integer quantity;
+}
@@ -0,0 +1,19 @@
+package io.github.adgross.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDto {
+
+  private Long id;
+
+  private String name;
+
+  private int quantity;
+}
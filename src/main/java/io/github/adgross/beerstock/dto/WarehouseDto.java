@@ -0,0 +1,23 @@
+package io.github.adgross.beerstock.dto;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseDto {
+
+  private Long id;
+
+  @NotBlank
+  @Size(min = 1, max = 200)
+  private String name;
+
+  private long quantity;
+}
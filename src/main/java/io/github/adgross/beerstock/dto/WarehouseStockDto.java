@@ -0,0 +1,30 @@
+package io.github.adgross.beerstock.dto;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseStockDto {
+
+  private Long warehouseId;
+
+  private Long beerId;
+
+  @NotNull
+  @Positive
+  @Max(500)
+  private Integer max;
+
+  @NotNull
+  @PositiveOrZero
+  private Integer quantity;
+}
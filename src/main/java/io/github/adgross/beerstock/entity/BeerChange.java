@@ -0,0 +1,51 @@
+package io.github.adgross.beerstock.entity;
+
+import io.github.adgross.beerstock.enums.BeerType;
+import java.time.Instant;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The latest change of a beer, stamped with its position in the change feed.
+ *
+ * <p>Each change replaces the previous one of the same beer, so the table holds
+ * one row per beer. Deleted beers are kept as tombstones, without their fields,
+ * until they are compacted away.
+ */
+@Data
+@Builder
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerChange {
+
+  @Id
+  private Long beerId;
+
+  @Column(nullable = false, unique = true)
+  private long seq;
+
+  @Column(nullable = false)
+  private boolean deleted;
+
+  private String name;
+
+  private String brand;
+
+  private Integer max;
+
+  private Integer quantity;
+
+  @Enumerated(EnumType.STRING)
+  private BeerType type;
+
+  @Column(nullable = false)
+  private Instant changedAt;
+}
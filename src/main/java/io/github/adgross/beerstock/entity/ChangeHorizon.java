@@ -0,0 +1,24 @@
+package io.github.adgross.beerstock.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single row holding the highest change sequence that is no longer in the feed.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeHorizon {
+
+  @Id
+  private Integer id;
+
+  @Column(nullable = false)
+  private long seq;
+}
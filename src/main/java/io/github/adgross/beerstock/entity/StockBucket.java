@@ -0,0 +1,56 @@
+package io.github.adgross.beerstock.entity;
+
+import io.github.adgross.beerstock.enums.StockResolution;
+import java.time.Instant;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock movements of a beer summed over an hour or a day.
+ */
+@Data
+@Builder
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+    columnNames = {"beerId", "resolution", "bucketStart"}))
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBucket {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long beerId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private StockResolution resolution;
+
+  @Column(nullable = false)
+  private Instant bucketStart;
+
+  @Column(nullable = false)
+  private int increments;
+
+  @Column(nullable = false)
+  private int decrements;
+
+  @Column(nullable = false)
+  private int movements;
+
+  @Column(nullable = false)
+  private int closingQuantity;
+}
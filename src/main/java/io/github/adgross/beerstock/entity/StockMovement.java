@@ -0,0 +1,42 @@
+package io.github.adgross.beerstock.entity;
+
+import java.time.Instant;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single stock change, kept until it is rolled up into an hourly bucket.
+ */
+@Data
+@Builder
+@Entity
+@Table(indexes = @Index(columnList = "occurredAt"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovement {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long beerId;
+
+  @Column(nullable = false)
+  private int delta;
+
+  @Column(nullable = false)
+  private int quantity;
+
+  @Column(nullable = false)
+  private Instant occurredAt;
+}
@@ -0,0 +1,49 @@
+package io.github.adgross.beerstock.entity;
+
+import io.github.adgross.beerstock.enums.StockTotalScope;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One slot of the stock total of a warehouse or of a beer across warehouses.
+ *
+ * <p>A total is the sum of its slots. Each stock change adds to a single slot,
+ * picked by the other side of the stock row, so changes of different beers in a
+ * warehouse, or of a beer in different warehouses, rarely share a row.
+ */
+@Data
+@Builder
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"scope", "ownerId", "slot"}))
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTotal {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private StockTotalScope scope;
+
+  @Column(nullable = false)
+  private Long ownerId;
+
+  @Column(nullable = false)
+  private int slot;
+
+  @Column(nullable = false)
+  private long quantity;
+}
@@ -0,0 +1,47 @@
+package io.github.adgross.beerstock.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The stock of a beer in one warehouse.
+ *
+ * <p>Rows are looked up by warehouse first, so the changes of a site only touch
+ * its own range of the unique index. The index on the beer serves the totals of
+ * a beer across warehouses.
+ */
+@Data
+@Builder
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"warehouseId", "beerId"}),
+    indexes = @Index(columnList = "beerId"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseStock {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long warehouseId;
+
+  @Column(nullable = false)
+  private Long beerId;
+
+  @Column(nullable = false)
+  private int max;
+
+  @Column(nullable = false)
+  private int quantity;
+}
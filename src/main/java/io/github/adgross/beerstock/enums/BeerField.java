@@ -0,0 +1,21 @@
+package io.github.adgross.beerstock.enums;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import java.util.function.Function;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BeerField {
+
+  ID("id", BeerDto::getId),
+  NAME("name", BeerDto::getName),
+  BRAND("brand", BeerDto::getBrand),
+  MAX("max", BeerDto::getMax),
+  QUANTITY("quantity", BeerDto::getQuantity),
+  TYPE("type", BeerDto::getType);
+
+  private final String property;
+  private final Function<BeerDto, Object> getter;
+}
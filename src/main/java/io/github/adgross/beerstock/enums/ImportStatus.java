@@ -0,0 +1,9 @@
+package io.github.adgross.beerstock.enums;
+
+public enum ImportStatus {
+
+  QUEUED,
+  RUNNING,
+  COMPLETED,
+  FAILED
+}
@@ -0,0 +1,15 @@
+package io.github.adgross.beerstock.enums;
+
+import java.time.temporal.ChronoUnit;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockResolution {
+
+  HOURLY(ChronoUnit.HOURS),
+  DAILY(ChronoUnit.DAYS);
+
+  private final ChronoUnit unit;
+}
@@ -0,0 +1,11 @@
+package io.github.adgross.beerstock.enums;
+
+/**
+ * What a {@link io.github.adgross.beerstock.entity.StockTotal} counts the stock
+ * of, listed in the order their rows are locked.
+ */
+public enum StockTotalScope {
+
+  WAREHOUSE,
+  BEER
+}
@@ -0,0 +1,5 @@
+package io.github.adgross.beerstock.enums;
+
+public enum TraceExporter {
+  MEMORY, FILE
+}
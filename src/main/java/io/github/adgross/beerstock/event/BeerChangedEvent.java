@@ -0,0 +1,43 @@
+package io.github.adgross.beerstock.event;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by the services after a beer has been created, updated or deleted.
+ *
+ * <p>{@code previous} is {@code null} for creations and {@code current} is
+ * {@code null} for deletions.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class BeerChangedEvent {
+
+  private final Type type;
+  private final BeerDto previous;
+  private final BeerDto current;
+
+  public static BeerChangedEvent created(BeerDto current) {
+    return new BeerChangedEvent(Type.CREATED, null, current);
+  }
+
+  public static BeerChangedEvent updated(BeerDto previous, BeerDto current) {
+    return new BeerChangedEvent(Type.UPDATED, previous, current);
+  }
+
+  public static BeerChangedEvent deleted(BeerDto previous) {
+    return new BeerChangedEvent(Type.DELETED, previous, null);
+  }
+
+  public Long getBeerId() {
+    return current != null ? current.getId() : previous.getId();
+  }
+
+  public enum Type {
+    CREATED, UPDATED, DELETED
+  }
+}
@@ -0,0 +1,13 @@
+package io.github.adgross.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BeerStockNotAvailableException extends Exception {
+
+  public BeerStockNotAvailableException(Long id, int quantityToReserve, int available) {
+    super(String.format("Reserving %s beers from Beer ID(%s) exceed its available quantity(%s)",
+        quantityToReserve, id, available));
+  }
+}
@@ -0,0 +1,13 @@
+package io.github.adgross.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class ChangesCompactedException extends Exception {
+
+  public ChangesCompactedException(long since, long horizon) {
+    super(String.format("Changes after %s cannot be replayed (horizon %s),"
+        + " sync again from 0.", since, horizon));
+  }
+}
@@ -0,0 +1,13 @@
+package io.github.adgross.beerstock.exception;
+
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ImportJobNotFoundException extends Exception {
+
+  public ImportJobNotFoundException(UUID id) {
+    super(String.format("Import with id %s not found or expired.", id));
+  }
+}
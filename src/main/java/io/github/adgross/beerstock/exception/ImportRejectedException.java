@@ -0,0 +1,12 @@
+package io.github.adgross.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class ImportRejectedException extends Exception {
+
+  public ImportRejectedException(int pending) {
+    super(String.format("%s imports are already waiting, retry later.", pending));
+  }
+}
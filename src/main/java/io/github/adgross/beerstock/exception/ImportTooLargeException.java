@@ -0,0 +1,14 @@
+package io.github.adgross.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class ImportTooLargeException extends Exception {
+
+  public ImportTooLargeException(DataSize maxFileSize) {
+    super(String.format("The file is larger than %s, split it into smaller imports.",
+        maxFileSize));
+  }
+}
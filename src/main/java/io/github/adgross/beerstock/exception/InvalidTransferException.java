@@ -0,0 +1,13 @@
+package io.github.adgross.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidTransferException extends Exception {
+
+  public InvalidTransferException(Long warehouseId, Long beerId) {
+    super(String.format("Cannot transfer Beer ID(%s) in warehouse %s to itself.",
+        beerId, warehouseId));
+  }
+}
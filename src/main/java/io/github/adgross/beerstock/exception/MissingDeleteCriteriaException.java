@@ -0,0 +1,12 @@
+package io.github.adgross.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class MissingDeleteCriteriaException extends Exception {
+
+  public MissingDeleteCriteriaException() {
+    super("Give ids, brand, type or outOfStock=true to select the beers to delete.");
+  }
+}
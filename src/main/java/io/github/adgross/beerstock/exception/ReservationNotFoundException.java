@@ -0,0 +1,13 @@
+package io.github.adgross.beerstock.exception;
+
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ReservationNotFoundException extends Exception {
+
+  public ReservationNotFoundException(UUID id) {
+    super(String.format("Reservation with id %s not found or expired.", id));
+  }
+}
@@ -0,0 +1,18 @@
+package io.github.adgross.beerstock.exception;
+
+import java.time.Duration;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class StockMutationTimeoutException extends RuntimeException {
+
+  public StockMutationTimeoutException(Long id, Duration timeout) {
+    super(String.format("The stock change of beer %s was not started within %s"
+        + " and was dropped, it can be retried.", id, timeout));
+  }
+
+  public StockMutationTimeoutException(String reason) {
+    super(reason);
+  }
+}
@@ -0,0 +1,12 @@
+package io.github.adgross.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class WarehouseAlreadyRegisteredException extends Exception {
+
+  public WarehouseAlreadyRegisteredException(String name) {
+    super(String.format("Warehouse with name %s already registered.", name));
+  }
+}
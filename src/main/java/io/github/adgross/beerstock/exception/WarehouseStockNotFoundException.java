@@ -0,0 +1,12 @@
+package io.github.adgross.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class WarehouseStockNotFoundException extends Exception {
+
+  public WarehouseStockNotFoundException(Long warehouseId, Long beerId) {
+    super(String.format("Beer ID(%s) is not stocked in warehouse %s.", beerId, warehouseId));
+  }
+}
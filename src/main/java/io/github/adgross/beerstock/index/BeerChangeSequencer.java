@@ -0,0 +1,76 @@
+package io.github.adgross.beerstock.index;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.event.BeerChangedEvent;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Passes the committed state of changed beers to the {@link BeerStateListener}s
+ * in the order the changes committed.
+ *
+ * <p>Changes are published once they committed, but nothing orders the
+ * publishing threads, so two changes of a beer may be handled in the opposite
+ * order. Instead of the event, the listeners get the beer read again after the
+ * commit. Each read takes a number from a single sequence before it starts and
+ * is dropped if a read of the same beer with a higher number was passed on
+ * already. That read started after every change that took a lower number had
+ * committed, so the last state passed on is the current one. A deletion is final
+ * and is passed on without a read.
+ */
+@Component
+public class BeerChangeSequencer {
+
+  private final BeerRepository beerRepository;
+  private final List<BeerStateListener> listeners;
+  private final AtomicLong sequence = new AtomicLong();
+  // only beers with a change being handled, dropped once the last one is done
+  private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+  public BeerChangeSequencer(BeerRepository beerRepository, List<BeerStateListener> listeners) {
+    this.beerRepository = beerRepository;
+    this.listeners = listeners;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBeerChanged(BeerChangedEvent event) {
+    Long id = event.getBeerId();
+    Pending changes = pending.compute(id,
+        (key, found) -> (found == null ? new Pending() : found).enter());
+    try {
+      long number = sequence.incrementAndGet();
+      BeerDto current = event.getType() == BeerChangedEvent.Type.DELETED
+          ? null
+          : beerRepository.findCurrentDtoById(id).orElse(null);
+      synchronized (changes) {
+        if (number > changes.passed) {
+          changes.passed = number;
+          listeners.forEach(listener -> listener.onBeerState(id, current));
+        }
+      }
+    } finally {
+      pending.computeIfPresent(id, (key, found) -> found.leave() ? null : found);
+    }
+  }
+
+  private static final class Pending {
+    private int handling;
+    // guarded by the instance
+    private long passed;
+
+    // called inside the map's compute, like leave
+    private Pending enter() {
+      handling++;
+      return this;
+    }
+
+    private boolean leave() {
+      return --handling == 0;
+    }
+  }
+}
@@ -0,0 +1,300 @@
+package io.github.adgross.beerstock.index;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import io.github.adgross.beerstock.util.IntList;
+import io.github.adgross.beerstock.util.SearchText;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Typo tolerant search over beer names and brands.
+ *
+ * <p>Names and brands are folded (accents removed, lower case) and split into
+ * trigrams of space padded words. Each trigram maps to the list of documents
+ * holding it. A query walks the lists of its rarest trigrams, up to a fixed
+ * number of postings, to shortlist the documents sharing the most trigrams with
+ * it. Those are ranked by their Dice coefficient, a name match weighting twice a
+ * brand match.
+ *
+ * <p>Documents are append only: updates and deletions leave a dead entry behind
+ * that is skipped by queries until enough of them pile up to rebuild the index.
+ */
+@Component
+public class BeerSearchIndex implements BeerStateListener {
+
+  private static final int GRAM_LENGTH = 3;
+  private static final double MIN_SCORE = 0.3;
+  private static final int MAX_SCANNED_POSTINGS = 20_000;
+  private static final int MAX_COUNTED_HITS = 64;
+  private static final int MIN_SHORTLIST = 64;
+  private static final int MIN_DEAD_TO_COMPACT = 1024;
+
+  private final BeerRepository beerRepository;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, IntList> namePostings = new HashMap<>();
+  private final Map<String, IntList> brandPostings = new HashMap<>();
+  private final List<Document> documents = new ArrayList<>();
+  private final Map<Long, Integer> ordinals = new HashMap<>();
+  private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+  private int dead;
+
+  public BeerSearchIndex(BeerRepository beerRepository) {
+    this.beerRepository = beerRepository;
+  }
+
+  // words padded on both sides, holding exactly the trigrams of the text
+  private static String padded(String text) {
+    return " " + SearchText.normalize(text).replace(" ", "  ") + " ";
+  }
+
+  static Set<String> grams(String text) {
+    Set<String> grams = new LinkedHashSet<>();
+    String normalized = SearchText.normalize(text);
+    if (normalized.isEmpty()) {
+      return grams;
+    }
+    for (String word : normalized.split(" ")) {
+      String padded = " " + word + " ";
+      for (int i = 0; i + GRAM_LENGTH <= padded.length(); i++) {
+        grams.add(padded.substring(i, i + GRAM_LENGTH));
+      }
+    }
+    return grams;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    rebuild(beerRepository.findAllDtos());
+  }
+
+  @Override
+  public void onBeerState(Long id, BeerDto current) {
+    if (current == null) {
+      remove(id);
+    } else {
+      put(current);
+    }
+  }
+
+  public void rebuild(Collection<BeerDto> beers) {
+    lock.writeLock().lock();
+    try {
+      clear();
+      beers.forEach(this::add);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void put(BeerDto beer) {
+    lock.writeLock().lock();
+    try {
+      kill(beer.getId());
+      add(beer);
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      kill(id);
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return ordinals.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public List<BeerDto> search(String query, int limit) {
+    Set<String> queryGrams = grams(query);
+    if (queryGrams.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    lock.readLock().lock();
+    try {
+      Scratch scratch = this.scratch.get();
+      scratch.prepare(documents.size());
+      int budget = count(queryGrams, namePostings, scratch, MAX_SCANNED_POSTINGS);
+      count(queryGrams, brandPostings, scratch, budget);
+      return rank(queryGrams, shortlist(scratch, Math.max(limit, MIN_SHORTLIST)), limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // counts, per document, the query trigrams found in the postings, rarest first
+  private int count(Set<String> queryGrams, Map<String, IntList> postings, Scratch scratch,
+      int budget) {
+    List<IntList> lists = new ArrayList<>(queryGrams.size());
+    for (String gram : queryGrams) {
+      IntList list = postings.get(gram);
+      if (list != null) {
+        lists.add(list);
+      }
+    }
+    lists.sort(Comparator.comparingInt(IntList::size));
+    for (IntList list : lists) {
+      int scanned = Math.min(list.size(), budget);
+      for (int i = 0; i < scanned; i++) {
+        int ordinal = list.get(i);
+        if (documents.get(ordinal) != null && scratch.hits[ordinal]++ == 0) {
+          scratch.touched.add(ordinal);
+        }
+      }
+      budget -= scanned;
+      if (budget == 0) {
+        break;
+      }
+    }
+    return budget;
+  }
+
+  // keeps the documents sharing the most trigrams with the query, at most twice the size
+  private IntList shortlist(Scratch scratch, int size) {
+    int[] histogram = new int[MAX_COUNTED_HITS + 1];
+    for (int i = 0; i < scratch.touched.size(); i++) {
+      histogram[Math.min(scratch.hits[scratch.touched.get(i)], MAX_COUNTED_HITS)]++;
+    }
+    int cutoff = MAX_COUNTED_HITS;
+    for (int kept = histogram[cutoff]; cutoff > 1 && kept < size; kept += histogram[cutoff]) {
+      cutoff--;
+    }
+    IntList candidates = new IntList(size * 2);
+    for (int i = 0; i < scratch.touched.size(); i++) {
+      int ordinal = scratch.touched.get(i);
+      if (scratch.hits[ordinal] >= cutoff && candidates.size() < size * 2) {
+        candidates.add(ordinal);
+      }
+      scratch.hits[ordinal] = 0;
+    }
+    scratch.touched.clear();
+    return candidates;
+  }
+
+  private List<BeerDto> rank(Set<String> queryGrams, IntList candidates, int limit) {
+    PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, Match.ORDER);
+    for (int i = 0; i < candidates.size(); i++) {
+      Document document = documents.get(candidates.get(i));
+      double nameScore = dice(queryGrams, document.name, document.nameGrams);
+      double brandScore = dice(queryGrams, document.brand, document.brandGrams);
+      if (nameScore >= MIN_SCORE || brandScore >= MIN_SCORE) {
+        best.add(new Match(document.beer, Math.max(nameScore, brandScore * 0.5)));
+        if (best.size() > limit) {
+          best.poll();
+        }
+      }
+    }
+    List<BeerDto> ranked = new ArrayList<>(best.size());
+    while (!best.isEmpty()) {
+      ranked.add(best.poll().beer.toBuilder().build());
+    }
+    Collections.reverse(ranked);
+    return ranked;
+  }
+
+  private static double dice(Set<String> queryGrams, String padded, int documentGrams) {
+    int shared = 0;
+    for (String gram : queryGrams) {
+      if (padded.contains(gram)) {
+        shared++;
+      }
+    }
+    return shared == 0 ? 0 : 2.0 * shared / (queryGrams.size() + documentGrams);
+  }
+
+  private void add(BeerDto beer) {
+    int ordinal = documents.size();
+    Set<String> nameGrams = grams(beer.getName());
+    Set<String> brandGrams = grams(beer.getBrand());
+    documents.add(new Document(beer.toBuilder().build(), padded(beer.getName()),
+        nameGrams.size(), padded(beer.getBrand()), brandGrams.size()));
+    ordinals.put(beer.getId(), ordinal);
+    nameGrams.forEach(gram -> namePostings.computeIfAbsent(gram, g -> new IntList()).add(ordinal));
+    brandGrams.forEach(gram -> brandPostings.computeIfAbsent(gram, g -> new IntList())
+        .add(ordinal));
+  }
+
+  private void kill(Long id) {
+    Integer ordinal = ordinals.remove(id);
+    if (ordinal != null) {
+      documents.set(ordinal, null);
+      dead++;
+    }
+  }
+
+  private void compactIfNeeded() {
+    if (dead >= MIN_DEAD_TO_COMPACT && dead > ordinals.size()) {
+      List<BeerDto> live = documents.stream()
+          .filter(document -> document != null)
+          .map(document -> document.beer)
+          .collect(Collectors.toList());
+      clear();
+      live.forEach(this::add);
+    }
+  }
+
+  private void clear() {
+    namePostings.clear();
+    brandPostings.clear();
+    documents.clear();
+    ordinals.clear();
+    dead = 0;
+  }
+
+  @AllArgsConstructor
+  private static class Document {
+    private final BeerDto beer;
+    private final String name;
+    private final int nameGrams;
+    private final String brand;
+    private final int brandGrams;
+  }
+
+  @AllArgsConstructor
+  private static class Match {
+    private static final Comparator<Match> ORDER = Comparator
+        .comparingDouble((Match match) -> match.score)
+        .thenComparing(match -> match.beer.getId(), Comparator.reverseOrder());
+
+    private final BeerDto beer;
+    private final double score;
+  }
+
+  private static class Scratch {
+    private int[] hits = new int[0];
+    private final IntList touched = new IntList(64);
+
+    void prepare(int documents) {
+      if (hits.length < documents) {
+        hits = new int[Math.max(documents, hits.length * 2)];
+      }
+    }
+  }
+}
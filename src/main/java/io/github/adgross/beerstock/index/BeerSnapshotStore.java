@@ -0,0 +1,479 @@
+package io.github.adgross.beerstock.index;
+
+import io.github.adgross.beerstock.config.SnapshotConfig;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.CatalogDigestDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * A copy of the catalog in a memory mapped file, read without touching the
+ * database and without a heap object per beer.
+ *
+ * <p>The file holds a header, an open addressing table of beer ids and, per
+ * slot, primitive columns for max, quantity and type ordinal and the offsets of
+ * name and brand in a string area at its end. Changes are patched in place in
+ * the order {@link BeerChangeSequencer} passes them on; a table too full or a
+ * string area too small is compacted into a larger file that replaces the old
+ * one. A {@link BeerView} reads one beer straight from the mapping and is reused
+ * by its thread.
+ *
+ * <p>The header is marked clean on shutdown. On start a clean file is reused
+ * without reading the catalog when the number of beers, their total stock and
+ * the highest id still match the database, otherwise it is rebuilt. Writes made
+ * by other processes that keep those three are not detected. The whole file must
+ * fit in 2 GB.
+ */
+@Slf4j
+@Component
+public class BeerSnapshotStore implements BeerStateListener, DisposableBean {
+
+  private static final int MAGIC = 0x42454552;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 32;
+  private static final int SLOTS_AT = 8;
+  private static final int COUNT_AT = 12;
+  private static final int USED_AT = 16;
+  private static final int CLEAN_AT = 20;
+  private static final int STRINGS_END_AT = 24;
+  private static final int STRINGS_CAPACITY_AT = 28;
+  // id, max, quantity, type, name and brand offsets
+  private static final int SLOT_SIZE = Long.BYTES + 4 * Integer.BYTES + 1;
+  private static final long EMPTY = 0;
+  private static final long DELETED = -1;
+  private static final BeerType[] TYPES = BeerType.values();
+  private static final int MAX_STRING_BYTES = 2048;
+
+  private final BeerRepository beerRepository;
+  private final SnapshotConfig config;
+  private final Path file;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final ThreadLocal<BeerView> views = ThreadLocal.withInitial(BeerView::new);
+  private volatile boolean ready;
+
+  // guarded by the lock
+  private MappedByteBuffer buffer;
+  private int slots;
+  private int maxAt;
+  private int quantityAt;
+  private int typeAt;
+  private int nameAt;
+  private int brandAt;
+  private int stringsAt;
+
+  public BeerSnapshotStore(BeerRepository beerRepository, SnapshotConfig config,
+      MeterRegistry meterRegistry) {
+    this.beerRepository = beerRepository;
+    this.config = config;
+    this.file = Path.of(config.getFile());
+    Gauge.builder("beerstock.snapshot.entries", this, BeerSnapshotStore::size)
+        .description("Beers held by the catalog snapshot")
+        .register(meterRegistry);
+    Gauge.builder("beerstock.snapshot.size", this, BeerSnapshotStore::bytes)
+        .description("Size of the memory mapped catalog snapshot")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return config.isEnabled();
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    if (!isEnabled()) {
+      return;
+    }
+    // changes committed while loading wait for the lock and are applied after
+    lock.writeLock().lock();
+    try {
+      if (!reuse(beerRepository.findDigest())) {
+        rebuild(beerRepository.findAllDtos());
+      }
+      buffer.putInt(CLEAN_AT, 0);
+      ready = true;
+    } catch (IOException | RuntimeException e) {
+      log.warn("Loading the catalog snapshot from {} failed, beers are read from the database",
+          file, e);
+      ready = false;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void onBeerState(Long id, BeerDto current) {
+    if (!isEnabled()) {
+      return;
+    }
+    try {
+      if (current == null) {
+        remove(id);
+      } else {
+        put(current);
+      }
+    } catch (RuntimeException e) {
+      // missing a change would serve stale beers, the database takes over
+      ready = false;
+      log.warn("Patching the catalog snapshot failed, beers are read from the database", e);
+    }
+  }
+
+  /**
+   * Replaces the whole snapshot by the given beers.
+   */
+  public void rebuild(Collection<BeerDto> beers) throws IOException {
+    lock.writeLock().lock();
+    try {
+      long strings = 0;
+      for (BeerDto beer : beers) {
+        strings += stringSize(beer.getName()) + stringSize(beer.getBrand());
+      }
+      int tableSlots = Integer.highestOneBit(Math.max(config.getInitialSlots(),
+          Math.max(1, beers.size()) * 2) - 1) << 1;
+      var created = create(tableSlots,
+          Math.max(config.getInitialStrings().toBytes(), strings * 2));
+      replace(created);
+      beers.forEach(this::write);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void put(BeerDto beer) {
+    lock.writeLock().lock();
+    try {
+      if (buffer != null) {
+        write(beer);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      int slot = buffer == null ? -1 : locate(id);
+      if (slot >= 0) {
+        buffer.putLong(HEADER_SIZE + slot * Long.BYTES, DELETED);
+        buffer.putInt(COUNT_AT, buffer.getInt(COUNT_AT) - 1);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public Optional<BeerDto> find(Long id) {
+    return read(id, BeerView::toDto);
+  }
+
+  /**
+   * Applies {@code reader} to a view of the beer, which is only valid during the
+   * call.
+   */
+  public <R> Optional<R> read(Long id, Function<BeerView, R> reader) {
+    if (!ready || id == null) {
+      return Optional.empty();
+    }
+    lock.readLock().lock();
+    try {
+      int slot = locate(id);
+      return slot < 0 ? Optional.empty() : Optional.ofNullable(reader.apply(views.get().at(slot)));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return buffer == null ? 0 : buffer.getInt(COUNT_AT);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    lock.writeLock().lock();
+    try {
+      // a snapshot that missed a change is rebuilt on the next start
+      if (buffer != null && ready) {
+        buffer.putInt(CLEAN_AT, 1);
+        buffer.force();
+      }
+      ready = false;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private long bytes() {
+    lock.readLock().lock();
+    try {
+      return buffer == null ? 0 : buffer.capacity();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private boolean reuse(CatalogDigestDto digest) throws IOException {
+    MappedByteBuffer mapped;
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+        return false;
+      }
+      mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+    if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION
+        || mapped.getInt(CLEAN_AT) != 1
+        || fileSize(mapped.getInt(SLOTS_AT), mapped.getInt(STRINGS_CAPACITY_AT))
+        != mapped.capacity()) {
+      return false;
+    }
+    replace(mapped);
+    long quantity = 0;
+    long lastId = 0;
+    for (int slot = 0; slot < slots; slot++) {
+      long id = idAt(slot);
+      if (id > 0) {
+        quantity += buffer.getInt(quantityAt + slot * Integer.BYTES);
+        lastId = Math.max(lastId, id);
+      }
+    }
+    if (digest.equals(new CatalogDigestDto(buffer.getInt(COUNT_AT), quantity, lastId))) {
+      return true;
+    }
+    buffer = null;
+    return false;
+  }
+
+  private static long fileSize(long slots, long strings) {
+    return HEADER_SIZE + slots * SLOT_SIZE + strings;
+  }
+
+  // a fresh file next to the current one, moved over it once filled
+  private MappedByteBuffer create(int tableSlots, long strings) throws IOException {
+    long size = fileSize(tableSlots, strings);
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalStateException("The catalog snapshot would exceed 2 GB");
+    }
+    Path parent = file.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+    MappedByteBuffer created;
+    try (var channel = FileChannel.open(temp, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      created = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+    created.putInt(0, MAGIC);
+    created.putInt(4, VERSION);
+    created.putInt(SLOTS_AT, tableSlots);
+    created.putInt(STRINGS_CAPACITY_AT, (int) strings);
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    return created;
+  }
+
+  private void replace(MappedByteBuffer mapped) {
+    buffer = mapped;
+    slots = mapped.getInt(SLOTS_AT);
+    maxAt = HEADER_SIZE + slots * Long.BYTES;
+    quantityAt = maxAt + slots * Integer.BYTES;
+    nameAt = quantityAt + slots * Integer.BYTES;
+    brandAt = nameAt + slots * Integer.BYTES;
+    typeAt = brandAt + slots * Integer.BYTES;
+    stringsAt = typeAt + slots;
+  }
+
+  private void write(BeerDto beer) {
+    if (stringSize(beer.getName()) > MAX_STRING_BYTES
+        || stringSize(beer.getBrand()) > MAX_STRING_BYTES) {
+      throw new IllegalArgumentException("Name or brand of beer " + beer.getId() + " too long");
+    }
+    int slot = locate(beer.getId());
+    boolean added = slot < 0;
+    String name = added ? null : stringAt(buffer.getInt(nameAt + slot * Integer.BYTES));
+    String brand = added ? null : stringAt(buffer.getInt(brandAt + slot * Integer.BYTES));
+    boolean nameChanged = !beer.getName().equals(name);
+    boolean brandChanged = !beer.getBrand().equals(brand);
+    int strings = (nameChanged ? stringSize(beer.getName()) : 0)
+        + (brandChanged ? stringSize(beer.getBrand()) : 0);
+    if ((added && (buffer.getInt(USED_AT) + 1) * 4L > slots * 3L)
+        || buffer.getInt(STRINGS_END_AT) + (long) strings > buffer.getInt(STRINGS_CAPACITY_AT)) {
+      // deleted slots are dropped, the table only grows when it holds many beers
+      compact(added && (buffer.getInt(COUNT_AT) + 1) * 8L > slots * 3L ? slots * 2 : slots);
+      write(beer);
+      return;
+    }
+    if (added) {
+      slot = insert(beer.getId());
+    }
+    buffer.putInt(maxAt + slot * Integer.BYTES, beer.getMax());
+    buffer.putInt(quantityAt + slot * Integer.BYTES, beer.getQuantity());
+    buffer.put(typeAt + slot, (byte) (beer.getType() == null ? -1 : beer.getType().ordinal()));
+    if (nameChanged) {
+      buffer.putInt(nameAt + slot * Integer.BYTES, appendString(beer.getName()));
+    }
+    if (brandChanged) {
+      buffer.putInt(brandAt + slot * Integer.BYTES, appendString(beer.getBrand()));
+    }
+  }
+
+  // copies the live beers into a new file, dropping replaced names and brands
+  private void compact(int tableSlots) {
+    var view = new BeerView();
+    List<BeerDto> beers = new ArrayList<>(buffer.getInt(COUNT_AT));
+    for (int slot = 0; slot < slots; slot++) {
+      if (idAt(slot) > 0) {
+        beers.add(view.at(slot).toDto());
+      }
+    }
+    long strings = Math.max(buffer.getInt(STRINGS_CAPACITY_AT), buffer.getInt(STRINGS_END_AT) * 2L);
+    try {
+      replace(create(tableSlots, Math.max(strings, MAX_STRING_BYTES * 2L)));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.putInt(CLEAN_AT, 0);
+    beers.forEach(this::write);
+  }
+
+  private int locate(long id) {
+    int mask = slots - 1;
+    for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+      long found = idAt(slot);
+      if (found == id) {
+        return slot;
+      }
+      if (found == EMPTY) {
+        return -1;
+      }
+    }
+  }
+
+  private int insert(long id) {
+    int mask = slots - 1;
+    int slot = hash(id) & mask;
+    while (idAt(slot) > 0) {
+      slot = (slot + 1) & mask;
+    }
+    if (idAt(slot) == EMPTY) {
+      buffer.putInt(USED_AT, buffer.getInt(USED_AT) + 1);
+    }
+    buffer.putLong(HEADER_SIZE + slot * Long.BYTES, id);
+    buffer.putInt(COUNT_AT, buffer.getInt(COUNT_AT) + 1);
+    return slot;
+  }
+
+  private long idAt(int slot) {
+    return buffer.getLong(HEADER_SIZE + slot * Long.BYTES);
+  }
+
+  private static int hash(long id) {
+    long mixed = id * 0x9E3779B97F4A7C15L;
+    return (int) (mixed ^ (mixed >>> 32));
+  }
+
+  private static int stringSize(String value) {
+    return Short.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+  }
+
+  private int appendString(String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    int offset = buffer.getInt(STRINGS_END_AT);
+    buffer.putShort(stringsAt + offset, (short) bytes.length);
+    for (int i = 0; i < bytes.length; i++) {
+      buffer.put(stringsAt + offset + Short.BYTES + i, bytes[i]);
+    }
+    buffer.putInt(STRINGS_END_AT, offset + Short.BYTES + bytes.length);
+    return offset;
+  }
+
+  private String stringAt(int offset) {
+    return views.get().string(offset);
+  }
+
+  /**
+   * One beer of the snapshot, read from the mapping on every call.
+   */
+  public final class BeerView {
+
+    private final byte[] scratch = new byte[MAX_STRING_BYTES];
+    private int slot;
+
+    private BeerView at(int slot) {
+      this.slot = slot;
+      return this;
+    }
+
+    public long getId() {
+      return idAt(slot);
+    }
+
+    public String getName() {
+      return string(buffer.getInt(nameAt + slot * Integer.BYTES));
+    }
+
+    public String getBrand() {
+      return string(buffer.getInt(brandAt + slot * Integer.BYTES));
+    }
+
+    public int getMax() {
+      return buffer.getInt(maxAt + slot * Integer.BYTES);
+    }
+
+    public int getQuantity() {
+      return buffer.getInt(quantityAt + slot * Integer.BYTES);
+    }
+
+    public BeerType getType() {
+      byte ordinal = buffer.get(typeAt + slot);
+      return ordinal < 0 ? null : TYPES[ordinal];
+    }
+
+    public BeerDto toDto() {
+      return new BeerDto(getId(), getName(), getBrand(), getMax(), getQuantity(), getType());
+    }
+
+    private String string(int offset) {
+      int length = buffer.getShort(stringsAt + offset);
+      int from = stringsAt + offset + Short.BYTES;
+      for (int i = 0; i < length; i++) {
+        scratch[i] = buffer.get(from + i);
+      }
+      return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package io.github.adgross.beerstock.index;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+
+/**
+ * A copy of the beers kept up to date by {@link BeerChangeSequencer}.
+ */
+public interface BeerStateListener {
+
+  /**
+   * Receives the beer as read after a change of it committed, {@code null} once
+   * it is deleted. A state older than one already received is never passed.
+   */
+  void onBeerState(Long id, BeerDto current);
+}
@@ -0,0 +1,107 @@
+package io.github.adgross.beerstock.index;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Beers ordered by how full their stock is, {@code quantity / max}, emptiest
+ * first.
+ *
+ * <p>Beers are kept in a concurrent skip list, so the N emptiest ones under a
+ * fill ratio are read from its head in O(log n + N) and a change only moves the
+ * changed beer. Readers take no lock; a beer being moved by a concurrent change
+ * may be missing from that one read.
+ */
+@Component
+public class BeerStockLevelIndex implements BeerStateListener {
+
+  public static final int MAX_RESULTS = 1000;
+
+  // ratios compared as quantity * other max, exact and without division
+  private static final Comparator<BeerDto> BY_FILL_RATIO = (first, second) -> {
+    int byRatio = Long.compare((long) first.getQuantity() * second.getMax(),
+        (long) second.getQuantity() * first.getMax());
+    return byRatio != 0 ? byRatio : first.getId().compareTo(second.getId());
+  };
+
+  private final BeerRepository beerRepository;
+  private final ConcurrentSkipListSet<BeerDto> byFillRatio =
+      new ConcurrentSkipListSet<>(BY_FILL_RATIO);
+  private final ConcurrentHashMap<Long, BeerDto> byId = new ConcurrentHashMap<>();
+
+  public BeerStockLevelIndex(BeerRepository beerRepository, MeterRegistry meterRegistry) {
+    this.beerRepository = beerRepository;
+    Gauge.builder("beerstock.stock-level.entries", this, BeerStockLevelIndex::size)
+        .description("Beers held by the stock level index")
+        .register(meterRegistry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    rebuild(beerRepository.findAllDtos());
+  }
+
+  @Override
+  public void onBeerState(Long id, BeerDto current) {
+    if (current == null) {
+      remove(id);
+    } else {
+      put(current);
+    }
+  }
+
+  public void rebuild(Collection<BeerDto> beers) {
+    byId.clear();
+    byFillRatio.clear();
+    beers.forEach(this::put);
+  }
+
+  public void put(BeerDto beer) {
+    // a copy, the order must not change while the beer is in the list
+    BeerDto entry = beer.toBuilder().build();
+    byId.compute(entry.getId(), (id, previous) -> {
+      if (previous != null) {
+        byFillRatio.remove(previous);
+      }
+      byFillRatio.add(entry);
+      return entry;
+    });
+  }
+
+  public void remove(Long id) {
+    byId.computeIfPresent(id, (key, previous) -> {
+      byFillRatio.remove(previous);
+      return null;
+    });
+  }
+
+  public int size() {
+    return byId.size();
+  }
+
+  /**
+   * Returns up to {@code limit} beers filled up to {@code threshold} of their
+   * max, emptiest first.
+   */
+  public List<BeerDto> lowest(int limit, double threshold) {
+    List<BeerDto> beers = new ArrayList<>(Math.min(limit, byId.size()));
+    for (BeerDto beer : byFillRatio) {
+      if (beers.size() == limit || beer.getQuantity() > threshold * beer.getMax()) {
+        break;
+      }
+      beers.add(beer.toBuilder().build());
+    }
+    return beers;
+  }
+}
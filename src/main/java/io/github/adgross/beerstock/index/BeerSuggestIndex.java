@@ -0,0 +1,370 @@
+package io.github.adgross.beerstock.index;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.SuggestionDto;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import io.github.adgross.beerstock.util.SearchText;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prefix completion of beer names from a compressed trie.
+ *
+ * <p>Names are folded like the search index and stored along edges labelled
+ * with whole runs of characters. Every node caches the beers of its subtree with
+ * the most stock, so a lookup only walks the prefix and never the subtree below.
+ * Changes patch the caches along the path of the changed name, found from the
+ * name last indexed for the beer.
+ */
+@Component
+public class BeerSuggestIndex implements BeerStateListener {
+
+  public static final int MAX_SUGGESTIONS = 20;
+
+  private static final Comparator<Entry> BY_STOCK = Comparator
+      .comparingInt((Entry entry) -> entry.quantity).reversed()
+      .thenComparing(entry -> entry.name)
+      .thenComparingLong(entry -> entry.id);
+
+  private final BeerRepository beerRepository;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Long, String> names = new HashMap<>();
+  private Node root = new Node("");
+  private int size;
+
+  public BeerSuggestIndex(BeerRepository beerRepository, MeterRegistry meterRegistry) {
+    this.beerRepository = beerRepository;
+    Gauge.builder("beerstock.suggest.entries", this, BeerSuggestIndex::size)
+        .description("Beer names held by the suggestion trie")
+        .register(meterRegistry);
+    Gauge.builder("beerstock.suggest.entry.size", this, BeerSuggestIndex::bytesPerEntry)
+        .description("Estimated heap held by the suggestion trie per beer name")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    rebuild(beerRepository.findAllDtos());
+  }
+
+  @Override
+  public void onBeerState(Long id, BeerDto current) {
+    lock.writeLock().lock();
+    try {
+      String indexed = names.get(id);
+      if (indexed != null) {
+        remove(id, indexed);
+      }
+      if (current != null) {
+        insert(new Entry(current));
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void rebuild(Collection<BeerDto> beers) {
+    lock.writeLock().lock();
+    try {
+      root = new Node("");
+      names.clear();
+      size = 0;
+      beers.forEach(beer -> insert(new Entry(beer)));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public List<SuggestionDto> suggest(String prefix, int limit) {
+    String key = SearchText.normalize(prefix);
+    // a trailing space typed in the search box ends the word
+    if (!key.isEmpty() && Character.isWhitespace(prefix.charAt(prefix.length() - 1))) {
+      key += " ";
+    }
+    lock.readLock().lock();
+    try {
+      Node node = root;
+      int matched = 0;
+      while (matched < key.length()) {
+        Node child = node.child(key.charAt(matched));
+        if (child == null) {
+          return List.of();
+        }
+        int common = commonPrefix(child.label, key, matched);
+        if (common < child.label.length() && matched + common < key.length()) {
+          return List.of();
+        }
+        matched += common;
+        node = child;
+      }
+      int count = Math.min(limit, node.topSize);
+      List<SuggestionDto> suggestions = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        Entry entry = node.top[i];
+        suggestions.add(new SuggestionDto(entry.id, entry.name, entry.quantity));
+      }
+      return suggestions;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public double bytesPerEntry() {
+    lock.readLock().lock();
+    try {
+      return size == 0 ? 0 : (double) root.estimateBytes() / size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void insert(Entry entry) {
+    String key = SearchText.normalize(entry.name);
+    List<Node> path = new ArrayList<>();
+    Node node = root;
+    path.add(node);
+    int matched = 0;
+    while (matched < key.length()) {
+      Node child = node.child(key.charAt(matched));
+      if (child == null) {
+        child = new Node(key.substring(matched));
+        node.addChild(child);
+        matched = key.length();
+      } else {
+        int common = commonPrefix(child.label, key, matched);
+        if (common < child.label.length()) {
+          child = node.split(child, common);
+        }
+        matched += common;
+      }
+      node = child;
+      path.add(node);
+    }
+    node.entries = append(node.entries, entry);
+    path.forEach(step -> step.offer(entry));
+    names.put(entry.id, entry.name);
+    size++;
+  }
+
+  private void remove(Long id, String name) {
+    String key = SearchText.normalize(name);
+    List<Node> path = new ArrayList<>();
+    Node node = root;
+    path.add(node);
+    int matched = 0;
+    while (matched < key.length()) {
+      node = node.child(key.charAt(matched));
+      if (node == null || commonPrefix(node.label, key, matched) < node.label.length()) {
+        return;
+      }
+      matched += node.label.length();
+      path.add(node);
+    }
+    Entry[] remaining = Arrays.stream(node.entries)
+        .filter(entry -> !entry.id.equals(id))
+        .toArray(Entry[]::new);
+    if (remaining.length == node.entries.length) {
+      return;
+    }
+    node.entries = remaining;
+    names.remove(id);
+    size--;
+    for (int i = path.size() - 1; i >= 0; i--) {
+      Node step = path.get(i);
+      if (i > 0 && step.entries.length == 0 && step.children.length <= 1) {
+        path.get(i - 1).prune(step);
+      }
+      if (step.holds(id)) {
+        step.recompute();
+      }
+    }
+  }
+
+  private static int commonPrefix(String label, String key, int offset) {
+    int max = Math.min(label.length(), key.length() - offset);
+    int i = 0;
+    while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+      i++;
+    }
+    return i;
+  }
+
+  private static <T> T[] append(T[] array, T value) {
+    T[] grown = Arrays.copyOf(array, array.length + 1);
+    grown[array.length] = value;
+    return grown;
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7;
+  }
+
+  // compressed oops: 12 byte headers, 4 byte references
+  private static long arrayBytes(int length) {
+    return align(16 + 4L * length);
+  }
+
+  private static long stringBytes(String value) {
+    return 24 + align(16 + value.length());
+  }
+
+  private static final class Entry {
+    private final Long id;
+    private final String name;
+    private final int quantity;
+
+    private Entry(BeerDto beer) {
+      this.id = beer.getId();
+      this.name = beer.getName();
+      this.quantity = beer.getQuantity();
+    }
+  }
+
+  private static final class Node {
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private String label;
+    private Node[] children = NO_CHILDREN;
+    private Entry[] entries = NO_ENTRIES;
+    private Entry[] top = NO_ENTRIES;
+    private int topSize;
+
+    private Node(String label) {
+      this.label = label;
+    }
+
+    // children are kept sorted by the first character of their label
+    private int indexOf(char first) {
+      int low = 0;
+      int high = children.length - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        char current = children[mid].label.charAt(0);
+        if (current < first) {
+          low = mid + 1;
+        } else if (current > first) {
+          high = mid - 1;
+        } else {
+          return mid;
+        }
+      }
+      return -(low + 1);
+    }
+
+    private Node child(char first) {
+      int index = indexOf(first);
+      return index >= 0 ? children[index] : null;
+    }
+
+    private void addChild(Node child) {
+      int index = -(indexOf(child.label.charAt(0)) + 1);
+      Node[] grown = new Node[children.length + 1];
+      System.arraycopy(children, 0, grown, 0, index);
+      grown[index] = child;
+      System.arraycopy(children, index, grown, index + 1, children.length - index);
+      children = grown;
+    }
+
+    private Node split(Node child, int at) {
+      Node middle = new Node(child.label.substring(0, at));
+      children[indexOf(middle.label.charAt(0))] = middle;
+      child.label = child.label.substring(at);
+      middle.children = new Node[] {child};
+      middle.top = child.top.clone();
+      middle.topSize = child.topSize;
+      return middle;
+    }
+
+    // drops an empty child, or merges it with its only child
+    private void prune(Node child) {
+      int index = indexOf(child.label.charAt(0));
+      if (child.children.length == 1) {
+        Node only = child.children[0];
+        only.label = child.label + only.label;
+        children[index] = only;
+      } else {
+        Node[] shrunk = new Node[children.length - 1];
+        System.arraycopy(children, 0, shrunk, 0, index);
+        System.arraycopy(children, index + 1, shrunk, index, shrunk.length - index);
+        children = shrunk;
+      }
+    }
+
+    private void offer(Entry entry) {
+      if (topSize == MAX_SUGGESTIONS && BY_STOCK.compare(entry, top[topSize - 1]) >= 0) {
+        return;
+      }
+      if (topSize == top.length) {
+        top = Arrays.copyOf(top, Math.min(MAX_SUGGESTIONS, Math.max(1, topSize * 2)));
+      }
+      int index = topSize == MAX_SUGGESTIONS ? topSize - 1 : topSize++;
+      while (index > 0 && BY_STOCK.compare(entry, top[index - 1]) < 0) {
+        top[index] = top[index - 1];
+        index--;
+      }
+      top[index] = entry;
+    }
+
+    private boolean holds(Long id) {
+      for (int i = 0; i < topSize; i++) {
+        if (top[i].id.equals(id)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void recompute() {
+      Arrays.fill(top, null);
+      topSize = 0;
+      for (Entry entry : entries) {
+        offer(entry);
+      }
+      for (Node child : children) {
+        for (int i = 0; i < child.topSize; i++) {
+          offer(child.top[i]);
+        }
+      }
+    }
+
+    private long estimateBytes() {
+      long bytes = 32 + stringBytes(label) + arrayBytes(top.length);
+      if (children.length > 0) {
+        bytes += arrayBytes(children.length);
+      }
+      if (entries.length > 0) {
+        bytes += arrayBytes(entries.length);
+      }
+      for (Entry entry : entries) {
+        bytes += 32 + 16 + stringBytes(entry.name);
+      }
+      for (Node child : children) {
+        bytes += child.estimateBytes();
+      }
+      return bytes;
+    }
+  }
+}
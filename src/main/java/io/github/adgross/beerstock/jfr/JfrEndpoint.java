@@ -0,0 +1,144 @@
+package io.github.adgross.beerstock.jfr;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+/**
+ * Starts, stops and downloads Java Flight Recorder recordings.
+ *
+ * <p>{@code POST /actuator/jfr} starts a recording with the given JFR settings
+ * ({@code profile} by default, which samples allocations and locks), which
+ * {@code POST /actuator/jfr/{id}} stops. {@code GET /actuator/jfr/{id}}
+ * downloads what was recorded so far, {@code DELETE} discards it.
+ */
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+  private final String defaultSettings;
+  private final Duration maxAge;
+  private final long maxSize;
+
+  public JfrEndpoint(String defaultSettings, Duration maxAge, long maxSize) {
+    this.defaultSettings = defaultSettings;
+    this.maxAge = maxAge;
+    this.maxSize = maxSize;
+  }
+
+  @ReadOperation
+  public List<RecordingSummary> recordings() {
+    return FlightRecorder.getFlightRecorder().getRecordings().stream()
+        .map(RecordingSummary::of)
+        .collect(Collectors.toList());
+  }
+
+  @WriteOperation
+  public WebEndpointResponse<RecordingSummary> start(@Nullable String name,
+      @Nullable String settings, @Nullable Duration duration) {
+    Configuration configuration;
+    try {
+      configuration = Configuration.getConfiguration(settings == null ? defaultSettings : settings);
+    } catch (ParseException | IOException e) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+    var recording = new Recording(configuration);
+    recording.setName(name == null ? "beerstock" : name);
+    recording.setToDisk(true);
+    recording.setMaxAge(maxAge);
+    recording.setMaxSize(maxSize);
+    recording.enable(StockOperationEvent.class);
+    if (duration != null) {
+      recording.setDuration(duration);
+    }
+    recording.start();
+    return new WebEndpointResponse<>(RecordingSummary.of(recording));
+  }
+
+  @WriteOperation
+  public WebEndpointResponse<RecordingSummary> stop(@Selector long id) {
+    var recording = find(id);
+    if (recording == null) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+    if (recording.getState() == RecordingState.RUNNING) {
+      recording.stop();
+    }
+    return new WebEndpointResponse<>(RecordingSummary.of(recording));
+  }
+
+  @ReadOperation(produces = "application/octet-stream")
+  public WebEndpointResponse<Resource> download(@Selector long id) throws IOException {
+    var recording = find(id);
+    if (recording == null || recording.getState() == RecordingState.NEW) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+    Path file = Files.createTempFile("beerstock-" + id + "-", ".jfr");
+    recording.dump(file);
+    return new WebEndpointResponse<>(new TemporaryFileResource(file.toFile()));
+  }
+
+  @DeleteOperation
+  public WebEndpointResponse<Void> discard(@Selector long id) {
+    var recording = find(id);
+    if (recording == null) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+    recording.close();
+    return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT);
+  }
+
+  private static Recording find(long id) {
+    return FlightRecorder.getFlightRecorder().getRecordings().stream()
+        .filter(recording -> recording.getId() == id)
+        .findFirst()
+        .orElse(null);
+  }
+
+  // the dump is deleted once it has been sent
+  private static final class TemporaryFileResource extends FileSystemResource {
+
+    private TemporaryFileResource(File file) {
+      super(file);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      return new FilterInputStream(super.getInputStream()) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            Files.deleteIfExists(getFile().toPath());
+          }
+        }
+      };
+    }
+
+    @Override
+    public boolean isFile() {
+      // forces the stream to be read, so the file can be deleted afterwards
+      return false;
+    }
+  }
+}
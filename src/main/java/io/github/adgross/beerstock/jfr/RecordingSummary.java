@@ -0,0 +1,24 @@
+package io.github.adgross.beerstock.jfr;
+
+import java.time.Duration;
+import java.time.Instant;
+import jdk.jfr.Recording;
+import lombok.Value;
+
+@Value
+public class RecordingSummary {
+
+  long id;
+  String name;
+  String state;
+  Instant startTime;
+  Instant stopTime;
+  Duration maxAge;
+  long size;
+
+  public static RecordingSummary of(Recording recording) {
+    return new RecordingSummary(recording.getId(), recording.getName(),
+        recording.getState().name(), recording.getStartTime(), recording.getStopTime(),
+        recording.getMaxAge(), recording.getSize());
+  }
+}
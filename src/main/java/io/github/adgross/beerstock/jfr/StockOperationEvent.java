@@ -0,0 +1,64 @@
+package io.github.adgross.beerstock.jfr;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A create, update, increment or decrement of a beer, timed from the service
+ * call to its return.
+ *
+ * <p>While no recording is running {@link #begin()} and {@link #commit()} do
+ * nothing and the event does not escape the calling method, so the JIT removes
+ * it entirely.
+ */
+@Name("io.github.adgross.beerstock.StockOperation")
+@Label("Stock Operation")
+@Category({"Beerstock", "Stock"})
+@Description("A create, update, increment or decrement of a beer")
+@StackTrace(false)
+public class StockOperationEvent extends Event {
+
+  public static final String OK = "ok";
+
+  @Label("Operation")
+  private String operation;
+
+  @Label("Beer Id")
+  private long beerId;
+
+  @Label("Delta")
+  @Description("Change of the quantity in stock")
+  private int delta;
+
+  @Label("Outcome")
+  @Description("ok or the simple name of the exception thrown")
+  private String outcome = OK;
+
+  public static StockOperationEvent start(String operation, Long beerId, int delta) {
+    var event = new StockOperationEvent();
+    event.operation = operation;
+    event.beerId = beerId == null ? 0 : beerId;
+    event.delta = delta;
+    event.begin();
+    return event;
+  }
+
+  public void setDelta(int delta) {
+    this.delta = delta;
+  }
+
+  public void setBeer(BeerDto beer) {
+    if (beer != null && beer.getId() != null) {
+      beerId = beer.getId();
+    }
+  }
+
+  public void setFailure(Throwable failure) {
+    outcome = failure.getClass().getSimpleName();
+  }
+}
@@ -2,10 +2,12 @@ package io.github.adgross.beerstock.mapper;
 
 import io.github.adgross.beerstock.dto.BeerDto;
 import io.github.adgross.beerstock.entity.Beer;
+import org.mapstruct.DecoratedWith;
 import org.mapstruct.Mapper;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
+@DecoratedWith(TracedBeerMapper.class)
 public interface BeerMapper {
 
   BeerMapper INSTANCE = Mappers.getMapper(BeerMapper.class);
@@ -0,0 +1,16 @@
+package io.github.adgross.beerstock.mapper;
+
+import io.github.adgross.beerstock.dto.StockBucketDto;
+import io.github.adgross.beerstock.entity.StockBucket;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+public interface StockBucketMapper {
+
+  StockBucketMapper INSTANCE = Mappers.getMapper(StockBucketMapper.class);
+
+  @Mapping(target = "start", source = "bucketStart")
+  StockBucketDto toDto(StockBucket bucket);
+}
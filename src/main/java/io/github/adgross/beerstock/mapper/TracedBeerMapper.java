@@ -0,0 +1,38 @@
+package io.github.adgross.beerstock.mapper;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.entity.Beer;
+import io.github.adgross.beerstock.tracing.Tracing;
+import io.opentelemetry.api.trace.Span;
+
+public abstract class TracedBeerMapper implements BeerMapper {
+
+  private final BeerMapper delegate;
+
+  protected TracedBeerMapper(BeerMapper delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Beer toModel(BeerDto beerDto) {
+    Span span = Tracing.startChild("BeerMapper.toModel");
+    try {
+      Tracing.tagBeer(span, beerDto);
+      return delegate.toModel(beerDto);
+    } finally {
+      span.end();
+    }
+  }
+
+  @Override
+  public BeerDto toDto(Beer beer) {
+    Span span = Tracing.startChild("BeerMapper.toDto");
+    try {
+      BeerDto beerDto = delegate.toDto(beer);
+      Tracing.tagBeer(span, beerDto);
+      return beerDto;
+    } finally {
+      span.end();
+    }
+  }
+}
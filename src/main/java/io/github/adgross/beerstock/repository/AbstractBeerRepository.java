@@ -0,0 +1,303 @@
+package io.github.adgross.beerstock.repository;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.BeerFields;
+import io.github.adgross.beerstock.dto.CatalogDigestDto;
+import io.github.adgross.beerstock.entity.Beer;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.mapper.BeerMapper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Base for {@link BeerRepository} implementations that are not backed by JPA.
+ *
+ * <p>Subclasses only provide the primitive lookups and writes, the remaining
+ * repository contract is derived from them. Query by example is not supported.
+ */
+public abstract class AbstractBeerRepository implements BeerRepository {
+
+  private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+  @Override
+  public abstract Optional<Beer> findById(Long id);
+
+  @Override
+  public abstract Optional<Beer> findByName(String name);
+
+  @Override
+  public abstract <S extends Beer> S save(S beer);
+
+  @Override
+  public abstract void deleteById(Long id);
+
+  @Override
+  public List<BeerDto> findAllDtos() {
+    return findAll().stream()
+        .sorted(Comparator.comparing(Beer::getId))
+        .map(beerMapper::toDto)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Optional<BeerDto> findDtoById(Long id) {
+    return findById(id).map(beerMapper::toDto);
+  }
+
+  @Override
+  public Optional<BeerDto> findCurrentDtoById(Long id) {
+    return findDtoById(id);
+  }
+
+  @Override
+  public List<BeerDto> findCurrentDtosByIds(Collection<Long> ids) {
+    return ids.stream()
+        .distinct()
+        .sorted()
+        .map(this::findCurrentDtoById)
+        .flatMap(Optional::stream)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Optional<BeerDto> findDtoByName(String name) {
+    return findByName(name).map(beerMapper::toDto);
+  }
+
+  @Override
+  public CatalogDigestDto findDigest() {
+    List<Beer> beers = findAll();
+    return new CatalogDigestDto(beers.size(),
+        beers.stream().mapToLong(Beer::getQuantity).sum(),
+        beers.stream().mapToLong(Beer::getId).max().orElse(0));
+  }
+
+  @Override
+  public List<Object[]> findAllFields(BeerFields fields) {
+    return findAllDtos().stream().map(fields::values).collect(Collectors.toList());
+  }
+
+  @Override
+  public Optional<Object[]> findFieldsById(Long id, BeerFields fields) {
+    return findDtoById(id).map(fields::values);
+  }
+
+  @Override
+  public Optional<Object[]> findFieldsByName(String name, BeerFields fields) {
+    return findDtoByName(name).map(fields::values);
+  }
+
+  @Override
+  public List<Beer> insertAll(List<Beer> beers) {
+    List<Beer> inserted = new ArrayList<>(beers.size());
+    try {
+      for (Beer beer : beers) {
+        inserted.add(save(beer.toBuilder().build()));
+      }
+    } catch (RuntimeException e) {
+      inserted.forEach(this::delete);
+      throw e;
+    }
+    return inserted;
+  }
+
+  @Override
+  public Optional<Beer> findByIdForUpdate(Long id) {
+    return findById(id);
+  }
+
+  @Override
+  public List<BeerDto> findDtosByIdsForUpdate(Collection<Long> ids) {
+    return ids.stream()
+        .distinct()
+        .sorted()
+        .map(this::findDtoById)
+        .flatMap(Optional::stream)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public List<BeerDto> findDtosMatchingForUpdate(String brand, BeerType type,
+      boolean outOfStock) {
+    return findAllDtos().stream()
+        .filter(beer -> brand == null || brand.equals(beer.getBrand()))
+        .filter(beer -> type == null || type == beer.getType())
+        .filter(beer -> !outOfStock || beer.getQuantity() == 0)
+        .collect(Collectors.toList());
+  }
+
+  // the stock is changed in place, a whole record saved here would undo
+  // concurrent changes of the other columns
+  @Override
+  public abstract int incrementQuantity(Long id, int quantity);
+
+  @Override
+  public abstract int decrementQuantity(Long id, int quantity, int reserved);
+
+  @Override
+  public int deleteByIds(Collection<Long> ids) {
+    int deleted = 0;
+    for (Long id : new ArrayList<>(ids)) {
+      if (existsById(id)) {
+        deleteById(id);
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  @Override
+  public void deleteByName(String name) {
+    findByName(name).ifPresent(beer -> deleteById(beer.getId()));
+  }
+
+  @Override
+  public boolean existsById(Long id) {
+    return findById(id).isPresent();
+  }
+
+  @Override
+  public abstract List<Beer> findAll();
+
+  @Override
+  public List<Beer> findAll(Sort sort) {
+    List<Beer> beers = findAll();
+    if (sort.isSorted()) {
+      beers.sort(comparator(sort));
+    }
+    return beers;
+  }
+
+  @Override
+  public Page<Beer> findAll(Pageable pageable) {
+    List<Beer> beers = findAll(pageable.getSort());
+    if (pageable.isUnpaged()) {
+      return new PageImpl<>(beers);
+    }
+    int from = (int) Math.min(pageable.getOffset(), beers.size());
+    int to = Math.min(from + pageable.getPageSize(), beers.size());
+    return new PageImpl<>(beers.subList(from, to), pageable, beers.size());
+  }
+
+  @Override
+  public <S extends Beer> List<S> findAll(Example<S> example) {
+    throw new UnsupportedOperationException("Query by example is not supported");
+  }
+
+  @Override
+  public <S extends Beer> List<S> findAll(Example<S> example, Sort sort) {
+    throw new UnsupportedOperationException("Query by example is not supported");
+  }
+
+  @Override
+  public <S extends Beer> Page<S> findAll(Example<S> example, Pageable pageable) {
+    throw new UnsupportedOperationException("Query by example is not supported");
+  }
+
+  @Override
+  public abstract long count();
+
+  @Override
+  public <S extends Beer> long count(Example<S> example) {
+    throw new UnsupportedOperationException("Query by example is not supported");
+  }
+
+  @Override
+  public List<Beer> findAllById(Iterable<Long> ids) {
+    return StreamSupport.stream(ids.spliterator(), false)
+        .map(this::findById)
+        .flatMap(Optional::stream)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public <S extends Beer> List<S> saveAll(Iterable<S> beers) {
+    List<S> saved = new ArrayList<>();
+    beers.forEach(beer -> saved.add(save(beer)));
+    return saved;
+  }
+
+  @Override
+  public <S extends Beer> S saveAndFlush(S beer) {
+    return save(beer);
+  }
+
+  @Override
+  public void flush() {
+  }
+
+  @Override
+  public Beer getOne(Long id) {
+    return findById(id).orElseThrow(() -> new EmptyResultDataAccessException(
+        String.format("No %s entity with id %s exists!", Beer.class, id), 1));
+  }
+
+  @Override
+  public void delete(Beer beer) {
+    if (beer.getId() != null && existsById(beer.getId())) {
+      deleteById(beer.getId());
+    }
+  }
+
+  @Override
+  public void deleteAll(Iterable<? extends Beer> beers) {
+    beers.forEach(this::delete);
+  }
+
+  @Override
+  public void deleteAll() {
+    findAll().forEach(this::delete);
+  }
+
+  @Override
+  public void deleteInBatch(Iterable<Beer> beers) {
+    deleteAll(beers);
+  }
+
+  @Override
+  public void deleteAllInBatch() {
+    deleteAll();
+  }
+
+  @Override
+  public <S extends Beer> Optional<S> findOne(Example<S> example) {
+    throw new UnsupportedOperationException("Query by example is not supported");
+  }
+
+  @Override
+  public <S extends Beer> boolean exists(Example<S> example) {
+    throw new UnsupportedOperationException("Query by example is not supported");
+  }
+
+  protected void requireExisting(Long id, boolean exists) {
+    if (!exists) {
+      throw new EmptyResultDataAccessException(
+          String.format("No %s entity with id %s exists!", Beer.class, id), 1);
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Comparator<Beer> comparator(Sort sort) {
+    Comparator<Beer> comparator = (a, b) -> 0;
+    for (Sort.Order order : sort) {
+      Comparator<Beer> byProperty = Comparator.comparing(
+          beer -> (Comparable) new BeanWrapperImpl(beer).getPropertyValue(order.getProperty()),
+          Comparator.nullsFirst(Comparator.naturalOrder()));
+      comparator = comparator.thenComparing(order.isAscending()
+          ? byProperty : byProperty.reversed());
+    }
+    return comparator;
+  }
+}
@@ -0,0 +1,16 @@
+package io.github.adgross.beerstock.repository;
+
+import io.github.adgross.beerstock.entity.Beer;
+import java.util.List;
+
+public interface BeerBatchRepository {
+
+  /**
+   * Inserts new beers all at once, bypassing the persistence context.
+   *
+   * @return the inserted beers with their ids, in the given order
+   * @throws org.springframework.dao.DataIntegrityViolationException when a name is already
+   *     registered, in which case none of the beers is inserted
+   */
+  List<Beer> insertAll(List<Beer> beers);
+}
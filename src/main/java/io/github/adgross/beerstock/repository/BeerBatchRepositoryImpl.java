@@ -0,0 +1,75 @@
+package io.github.adgross.beerstock.repository;
+
+import io.github.adgross.beerstock.entity.Beer;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Inserts beers with a single JDBC batch, reading the generated ids back.
+ *
+ * <p>Hibernate does not see these rows being written, so the cached query
+ * results are evicted once the surrounding transaction completes.
+ */
+public class BeerBatchRepositoryImpl implements BeerBatchRepository {
+
+  private static final String INSERT = "insert into beer (name, brand, max, quantity, type)"
+      + " values (?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final Cache cache;
+
+  public BeerBatchRepositoryImpl(JdbcTemplate jdbcTemplate,
+      EntityManagerFactory entityManagerFactory) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+  }
+
+  @Override
+  public List<Beer> insertAll(List<Beer> beers) {
+    if (beers.isEmpty()) {
+      return List.of();
+    }
+    List<Beer> inserted = jdbcTemplate.execute((ConnectionCallback<List<Beer>>) connection -> {
+      try (var statement = connection.prepareStatement(INSERT, new String[] {"id"})) {
+        for (Beer beer : beers) {
+          statement.setString(1, beer.getName());
+          statement.setString(2, beer.getBrand());
+          statement.setInt(3, beer.getMax());
+          statement.setInt(4, beer.getQuantity());
+          statement.setString(5, beer.getType().name());
+          statement.addBatch();
+        }
+        statement.executeBatch();
+        List<Beer> withIds = new ArrayList<>(beers.size());
+        try (var keys = statement.getGeneratedKeys()) {
+          for (Beer beer : beers) {
+            keys.next();
+            withIds.add(beer.toBuilder().id(keys.getLong(1)).build());
+          }
+        }
+        return withIds;
+      }
+    });
+    evictQueryResults();
+    return inserted;
+  }
+
+  private void evictQueryResults() {
+    cache.evictQueryRegions();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          cache.evictQueryRegions();
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package io.github.adgross.beerstock.repository;
+
+import io.github.adgross.beerstock.dto.BeerChangeDto;
+import io.github.adgross.beerstock.entity.BeerChange;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface BeerChangeRepository extends JpaRepository<BeerChange, Long> {
+
+  @Query("select new io.github.adgross.beerstock.dto.BeerChangeDto(c.seq, c.beerId, c.deleted,"
+      + " c.name, c.brand, c.max, c.quantity, c.type, c.changedAt) from BeerChange c"
+      + " where c.seq > :since order by c.seq")
+  List<BeerChangeDto> findSince(@Param("since") long since, Pageable pageable);
+
+  @Query("select coalesce(max(h.seq), 0) from ChangeHorizon h")
+  long findHorizon();
+}
@@ -0,0 +1,19 @@
+package io.github.adgross.beerstock.repository;
+
+import io.github.adgross.beerstock.dto.BeerFields;
+import java.util.List;
+import java.util.Optional;
+
+public interface BeerFieldsRepository {
+
+  /**
+   * Selects only the given fields of every beer, ordered by id.
+   *
+   * @return the values of each beer, in the order of the fields
+   */
+  List<Object[]> findAllFields(BeerFields fields);
+
+  Optional<Object[]> findFieldsById(Long id, BeerFields fields);
+
+  Optional<Object[]> findFieldsByName(String name, BeerFields fields);
+}
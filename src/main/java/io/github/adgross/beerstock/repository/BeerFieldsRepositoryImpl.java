@@ -0,0 +1,50 @@
+package io.github.adgross.beerstock.repository;
+
+import io.github.adgross.beerstock.dto.BeerFields;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+
+/**
+ * Narrows the select list of the beer queries to the requested fields, so the
+ * other columns are neither read nor mapped.
+ */
+public class BeerFieldsRepositoryImpl implements BeerFieldsRepository {
+
+  private final EntityManager entityManager;
+
+  public BeerFieldsRepositoryImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public List<Object[]> findAllFields(BeerFields fields) {
+    return query(fields, " order by b.id").getResultList().stream()
+        .map(Tuple::toArray)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Optional<Object[]> findFieldsById(Long id, BeerFields fields) {
+    return query(fields, " where b.id = :id").setParameter("id", id)
+        .getResultList().stream()
+        .findFirst()
+        .map(Tuple::toArray);
+  }
+
+  @Override
+  public Optional<Object[]> findFieldsByName(String name, BeerFields fields) {
+    return query(fields, " where b.name = :name").setParameter("name", name)
+        .getResultList().stream()
+        .findFirst()
+        .map(Tuple::toArray);
+  }
+
+  private TypedQuery<Tuple> query(BeerFields fields, String condition) {
+    return entityManager.createQuery(
+        "select " + fields.getSelect() + " from Beer b" + condition, Tuple.class);
+  }
+}
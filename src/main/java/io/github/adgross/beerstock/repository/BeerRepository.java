@@ -1,14 +1,114 @@
 package io.github.adgross.beerstock.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.CatalogDigestDto;
 import io.github.adgross.beerstock.entity.Beer;
+import io.github.adgross.beerstock.enums.BeerType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface BeerRepository extends JpaRepository<Beer, Long> {
+public interface BeerRepository extends JpaRepository<Beer, Long>, BeerBatchRepository,
+    BeerFieldsRepository {
+
+  String DTO_PROJECTION = "select new io.github.adgross.beerstock.dto.BeerDto("
+      + "b.id, b.name, b.brand, b.max, b.quantity, b.type) from Beer b";
 
+  /**
+   * Reads the beer by name from the database. The uniqueness checks rely on it,
+   * so no cached result may answer for a beer renamed or deleted since.
+   */
   Optional<Beer> findByName(String name);
 
+  @Transactional(readOnly = true)
+  @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+  @Query(DTO_PROJECTION + " order by b.id")
+  List<BeerDto> findAllDtos();
+
+  @Transactional(readOnly = true)
+  @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+  @Query(DTO_PROJECTION + " where b.id = :id")
+  Optional<BeerDto> findDtoById(@Param("id") Long id);
+
+  @Transactional(readOnly = true)
+  @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+  @Query(DTO_PROJECTION + " where b.name = :name")
+  Optional<BeerDto> findDtoByName(@Param("name") String name);
+
+  /**
+   * Reads the beer from the database, bypassing the caches that may still hold
+   * what it was before a change of the running transaction.
+   */
+  @Query(DTO_PROJECTION + " where b.id = :id")
+  Optional<BeerDto> findCurrentDtoById(@Param("id") Long id);
+
+  /**
+   * Reads the given beers from the database in id order, bypassing the caches
+   * like {@link #findCurrentDtoById(Long)}.
+   */
+  @Query(DTO_PROJECTION + " where b.id in :ids order by b.id")
+  List<BeerDto> findCurrentDtosByIds(@Param("ids") Collection<Long> ids);
+
+  @Transactional(readOnly = true)
+  @Query("select new io.github.adgross.beerstock.dto.CatalogDigestDto("
+      + "count(b), coalesce(sum(b.quantity), 0), coalesce(max(b.id), 0)) from Beer b")
+  CatalogDigestDto findDigest();
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select b from Beer b where b.id = :id")
+  Optional<Beer> findByIdForUpdate(@Param("id") Long id);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(DTO_PROJECTION + " where b.id in :ids order by b.id")
+  List<BeerDto> findDtosByIdsForUpdate(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Returns the beers matching every given criterion, a {@code null} criterion
+   * matches any beer.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(DTO_PROJECTION + " where (:brand is null or b.brand = :brand)"
+      + " and (:type is null or b.type = :type)"
+      + " and (:outOfStock = false or b.quantity = 0) order by b.id")
+  List<BeerDto> findDtosMatchingForUpdate(@Param("brand") String brand,
+      @Param("type") BeerType type, @Param("outOfStock") boolean outOfStock);
+
+  /**
+   * Adds {@code quantity} to the stock in one statement, unless it would exceed
+   * the max. Returns the number of beers changed.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Beer b set b.quantity = b.quantity + :quantity"
+      + " where b.id = :id and b.quantity <= b.max - :quantity")
+  int incrementQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+
+  /**
+   * Takes {@code quantity} from the stock in one statement, unless less than
+   * that is left besides the {@code reserved} units. Returns the number of beers
+   * changed.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Beer b set b.quantity = b.quantity - :quantity"
+      + " where b.id = :id and b.quantity - :reserved >= :quantity")
+  int decrementQuantity(@Param("id") Long id, @Param("quantity") int quantity,
+      @Param("reserved") int reserved);
+
+  @Modifying
+  @Query("delete from Beer b where b.id in :ids")
+  int deleteByIds(@Param("ids") Collection<Long> ids);
+
   void deleteByName(String name);
 }
@@ -0,0 +1,246 @@
+package io.github.adgross.beerstock.repository;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.entity.Beer;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.mapper.BeerMapper;
+import io.github.adgross.beerstock.util.LongObjectMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Keeps the beers in memory, for running without a database.
+ *
+ * <p>Beers are spread by a hash of their id over stripes, each guarded by its
+ * own read write lock and holding a primitive keyed map of immutable records
+ * plus one bucket per {@link BeerType}. A concurrent name to id index keeps
+ * names unique and routes {@link #findByName(String)} to a single stripe. Stock
+ * changes replace the record under the write lock of its stripe, only when the
+ * new quantity stays within bounds. Like the sharded repository, writes apply at
+ * once and are not rolled back with the surrounding transaction.
+ */
+public class InMemoryBeerRepository extends AbstractBeerRepository {
+
+  private static final int STRIPES = 64;
+
+  private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+  private final Stripe[] stripes = IntStream.range(0, STRIPES)
+      .mapToObj(i -> new Stripe())
+      .toArray(Stripe[]::new);
+  private final Map<String, Long> names = new ConcurrentHashMap<>();
+  private final AtomicLong sequence = new AtomicLong();
+
+  @Override
+  public Optional<Beer> findById(Long id) {
+    Stripe stripe = stripeFor(id);
+    stripe.lock.readLock().lock();
+    try {
+      return Optional.ofNullable(stripe.rows.get(id)).map(BeerRecord::toBeer);
+    } finally {
+      stripe.lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Optional<Beer> findByName(String name) {
+    Long id = names.get(name);
+    return id == null ? Optional.empty() : findById(id)
+        .filter(beer -> beer.getName().equals(name));
+  }
+
+  @Override
+  public List<Beer> findAll() {
+    List<Beer> beers = new ArrayList<>();
+    for (Stripe stripe : stripes) {
+      stripe.read(stripe.rows, record -> beers.add(record.toBeer()));
+    }
+    beers.sort(Comparator.comparing(Beer::getId));
+    return beers;
+  }
+
+  @Override
+  public List<BeerDto> findDtosMatchingForUpdate(String brand, BeerType type,
+      boolean outOfStock) {
+    if (type == null) {
+      return super.findDtosMatchingForUpdate(brand, null, outOfStock);
+    }
+    List<BeerDto> beers = new ArrayList<>();
+    for (Stripe stripe : stripes) {
+      stripe.read(stripe.byType.get(type), record -> {
+        if ((brand == null || brand.equals(record.brand))
+            && (!outOfStock || record.quantity == 0)) {
+          beers.add(beerMapper.toDto(record.toBeer()));
+        }
+      });
+    }
+    beers.sort(Comparator.comparing(BeerDto::getId));
+    return beers;
+  }
+
+  @Override
+  public long count() {
+    long count = 0;
+    for (Stripe stripe : stripes) {
+      stripe.lock.readLock().lock();
+      try {
+        count += stripe.rows.size();
+      } finally {
+        stripe.lock.readLock().unlock();
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public <S extends Beer> S save(S beer) {
+    if (beer.getName() == null || beer.getType() == null) {
+      throw new DataIntegrityViolationException("Beer name and type are required");
+    }
+    Long id = beer.getId();
+    if (id == null) {
+      id = sequence.incrementAndGet();
+    } else {
+      sequence.accumulateAndGet(id, Math::max);
+    }
+    claimName(beer.getName(), id);
+    beer.setId(id);
+
+    var record = BeerRecord.of(beer);
+    Stripe stripe = stripeFor(id);
+    BeerRecord previous;
+    stripe.lock.writeLock().lock();
+    try {
+      previous = stripe.rows.put(id, record);
+      if (previous != null) {
+        stripe.byType.get(previous.type).remove(id);
+      }
+      stripe.byType.get(record.type).put(id, record);
+    } finally {
+      stripe.lock.writeLock().unlock();
+    }
+    if (previous != null && !previous.name.equals(record.name)) {
+      names.remove(previous.name, id);
+    }
+    return beer;
+  }
+
+  @Override
+  public int incrementQuantity(Long id, int quantity) {
+    return adjustQuantity(id, quantity, 0);
+  }
+
+  @Override
+  public int decrementQuantity(Long id, int quantity, int reserved) {
+    return adjustQuantity(id, -quantity, reserved);
+  }
+
+  @Override
+  public void deleteById(Long id) {
+    Stripe stripe = stripeFor(id);
+    BeerRecord removed;
+    stripe.lock.writeLock().lock();
+    try {
+      removed = stripe.rows.remove(id);
+      if (removed != null) {
+        stripe.byType.get(removed.type).remove(id);
+      }
+    } finally {
+      stripe.lock.writeLock().unlock();
+    }
+    requireExisting(id, removed != null);
+    names.remove(removed.name, id);
+  }
+
+  // only the quantity of the record read under the lock changes, so a rename
+  // saved meanwhile is kept
+  private int adjustQuantity(Long id, long delta, long min) {
+    Stripe stripe = stripeFor(id);
+    stripe.lock.writeLock().lock();
+    try {
+      BeerRecord record = stripe.rows.get(id);
+      if (record == null) {
+        return 0;
+      }
+      long quantity = record.quantity + delta;
+      if (quantity < min || quantity > record.max) {
+        return 0;
+      }
+      var changed = record.withQuantity((int) quantity);
+      stripe.rows.put(id, changed);
+      stripe.byType.get(changed.type).put(id, changed);
+      return 1;
+    } finally {
+      stripe.lock.writeLock().unlock();
+    }
+  }
+
+  private void claimName(String name, Long id) {
+    Long owner = names.putIfAbsent(name, id);
+    if (owner != null && !owner.equals(id)) {
+      throw new DataIntegrityViolationException(
+          String.format("Beer name %s is already used by id %s", name, owner));
+    }
+  }
+
+  private Stripe stripeFor(Long id) {
+    int hash = Long.hashCode(id * 0x9E3779B97F4A7C15L);
+    return stripes[Math.floorMod(hash, STRIPES)];
+  }
+
+  private static final class Stripe {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongObjectMap<BeerRecord> rows = new LongObjectMap<>();
+    private final Map<BeerType, LongObjectMap<BeerRecord>> byType =
+        new EnumMap<>(BeerType.class);
+
+    private Stripe() {
+      for (BeerType type : BeerType.values()) {
+        byType.put(type, new LongObjectMap<>());
+      }
+    }
+
+    private void read(LongObjectMap<BeerRecord> records, Consumer<BeerRecord> action) {
+      lock.readLock().lock();
+      try {
+        records.forEachValue(action);
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+  }
+
+  @AllArgsConstructor
+  private static final class BeerRecord {
+    private final long id;
+    private final String name;
+    private final String brand;
+    private final int max;
+    private final int quantity;
+    private final BeerType type;
+
+    private static BeerRecord of(Beer beer) {
+      return new BeerRecord(beer.getId(), beer.getName(), beer.getBrand(), beer.getMax(),
+          beer.getQuantity(), beer.getType());
+    }
+
+    private BeerRecord withQuantity(int quantity) {
+      return new BeerRecord(id, name, brand, max, quantity, type);
+    }
+
+    private Beer toBeer() {
+      return new Beer(id, name, brand, max, quantity, type);
+    }
+  }
+}
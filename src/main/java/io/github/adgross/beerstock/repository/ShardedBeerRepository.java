@@ -0,0 +1,216 @@
+package io.github.adgross.beerstock.repository;
+
+import io.github.adgross.beerstock.entity.Beer;
+import io.github.adgross.beerstock.enums.BeerType;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Spreads beers across several datasources by a hash of their id.
+ *
+ * <p>Ids are handed out by the repository so the owning shard is known before the
+ * insert. A name to id directory, loaded from every shard on startup, keeps names
+ * unique across shards and routes {@link #findByName(String)} to a single shard.
+ * Full scans are scattered over all shards in parallel and gathered by id.
+ *
+ * <p>Stock changes are single conditional updates on the owning shard. Writes
+ * of a whole beer hold a lock of its id while the directory and the shard are
+ * changed, so concurrent saves of one beer cannot leave a name behind. The
+ * directory and the id sequence live in this instance, which makes it the only
+ * writer of the shards.
+ */
+public class ShardedBeerRepository extends AbstractBeerRepository implements DisposableBean {
+
+  private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS beer ("
+      + " id BIGINT PRIMARY KEY,"
+      + " name VARCHAR(255) NOT NULL UNIQUE,"
+      + " brand VARCHAR(255) NOT NULL,"
+      + " max INT NOT NULL,"
+      + " quantity INT NOT NULL,"
+      + " type VARCHAR(255) NOT NULL)";
+  private static final int LOCK_STRIPES = 64;
+  private static final String SELECT = "SELECT id, name, brand, max, quantity, type FROM beer";
+  private static final RowMapper<Beer> ROW_MAPPER = (rs, rowNum) -> new Beer(
+      rs.getLong("id"),
+      rs.getString("name"),
+      rs.getString("brand"),
+      rs.getInt("max"),
+      rs.getInt("quantity"),
+      BeerType.valueOf(rs.getString("type")));
+
+  private final List<DataSource> dataSources;
+  private final List<JdbcTemplate> shards;
+  private final ExecutorService scatterExecutor;
+  private final Map<String, Long> nameDirectory = new ConcurrentHashMap<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final Object[] locks = IntStream.range(0, LOCK_STRIPES)
+      .mapToObj(i -> new Object())
+      .toArray();
+
+  public ShardedBeerRepository(List<DataSource> dataSources) {
+    if (dataSources.isEmpty()) {
+      throw new IllegalArgumentException("At least one shard is required");
+    }
+    this.dataSources = List.copyOf(dataSources);
+    this.shards = dataSources.stream()
+        .map(JdbcTemplate::new)
+        .collect(Collectors.toUnmodifiableList());
+    this.scatterExecutor = Executors.newFixedThreadPool(shards.size());
+    shards.forEach(shard -> shard.execute(CREATE_TABLE));
+    for (Beer beer : findAll()) {
+      nameDirectory.put(beer.getName(), beer.getId());
+      sequence.accumulateAndGet(beer.getId(), Math::max);
+    }
+  }
+
+  public int getShardCount() {
+    return shards.size();
+  }
+
+  @Override
+  public Optional<Beer> findById(Long id) {
+    return shardFor(id).query(SELECT + " WHERE id = ?", ROW_MAPPER, id)
+        .stream()
+        .findFirst();
+  }
+
+  @Override
+  public Optional<Beer> findByName(String name) {
+    Long id = nameDirectory.get(name);
+    return id == null ? Optional.empty() : findById(id)
+        .filter(beer -> beer.getName().equals(name));
+  }
+
+  @Override
+  public List<Beer> findAll() {
+    return scatter(shard -> shard.query(SELECT, ROW_MAPPER))
+        .stream()
+        .flatMap(List::stream)
+        .sorted(Comparator.comparing(Beer::getId))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public long count() {
+    return scatter(shard -> shard.queryForObject("SELECT COUNT(*) FROM beer", Long.class))
+        .stream()
+        .mapToLong(Long::longValue)
+        .sum();
+  }
+
+  @Override
+  public <S extends Beer> S save(S beer) {
+    Long id = beer.getId();
+    if (id == null) {
+      id = sequence.incrementAndGet();
+    } else {
+      sequence.accumulateAndGet(id, Math::max);
+    }
+    synchronized (lockFor(id)) {
+      claimName(beer.getName(), id);
+      beer.setId(id);
+      write(beer);
+    }
+    return beer;
+  }
+
+  @Override
+  public void deleteById(Long id) {
+    synchronized (lockFor(id)) {
+      Optional<Beer> beer = findById(id);
+      requireExisting(id, beer.isPresent());
+      shardFor(id).update("DELETE FROM beer WHERE id = ?", id);
+      nameDirectory.remove(beer.get().getName(), id);
+    }
+  }
+
+  @Override
+  public int incrementQuantity(Long id, int quantity) {
+    return shardFor(id).update("UPDATE beer SET quantity = quantity + ?"
+        + " WHERE id = ? AND quantity <= max - ?", quantity, id, quantity);
+  }
+
+  @Override
+  public int decrementQuantity(Long id, int quantity, int reserved) {
+    return shardFor(id).update("UPDATE beer SET quantity = quantity - ?"
+        + " WHERE id = ? AND quantity - ? >= ?", quantity, id, reserved, quantity);
+  }
+
+  @Override
+  public void destroy() throws Exception {
+    scatterExecutor.shutdown();
+    for (DataSource dataSource : dataSources) {
+      if (dataSource instanceof AutoCloseable) {
+        ((AutoCloseable) dataSource).close();
+      }
+    }
+  }
+
+  // the name is claimed and the lock of the id held
+  private void write(Beer beer) {
+    Long id = beer.getId();
+    Optional<Beer> previous = findById(id);
+    try {
+      if (previous.isPresent()) {
+        shardFor(id).update("UPDATE beer SET name = ?, brand = ?, max = ?, quantity = ?, type = ?"
+                + " WHERE id = ?",
+            beer.getName(), beer.getBrand(), beer.getMax(), beer.getQuantity(),
+            beer.getType().name(), id);
+      } else {
+        shardFor(id).update("INSERT INTO beer (id, name, brand, max, quantity, type)"
+                + " VALUES (?, ?, ?, ?, ?, ?)",
+            id, beer.getName(), beer.getBrand(), beer.getMax(), beer.getQuantity(),
+            beer.getType().name());
+      }
+    } catch (RuntimeException e) {
+      if (previous.map(old -> !old.getName().equals(beer.getName())).orElse(true)) {
+        nameDirectory.remove(beer.getName(), id);
+      }
+      throw e;
+    }
+    previous.map(Beer::getName)
+        .filter(oldName -> !oldName.equals(beer.getName()))
+        .ifPresent(oldName -> nameDirectory.remove(oldName, id));
+  }
+
+  private void claimName(String name, Long id) {
+    Long owner = nameDirectory.putIfAbsent(name, id);
+    if (owner != null && !owner.equals(id)) {
+      throw new DataIntegrityViolationException(
+          String.format("Beer name %s is already used by id %s", name, owner));
+    }
+  }
+
+  private Object lockFor(Long id) {
+    return locks[Math.floorMod(Long.hashCode(id), LOCK_STRIPES)];
+  }
+
+  private JdbcTemplate shardFor(Long id) {
+    int hash = Long.hashCode(id * 0x9E3779B97F4A7C15L);
+    return shards.get(Math.floorMod(hash, shards.size()));
+  }
+
+  private <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+    List<CompletableFuture<T>> futures = shards.stream()
+        .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), scatterExecutor))
+        .collect(Collectors.toList());
+    return futures.stream()
+        .map(CompletableFuture::join)
+        .collect(Collectors.toList());
+  }
+}
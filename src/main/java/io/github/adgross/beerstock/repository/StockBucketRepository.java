@@ -0,0 +1,18 @@
+package io.github.adgross.beerstock.repository;
+
+import io.github.adgross.beerstock.entity.StockBucket;
+import io.github.adgross.beerstock.enums.StockResolution;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface StockBucketRepository extends JpaRepository<StockBucket, Long> {
+
+  @Query("select b from StockBucket b where b.beerId = :beerId and b.resolution = :resolution"
+      + " and b.bucketStart >= :from and b.bucketStart < :to order by b.bucketStart")
+  List<StockBucket> findRange(@Param("beerId") Long beerId,
+      @Param("resolution") StockResolution resolution,
+      @Param("from") Instant from, @Param("to") Instant to);
+}
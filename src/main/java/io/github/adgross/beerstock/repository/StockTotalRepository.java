@@ -0,0 +1,27 @@
+package io.github.adgross.beerstock.repository;
+
+import io.github.adgross.beerstock.entity.StockTotal;
+import io.github.adgross.beerstock.enums.StockTotalScope;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface StockTotalRepository extends JpaRepository<StockTotal, Long> {
+
+  boolean existsByScopeAndOwnerIdAndSlot(StockTotalScope scope, Long ownerId, int slot);
+
+  @Query("select coalesce(sum(t.quantity), 0) from StockTotal t"
+      + " where t.scope = :scope and t.ownerId = :ownerId")
+  long sum(@Param("scope") StockTotalScope scope, @Param("ownerId") Long ownerId);
+
+  @Modifying
+  @Query("update StockTotal t set t.quantity = t.quantity + :delta"
+      + " where t.scope = :scope and t.ownerId = :ownerId and t.slot = :slot")
+  int add(@Param("scope") StockTotalScope scope, @Param("ownerId") Long ownerId,
+      @Param("slot") int slot, @Param("delta") long delta);
+
+  @Modifying
+  @Query("delete from StockTotal t where t.scope = :scope and t.ownerId = :ownerId")
+  int deleteByOwner(@Param("scope") StockTotalScope scope, @Param("ownerId") Long ownerId);
+}
@@ -0,0 +1,28 @@
+package io.github.adgross.beerstock.repository;
+
+import io.github.adgross.beerstock.dto.WarehouseDto;
+import io.github.adgross.beerstock.entity.Warehouse;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface WarehouseRepository extends JpaRepository<Warehouse, Long> {
+
+  // the total of a warehouse is the sum of its slots
+  String DTO_PROJECTION = "select new io.github.adgross.beerstock.dto.WarehouseDto("
+      + "w.id, w.name, coalesce(sum(t.quantity), 0)) from Warehouse w"
+      + " left join StockTotal t on t.ownerId = w.id"
+      + " and t.scope = io.github.adgross.beerstock.enums.StockTotalScope.WAREHOUSE";
+
+  String DTO_GROUPING = " group by w.id, w.name";
+
+  boolean existsByName(String name);
+
+  @Query(DTO_PROJECTION + DTO_GROUPING + " order by w.id")
+  List<WarehouseDto> findAllDtos();
+
+  @Query(DTO_PROJECTION + " where w.id = :id" + DTO_GROUPING)
+  Optional<WarehouseDto> findDtoById(@Param("id") Long id);
+}
@@ -0,0 +1,61 @@
+package io.github.adgross.beerstock.repository;
+
+import io.github.adgross.beerstock.dto.WarehouseStockDto;
+import io.github.adgross.beerstock.entity.WarehouseStock;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface WarehouseStockRepository extends JpaRepository<WarehouseStock, Long> {
+
+  String DTO_PROJECTION = "select new io.github.adgross.beerstock.dto.WarehouseStockDto("
+      + "s.warehouseId, s.beerId, s.max, s.quantity) from WarehouseStock s";
+
+  @Query(DTO_PROJECTION + " where s.warehouseId = :warehouseId and s.beerId = :beerId")
+  Optional<WarehouseStockDto> findDto(@Param("warehouseId") Long warehouseId,
+      @Param("beerId") Long beerId);
+
+  @Query(DTO_PROJECTION + " where s.beerId = :beerId order by s.warehouseId")
+  List<WarehouseStockDto> findDtosByBeerId(@Param("beerId") Long beerId);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select s from WarehouseStock s where s.beerId = :beerId order by s.warehouseId")
+  List<WarehouseStock> findByBeerIdForUpdate(@Param("beerId") Long beerId);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select s from WarehouseStock s"
+      + " where s.warehouseId = :warehouseId and s.beerId = :beerId")
+  Optional<WarehouseStock> findForUpdate(@Param("warehouseId") Long warehouseId,
+      @Param("beerId") Long beerId);
+
+  /**
+   * Adds {@code quantity} to the stock of the beer in the warehouse, unless it
+   * would exceed the max. Returns the number of rows changed.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update WarehouseStock s set s.quantity = s.quantity + :quantity"
+      + " where s.warehouseId = :warehouseId and s.beerId = :beerId"
+      + " and s.quantity <= s.max - :quantity")
+  int incrementQuantity(@Param("warehouseId") Long warehouseId, @Param("beerId") Long beerId,
+      @Param("quantity") int quantity);
+
+  /**
+   * Takes {@code quantity} from the stock of the beer in the warehouse, unless
+   * less than that is left. Returns the number of rows changed.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update WarehouseStock s set s.quantity = s.quantity - :quantity"
+      + " where s.warehouseId = :warehouseId and s.beerId = :beerId"
+      + " and s.quantity >= :quantity")
+  int decrementQuantity(@Param("warehouseId") Long warehouseId, @Param("beerId") Long beerId,
+      @Param("quantity") int quantity);
+
+  @Modifying
+  @Query("delete from WarehouseStock s where s.beerId = :beerId")
+  int deleteByBeerId(@Param("beerId") Long beerId);
+}
@@ -0,0 +1,393 @@
+package io.github.adgross.beerstock.services;
+
+import io.github.adgross.beerstock.config.ImportConfig;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.ImportJobDto;
+import io.github.adgross.beerstock.entity.Beer;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.event.BeerChangedEvent;
+import io.github.adgross.beerstock.exception.BeerAlreadyRegisteredException;
+import io.github.adgross.beerstock.exception.BeerStockExceededException;
+import io.github.adgross.beerstock.exception.ImportJobNotFoundException;
+import io.github.adgross.beerstock.exception.ImportRejectedException;
+import io.github.adgross.beerstock.exception.ImportTooLargeException;
+import io.github.adgross.beerstock.mapper.BeerMapper;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import io.github.adgross.beerstock.util.CsvReader;
+import io.github.adgross.beerstock.validation.BeerDtoValidator;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+
+/**
+ * Imports beer catalogs sent as CSV in the background.
+ *
+ * <p>Uploads are spooled to a temporary file and queued for a small pool of
+ * workers. A worker reads the file one record at a time and inserts the valid
+ * rows in JDBC batches of {@code beerstock.import.batch-size}, so memory does not
+ * grow with the file. Rows breaking the {@link BeerDto} constraints or reusing a
+ * registered name are written to the job error report. An upload takes a slot,
+ * one per worker and queued job, before it is spooled; when none is left, or the
+ * upload outgrows {@code beerstock.import.max-file-size}, it is refused instead
+ * of piling up on disk.
+ */
+@Slf4j
+@Service
+public class BeerImportService implements DisposableBean {
+
+  private static final List<String> COLUMNS =
+      List.of("name", "brand", "max", "quantity", "type");
+  private static final String REPORT_HEADER = "line,field,message\n";
+  private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+  private final BeerRepository beerRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ImportConfig config;
+  private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+  private final BeerDtoValidator validator = new BeerDtoValidator();
+  private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+  private final ThreadPoolExecutor executor;
+  private final Semaphore slots;
+
+  public BeerImportService(BeerRepository beerRepository,
+      PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+      ImportConfig config) {
+    this.beerRepository = beerRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.eventPublisher = eventPublisher;
+    this.config = config;
+    this.slots = new Semaphore(config.getWorkers() + config.getQueueCapacity());
+    var threads = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(config.getWorkers(), config.getWorkers(),
+        0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.getQueueCapacity()),
+        runnable -> {
+          var thread = new Thread(runnable, "beer-import-" + threads.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  public ImportJobDto submit(InputStream csv)
+      throws IOException, ImportRejectedException, ImportTooLargeException {
+    if (!slots.tryAcquire()) {
+      throw new ImportRejectedException(executor.getQueue().size());
+    }
+    try {
+      return queue(csv);
+    } catch (IOException | ImportRejectedException | ImportTooLargeException
+        | RuntimeException e) {
+      slots.release();
+      throw e;
+    }
+  }
+
+  public ImportJobDto find(UUID id) throws ImportJobNotFoundException {
+    return findJob(id).toDto();
+  }
+
+  public Path errorReport(UUID id) throws ImportJobNotFoundException {
+    return findJob(id).getReport();
+  }
+
+  @Scheduled(fixedDelayString = "#{@importConfig.retention.toMillis()}")
+  public void evictFinished() {
+    Instant expired = Instant.now().minus(config.getRetention());
+    jobs.values().removeIf(job -> {
+      if (job.isFinished() && job.getFinishedAt().isBefore(expired)) {
+        delete(job.getReport());
+        return true;
+      }
+      return false;
+    });
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+    jobs.values().forEach(job -> delete(job.getSpool(), job.getReport()));
+  }
+
+  private ImportJobDto queue(InputStream csv)
+      throws IOException, ImportRejectedException, ImportTooLargeException {
+    Path spool = Files.createTempFile("beer-import-", ".csv");
+    Path report = Files.createTempFile("beer-import-errors-", ".csv");
+    try {
+      spool(csv, spool);
+      Files.writeString(report, REPORT_HEADER);
+    } catch (IOException | ImportTooLargeException e) {
+      delete(spool, report);
+      throw e;
+    }
+    var job = new ImportJob(spool, report, Files.size(spool));
+    jobs.put(job.getId(), job);
+    try {
+      executor.execute(() -> run(job));
+    } catch (RejectedExecutionException e) {
+      jobs.remove(job.getId());
+      delete(spool, report);
+      throw new ImportRejectedException(executor.getQueue().size());
+    }
+    return job.toDto();
+  }
+
+  private void spool(InputStream csv, Path spool) throws IOException, ImportTooLargeException {
+    long limit = config.getMaxFileSize().toBytes();
+    long copied = 0;
+    byte[] buffer = new byte[8192];
+    try (var out = Files.newOutputStream(spool)) {
+      for (int read = csv.read(buffer); read >= 0; read = csv.read(buffer)) {
+        copied += read;
+        if (copied > limit) {
+          throw new ImportTooLargeException(config.getMaxFileSize());
+        }
+        out.write(buffer, 0, read);
+      }
+    }
+  }
+
+  private ImportJob findJob(UUID id) throws ImportJobNotFoundException {
+    ImportJob job = jobs.get(id);
+    if (job == null) {
+      throw new ImportJobNotFoundException(id);
+    }
+    return job;
+  }
+
+  private void run(ImportJob job) {
+    job.start();
+    try (var reader = new CsvReader(new InputStreamReader(
+            new CountingInputStream(Files.newInputStream(job.getSpool()), job.getBytesRead()),
+            StandardCharsets.UTF_8));
+        var report = Files.newBufferedWriter(job.getReport(), StandardOpenOption.APPEND)) {
+      importRows(job, reader, report);
+      job.complete();
+      log.info("Import {} read {} rows, imported {} and rejected {} at {} rows/s",
+          job.getId(), job.getRowsRead(), job.getImported(), job.getRejected(),
+          job.rowsPerSecond());
+    } catch (IOException | RuntimeException e) {
+      log.warn("Import {} failed on row {}", job.getId(), job.getRowsRead(), e);
+      job.fail(e.getMessage());
+    } finally {
+      delete(job.getSpool());
+      slots.release();
+    }
+  }
+
+  private void importRows(ImportJob job, CsvReader reader, Writer report) throws IOException {
+    int[] columns = columns(reader.next());
+    List<Row> chunk = new ArrayList<>(config.getBatchSize());
+    for (List<String> record = reader.next(); record != null; record = reader.next()) {
+      if (record.size() == 1 && record.get(0).isBlank()) {
+        continue;
+      }
+      job.getRowsRead().incrementAndGet();
+      var row = new Row(reader.getLine(), new BeerDto());
+      var errors = parse(record, columns, row.beer);
+      if (errors.hasErrors()) {
+        reject(job, report, row.line, errors);
+      } else {
+        chunk.add(row);
+      }
+      if (chunk.size() == config.getBatchSize()) {
+        insert(job, chunk, report);
+      }
+    }
+    insert(job, chunk, report);
+  }
+
+  private int[] columns(List<String> header) throws IOException {
+    if (header == null) {
+      throw new IOException("The file is empty, expected a header with " + COLUMNS);
+    }
+    List<String> names = new ArrayList<>(header.size());
+    for (String name : header) {
+      names.add(name.replace(BYTE_ORDER_MARK, "").trim().toLowerCase(Locale.ROOT));
+    }
+    int[] columns = new int[COLUMNS.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = names.indexOf(COLUMNS.get(i));
+      if (columns[i] < 0) {
+        throw new IOException("The header has no " + COLUMNS.get(i) + " column, expected "
+            + COLUMNS);
+      }
+    }
+    return columns;
+  }
+
+  private Errors parse(List<String> record, int[] columns, BeerDto beer) {
+    var errors = new BeanPropertyBindingResult(beer, "beerDto");
+    if (Arrays.stream(columns).anyMatch(column -> column >= record.size())) {
+      errors.reject("columns", String.format("expected at least %d columns but found %d",
+          Arrays.stream(columns).max().getAsInt() + 1, record.size()));
+      return errors;
+    }
+    beer.setName(record.get(columns[0]));
+    beer.setBrand(record.get(columns[1]));
+    beer.setMax(parseNumber("max", record.get(columns[2]), errors));
+    beer.setQuantity(parseNumber("quantity", record.get(columns[3]), errors));
+    beer.setType(parseType(record.get(columns[4]), errors));
+    if (!errors.hasErrors()) {
+      validator.validate(beer, errors);
+    }
+    if (!errors.hasErrors() && beer.getQuantity() > beer.getMax()) {
+      errors.rejectValue("quantity", "Exceeded", new BeerStockExceededException(beer).getMessage());
+    }
+    return errors;
+  }
+
+  private int parseNumber(String field, String value, Errors errors) {
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      errors.rejectValue(field, "typeMismatch", "must be a whole number");
+      return 0;
+    }
+  }
+
+  private BeerType parseType(String value, Errors errors) {
+    try {
+      return BeerType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      errors.rejectValue("type", "typeMismatch",
+          "must be one of " + Arrays.toString(BeerType.values()));
+      return null;
+    }
+  }
+
+  private void insert(ImportJob job, List<Row> chunk, Writer report) throws IOException {
+    List<Row> unique = new ArrayList<>(chunk.size());
+    Set<String> names = new HashSet<>();
+    for (Row row : chunk) {
+      if (names.add(row.beer.getName())) {
+        unique.add(row);
+      } else {
+        rejectName(job, report, row);
+      }
+    }
+    List<Beer> inserted;
+    try {
+      inserted = insertAll(unique);
+    } catch (DataIntegrityViolationException e) {
+      // a name is already registered, find which ones row by row
+      inserted = new ArrayList<>(unique.size());
+      for (Row row : unique) {
+        try {
+          inserted.addAll(insertAll(List.of(row)));
+        } catch (DataIntegrityViolationException duplicate) {
+          rejectName(job, report, row);
+        }
+      }
+    }
+    job.getImported().addAndGet(inserted.size());
+    inserted.forEach(beer -> eventPublisher.publishEvent(
+        BeerChangedEvent.created(beerMapper.toDto(beer))));
+    chunk.clear();
+    report.flush();
+  }
+
+  private List<Beer> insertAll(List<Row> rows) {
+    List<Beer> beers = new ArrayList<>(rows.size());
+    rows.forEach(row -> beers.add(beerMapper.toModel(row.beer)));
+    return transactionTemplate.execute(status -> beerRepository.insertAll(beers));
+  }
+
+  private void rejectName(ImportJob job, Writer report, Row row) throws IOException {
+    var errors = new BeanPropertyBindingResult(row.beer, "beerDto");
+    errors.rejectValue("name", "Unique",
+        new BeerAlreadyRegisteredException(row.beer.getName()).getMessage());
+    reject(job, report, row.line, errors);
+  }
+
+  private void reject(ImportJob job, Writer report, long line, Errors errors)
+      throws IOException {
+    job.getRejected().incrementAndGet();
+    for (ObjectError error : errors.getAllErrors()) {
+      String field = error instanceof FieldError ? ((FieldError) error).getField() : "";
+      report.write(line + "," + field + "," + quote(error.getDefaultMessage()) + "\n");
+    }
+  }
+
+  private static String quote(String value) {
+    return "\"" + value.replace("\"", "\"\"") + "\"";
+  }
+
+  private static void delete(Path... paths) {
+    for (Path path : paths) {
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException e) {
+        log.warn("Could not delete {}", path, e);
+      }
+    }
+  }
+
+  @AllArgsConstructor
+  private static class Row {
+    private final long line;
+    private final BeerDto beer;
+  }
+
+  private static class CountingInputStream extends FilterInputStream {
+    private final AtomicLong count;
+
+    CountingInputStream(InputStream in, AtomicLong count) {
+      super(in);
+      this.count = count;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b != -1) {
+        count.incrementAndGet();
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = super.read(b, off, len);
+      if (read > 0) {
+        count.addAndGet(read);
+      }
+      return read;
+    }
+  }
+}
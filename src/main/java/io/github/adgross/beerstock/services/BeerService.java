@@ -1,108 +1,323 @@
 package io.github.adgross.beerstock.services;
 
 import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.BeerFields;
+import io.github.adgross.beerstock.dto.SparseBeerDto;
+import io.github.adgross.beerstock.dto.SuggestionDto;
 import io.github.adgross.beerstock.entity.Beer;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.event.BeerChangedEvent;
 import io.github.adgross.beerstock.exception.BeerAlreadyRegisteredException;
 import io.github.adgross.beerstock.exception.BeerNotFoundException;
 import io.github.adgross.beerstock.exception.BeerStockExceededException;
 import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.MissingDeleteCriteriaException;
+import io.github.adgross.beerstock.index.BeerSearchIndex;
+import io.github.adgross.beerstock.index.BeerSnapshotStore;
+import io.github.adgross.beerstock.index.BeerStockLevelIndex;
+import io.github.adgross.beerstock.index.BeerSuggestIndex;
+import io.github.adgross.beerstock.jfr.StockOperationEvent;
 import io.github.adgross.beerstock.mapper.BeerMapper;
 import io.github.adgross.beerstock.repository.BeerRepository;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
 import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @AllArgsConstructor(onConstructor = @__({@Autowired}))
 public class BeerService {
 
+  private static final int MAX_SEARCH_RESULTS = 100;
+  private static final int DELETE_CHUNK_SIZE = 1000;
+  private static final String CREATE = "create";
+  private static final String UPDATE = "update";
+  private static final String INCREMENT = "increment";
+  private static final String DECREMENT = "decrement";
+
   private final BeerRepository beerRepository;
+  private final StockMutationCoalescer stockMutationCoalescer;
+  private final StockReservations stockReservations;
+  private final BeerSearchIndex beerSearchIndex;
+  private final BeerSuggestIndex beerSuggestIndex;
+  private final BeerStockLevelIndex beerStockLevelIndex;
+  private final BeerSnapshotStore beerSnapshotStore;
+  private final ApplicationEventPublisher eventPublisher;
+  private final PlatformTransactionManager transactionManager;
   private final BeerMapper beerMapper = BeerMapper.INSTANCE;
 
+  @Transactional(readOnly = true)
   public List<BeerDto> listAll() {
-    return beerRepository.findAll()
-        .stream()
-        .map(beerMapper::toDto)
+    return beerRepository.findAllDtos();
+  }
+
+  @Transactional(readOnly = true)
+  public List<SparseBeerDto> listAll(BeerFields fields) {
+    return beerRepository.findAllFields(fields).stream()
+        .map(values -> new SparseBeerDto(fields, values))
+        .collect(Collectors.toList());
+  }
+
+  public List<BeerDto> search(String query, int limit) {
+    return beerSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+  }
+
+  public List<SparseBeerDto> search(String query, int limit, BeerFields fields) {
+    return search(query, limit).stream()
+        .map(beer -> SparseBeerDto.of(fields, beer))
         .collect(Collectors.toList());
   }
 
+  public List<SuggestionDto> suggest(String prefix, int limit) {
+    return beerSuggestIndex.suggest(prefix,
+        Math.max(1, Math.min(limit, BeerSuggestIndex.MAX_SUGGESTIONS)));
+  }
+
+  public List<BeerDto> lowStock(int limit, double threshold) {
+    return beerStockLevelIndex.lowest(
+        Math.max(1, Math.min(limit, BeerStockLevelIndex.MAX_RESULTS)), threshold);
+  }
+
+  @Transactional(readOnly = true)
   public BeerDto find(String name) throws BeerNotFoundException {
-    return beerMapper.toDto(findBeer(name));
+    return beerRepository.findDtoByName(name)
+        .orElseThrow(() -> new BeerNotFoundException(name));
   }
 
   public BeerDto find(Long id) throws BeerNotFoundException {
-    return beerMapper.toDto(findBeer(id));
+    Optional<BeerDto> snapshot = beerSnapshotStore.find(id);
+    if (snapshot.isPresent()) {
+      return snapshot.get();
+    }
+    return beerRepository.findDtoById(id)
+        .orElseThrow(() -> new BeerNotFoundException(id));
+  }
+
+  @Transactional(readOnly = true)
+  public SparseBeerDto find(String name, BeerFields fields) throws BeerNotFoundException {
+    return beerRepository.findFieldsByName(name, fields)
+        .map(values -> new SparseBeerDto(fields, values))
+        .orElseThrow(() -> new BeerNotFoundException(name));
+  }
+
+  @Transactional(readOnly = true)
+  public SparseBeerDto find(Long id, BeerFields fields) throws BeerNotFoundException {
+    return beerRepository.findFieldsById(id, fields)
+        .map(values -> new SparseBeerDto(fields, values))
+        .orElseThrow(() -> new BeerNotFoundException(id));
   }
 
   public BeerDto createBeer(BeerDto beerDto)
       throws BeerAlreadyRegisteredException, BeerStockExceededException {
-    String name = beerDto.getName();
-    if (isExceeded(beerDto)) {
-      throw new BeerStockExceededException(beerDto);
-    } else if (isRegistered(name)) {
-      throw new BeerAlreadyRegisteredException(name);
-    } else {
-      Beer beer = beerMapper.toModel(beerDto);
-      Beer savedBeer = beerRepository.save(beer);
-      return beerMapper.toDto(savedBeer);
+    var event = StockOperationEvent.start(CREATE, null, beerDto.getQuantity());
+    try {
+      String name = beerDto.getName();
+      if (isExceeded(beerDto)) {
+        throw new BeerStockExceededException(beerDto);
+      } else if (isRegistered(name)) {
+        throw new BeerAlreadyRegisteredException(name);
+      } else {
+        Beer beer = beerMapper.toModel(beerDto);
+        Beer savedBeer = beerRepository.save(beer);
+        BeerDto created = beerMapper.toDto(savedBeer);
+        eventPublisher.publishEvent(BeerChangedEvent.created(created));
+        event.setBeer(created);
+        return created;
+      }
+    } catch (Throwable failure) {
+      event.setFailure(failure);
+      throw failure;
+    } finally {
+      event.commit();
     }
   }
 
   public void deleteBeer(Long id) {
-    if (isRegistered(id)) {
+    var beer = beerRepository.findById(id);
+    if (beer.isPresent()) {
       beerRepository.deleteById(id);
+      eventPublisher.publishEvent(BeerChangedEvent.deleted(beerMapper.toDto(beer.get())));
     }
   }
 
   @Transactional
   public void deleteBeer(String name) {
-    if (isRegistered(name)) {
+    var beer = beerRepository.findByName(name);
+    if (beer.isPresent()) {
       beerRepository.deleteByName(name);
+      eventPublisher.publishEvent(BeerChangedEvent.deleted(beerMapper.toDto(beer.get())));
+    }
+  }
+
+  /**
+   * Deletes the beers with the given ids and returns how many existed. The rows
+   * are locked and deleted with one statement per thousand ids.
+   */
+  @Transactional
+  public int deleteBeers(Collection<Long> ids) {
+    List<Long> pending = new ArrayList<>(ids);
+    int deleted = 0;
+    for (int from = 0; from < pending.size(); from += DELETE_CHUNK_SIZE) {
+      var chunk = pending.subList(from, Math.min(from + DELETE_CHUNK_SIZE, pending.size()));
+      deleted += delete(beerRepository.findDtosByIdsForUpdate(chunk));
     }
+    return deleted;
+  }
+
+  /**
+   * Deletes the beers of the given brand and type, and only the ones out of
+   * stock when {@code outOfStock} is set. At least one criterion is required.
+   */
+  @Transactional
+  public int deleteBeers(String brand, BeerType type, boolean outOfStock)
+      throws MissingDeleteCriteriaException {
+    if (brand == null && type == null && !outOfStock) {
+      throw new MissingDeleteCriteriaException();
+    }
+    return delete(beerRepository.findDtosMatchingForUpdate(brand, type, outOfStock));
   }
 
   public BeerDto updateBeer(Long id, BeerDto beerDto)
       throws BeerNotFoundException, BeerStockExceededException, BeerAlreadyRegisteredException {
-    if (isExceeded(beerDto)) {
-      throw new BeerStockExceededException(beerDto);
-    } else {
-      Beer beerOld = findBeer(id);
-
-      var possibleDuplicate = beerDto.getName();
-      if (!beerOld.getName().equals(possibleDuplicate) && isRegistered(possibleDuplicate)) {
-        throw new BeerAlreadyRegisteredException(possibleDuplicate);
-      }
+    var event = StockOperationEvent.start(UPDATE, id, 0);
+    try {
+      if (isExceeded(beerDto)) {
+        throw new BeerStockExceededException(beerDto);
+      } else {
+        Beer beerOld = findBeer(id);
 
-      Beer beerNew = beerMapper.toModel(beerDto);
-      beerNew.setId(id);
-      Beer savedBeer = beerRepository.save(beerNew);
-      return beerMapper.toDto(savedBeer);
+        var possibleDuplicate = beerDto.getName();
+        if (!beerOld.getName().equals(possibleDuplicate) && isRegistered(possibleDuplicate)) {
+          throw new BeerAlreadyRegisteredException(possibleDuplicate);
+        }
+
+        BeerDto previous = beerMapper.toDto(beerOld);
+        event.setDelta(beerDto.getQuantity() - beerOld.getQuantity());
+        Beer beerNew = beerMapper.toModel(beerDto);
+        beerNew.setId(id);
+        Beer savedBeer = beerRepository.save(beerNew);
+        return updated(previous, savedBeer);
+      }
+    } catch (Throwable failure) {
+      event.setFailure(failure);
+      throw failure;
+    } finally {
+      event.commit();
     }
   }
 
   public BeerDto increment(Long id, int quantity)
       throws BeerStockExceededException, BeerNotFoundException {
-    Beer beerToIncrement = findBeer(id);
-    if (beerToIncrement.getQuantity() <= beerToIncrement.getMax() - quantity) {
-      beerToIncrement.setQuantity(beerToIncrement.getQuantity() + quantity);
-      Beer incrementedBeer = beerRepository.save(beerToIncrement);
-      return beerMapper.toDto(incrementedBeer);
+    var event = StockOperationEvent.start(INCREMENT, id, quantity);
+    try {
+      if (stockMutationCoalescer.isEnabled()) {
+        return stockMutationCoalescer.increment(id, quantity);
+      }
+      return changeStock(id, quantity, () -> beerRepository.incrementQuantity(id, quantity),
+          beer -> new BeerStockExceededException(id, quantity, beer.getMax()));
+    } catch (Throwable failure) {
+      event.setFailure(failure);
+      throw failure;
+    } finally {
+      event.commit();
     }
-    throw new BeerStockExceededException(id, quantity, beerToIncrement.getMax());
   }
 
   public BeerDto decrement(Long id, int quantity)
       throws BeerStockNonExistentQuantityException, BeerNotFoundException {
-    Beer beerToDecrement = findBeer(id);
-    if (beerToDecrement.getQuantity() >= quantity) {
-      beerToDecrement.setQuantity(beerToDecrement.getQuantity() - quantity);
-      Beer decrementedBeer = beerRepository.save(beerToDecrement);
-      return beerMapper.toDto(decrementedBeer);
+    return decrement(id, quantity, 0);
+  }
+
+  /**
+   * Takes {@code quantity} from the stock, {@code held} of which are reserved
+   * for the caller and may be used. The reserved units are read and the stock
+   * changed under the lock of the beer, so no hold is taken in between.
+   */
+  BeerDto decrement(Long id, int quantity, int held)
+      throws BeerStockNonExistentQuantityException, BeerNotFoundException {
+    var event = StockOperationEvent.start(DECREMENT, id, -quantity);
+    try {
+      if (held == 0 && stockMutationCoalescer.isEnabled()) {
+        return stockMutationCoalescer.decrement(id, quantity);
+      }
+      Lock lock = stockReservations.lockFor(id);
+      lock.lock();
+      try {
+        int reserved = stockReservations.reserved(id) - held;
+        return changeStock(id, -quantity,
+            () -> beerRepository.decrementQuantity(id, quantity, reserved),
+            beer -> new BeerStockNonExistentQuantityException(id, quantity));
+      } finally {
+        lock.unlock();
+      }
+    } catch (Throwable failure) {
+      event.setFailure(failure);
+      throw failure;
+    } finally {
+      event.commit();
+    }
+  }
+
+  private int delete(List<BeerDto> beers) {
+    List<Long> ids = new ArrayList<>(beers.size());
+    beers.forEach(beer -> ids.add(beer.getId()));
+    int deleted = 0;
+    for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+      deleted += beerRepository.deleteByIds(
+          ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size())));
     }
-    throw new BeerStockNonExistentQuantityException(id, quantity);
+    beers.forEach(beer -> eventPublisher.publishEvent(BeerChangedEvent.deleted(beer)));
+    return deleted;
+  }
+
+  /**
+   * Changes the stock by {@code delta} with a single conditional update, so
+   * concurrent changes of the same beer cannot overwrite each other. The beer is
+   * read back in the same transaction, while the update still holds its row, to
+   * return the new stock or to report why it was rejected. Like the checked
+   * exceptions of {@code @Transactional} methods, a rejection commits, as it
+   * wrote nothing; H2 may restore a stale row when such a transaction is rolled
+   * back.
+   */
+  private <E extends Exception> BeerDto changeStock(Long id, int delta, IntSupplier update,
+      Function<BeerDto, E> rejection) throws E, BeerNotFoundException {
+    TransactionStatus transaction =
+        transactionManager.getTransaction(TransactionDefinition.withDefaults());
+    boolean changed;
+    Optional<BeerDto> found;
+    try {
+      changed = update.getAsInt() == 1;
+      found = beerRepository.findCurrentDtoById(id);
+    } catch (Throwable failure) {
+      transactionManager.rollback(transaction);
+      throw failure;
+    }
+    transactionManager.commit(transaction);
+    BeerDto current = found.orElseThrow(() -> new BeerNotFoundException(id));
+    if (!changed) {
+      throw rejection.apply(current);
+    }
+    BeerDto previous = current.toBuilder().quantity(current.getQuantity() - delta).build();
+    eventPublisher.publishEvent(BeerChangedEvent.updated(previous, current));
+    return current;
+  }
+
+  private BeerDto updated(BeerDto previous, Beer saved) {
+    BeerDto current = beerMapper.toDto(saved);
+    eventPublisher.publishEvent(BeerChangedEvent.updated(previous, current));
+    return current;
   }
 
   private Beer findBeer(Long id) throws BeerNotFoundException {
@@ -110,19 +325,10 @@ public class BeerService {
         .orElseThrow(() -> new BeerNotFoundException(id));
   }
 
-  private Beer findBeer(String name) throws BeerNotFoundException {
-    return beerRepository.findByName(name)
-        .orElseThrow(() -> new BeerNotFoundException(name));
-  }
-
   private boolean isExceeded(BeerDto beer) {
     return beer.getQuantity() > beer.getMax();
   }
 
-  private boolean isRegistered(Long id) {
-    return beerRepository.findById(id).isPresent();
-  }
-
   private boolean isRegistered(String name) {
     return beerRepository.findByName(name).isPresent();
   }
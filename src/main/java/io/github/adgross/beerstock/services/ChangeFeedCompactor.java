@@ -0,0 +1,85 @@
+package io.github.adgross.beerstock.services;
+
+import io.github.adgross.beerstock.config.ChangeFeedConfig;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the change feed horizon, the highest sequence that can no longer be
+ * replayed.
+ *
+ * <p>Tombstones older than the configured retention are removed and the horizon
+ * raised to the highest one removed. Clients behind the horizon may have missed
+ * a deletion and have to sync again from 0.
+ */
+@Slf4j
+@Lazy(false)
+@Component
+@Profile("!embedded")
+public class ChangeFeedCompactor {
+
+  private static final int HORIZON_ID = 1;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ChangeFeedConfig config;
+
+  public ChangeFeedCompactor(JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager, ChangeFeedConfig config) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.config = config;
+  }
+
+  @Scheduled(fixedDelayString = "#{@changeFeedConfig.compactionInterval.toMillis()}",
+      initialDelayString = "#{@changeFeedConfig.compactionInterval.toMillis()}")
+  public void compact() {
+    compact(Instant.now());
+  }
+
+  /**
+   * Removes the tombstones older than the retention at the given instant and
+   * returns the horizon.
+   */
+  public long compact(Instant now) {
+    Timestamp cutoff = Timestamp.from(now.minus(config.getTombstoneRetention()));
+    return Objects.requireNonNull(transactionTemplate.execute(status -> {
+      Long highest = jdbcTemplate.queryForObject("select max(seq) from beer_change"
+          + " where deleted = true and changed_at < ?", Long.class, cutoff);
+      long horizon = raiseHorizon(highest == null ? 0 : highest);
+      int removed = jdbcTemplate.update("delete from beer_change where deleted = true"
+          + " and seq <= ?", horizon);
+      log.debug("Change feed compacted {} tombstones up to {}", removed, horizon);
+      return horizon;
+    }));
+  }
+
+  /**
+   * Moves the horizon up to {@code seq} unless it is already past it and
+   * returns the horizon.
+   */
+  public synchronized long raiseHorizon(long seq) {
+    return Objects.requireNonNull(transactionTemplate.execute(status -> {
+      if (jdbcTemplate.update("update change_horizon set seq = ? where id = ? and seq < ?",
+          seq, HORIZON_ID, seq) == 0) {
+        Long rows = jdbcTemplate.queryForObject("select count(*) from change_horizon",
+            Long.class);
+        if (rows == null || rows == 0) {
+          jdbcTemplate.update("insert into change_horizon (id, seq) values (?, ?)",
+              HORIZON_ID, seq);
+        }
+      }
+      return jdbcTemplate.queryForObject("select seq from change_horizon where id = ?",
+          Long.class, HORIZON_ID);
+    }));
+  }
+}
@@ -0,0 +1,49 @@
+package io.github.adgross.beerstock.services;
+
+import io.github.adgross.beerstock.dto.BeerChangeDto;
+import io.github.adgross.beerstock.dto.BeerChangesDto;
+import io.github.adgross.beerstock.exception.ChangesCompactedException;
+import io.github.adgross.beerstock.repository.BeerChangeRepository;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Serves the change feed. Clients keep the {@code next} sequence of the last page
+ * they read and ask for the changes after it; starting from 0 returns every beer.
+ */
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+@Profile("!embedded")
+public class ChangeFeedService {
+
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  private final BeerChangeRepository changeRepository;
+  private final ChangeFeedWriter changeFeedWriter;
+
+  @Transactional(readOnly = true)
+  public BeerChangesDto changes(long since, int limit) throws ChangesCompactedException {
+    int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    List<BeerChangeDto> changes = changeRepository.findSince(since, PageRequest.of(0, size + 1));
+    // read after the rows, a compaction in between must not go unnoticed
+    long horizon = changeRepository.findHorizon();
+    if (since != 0 && (since < horizon || since > changeFeedWriter.getLastSeq())) {
+      throw new ChangesCompactedException(since, horizon);
+    }
+    boolean more = changes.size() > size;
+    if (more) {
+      changes = changes.subList(0, size);
+    }
+    return BeerChangesDto.builder()
+        .changes(changes)
+        .next(changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq())
+        .more(more)
+        .horizon(horizon)
+        .build();
+  }
+}
@@ -0,0 +1,287 @@
+package io.github.adgross.beerstock.services;
+
+import io.github.adgross.beerstock.config.ChangeFeedConfig;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.event.BeerChangedEvent;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Stamps every beer change with the next change sequence and stores it in the
+ * change feed.
+ *
+ * <p>Changes are queued once they have committed. A single worker takes them in
+ * order, numbers them and writes them with JDBC batches, so rows always become
+ * visible in sequence order and a client that has read up to {@code N} never
+ * misses a later change with a lower number. The worker reads the beers of a
+ * batch again when writing it, so a change that was published after a newer one
+ * still stores the latest committed state, a beer no longer found being a
+ * tombstone.
+ *
+ * <p>Publishers never wait: when the queue is full the change is dropped, the
+ * horizon is raised and every beer is written again, so clients behind sync
+ * again instead of silently missing it. Likewise, when a batch cannot be written
+ * the horizon is raised past it.
+ */
+@Slf4j
+@Component
+@Profile("!embedded")
+public class ChangeFeedWriter implements InitializingBean, DisposableBean {
+
+  private static final String UPDATE_CHANGE = "update beer_change set seq = ?, deleted = ?,"
+      + " name = ?, brand = ?, max = ?, quantity = ?, type = ?, changed_at = ?"
+      + " where beer_id = ?";
+  private static final String INSERT_CHANGE = "insert into beer_change (seq, deleted,"
+      + " name, brand, max, quantity, type, changed_at, beer_id)"
+      + " values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final BeerRepository beerRepository;
+  private final ChangeFeedCompactor compactor;
+  private final ChangeFeedConfig config;
+  private final BlockingQueue<Change> queue;
+  private final AtomicLong lastSeq = new AtomicLong();
+  private final AtomicLong written = new AtomicLong();
+  private volatile Thread worker;
+  private volatile boolean overflowed;
+
+  public ChangeFeedWriter(JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager, BeerRepository beerRepository,
+      ChangeFeedCompactor compactor, ChangeFeedConfig config) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.beerRepository = beerRepository;
+    this.compactor = compactor;
+    this.config = config;
+    this.queue = new LinkedBlockingQueue<>(config.getQueueCapacity());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBeerChanged(BeerChangedEvent event) {
+    // the publisher may still hold locks, it must not wait for the writer
+    if (!queue.offer(new Change(event.getBeerId(), Instant.now()))) {
+      overflow();
+    }
+  }
+
+  /**
+   * Returns the highest sequence handed out so far. Rows up to it are either
+   * visible or about to be.
+   */
+  public long getLastSeq() {
+    return lastSeq.get();
+  }
+
+  public long getWritten() {
+    return written.get();
+  }
+
+  public int getPending() {
+    return queue.size();
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    long horizon = compactor.raiseHorizon(0);
+    Long highest = jdbcTemplate.queryForObject("select max(seq) from beer_change", Long.class);
+    lastSeq.set(Math.max(horizon, highest == null ? 0 : highest));
+    worker = new Thread(this::run, "change-feed-writer");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    worker.interrupt();
+    worker.join(TimeUnit.SECONDS.toMillis(5));
+    List<Change> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    write(remaining);
+  }
+
+  private void run() {
+    if (lastSeq.get() == 0) {
+      backfill();
+    }
+    List<Change> batch = new ArrayList<>();
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + config.getFlushInterval().toNanos();
+        while (batch.size() < config.getBatchSize()) {
+          long remaining = deadline - System.nanoTime();
+          Change next = remaining > 0
+              ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+              : queue.poll();
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (overflowed) {
+        resync();
+      } else {
+        write(batch);
+      }
+      batch.clear();
+    }
+  }
+
+  void overflow() {
+    overflowed = true;
+  }
+
+  // the dropped changes are unknown, every beer is written again past the horizon
+  private void resync() {
+    overflowed = false;
+    queue.clear();
+    // clients caught up so far may have missed the dropped changes too
+    long horizon = lastSeq.incrementAndGet();
+    log.warn("The change feed queue overflowed, raising the horizon to {}", horizon);
+    try {
+      compactor.raiseHorizon(horizon);
+    } catch (RuntimeException e) {
+      log.error("Raising the change feed horizon to {} failed", horizon, e);
+    }
+    backfill();
+  }
+
+  // beers stored before the feed existed, or changed while it overflowed, would be
+  // missing from a full sync
+  private void backfill() {
+    try {
+      Instant now = Instant.now();
+      Set<Long> listed = new LinkedHashSet<>(jdbcTemplate.queryForList(
+          "select beer_id from beer_change where deleted = false order by beer_id",
+          Long.class));
+      List<Change> existing = new ArrayList<>();
+      for (BeerDto beer : beerRepository.findAllDtos()) {
+        listed.remove(beer.getId());
+        existing.add(new Change(beer.getId(), now));
+        if (existing.size() == config.getBatchSize()) {
+          write(existing);
+          existing.clear();
+        }
+      }
+      // not found when read again, so written as tombstones
+      for (Long deleted : listed) {
+        existing.add(new Change(deleted, now));
+        if (existing.size() == config.getBatchSize()) {
+          write(existing);
+          existing.clear();
+        }
+      }
+      write(existing);
+    } catch (RuntimeException e) {
+      log.warn("Adding the stored beers to the change feed failed", e);
+    }
+  }
+
+  private void write(List<Change> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    // only the last change of each beer is kept
+    Map<Long, Change> latest = new LinkedHashMap<>();
+    for (Change change : batch) {
+      change.seq = lastSeq.incrementAndGet();
+      latest.remove(change.beerId);
+      latest.put(change.beerId, change);
+    }
+    List<Change> changes = new ArrayList<>(latest.values());
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        Map<Long, BeerDto> current = new HashMap<>();
+        beerRepository.findCurrentDtosByIds(latest.keySet())
+            .forEach(beer -> current.put(beer.getId(), beer));
+        changes.forEach(change -> change.beer = current.get(change.beerId));
+        upsert(changes);
+      });
+      written.addAndGet(batch.size());
+    } catch (RuntimeException e) {
+      long seq = batch.get(batch.size() - 1).seq;
+      log.warn("Writing {} changes failed, raising the change feed horizon to {}",
+          batch.size(), seq, e);
+      try {
+        compactor.raiseHorizon(seq);
+      } catch (RuntimeException horizon) {
+        log.error("Raising the change feed horizon to {} failed", seq, horizon);
+      }
+    }
+  }
+
+  private void upsert(List<Change> changes) {
+    int[] updated = jdbcTemplate.batchUpdate(UPDATE_CHANGE, changes, changes.size(),
+        (statement, change) -> change.bind(statement))[0];
+    List<Change> missing = new ArrayList<>();
+    for (int i = 0; i < updated.length; i++) {
+      if (updated[i] == 0) {
+        missing.add(changes.get(i));
+      }
+    }
+    if (!missing.isEmpty()) {
+      jdbcTemplate.batchUpdate(INSERT_CHANGE, missing, missing.size(),
+          (statement, change) -> change.bind(statement));
+    }
+  }
+
+  private static final class Change {
+    private final Long beerId;
+    private final Instant changedAt;
+    private BeerDto beer;
+    private long seq;
+
+    private Change(Long beerId, Instant changedAt) {
+      this.beerId = beerId;
+      this.changedAt = changedAt;
+    }
+
+    private void bind(PreparedStatement statement) throws SQLException {
+      statement.setLong(1, seq);
+      statement.setBoolean(2, beer == null);
+      if (beer == null) {
+        statement.setNull(3, Types.VARCHAR);
+        statement.setNull(4, Types.VARCHAR);
+        statement.setNull(5, Types.INTEGER);
+        statement.setNull(6, Types.INTEGER);
+        statement.setNull(7, Types.VARCHAR);
+      } else {
+        statement.setString(3, beer.getName());
+        statement.setString(4, beer.getBrand());
+        statement.setInt(5, beer.getMax());
+        statement.setInt(6, beer.getQuantity());
+        statement.setString(7, beer.getType().name());
+      }
+      statement.setTimestamp(8, Timestamp.from(changedAt));
+      statement.setLong(9, beerId);
+    }
+  }
+}
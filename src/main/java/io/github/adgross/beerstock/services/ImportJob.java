@@ -0,0 +1,84 @@
+package io.github.adgross.beerstock.services;
+
+import io.github.adgross.beerstock.dto.ImportJobDto;
+import io.github.adgross.beerstock.enums.ImportStatus;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+
+/**
+ * Progress of one import, updated by its worker and read by the polling requests.
+ */
+@Getter
+class ImportJob {
+
+  private final UUID id = UUID.randomUUID();
+  private final Path spool;
+  private final Path report;
+  private final long size;
+  private final Instant submittedAt = Instant.now();
+  private final AtomicLong bytesRead = new AtomicLong();
+  private final AtomicLong rowsRead = new AtomicLong();
+  private final AtomicLong imported = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private volatile ImportStatus status = ImportStatus.QUEUED;
+  private volatile Instant startedAt;
+  private volatile Instant finishedAt;
+  private volatile String error;
+
+  ImportJob(Path spool, Path report, long size) {
+    this.spool = spool;
+    this.report = report;
+    this.size = size;
+  }
+
+  void start() {
+    startedAt = Instant.now();
+    status = ImportStatus.RUNNING;
+  }
+
+  void complete() {
+    finishedAt = Instant.now();
+    status = ImportStatus.COMPLETED;
+  }
+
+  void fail(String error) {
+    this.error = error;
+    finishedAt = Instant.now();
+    status = ImportStatus.FAILED;
+  }
+
+  boolean isFinished() {
+    return finishedAt != null;
+  }
+
+  long rowsPerSecond() {
+    Instant started = startedAt;
+    if (started == null) {
+      return 0;
+    }
+    Instant finished = finishedAt;
+    long nanos = Duration.between(started, finished != null ? finished : Instant.now()).toNanos();
+    return nanos == 0 ? 0 : rowsRead.get() * 1_000_000_000L / nanos;
+  }
+
+  ImportJobDto toDto() {
+    boolean completed = status == ImportStatus.COMPLETED;
+    return ImportJobDto.builder()
+        .id(id)
+        .status(status)
+        .progress(completed || size == 0 ? 100 : Math.floor(bytesRead.get() * 1000.0 / size) / 10)
+        .rowsRead(rowsRead.get())
+        .imported(imported.get())
+        .rejected(rejected.get())
+        .rowsPerSecond(rowsPerSecond())
+        .submittedAt(submittedAt)
+        .startedAt(startedAt)
+        .finishedAt(finishedAt)
+        .error(error)
+        .build();
+  }
+}
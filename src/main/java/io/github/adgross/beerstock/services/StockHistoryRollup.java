@@ -0,0 +1,168 @@
+package io.github.adgross.beerstock.services;
+
+import io.github.adgross.beerstock.config.HistoryConfig;
+import io.github.adgross.beerstock.enums.StockResolution;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Downsamples the stock history.
+ *
+ * <p>Movements of finished hours are summed into hourly buckets and removed.
+ * Hourly buckets older than the configured retention are in turn summed into
+ * daily buckets and removed. Buckets are aligned on UTC hours and days.
+ */
+@Slf4j
+@Lazy(false)
+@Component
+@Profile("!embedded")
+public class StockHistoryRollup {
+
+  private static final String UPDATE_BUCKET = "update stock_bucket"
+      + " set increments = increments + ?, decrements = decrements + ?,"
+      + " movements = movements + ?, closing_quantity = ?"
+      + " where beer_id = ? and resolution = ? and bucket_start = ?";
+  private static final String INSERT_BUCKET = "insert into stock_bucket"
+      + " (increments, decrements, movements, closing_quantity, beer_id, resolution, bucket_start)"
+      + " values (?, ?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final HistoryConfig config;
+
+  public StockHistoryRollup(JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager, HistoryConfig config) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.config = config;
+  }
+
+  @Scheduled(fixedDelayString = "#{@historyConfig.rollupInterval.toMillis()}",
+      initialDelayString = "#{@historyConfig.rollupInterval.toMillis()}")
+  public void rollUp() {
+    rollUp(Instant.now());
+  }
+
+  /**
+   * Rolls up everything that is complete at the given instant and returns the
+   * number of buckets written.
+   */
+  public int rollUp(Instant now) {
+    Instant hourCutoff = now.truncatedTo(StockResolution.HOURLY.getUnit());
+    Instant dayCutoff = now.minus(config.getHourlyRetention())
+        .truncatedTo(StockResolution.DAILY.getUnit());
+    int buckets = Objects.requireNonNull(transactionTemplate.execute(status ->
+        rollUpMovements(hourCutoff) + rollUpHours(dayCutoff)));
+    log.debug("Stock history rolled up into {} buckets", buckets);
+    return buckets;
+  }
+
+  private int rollUpMovements(Instant cutoff) {
+    Map<Key, Bucket> hours = new LinkedHashMap<>();
+    long[] lastId = {0};
+    jdbcTemplate.query("select id, beer_id, delta, quantity, occurred_at from stock_movement"
+        + " where occurred_at < ? order by id", row -> {
+          lastId[0] = row.getLong("id");
+          var key = new Key(row.getLong("beer_id"), row.getTimestamp("occurred_at").toInstant()
+              .truncatedTo(StockResolution.HOURLY.getUnit()));
+          int delta = row.getInt("delta");
+          hours.computeIfAbsent(key, Bucket::new).add(delta > 0 ? delta : 0,
+              delta < 0 ? -delta : 0, 1, row.getInt("quantity"));
+        }, Timestamp.from(cutoff));
+    merge(StockResolution.HOURLY, hours);
+    jdbcTemplate.update("delete from stock_movement where id <= ? and occurred_at < ?",
+        lastId[0], Timestamp.from(cutoff));
+    return hours.size();
+  }
+
+  private int rollUpHours(Instant cutoff) {
+    Map<Key, Bucket> days = new LinkedHashMap<>();
+    jdbcTemplate.query("select beer_id, bucket_start, increments, decrements, movements,"
+        + " closing_quantity from stock_bucket where resolution = ? and bucket_start < ?"
+        + " order by bucket_start", row -> {
+          var key = new Key(row.getLong("beer_id"), row.getTimestamp("bucket_start").toInstant()
+              .truncatedTo(StockResolution.DAILY.getUnit()));
+          days.computeIfAbsent(key, Bucket::new).add(row.getInt("increments"),
+              row.getInt("decrements"), row.getInt("movements"), row.getInt("closing_quantity"));
+        }, StockResolution.HOURLY.name(), Timestamp.from(cutoff));
+    merge(StockResolution.DAILY, days);
+    jdbcTemplate.update("delete from stock_bucket where resolution = ? and bucket_start < ?",
+        StockResolution.HOURLY.name(), Timestamp.from(cutoff));
+    return days.size();
+  }
+
+  // adds to the buckets already stored, inserting the missing ones
+  private void merge(StockResolution resolution, Map<Key, Bucket> buckets) {
+    if (buckets.isEmpty()) {
+      return;
+    }
+    List<Bucket> pending = new ArrayList<>(buckets.values());
+    int[] updated = jdbcTemplate.batchUpdate(UPDATE_BUCKET, pending, pending.size(),
+        (statement, bucket) -> bucket.bind(statement, resolution))[0];
+    List<Bucket> missing = new ArrayList<>();
+    for (int i = 0; i < updated.length; i++) {
+      if (updated[i] == 0) {
+        missing.add(pending.get(i));
+      }
+    }
+    if (!missing.isEmpty()) {
+      jdbcTemplate.batchUpdate(INSERT_BUCKET, missing, missing.size(),
+          (statement, bucket) -> bucket.bind(statement, resolution));
+    }
+  }
+
+  @EqualsAndHashCode
+  @AllArgsConstructor
+  private static final class Key {
+    private final long beerId;
+    private final Instant start;
+  }
+
+  private static final class Bucket {
+    private final Key key;
+    private int increments;
+    private int decrements;
+    private int movements;
+    private int closingQuantity;
+
+    private Bucket(Key key) {
+      this.key = key;
+    }
+
+    // rows are read oldest first, so the last closing quantity wins
+    private void add(int increments, int decrements, int movements, int closingQuantity) {
+      this.increments += increments;
+      this.decrements += decrements;
+      this.movements += movements;
+      this.closingQuantity = closingQuantity;
+    }
+
+    private void bind(PreparedStatement statement, StockResolution resolution)
+        throws SQLException {
+      statement.setInt(1, increments);
+      statement.setInt(2, decrements);
+      statement.setInt(3, movements);
+      statement.setInt(4, closingQuantity);
+      statement.setLong(5, key.beerId);
+      statement.setString(6, resolution.name());
+      statement.setTimestamp(7, Timestamp.from(key.start));
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package io.github.adgross.beerstock.services;
+
+import io.github.adgross.beerstock.dto.StockBucketDto;
+import io.github.adgross.beerstock.entity.StockBucket;
+import io.github.adgross.beerstock.enums.StockResolution;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.github.adgross.beerstock.mapper.StockBucketMapper;
+import io.github.adgross.beerstock.repository.StockBucketRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+@Profile("!embedded")
+public class StockHistoryService {
+
+  private final StockBucketRepository bucketRepository;
+  private final BeerService beerService;
+  private final StockBucketMapper bucketMapper = StockBucketMapper.INSTANCE;
+
+  /**
+   * Returns the stock movements of a beer between {@code from} and {@code to}
+   * summed per hour or per day. Days whose hours are not rolled up yet are summed
+   * from their hourly buckets.
+   */
+  @Transactional(readOnly = true)
+  public List<StockBucketDto> history(Long id, Instant from, Instant to,
+      StockResolution resolution) throws BeerNotFoundException {
+    beerService.find(id);
+    Instant start = from.truncatedTo(resolution.getUnit());
+    if (!start.isBefore(to)) {
+      return List.of();
+    }
+    List<StockBucket> hours = bucketRepository.findRange(id, StockResolution.HOURLY, start, to);
+    if (resolution == StockResolution.HOURLY) {
+      return hours.stream().map(bucketMapper::toDto).collect(Collectors.toList());
+    }
+    Map<Instant, StockBucketDto> days = new TreeMap<>();
+    bucketRepository.findRange(id, StockResolution.DAILY, start, to)
+        .forEach(day -> days.put(day.getBucketStart(), bucketMapper.toDto(day)));
+    for (StockBucket hour : hours) {
+      Instant day = hour.getBucketStart().truncatedTo(StockResolution.DAILY.getUnit());
+      days.merge(day, bucketMapper.toDto(hour).toBuilder().start(day).build(),
+          (earlier, later) -> earlier.toBuilder()
+              .increments(earlier.getIncrements() + later.getIncrements())
+              .decrements(earlier.getDecrements() + later.getDecrements())
+              .movements(earlier.getMovements() + later.getMovements())
+              .closingQuantity(later.getClosingQuantity())
+              .build());
+    }
+    return new ArrayList<>(days.values());
+  }
+}
@@ -0,0 +1,144 @@
+package io.github.adgross.beerstock.services;
+
+import io.github.adgross.beerstock.config.HistoryConfig;
+import io.github.adgross.beerstock.event.BeerChangedEvent;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Appends every stock change to the movement table off the request path.
+ *
+ * <p>Changes are queued as they are published and a single worker inserts them
+ * with JDBC batches. History is best effort: when the queue is full or a batch
+ * fails the movements are counted as dropped and the stock change itself is not
+ * affected.
+ */
+@Slf4j
+@Component
+@Profile("!embedded")
+public class StockHistoryWriter implements InitializingBean, DisposableBean {
+
+  private static final String INSERT_MOVEMENT = "insert into stock_movement"
+      + " (beer_id, delta, quantity, occurred_at) values (?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final HistoryConfig config;
+  private final BlockingQueue<Movement> queue;
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private volatile Thread worker;
+
+  public StockHistoryWriter(JdbcTemplate jdbcTemplate, HistoryConfig config) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.config = config;
+    this.queue = new LinkedBlockingQueue<>(config.getQueueCapacity());
+  }
+
+  @EventListener
+  public void onBeerChanged(BeerChangedEvent event) {
+    if (event.getCurrent() == null) {
+      return;
+    }
+    int before = event.getPrevious() == null ? 0 : event.getPrevious().getQuantity();
+    int after = event.getCurrent().getQuantity();
+    if (after != before) {
+      record(event.getBeerId(), after - before, after, Instant.now());
+    }
+  }
+
+  public void record(Long beerId, int delta, int quantity, Instant occurredAt) {
+    if (!queue.offer(new Movement(beerId, delta, quantity, occurredAt))
+        && dropped.getAndIncrement() % 1000 == 0) {
+      log.warn("Stock history queue is full, {} movements dropped so far", dropped.get());
+    }
+  }
+
+  public long getWritten() {
+    return written.get();
+  }
+
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    worker = new Thread(this::run, "stock-history-writer");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    worker.interrupt();
+    worker.join(TimeUnit.SECONDS.toMillis(5));
+    List<Movement> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    write(remaining);
+  }
+
+  private void run() {
+    List<Movement> batch = new ArrayList<>();
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + config.getFlushInterval().toNanos();
+        while (batch.size() < config.getBatchSize()) {
+          long remaining = deadline - System.nanoTime();
+          Movement next = remaining > 0
+              ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+              : queue.poll();
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      write(batch);
+      batch.clear();
+    }
+  }
+
+  private void write(List<Movement> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      jdbcTemplate.batchUpdate(INSERT_MOVEMENT, batch, batch.size(), (statement, movement) -> {
+        statement.setLong(1, movement.beerId);
+        statement.setInt(2, movement.delta);
+        statement.setInt(3, movement.quantity);
+        statement.setTimestamp(4, Timestamp.from(movement.occurredAt));
+      });
+      written.addAndGet(batch.size());
+    } catch (DataAccessException e) {
+      dropped.addAndGet(batch.size());
+      log.warn("Writing {} stock movements failed", batch.size(), e);
+    }
+  }
+
+  @AllArgsConstructor
+  private static class Movement {
+    private final Long beerId;
+    private final int delta;
+    private final int quantity;
+    private final Instant occurredAt;
+  }
+}
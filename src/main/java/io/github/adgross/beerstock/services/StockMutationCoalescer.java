@@ -0,0 +1,340 @@
+package io.github.adgross.beerstock.services;
+
+import io.github.adgross.beerstock.config.CoalescingConfig;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.entity.Beer;
+import io.github.adgross.beerstock.event.BeerChangedEvent;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.github.adgross.beerstock.exception.BeerStockExceededException;
+import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.StockMutationTimeoutException;
+import io.github.adgross.beerstock.mapper.BeerMapper;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Gathers concurrent increments and decrements and commits them in batches.
+ *
+ * <p>Mutations queued during the configured window, or until the batch size is
+ * reached, are applied in arrival order inside a single transaction. Each one is
+ * still accepted or rejected on its own against zero and the beer max, and its
+ * caller is released only once the batch has committed.
+ *
+ * <p>Each beer of a batch is read with a row lock, in id order, and its accepted
+ * mutations are written as one conditional change of the stock, so writes made
+ * outside the coalescer are never overwritten.
+ *
+ * <p>A batch claims its mutations when it starts. Callers wait up to the
+ * configured timeout for a mutation that is not claimed yet, which is then
+ * dropped and never applied; once claimed, they wait for its real outcome.
+ */
+@Slf4j
+@Component
+public class StockMutationCoalescer implements InitializingBean, DisposableBean {
+
+  private final BeerRepository beerRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final StockReservations stockReservations;
+  private final ApplicationEventPublisher eventPublisher;
+  private final CoalescingConfig config;
+  private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+  private final BlockingQueue<Mutation> queue = new LinkedBlockingQueue<>();
+  private final AtomicLong committedBatches = new AtomicLong();
+  private volatile Thread worker;
+  private volatile boolean closed;
+
+  public StockMutationCoalescer(BeerRepository beerRepository,
+      PlatformTransactionManager transactionManager, StockReservations stockReservations,
+      ApplicationEventPublisher eventPublisher, CoalescingConfig config) {
+    this.beerRepository = beerRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.stockReservations = stockReservations;
+    this.eventPublisher = eventPublisher;
+    this.config = config;
+  }
+
+  public boolean isEnabled() {
+    return config.isEnabled();
+  }
+
+  public long getCommittedBatches() {
+    return committedBatches.get();
+  }
+
+  public BeerDto increment(Long id, int quantity)
+      throws BeerStockExceededException, BeerNotFoundException {
+    try {
+      return await(submit(id, quantity));
+    } catch (BeerStockNonExistentQuantityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public BeerDto decrement(Long id, int quantity)
+      throws BeerStockNonExistentQuantityException, BeerNotFoundException {
+    try {
+      return await(submit(id, -quantity));
+    } catch (BeerStockExceededException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    if (isEnabled()) {
+      worker = new Thread(this::run, "stock-coalescer");
+      worker.setDaemon(true);
+      worker.start();
+    }
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    closed = true;
+    Thread running = worker;
+    if (running != null) {
+      running.interrupt();
+      running.join(TimeUnit.SECONDS.toMillis(5));
+    }
+    List<Mutation> pending = new ArrayList<>();
+    queue.drainTo(pending);
+    pending.forEach(mutation -> mutation.drop(new StockMutationTimeoutException(
+        "Stock changes are no longer accepted, the service is shutting down.")));
+  }
+
+  private Mutation submit(Long id, int delta) {
+    var mutation = new Mutation(id, delta, new CompletableFuture<>());
+    queue.add(mutation);
+    if (closed && queue.remove(mutation)) {
+      mutation.drop(new StockMutationTimeoutException(
+          "Stock changes are no longer accepted, the service is shutting down."));
+    }
+    return mutation;
+  }
+
+  private BeerDto await(Mutation mutation)
+      throws BeerStockExceededException, BeerStockNonExistentQuantityException,
+      BeerNotFoundException {
+    boolean interrupted = false;
+    try {
+      try {
+        return mutation.result.get(config.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        var timeout = new StockMutationTimeoutException(mutation.beerId, config.getTimeout());
+        if (mutation.drop(timeout)) {
+          throw timeout;
+        }
+      } catch (InterruptedException e) {
+        interrupted = true;
+        var stopped = new IllegalStateException(e);
+        if (mutation.drop(stopped)) {
+          throw stopped;
+        }
+      }
+      // its batch has started and may commit it, so only its outcome is answered
+      while (true) {
+        try {
+          return mutation.result.get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof BeerStockExceededException) {
+        throw (BeerStockExceededException) cause;
+      } else if (cause instanceof BeerStockNonExistentQuantityException) {
+        throw (BeerStockNonExistentQuantityException) cause;
+      } else if (cause instanceof BeerNotFoundException) {
+        throw (BeerNotFoundException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void run() {
+    List<Mutation> batch = new ArrayList<>();
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + config.getWindow().toNanos();
+        while (batch.size() < config.getBatchSize()) {
+          long remaining = deadline - System.nanoTime();
+          Mutation next = remaining > 0
+              ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+              : queue.poll();
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        commit(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void commit(List<Mutation> batch) {
+    batch.removeIf(mutation -> !mutation.claim());
+    if (batch.isEmpty()) {
+      return;
+    }
+    // rows are locked in id order, like the bulk deletes
+    Map<Long, List<Mutation>> byBeer = new TreeMap<>();
+    batch.forEach(mutation -> byBeer
+        .computeIfAbsent(mutation.beerId, id -> new ArrayList<>())
+        .add(mutation));
+
+    Map<Mutation, Object> outcomes = new LinkedHashMap<>();
+    List<BeerChangedEvent> changes = new ArrayList<>();
+    // no hold is taken on these beers until the batch has committed
+    List<Lock> locks = stockReservations.locksFor(byBeer.keySet());
+    locks.forEach(Lock::lock);
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        outcomes.clear();
+        changes.clear();
+        byBeer.forEach((id, mutations) -> apply(id, mutations, outcomes, changes));
+      });
+      committedBatches.incrementAndGet();
+    } catch (RuntimeException e) {
+      log.warn("Stock mutation batch of {} failed", batch.size(), e);
+      batch.forEach(mutation -> mutation.result.completeExceptionally(e));
+      return;
+    } finally {
+      locks.forEach(Lock::unlock);
+    }
+    changes.forEach(eventPublisher::publishEvent);
+    outcomes.forEach((mutation, outcome) -> {
+      if (outcome instanceof BeerDto) {
+        mutation.result.complete((BeerDto) outcome);
+      } else {
+        mutation.result.completeExceptionally((Exception) outcome);
+      }
+    });
+  }
+
+  private void apply(Long id, List<Mutation> mutations, Map<Mutation, Object> outcomes,
+      List<BeerChangedEvent> changes) {
+    Optional<Beer> found = beerRepository.findByIdForUpdate(id);
+    if (found.isEmpty()) {
+      mutations.forEach(mutation -> outcomes.put(mutation, new BeerNotFoundException(id)));
+      return;
+    }
+    BeerDto previous = beerMapper.toDto(found.get());
+    int reserved = stockReservations.reserved(id);
+    Map<Mutation, Object> planned = plan(previous, reserved, mutations);
+    int delta = planned.entrySet().stream()
+        .filter(outcome -> outcome.getValue() instanceof BeerDto)
+        .mapToInt(outcome -> outcome.getKey().delta)
+        .sum();
+    if (delta != 0 && change(id, delta, reserved) == 0) {
+      // only repositories without row locks let a change in, each is applied alone
+      planned = applyEach(id, reserved, mutations);
+    }
+    outcomes.putAll(planned);
+    beerRepository.findCurrentDtoById(id)
+        .filter(current -> current.getQuantity() != previous.getQuantity())
+        .ifPresent(current -> changes.add(BeerChangedEvent.updated(previous, current)));
+  }
+
+  // accepts or rejects each mutation in order against the running stock
+  private Map<Mutation, Object> plan(BeerDto beer, int reserved, List<Mutation> mutations) {
+    Map<Mutation, Object> planned = new LinkedHashMap<>();
+    int quantity = beer.getQuantity();
+    for (Mutation mutation : mutations) {
+      int delta = mutation.delta;
+      if (delta > 0 && quantity > beer.getMax() - delta) {
+        planned.put(mutation, new BeerStockExceededException(beer.getId(), delta, beer.getMax()));
+      } else if (delta < 0 && quantity - reserved < -delta) {
+        planned.put(mutation, new BeerStockNonExistentQuantityException(beer.getId(), -delta));
+      } else {
+        quantity += delta;
+        planned.put(mutation, beer.toBuilder().quantity(quantity).build());
+      }
+    }
+    return planned;
+  }
+
+  private Map<Mutation, Object> applyEach(Long id, int reserved, List<Mutation> mutations) {
+    Map<Mutation, Object> applied = new LinkedHashMap<>();
+    for (Mutation mutation : mutations) {
+      Optional<BeerDto> beer = change(id, mutation.delta, reserved) == 1
+          ? beerRepository.findCurrentDtoById(id)
+          : Optional.empty();
+      if (beer.isPresent()) {
+        applied.put(mutation, beer.get());
+      } else {
+        var current = beerRepository.findCurrentDtoById(id);
+        applied.put(mutation, current.isEmpty()
+            ? new BeerNotFoundException(id)
+            : mutation.delta > 0
+                ? new BeerStockExceededException(id, mutation.delta, current.get().getMax())
+                : new BeerStockNonExistentQuantityException(id, -mutation.delta));
+      }
+    }
+    return applied;
+  }
+
+  private int change(Long id, int delta, int reserved) {
+    return delta > 0
+        ? beerRepository.incrementQuantity(id, delta)
+        : beerRepository.decrementQuantity(id, -delta, reserved);
+  }
+
+  private enum State {
+    QUEUED, CLAIMED, DROPPED
+  }
+
+  @AllArgsConstructor
+  private static class Mutation {
+    private final Long beerId;
+    private final int delta;
+    private final CompletableFuture<BeerDto> result;
+    private final AtomicReference<State> state = new AtomicReference<>(State.QUEUED);
+
+    private boolean claim() {
+      return state.compareAndSet(State.QUEUED, State.CLAIMED);
+    }
+
+    // fails the mutation unless a batch claimed it first
+    private boolean drop(RuntimeException reason) {
+      if (state.compareAndSet(State.QUEUED, State.DROPPED)) {
+        result.completeExceptionally(reason);
+        return true;
+      }
+      return false;
+    }
+  }
+}
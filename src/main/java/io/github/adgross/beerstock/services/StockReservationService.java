@@ -0,0 +1,97 @@
+package io.github.adgross.beerstock.services;
+
+import io.github.adgross.beerstock.config.ReservationConfig;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.ReservationDto;
+import io.github.adgross.beerstock.entity.Beer;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.BeerStockNotAvailableException;
+import io.github.adgross.beerstock.exception.ReservationNotFoundException;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StockReservationService {
+
+  private final BeerRepository beerRepository;
+  private final BeerService beerService;
+  private final StockReservations stockReservations;
+  private final ReservationConfig config;
+
+  /**
+   * Holds {@code quantity} units of the beer. The lock of the beer is taken
+   * before any connection, as decrements hold it while they commit; under it
+   * the committed stock can only have grown since it was read.
+   */
+  public ReservationDto reserve(Long beerId, int quantity, Duration ttl)
+      throws BeerNotFoundException, BeerStockNotAvailableException {
+    Lock lock = stockReservations.lockFor(beerId);
+    lock.lock();
+    try {
+      BeerDto beer = beerRepository.findCurrentDtoById(beerId)
+          .orElseThrow(() -> new BeerNotFoundException(beerId));
+      var hold = stockReservations.hold(beerId, beer.getQuantity(), quantity, limitTtl(ttl))
+          .orElseThrow(() -> new BeerStockNotAvailableException(beerId, quantity,
+              beer.getQuantity() - stockReservations.reserved(beerId)));
+      return toDto(hold, beer.getQuantity());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public ReservationDto find(UUID id) throws ReservationNotFoundException {
+    var hold = stockReservations.find(id)
+        .orElseThrow(() -> new ReservationNotFoundException(id));
+    int stock = beerRepository.findById(hold.getBeerId())
+        .map(Beer::getQuantity)
+        .orElse(0);
+    return toDto(hold, stock);
+  }
+
+  public BeerDto commit(UUID id) throws ReservationNotFoundException, BeerNotFoundException,
+      BeerStockNonExistentQuantityException {
+    var hold = stockReservations.claim(id)
+        .orElseThrow(() -> new ReservationNotFoundException(id));
+    BeerDto beer;
+    try {
+      beer = beerService.decrement(hold.getBeerId(), hold.getQuantity(), hold.getQuantity());
+    } catch (BeerNotFoundException e) {
+      stockReservations.settle(hold);
+      throw e;
+    } catch (BeerStockNonExistentQuantityException | RuntimeException e) {
+      stockReservations.restore(hold);
+      throw e;
+    }
+    stockReservations.settle(hold);
+    return beer;
+  }
+
+  public void release(UUID id) throws ReservationNotFoundException {
+    stockReservations.release(id)
+        .orElseThrow(() -> new ReservationNotFoundException(id));
+  }
+
+  private Duration limitTtl(Duration ttl) {
+    if (ttl == null) {
+      return config.getDefaultTtl();
+    }
+    return ttl.compareTo(config.getMaxTtl()) > 0 ? config.getMaxTtl() : ttl;
+  }
+
+  private ReservationDto toDto(StockReservations.Hold hold, int stock) {
+    return ReservationDto.builder()
+        .id(hold.getId())
+        .beerId(hold.getBeerId())
+        .quantity(hold.getQuantity())
+        .expiresAt(hold.getExpiresAt())
+        .available(Math.max(0, stock - stockReservations.reserved(hold.getBeerId())))
+        .build();
+  }
+}
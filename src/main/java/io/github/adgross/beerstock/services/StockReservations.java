@@ -0,0 +1,171 @@
+package io.github.adgross.beerstock.services;
+
+import io.github.adgross.beerstock.config.ReservationConfig;
+import io.github.adgross.beerstock.util.HashedTimingWheel;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * In memory registry of the stock held by reservations.
+ *
+ * <p>Holds are counted per beer so the available quantity of a beer is its stock
+ * minus the reserved units. Expiration is driven by a single timing wheel.
+ *
+ * <p>Whoever checks the stock against the reserved units and then changes either
+ * holds the lock of the beer, so a new hold and a decrement cannot both use the
+ * same units. Locks are striped by beer id and always taken before any row lock.
+ */
+@Component
+public class StockReservations implements DisposableBean {
+
+  private static final int LOCK_STRIPES = 64;
+
+  private final Lock[] locks = IntStream.range(0, LOCK_STRIPES)
+      .mapToObj(i -> new ReentrantLock())
+      .toArray(Lock[]::new);
+  private final Map<UUID, Hold> holds = new ConcurrentHashMap<>();
+  private final Map<Long, Integer> reservedByBeer = new ConcurrentHashMap<>();
+  private final HashedTimingWheel<UUID> expirations;
+
+  public StockReservations(ReservationConfig config) {
+    this.expirations = new HashedTimingWheel<>("stock-reservations", config.getTick(),
+        config.getWheelSize(), this::expire);
+  }
+
+  public Lock lockFor(Long beerId) {
+    return locks[stripe(beerId)];
+  }
+
+  /**
+   * Returns the locks of the given beers, each once and in the order they must
+   * be taken.
+   */
+  public List<Lock> locksFor(Collection<Long> beerIds) {
+    return beerIds.stream()
+        .map(StockReservations::stripe)
+        .distinct()
+        .sorted()
+        .map(stripe -> locks[stripe])
+        .collect(Collectors.toList());
+  }
+
+  public int reserved(Long beerId) {
+    return reservedByBeer.getOrDefault(beerId, 0);
+  }
+
+  public int size() {
+    return holds.size();
+  }
+
+  public Optional<Hold> find(UUID id) {
+    return Optional.ofNullable(holds.get(id));
+  }
+
+  public Optional<Hold> hold(Long beerId, int stock, int quantity, Duration ttl) {
+    boolean[] reserved = {false};
+    reservedByBeer.compute(beerId, (id, current) -> {
+      int alreadyReserved = current == null ? 0 : current;
+      if (stock - alreadyReserved < quantity) {
+        return current;
+      }
+      reserved[0] = true;
+      return alreadyReserved + quantity;
+    });
+    if (!reserved[0]) {
+      return Optional.empty();
+    }
+    var id = UUID.randomUUID();
+    var hold = new Hold(id, beerId, quantity, Instant.now().plus(ttl), null);
+    holds.put(id, hold);
+    hold.timeout = expirations.schedule(id, ttl);
+    return Optional.of(hold);
+  }
+
+  public Optional<Hold> release(UUID id) {
+    Hold hold = holds.remove(id);
+    if (hold == null) {
+      return Optional.empty();
+    }
+    if (hold.timeout != null) {
+      hold.timeout.cancel();
+    }
+    unreserve(hold);
+    return Optional.of(hold);
+  }
+
+  /**
+   * Takes the hold out of reach of release and expiration, while its units stay
+   * reserved until it is either {@link #settle(Hold) settled} or
+   * {@link #restore(Hold) restored}.
+   */
+  public Optional<Hold> claim(UUID id) {
+    Hold hold = holds.remove(id);
+    if (hold != null && hold.timeout != null) {
+      hold.timeout.cancel();
+    }
+    return Optional.ofNullable(hold);
+  }
+
+  public void settle(Hold hold) {
+    unreserve(hold);
+  }
+
+  public void restore(Hold hold) {
+    var ttl = Duration.between(Instant.now(), hold.expiresAt);
+    if (ttl.isNegative() || ttl.isZero()) {
+      unreserve(hold);
+      return;
+    }
+    holds.put(hold.id, hold);
+    hold.timeout = expirations.schedule(hold.id, ttl);
+  }
+
+  @Override
+  public void destroy() {
+    expirations.close();
+  }
+
+  private void expire(UUID id) {
+    Hold hold = holds.remove(id);
+    if (hold != null) {
+      unreserve(hold);
+    }
+  }
+
+  private static int stripe(Long beerId) {
+    return Math.floorMod(Long.hashCode(beerId), LOCK_STRIPES);
+  }
+
+  private void unreserve(Hold hold) {
+    reservedByBeer.computeIfPresent(hold.beerId, (id, current) -> {
+      int remaining = current - hold.quantity;
+      return remaining > 0 ? remaining : null;
+    });
+  }
+
+  @Getter
+  @AllArgsConstructor(access = AccessLevel.PRIVATE)
+  public static class Hold {
+    private final UUID id;
+    private final Long beerId;
+    private final int quantity;
+    private final Instant expiresAt;
+    @Getter(AccessLevel.NONE)
+    private volatile HashedTimingWheel.Timeout<UUID> timeout;
+  }
+}
@@ -0,0 +1,301 @@
+package io.github.adgross.beerstock.services;
+
+import io.github.adgross.beerstock.dto.BeerStockDto;
+import io.github.adgross.beerstock.dto.StockTransferDto;
+import io.github.adgross.beerstock.dto.WarehouseDto;
+import io.github.adgross.beerstock.dto.WarehouseStockDto;
+import io.github.adgross.beerstock.entity.StockTotal;
+import io.github.adgross.beerstock.entity.Warehouse;
+import io.github.adgross.beerstock.entity.WarehouseStock;
+import io.github.adgross.beerstock.enums.StockTotalScope;
+import io.github.adgross.beerstock.event.BeerChangedEvent;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.github.adgross.beerstock.exception.BeerStockExceededException;
+import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.InvalidTransferException;
+import io.github.adgross.beerstock.exception.WarehouseAlreadyRegisteredException;
+import io.github.adgross.beerstock.exception.WarehouseNotFoundException;
+import io.github.adgross.beerstock.exception.WarehouseStockNotFoundException;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import io.github.adgross.beerstock.repository.StockTotalRepository;
+import io.github.adgross.beerstock.repository.WarehouseRepository;
+import io.github.adgross.beerstock.repository.WarehouseStockRepository;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the stock of each beer per warehouse.
+ *
+ * <p>Every change locks the stock row of the beer in its warehouse first and the
+ * {@link StockTotal} slots of the warehouse and of the beer second. The slot of
+ * the warehouse is picked by the beer and the slot of the beer by the warehouse,
+ * so changes only wait for each other when they touch the same stock row or
+ * their slots collide. Slots are locked in (scope, owner, slot) order after the
+ * stock rows, which rules out deadlocks. Rejected changes throw checked
+ * exceptions, so their transactions commit having written nothing.
+ */
+@Service
+@Profile("!embedded")
+public class WarehouseService {
+
+  private static final int TOTAL_SLOTS = 16;
+  private static final int WRITE_ATTEMPTS = 5;
+  private static final Comparator<StockTotal> TOTAL_ORDER =
+      Comparator.comparing(StockTotal::getScope)
+          .thenComparing(StockTotal::getOwnerId)
+          .thenComparingInt(StockTotal::getSlot);
+
+  private final WarehouseRepository warehouseRepository;
+  private final WarehouseStockRepository warehouseStockRepository;
+  private final StockTotalRepository stockTotalRepository;
+  private final BeerRepository beerRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  public WarehouseService(WarehouseRepository warehouseRepository,
+      WarehouseStockRepository warehouseStockRepository,
+      StockTotalRepository stockTotalRepository, BeerRepository beerRepository,
+      PlatformTransactionManager transactionManager) {
+    this.warehouseRepository = warehouseRepository;
+    this.warehouseStockRepository = warehouseStockRepository;
+    this.stockTotalRepository = stockTotalRepository;
+    this.beerRepository = beerRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @Transactional(readOnly = true)
+  public List<WarehouseDto> listAll() {
+    return warehouseRepository.findAllDtos();
+  }
+
+  @Transactional(readOnly = true)
+  public WarehouseDto find(Long id) throws WarehouseNotFoundException {
+    return warehouseRepository.findDtoById(id)
+        .orElseThrow(() -> new WarehouseNotFoundException(id));
+  }
+
+  @Transactional
+  public WarehouseDto create(WarehouseDto warehouseDto)
+      throws WarehouseAlreadyRegisteredException {
+    String name = warehouseDto.getName();
+    if (warehouseRepository.existsByName(name)) {
+      throw new WarehouseAlreadyRegisteredException(name);
+    }
+    Warehouse warehouse = warehouseRepository.save(Warehouse.builder().name(name).build());
+    stockTotalRepository.saveAll(IntStream.range(0, TOTAL_SLOTS)
+        .mapToObj(slot -> total(StockTotalScope.WAREHOUSE, warehouse.getId(), slot))
+        .collect(Collectors.toList()));
+    return new WarehouseDto(warehouse.getId(), warehouse.getName(), 0);
+  }
+
+  @Transactional(readOnly = true)
+  public WarehouseStockDto findStock(Long warehouseId, Long beerId)
+      throws WarehouseStockNotFoundException {
+    return warehouseStockRepository.findDto(warehouseId, beerId)
+        .orElseThrow(() -> new WarehouseStockNotFoundException(warehouseId, beerId));
+  }
+
+  /**
+   * Returns the stock of the beer in every warehouse holding it, reading one row
+   * per warehouse, and its total across them.
+   */
+  @Transactional(readOnly = true)
+  public BeerStockDto findStock(Long beerId) throws BeerNotFoundException {
+    List<WarehouseStockDto> stocks = warehouseStockRepository.findDtosByBeerId(beerId);
+    if (stocks.isEmpty() && !beerRepository.existsById(beerId)) {
+      throw new BeerNotFoundException(beerId);
+    }
+    long total = stockTotalRepository.sum(StockTotalScope.BEER, beerId);
+    return new BeerStockDto(beerId, total, stocks);
+  }
+
+  /**
+   * Sets the max and quantity of the beer in the warehouse, creating its stock
+   * row on the first write. When concurrent first writes both insert the row, the
+   * one failing on the unique constraint is written again, as an update.
+   */
+  public WarehouseStockDto setStock(Long warehouseId, Long beerId, int max, int quantity)
+      throws WarehouseNotFoundException, BeerNotFoundException, BeerStockExceededException {
+    if (quantity > max) {
+      throw new BeerStockExceededException(beerId, quantity, max);
+    }
+    if (!warehouseRepository.existsById(warehouseId)) {
+      throw new WarehouseNotFoundException(warehouseId);
+    }
+    if (!beerRepository.existsById(beerId)) {
+      throw new BeerNotFoundException(beerId);
+    }
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transactionTemplate.execute(
+            status -> writeStock(warehouseId, beerId, max, quantity));
+      } catch (DataIntegrityViolationException e) {
+        // the rows inserted first are locked and updated by the next attempt, once
+        // their transaction has committed
+        if (attempt == WRITE_ATTEMPTS) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  @Transactional
+  public WarehouseStockDto increment(Long warehouseId, Long beerId, int quantity)
+      throws WarehouseStockNotFoundException, BeerStockExceededException {
+    boolean changed =
+        warehouseStockRepository.incrementQuantity(warehouseId, beerId, quantity) == 1;
+    WarehouseStockDto stock = findStock(warehouseId, beerId);
+    if (!changed) {
+      throw new BeerStockExceededException(beerId, quantity, stock.getMax());
+    }
+    addTotals(warehouseId, beerId, quantity);
+    return stock;
+  }
+
+  @Transactional
+  public WarehouseStockDto decrement(Long warehouseId, Long beerId, int quantity)
+      throws WarehouseStockNotFoundException, BeerStockNonExistentQuantityException {
+    boolean changed =
+        warehouseStockRepository.decrementQuantity(warehouseId, beerId, quantity) == 1;
+    WarehouseStockDto stock = findStock(warehouseId, beerId);
+    if (!changed) {
+      throw new BeerStockNonExistentQuantityException(beerId, quantity);
+    }
+    addTotals(warehouseId, beerId, -quantity);
+    return stock;
+  }
+
+  /**
+   * Moves {@code quantity} units from one stock record to another in one
+   * transaction. Whatever the direction of the transfer, the stock rows are
+   * locked in (warehouse, beer) order and the total slots in their order after
+   * them, so opposite transfers wait for each other instead of deadlocking.
+   */
+  @Transactional
+  public StockTransferDto transfer(Long fromWarehouseId, Long fromBeerId, Long toWarehouseId,
+      Long toBeerId, int quantity) throws InvalidTransferException,
+      WarehouseStockNotFoundException, BeerStockNonExistentQuantityException,
+      BeerStockExceededException {
+    int order = fromWarehouseId.equals(toWarehouseId)
+        ? fromBeerId.compareTo(toBeerId) : fromWarehouseId.compareTo(toWarehouseId);
+    if (order == 0) {
+      throw new InvalidTransferException(fromWarehouseId, fromBeerId);
+    }
+    WarehouseStock from;
+    WarehouseStock to;
+    if (order < 0) {
+      from = lockStock(fromWarehouseId, fromBeerId);
+      to = lockStock(toWarehouseId, toBeerId);
+    } else {
+      to = lockStock(toWarehouseId, toBeerId);
+      from = lockStock(fromWarehouseId, fromBeerId);
+    }
+    if (from.getQuantity() < quantity) {
+      throw new BeerStockNonExistentQuantityException(fromBeerId, quantity);
+    }
+    if (to.getQuantity() > to.getMax() - quantity) {
+      throw new BeerStockExceededException(toBeerId, quantity, to.getMax());
+    }
+    from.setQuantity(from.getQuantity() - quantity);
+    to.setQuantity(to.getQuantity() + quantity);
+    Map<StockTotal, Long> totals = new TreeMap<>(TOTAL_ORDER);
+    moveTotals(totals, fromWarehouseId, fromBeerId, -quantity);
+    moveTotals(totals, toWarehouseId, toBeerId, quantity);
+    addTotals(totals);
+    return new StockTransferDto(toDto(from), toDto(to));
+  }
+
+  /**
+   * Removes the stock of a deleted beer from every warehouse. The stock rows are
+   * locked before they are read, so a change still running on one of them is
+   * either counted or waits and then finds no stock.
+   */
+  @EventListener
+  @Transactional
+  public void onBeerChanged(BeerChangedEvent event) {
+    if (event.getType() != BeerChangedEvent.Type.DELETED) {
+      return;
+    }
+    List<WarehouseStock> stocks =
+        warehouseStockRepository.findByBeerIdForUpdate(event.getBeerId());
+    if (!stocks.isEmpty()) {
+      warehouseStockRepository.deleteByBeerId(event.getBeerId());
+      // in warehouse order, like the stock rows, and before the slots of the beer
+      for (WarehouseStock stock : stocks) {
+        stockTotalRepository.add(StockTotalScope.WAREHOUSE, stock.getWarehouseId(),
+            slot(event.getBeerId()), -stock.getQuantity());
+      }
+      stockTotalRepository.deleteByOwner(StockTotalScope.BEER, event.getBeerId());
+    }
+  }
+
+  private WarehouseStockDto writeStock(Long warehouseId, Long beerId, int max, int quantity) {
+    Optional<WarehouseStock> found = warehouseStockRepository.findForUpdate(warehouseId, beerId);
+    final int previous = found.map(WarehouseStock::getQuantity).orElse(0);
+    WarehouseStock stock = found.orElseGet(
+        () -> WarehouseStock.builder().warehouseId(warehouseId).beerId(beerId).build());
+    stock.setMax(max);
+    stock.setQuantity(quantity);
+    warehouseStockRepository.saveAndFlush(stock);
+    // the slots of a warehouse exist from its creation, those of a beer are
+    // added by its first stock in a warehouse picking them
+    if (found.isEmpty()
+        && !stockTotalRepository.existsByScopeAndOwnerIdAndSlot(
+            StockTotalScope.BEER, beerId, slot(warehouseId))) {
+      stockTotalRepository.saveAndFlush(total(StockTotalScope.BEER, beerId, slot(warehouseId)));
+    }
+    addTotals(warehouseId, beerId, quantity - previous);
+    return new WarehouseStockDto(warehouseId, beerId, max, quantity);
+  }
+
+  private void addTotals(Long warehouseId, Long beerId, long delta) {
+    Map<StockTotal, Long> totals = new TreeMap<>(TOTAL_ORDER);
+    moveTotals(totals, warehouseId, beerId, delta);
+    addTotals(totals);
+  }
+
+  // changes the slots in their order, skipping those a transfer left as they were
+  private void addTotals(Map<StockTotal, Long> totals) {
+    totals.forEach((total, delta) -> {
+      if (delta != 0) {
+        stockTotalRepository.add(total.getScope(), total.getOwnerId(), total.getSlot(), delta);
+      }
+    });
+  }
+
+  private static void moveTotals(Map<StockTotal, Long> totals, Long warehouseId, Long beerId,
+      long delta) {
+    totals.merge(total(StockTotalScope.WAREHOUSE, warehouseId, slot(beerId)), delta, Long::sum);
+    totals.merge(total(StockTotalScope.BEER, beerId, slot(warehouseId)), delta, Long::sum);
+  }
+
+  private static StockTotal total(StockTotalScope scope, Long ownerId, int slot) {
+    return StockTotal.builder().scope(scope).ownerId(ownerId).slot(slot).build();
+  }
+
+  private static int slot(Long id) {
+    return Math.floorMod(Long.hashCode(id), TOTAL_SLOTS);
+  }
+
+  private WarehouseStock lockStock(Long warehouseId, Long beerId)
+      throws WarehouseStockNotFoundException {
+    return warehouseStockRepository.findForUpdate(warehouseId, beerId)
+        .orElseThrow(() -> new WarehouseStockNotFoundException(warehouseId, beerId));
+  }
+
+  private static WarehouseStockDto toDto(WarehouseStock stock) {
+    return new WarehouseStockDto(stock.getWarehouseId(), stock.getBeerId(), stock.getMax(),
+        stock.getQuantity());
+  }
+}
@@ -0,0 +1,35 @@
+package io.github.adgross.beerstock.sql;
+
+import java.util.Arrays;
+
+/**
+ * The parameters bound to a prepared statement, kept so that the executions
+ * that end up logged can show them.
+ */
+final class Bindings {
+
+  private static final Object[] NONE = new Object[0];
+
+  private Object[] values = NONE;
+  private int size;
+
+  void set(int index, Object value) {
+    if (index < 1) {
+      return;
+    }
+    if (index > values.length) {
+      values = Arrays.copyOf(values, Math.max(index, values.length * 2));
+    }
+    values[index - 1] = value;
+    size = Math.max(size, index);
+  }
+
+  void clear() {
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+  }
+
+  Object[] toArray() {
+    return size == 0 ? NONE : Arrays.copyOf(values, size);
+  }
+}
@@ -0,0 +1,26 @@
+package io.github.adgross.beerstock.sql;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+@Endpoint(id = "sql")
+public class SqlEndpoint {
+
+  private final SqlLog sqlLog;
+
+  public SqlEndpoint(SqlLog sqlLog) {
+    this.sqlLog = sqlLog;
+  }
+
+  @ReadOperation
+  public Map<String, Object> statements() {
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("logged", sqlLog.getLogged());
+    report.put("dropped", sqlLog.getDropped());
+    report.put("pending", sqlLog.getPending());
+    report.put("shapes", sqlLog.shapes());
+    return report;
+  }
+}
@@ -0,0 +1,281 @@
+package io.github.adgross.beerstock.sql;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.adgross.beerstock.config.SqlLogConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Structured log of the SQL statements run by the application.
+ *
+ * <p>Every execution is timed into a histogram of its statement shape, the
+ * statement with literals and {@code in} lists collapsed. A sample of the
+ * executions, and every execution slower than the threshold, is logged as one
+ * JSON line by a background worker; slow ones also get the {@code EXPLAIN} plan
+ * of the database. The request thread only records the timer and, for the
+ * executions picked, offers a copy of the parameters to a bounded queue that
+ * drops entries rather than waiting when the worker falls behind.
+ */
+@Slf4j(topic = "beerstock.sql")
+public class SqlLog implements InitializingBean, DisposableBean {
+
+  public static final String METER = "beerstock.sql";
+
+  static final String OTHER_SHAPE = "other";
+  static final int MAX_SHAPE_LENGTH = 500;
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+  private static final Pattern NUMBER_LITERAL =
+      Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+  private static final Pattern IN_LIST =
+      Pattern.compile("(?i)\\bin \\( ?\\?(?: ?, ?\\?)* ?\\)");
+  private static final Set<String> EXPLAINABLE =
+      Set.of("select", "insert", "update", "delete", "merge");
+
+  private final MeterRegistry meterRegistry;
+  private final ObjectMapper objectMapper;
+  private final SqlLogConfig config;
+  private final long slowNanos;
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+  private final Set<String> shapes = ConcurrentHashMap.newKeySet();
+  private final BlockingQueue<Execution> queue;
+  private final AtomicLong logged = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private volatile Thread worker;
+
+  public SqlLog(MeterRegistry meterRegistry, ObjectMapper objectMapper, SqlLogConfig config) {
+    this.meterRegistry = meterRegistry;
+    this.objectMapper = objectMapper;
+    this.config = config;
+    this.slowNanos = config.getSlowThreshold().toNanos();
+    this.queue = new LinkedBlockingQueue<>(config.getQueueCapacity());
+  }
+
+  /**
+   * Collapses the parts of a statement that change between executions of the
+   * same query.
+   */
+  static String shape(String sql) {
+    String shape = WHITESPACE.matcher(sql.strip()).replaceAll(" ");
+    shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+    shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+    shape = IN_LIST.matcher(shape).replaceAll("in (?)");
+    return shape.length() > MAX_SHAPE_LENGTH ? shape.substring(0, MAX_SHAPE_LENGTH) : shape;
+  }
+
+  void record(DataSource dataSource, String sql, Bindings bindings, long nanos,
+      boolean failed) {
+    if (sql == null) {
+      return;
+    }
+    timer(sql).record(nanos, TimeUnit.NANOSECONDS);
+    boolean slow = nanos >= slowNanos;
+    if (slow || ThreadLocalRandom.current().nextDouble() < config.getSamplingRatio()) {
+      var execution = new Execution(dataSource, sql, bindings.toArray(), nanos, slow, failed);
+      if (!queue.offer(execution)) {
+        dropped.incrementAndGet();
+      }
+    }
+  }
+
+  public long getLogged() {
+    return logged.get();
+  }
+
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  public int getPending() {
+    return queue.size();
+  }
+
+  /**
+   * Returns the latency of each statement shape, the most expensive in total
+   * first.
+   */
+  public List<SqlShapeStats> shapes() {
+    List<SqlShapeStats> stats = new ArrayList<>();
+    for (Timer timer : meterRegistry.find(METER).timers()) {
+      HistogramSnapshot snapshot = timer.takeSnapshot();
+      Map<Double, Long> percentiles = new LinkedHashMap<>();
+      for (ValueAtPercentile value : snapshot.percentileValues()) {
+        percentiles.put(value.percentile(), (long) value.value(TimeUnit.MICROSECONDS));
+      }
+      stats.add(new SqlShapeStats(timer.getId().getTag("shape"), snapshot.count(),
+          (long) snapshot.total(TimeUnit.MILLISECONDS),
+          (long) snapshot.mean(TimeUnit.MICROSECONDS),
+          (long) snapshot.max(TimeUnit.MICROSECONDS),
+          percentiles.getOrDefault(0.5, 0L),
+          percentiles.getOrDefault(0.95, 0L),
+          percentiles.getOrDefault(0.99, 0L)));
+    }
+    stats.sort(Comparator.comparingLong(SqlShapeStats::getTotalMillis).reversed());
+    return stats;
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    worker = new Thread(this::run, "sql-log");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    worker.interrupt();
+    worker.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  private Timer timer(String sql) {
+    Timer timer = timers.get(sql);
+    if (timer == null) {
+      String shape = shape(sql);
+      if (!shapes.contains(shape) && shapes.size() >= config.getMaxShapes()) {
+        shape = OTHER_SHAPE;
+      } else {
+        shapes.add(shape);
+      }
+      timer = Timer.builder(METER)
+          .description("Latency of the SQL statements by statement shape")
+          .tag("shape", shape)
+          .publishPercentiles(0.5, 0.95, 0.99)
+          .publishPercentileHistogram()
+          .register(meterRegistry);
+      // statements with literals would otherwise grow the map without bound
+      if (timers.size() < config.getMaxShapes() * 10) {
+        timers.put(sql, timer);
+      }
+    }
+    return timer;
+  }
+
+  private void run() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        write(queue.take());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (RuntimeException e) {
+        log.warn("Logging a statement failed", e);
+      }
+    }
+  }
+
+  private void write(Execution execution) {
+    Map<String, Object> entry = new LinkedHashMap<>();
+    entry.put("at", execution.at.toString());
+    entry.put("micros", TimeUnit.NANOSECONDS.toMicros(execution.nanos));
+    entry.put("slow", execution.slow);
+    entry.put("failed", execution.failed);
+    entry.put("shape", shape(execution.sql));
+    entry.put("sql", execution.sql);
+    List<Object> parameters = new ArrayList<>();
+    for (Object parameter : execution.parameters) {
+      parameters.add(loggable(parameter));
+    }
+    entry.put("parameters", parameters);
+    if (execution.slow && config.isExplain() && isExplainable(execution.sql)) {
+      entry.put("plan", explain(execution));
+    }
+    String line;
+    try {
+      line = objectMapper.writeValueAsString(entry);
+    } catch (JsonProcessingException e) {
+      line = entry.toString();
+    }
+    if (execution.slow) {
+      log.warn("{}", line);
+    } else {
+      log.info("{}", line);
+    }
+    logged.incrementAndGet();
+  }
+
+  private static Object loggable(Object parameter) {
+    if (parameter == null || parameter instanceof Number || parameter instanceof Boolean
+        || parameter instanceof String) {
+      return parameter;
+    } else if (parameter instanceof byte[]) {
+      return "<" + ((byte[]) parameter).length + " bytes>";
+    }
+    return parameter.toString();
+  }
+
+  private static boolean isExplainable(String sql) {
+    String trimmed = sql.stripLeading();
+    int end = 0;
+    while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+      end++;
+    }
+    return EXPLAINABLE.contains(trimmed.substring(0, end).toLowerCase(Locale.ROOT));
+  }
+
+  private static String explain(Execution execution) {
+    try (Connection connection = execution.dataSource.getConnection();
+         PreparedStatement statement = connection.prepareStatement("EXPLAIN " + execution.sql)) {
+      for (int i = 0; i < execution.parameters.length; i++) {
+        statement.setObject(i + 1, execution.parameters[i]);
+      }
+      StringBuilder plan = new StringBuilder();
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          if (plan.length() > 0) {
+            plan.append('\n');
+          }
+          plan.append(rows.getString(1));
+        }
+      }
+      return plan.toString();
+    } catch (SQLException e) {
+      return "not explained: " + e.getMessage();
+    }
+  }
+
+  private static final class Execution {
+    private final DataSource dataSource;
+    private final String sql;
+    private final Object[] parameters;
+    private final long nanos;
+    private final boolean slow;
+    private final boolean failed;
+    private final Instant at = Instant.now();
+
+    private Execution(DataSource dataSource, String sql, Object[] parameters, long nanos,
+        boolean slow, boolean failed) {
+      this.dataSource = dataSource;
+      this.sql = sql;
+      this.parameters = parameters;
+      this.nanos = nanos;
+      this.slow = slow;
+      this.failed = failed;
+    }
+  }
+}
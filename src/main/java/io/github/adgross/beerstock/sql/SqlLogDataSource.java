@@ -0,0 +1,93 @@
+package io.github.adgross.beerstock.sql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Times every statement executed through the wrapped datasource and hands it
+ * to the {@link SqlLog}, together with its bound parameters.
+ */
+public class SqlLogDataSource extends DelegatingDataSource {
+
+  private final SqlLog sqlLog;
+
+  public SqlLogDataSource(DataSource targetDataSource, SqlLog sqlLog) {
+    super(targetDataSource);
+    this.sqlLog = sqlLog;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return logged(super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return logged(super.getConnection(username, password));
+  }
+
+  private Connection logged(Connection connection) {
+    return (Connection) proxy(Connection.class, (proxy, method, args) -> {
+      Object result = invoke(connection, method, args);
+      if (result instanceof Statement) {
+        String sql = args != null && args.length > 0 && args[0] instanceof String
+            ? (String) args[0] : null;
+        return statement(method.getReturnType(), (Statement) result, sql);
+      }
+      return result;
+    });
+  }
+
+  private Object statement(Class<?> type, Statement statement, String preparedSql) {
+    Class<?> proxied = CallableStatement.class.isAssignableFrom(type)
+        ? CallableStatement.class
+        : PreparedStatement.class.isAssignableFrom(type) ? PreparedStatement.class
+        : Statement.class;
+    Bindings bindings = new Bindings();
+    return proxy(proxied, (proxy, method, args) -> {
+      String name = method.getName();
+      if (name.startsWith("set") && args != null && args.length >= 2
+          && args[0] instanceof Integer) {
+        bindings.set((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+      } else if ("clearParameters".equals(name)) {
+        bindings.clear();
+      }
+      if (!name.startsWith("execute")) {
+        return invoke(statement, method, args);
+      }
+      String sql = args != null && args.length > 0 && args[0] instanceof String
+          ? (String) args[0] : preparedSql;
+      boolean failed = true;
+      final long start = System.nanoTime();
+      try {
+        Object result = invoke(statement, method, args);
+        failed = false;
+        return result;
+      } finally {
+        sqlLog.record(getTargetDataSource(), sql, bindings, System.nanoTime() - start, failed);
+      }
+    });
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static Object proxy(Class<?> type, InvocationHandler handler) {
+    return Proxy.newProxyInstance(SqlLogDataSource.class.getClassLoader(), new Class<?>[] {type},
+        handler);
+  }
+}
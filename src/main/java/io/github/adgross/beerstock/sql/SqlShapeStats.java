@@ -0,0 +1,16 @@
+package io.github.adgross.beerstock.sql;
+
+import lombok.Value;
+
+@Value
+public class SqlShapeStats {
+
+  String shape;
+  long count;
+  long totalMillis;
+  long meanMicros;
+  long maxMicros;
+  long p50Micros;
+  long p95Micros;
+  long p99Micros;
+}
@@ -0,0 +1,65 @@
+package io.github.adgross.beerstock.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Appends finished spans to a file, one JSON document per line.
+ */
+@Slf4j
+public class FileSpanExporter implements SpanExporter {
+
+  private final ObjectWriter writer;
+  private final Writer out;
+
+  public FileSpanExporter(Path file, ObjectMapper objectMapper) throws IOException {
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    this.writer = objectMapper.writer();
+    this.out = Files.newBufferedWriter(file, StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND);
+  }
+
+  @Override
+  public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+    try {
+      for (SpanData span : spans) {
+        out.write(writer.writeValueAsString(SpanRecord.of(span)));
+        out.write('\n');
+      }
+      out.flush();
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      log.warn("Writing {} spans failed", spans.size(), e);
+      return CompletableResultCode.ofFailure();
+    }
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public synchronized CompletableResultCode shutdown() {
+    try {
+      out.close();
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      log.warn("Closing the span file failed", e);
+      return CompletableResultCode.ofFailure();
+    }
+  }
+}
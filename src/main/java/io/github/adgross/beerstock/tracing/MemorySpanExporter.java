@@ -0,0 +1,54 @@
+package io.github.adgross.beerstock.tracing;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent finished spans, dropping the oldest ones once the
+ * capacity is reached.
+ */
+public class MemorySpanExporter implements SpanExporter {
+
+  private final int capacity;
+  private final Deque<SpanData> spans = new ArrayDeque<>();
+
+  public MemorySpanExporter(int capacity) {
+    this.capacity = capacity;
+  }
+
+  @Override
+  public synchronized CompletableResultCode export(Collection<SpanData> finished) {
+    for (SpanData span : finished) {
+      if (spans.size() == capacity) {
+        spans.removeFirst();
+      }
+      spans.addLast(span);
+    }
+    return CompletableResultCode.ofSuccess();
+  }
+
+  public synchronized List<SpanData> getSpans() {
+    return new ArrayList<>(spans);
+  }
+
+  public synchronized void clear() {
+    spans.clear();
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    clear();
+    return CompletableResultCode.ofSuccess();
+  }
+}
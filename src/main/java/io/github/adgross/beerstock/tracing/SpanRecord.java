@@ -0,0 +1,37 @@
+package io.github.adgross.beerstock.tracing;
+
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.Value;
+
+@Value
+public class SpanRecord {
+
+  String traceId;
+  String spanId;
+  String parentSpanId;
+  String name;
+  String kind;
+  Instant start;
+  long durationMicros;
+  String status;
+  Map<String, Object> attributes;
+
+  public static SpanRecord of(SpanData span) {
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+    return new SpanRecord(
+        span.getTraceId(),
+        span.getSpanId(),
+        span.getParentSpanContext().isValid() ? span.getParentSpanId() : null,
+        span.getName(),
+        span.getKind().name(),
+        Instant.ofEpochSecond(0, span.getStartEpochNanos()),
+        TimeUnit.NANOSECONDS.toMicros(span.getEndEpochNanos() - span.getStartEpochNanos()),
+        span.getStatus().getStatusCode().name(),
+        attributes);
+  }
+}
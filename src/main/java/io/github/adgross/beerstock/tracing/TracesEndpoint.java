@@ -0,0 +1,30 @@
+package io.github.adgross.beerstock.tracing;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+
+  private final MemorySpanExporter exporter;
+
+  public TracesEndpoint(MemorySpanExporter exporter) {
+    this.exporter = exporter;
+  }
+
+  @ReadOperation
+  public List<SpanRecord> spans() {
+    return exporter.getSpans().stream().map(SpanRecord::of).collect(Collectors.toList());
+  }
+
+  @ReadOperation
+  public List<SpanRecord> trace(@Selector String traceId) {
+    return exporter.getSpans().stream()
+        .filter(span -> span.getTraceId().equals(traceId))
+        .map(SpanRecord::of)
+        .collect(Collectors.toList());
+  }
+}
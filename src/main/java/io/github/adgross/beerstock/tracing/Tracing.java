@@ -0,0 +1,54 @@
+package io.github.adgross.beerstock.tracing;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+
+/**
+ * Starts the spans below the request span.
+ *
+ * <p>Traces only start at HTTP requests, {@link TracingFilter} puts its tracer
+ * in the request context and the code below, including the parts not managed
+ * by Spring such as the MapStruct mappers, takes it from there. Outside a
+ * sampled request a span costs a single context lookup.
+ */
+public final class Tracing {
+
+  public static final AttributeKey<Long> BEER_ID = AttributeKey.longKey("beer.id");
+  public static final AttributeKey<String> EXCEPTION_TYPE =
+      AttributeKey.stringKey("exception.type");
+
+  static final ContextKey<Tracer> TRACER = ContextKey.named("beerstock-tracer");
+
+  private Tracing() {
+  }
+
+  /**
+   * Starts a span under the current one, or returns a span that records nothing
+   * when the current one is not recorded.
+   */
+  public static Span startChild(String name) {
+    Context context = Context.current();
+    Tracer tracer = context.get(TRACER);
+    if (tracer == null || !Span.fromContext(context).isRecording()) {
+      return Span.getInvalid();
+    }
+    return tracer.spanBuilder(name).setParent(context).startSpan();
+  }
+
+  public static void tagBeer(Span span, Object value) {
+    if (value instanceof BeerDto && ((BeerDto) value).getId() != null) {
+      span.setAttribute(BEER_ID, ((BeerDto) value).getId());
+    }
+  }
+
+  public static void recordFailure(Span span, Throwable failure) {
+    span.recordException(failure);
+    span.setAttribute(EXCEPTION_TYPE, failure.getClass().getName());
+    span.setStatus(StatusCode.ERROR);
+  }
+}
@@ -0,0 +1,66 @@
+package io.github.adgross.beerstock.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Wraps the controller and service calls of a sampled request in spans named
+ * {@code Class.method}, tagged with the beer they work on and the type of the
+ * exception they end with.
+ *
+ * <p>It runs outside the transaction advice, so commits count in the service
+ * span.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingAspect {
+
+  private static final AttributeKey<String> CODE_NAMESPACE =
+      AttributeKey.stringKey("code.namespace");
+  private static final AttributeKey<String> CODE_FUNCTION =
+      AttributeKey.stringKey("code.function");
+
+  @Around("within(io.github.adgross.beerstock..*)"
+      + " && (@within(org.springframework.web.bind.annotation.RestController)"
+      + " || @within(org.springframework.stereotype.Service))")
+  public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+    if (!Span.current().isRecording()) {
+      return joinPoint.proceed();
+    }
+    var signature = (MethodSignature) joinPoint.getSignature();
+    Class<?> type = joinPoint.getTarget().getClass();
+    Span span = Tracing.startChild(type.getSimpleName() + "." + signature.getName());
+    span.setAttribute(CODE_NAMESPACE, type.getName());
+    span.setAttribute(CODE_FUNCTION, signature.getName());
+    tagBeerId(span, signature.getParameterNames(), joinPoint.getArgs());
+    try (Scope scope = span.makeCurrent()) {
+      Object result = joinPoint.proceed();
+      Tracing.tagBeer(span, result);
+      return result;
+    } catch (Throwable failure) {
+      Tracing.recordFailure(span, failure);
+      throw failure;
+    } finally {
+      span.end();
+    }
+  }
+
+  private static void tagBeerId(Span span, String[] names, Object[] args) {
+    if (names == null) {
+      return;
+    }
+    for (int i = 0; i < names.length; i++) {
+      if (args[i] instanceof Long && ("id".equals(names[i]) || "beerId".equals(names[i]))) {
+        span.setAttribute(Tracing.BEER_ID, (Long) args[i]);
+        return;
+      }
+    }
+  }
+}
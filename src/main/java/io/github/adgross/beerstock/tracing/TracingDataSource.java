@@ -0,0 +1,115 @@
+package io.github.adgross.beerstock.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Gives every JDBC statement executed during a sampled request its own span,
+ * named after the SQL command and tagged with the statement text.
+ *
+ * <p>Connections taken outside a sampled request are handed out as they are,
+ * so the rest of the traffic does not pay for the proxies.
+ */
+public class TracingDataSource extends DelegatingDataSource {
+
+  private static final AttributeKey<String> DB_SYSTEM = AttributeKey.stringKey("db.system");
+  private static final AttributeKey<String> DB_STATEMENT = AttributeKey.stringKey("db.statement");
+
+  private volatile String system;
+
+  public TracingDataSource(DataSource targetDataSource) {
+    super(targetDataSource);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return traced(super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return traced(super.getConnection(username, password));
+  }
+
+  private Connection traced(Connection connection) throws SQLException {
+    if (!Span.current().isRecording()) {
+      return connection;
+    }
+    if (system == null) {
+      system = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+    }
+    return (Connection) proxy(Connection.class, connection, (proxy, method, args) -> {
+      Object result = invoke(connection, method, args);
+      if (result instanceof Statement) {
+        String sql = args != null && args.length > 0 && args[0] instanceof String
+            ? (String) args[0] : null;
+        return statement(method.getReturnType(), (Statement) result, sql);
+      }
+      return result;
+    });
+  }
+
+  private Object statement(Class<?> type, Statement statement, String preparedSql) {
+    Class<?> proxied = CallableStatement.class.isAssignableFrom(type)
+        ? CallableStatement.class
+        : PreparedStatement.class.isAssignableFrom(type) ? PreparedStatement.class
+        : Statement.class;
+    return proxy(proxied, statement, (proxy, method, args) -> {
+      if (!method.getName().startsWith("execute")) {
+        return invoke(statement, method, args);
+      }
+      String sql = args != null && args.length > 0 && args[0] instanceof String
+          ? (String) args[0] : preparedSql;
+      Span span = Tracing.startChild(command(sql, method.getName()));
+      span.setAttribute(DB_SYSTEM, system);
+      if (sql != null) {
+        span.setAttribute(DB_STATEMENT, sql);
+      }
+      try {
+        return invoke(statement, method, args);
+      } catch (Throwable failure) {
+        Tracing.recordFailure(span, failure);
+        throw failure;
+      } finally {
+        span.end();
+      }
+    });
+  }
+
+  private static String command(String sql, String method) {
+    if (sql == null) {
+      return method;
+    }
+    String trimmed = sql.stripLeading();
+    int end = 0;
+    while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+      end++;
+    }
+    return end == 0 ? method : trimmed.substring(0, end).toUpperCase(Locale.ROOT);
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static Object proxy(Class<?> type, Object target, InvocationHandler handler) {
+    return Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[] {type},
+        handler);
+  }
+}
@@ -0,0 +1,83 @@
+package io.github.adgross.beerstock.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import java.io.IOException;
+import java.util.Collections;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Opens a server span for each request, continuing the trace of a W3C
+ * {@code traceparent} header when the client sends one.
+ *
+ * <p>The span is renamed after the matched route once the handler is known, so
+ * all the requests to a resource share the name whatever the id in the path.
+ */
+public class TracingFilter extends OncePerRequestFilter {
+
+  private static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.method");
+  private static final AttributeKey<String> HTTP_TARGET = AttributeKey.stringKey("http.target");
+  private static final AttributeKey<String> HTTP_ROUTE = AttributeKey.stringKey("http.route");
+  private static final AttributeKey<Long> HTTP_STATUS_CODE =
+      AttributeKey.longKey("http.status_code");
+
+  private static final TextMapGetter<HttpServletRequest> HEADERS = new TextMapGetter<>() {
+    @Override
+    public Iterable<String> keys(HttpServletRequest request) {
+      return Collections.list(request.getHeaderNames());
+    }
+
+    @Override
+    public String get(HttpServletRequest request, String key) {
+      return request.getHeader(key);
+    }
+  };
+
+  private final Tracer tracer;
+
+  public TracingFilter(Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    Context parent = W3CTraceContextPropagator.getInstance()
+        .extract(Context.root(), request, HEADERS);
+    Span span = tracer.spanBuilder(request.getMethod() + " " + request.getRequestURI())
+        .setParent(parent)
+        .setSpanKind(SpanKind.SERVER)
+        .setAttribute(HTTP_METHOD, request.getMethod())
+        .setAttribute(HTTP_TARGET, request.getRequestURI())
+        .startSpan();
+    try (Scope scope = parent.with(span).with(Tracing.TRACER, tracer).makeCurrent()) {
+      filterChain.doFilter(request, response);
+    } catch (IOException | ServletException | RuntimeException e) {
+      Tracing.recordFailure(span, e);
+      throw e;
+    } finally {
+      Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      if (route != null) {
+        span.updateName(request.getMethod() + " " + route);
+        span.setAttribute(HTTP_ROUTE, route.toString());
+      }
+      span.setAttribute(HTTP_STATUS_CODE, response.getStatus());
+      if (response.getStatus() >= 500) {
+        span.setStatus(StatusCode.ERROR);
+      }
+      span.end();
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package io.github.adgross.beerstock.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads comma separated records one at a time.
+ *
+ * <p>Fields may be enclosed in double quotes, in which case they can hold commas,
+ * line breaks and doubled quotes standing for a quote. Records end with
+ * {@code \n}, {@code \r\n} or {@code \r}. Only the record being read is kept in
+ * memory.
+ */
+public class CsvReader implements Closeable {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Reader reader;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private final StringBuilder field = new StringBuilder();
+  private int position;
+  private int limit;
+  private int pushedBack = -1;
+  private long line = 1;
+  private long recordLine;
+
+  public CsvReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Returns the fields of the next record, or {@code null} at the end of input.
+   *
+   * @throws IOException when reading fails or a quoted field is never closed
+   */
+  public List<String> next() throws IOException {
+    int c = read();
+    if (c == -1) {
+      return null;
+    }
+    recordLine = line;
+    List<String> fields = new ArrayList<>();
+    field.setLength(0);
+    boolean quoted = false;
+    while (true) {
+      if (quoted) {
+        if (c == -1) {
+          throw new IOException("Quoted field starting on line " + recordLine + " is not closed");
+        } else if (c == '"') {
+          int next = read();
+          if (next == '"') {
+            field.append('"');
+          } else {
+            quoted = false;
+            c = next;
+            continue;
+          }
+        } else {
+          if (c == '\n') {
+            line++;
+          }
+          field.append((char) c);
+        }
+      } else if (c == '"' && field.length() == 0) {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else if (c == '\n' || c == '\r' || c == -1) {
+        if (c == '\r') {
+          int next = read();
+          if (next != '\n') {
+            pushedBack = next;
+          }
+        }
+        if (c != -1) {
+          line++;
+        }
+        fields.add(field.toString());
+        return fields;
+      } else {
+        field.append((char) c);
+      }
+      c = read();
+    }
+  }
+
+  /**
+   * Returns the line on which the last record returned by {@link #next()} starts.
+   */
+  public long getLine() {
+    return recordLine;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private int read() throws IOException {
+    if (pushedBack != -1) {
+      int c = pushedBack;
+      pushedBack = -1;
+      return c;
+    }
+    if (position == limit) {
+      limit = reader.read(buffer);
+      position = 0;
+      if (limit <= 0) {
+        limit = 0;
+        return -1;
+      }
+    }
+    return buffer[position++];
+  }
+}
@@ -0,0 +1,161 @@
+package io.github.adgross.beerstock.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Expires items after a delay using a hashed wheel of buckets.
+ *
+ * <p>Scheduling and cancelling are O(1): new timeouts are queued and placed in
+ * their bucket by the single worker thread, cancelled ones are dropped lazily.
+ * Every tick the worker expires the due timeouts of one bucket, so the accuracy
+ * is bounded by the tick duration.
+ */
+@Slf4j
+public class HashedTimingWheel<T> implements AutoCloseable {
+
+  private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+  private final long tickNanos;
+  private final List<List<Timeout<T>>> buckets;
+  private final int mask;
+  private final Consumer<T> onExpire;
+  private final Queue<Timeout<T>> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger size = new AtomicInteger();
+  private final long startTime = System.nanoTime();
+  private final Thread worker;
+  private long tick;
+
+  public HashedTimingWheel(String name, Duration tickDuration, int wheelSize,
+      Consumer<T> onExpire) {
+    if (tickDuration.isNegative() || tickDuration.isZero()) {
+      throw new IllegalArgumentException("Tick duration must be positive");
+    }
+    int normalized = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+    this.tickNanos = tickDuration.toNanos();
+    this.buckets = new ArrayList<>(normalized);
+    for (int i = 0; i < normalized; i++) {
+      buckets.add(new ArrayList<>());
+    }
+    this.mask = normalized - 1;
+    this.onExpire = onExpire;
+    this.worker = new Thread(this::run, name);
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  public Timeout<T> schedule(T item, Duration delay) {
+    long deadline = System.nanoTime() - startTime + Math.max(0, delay.toNanos());
+    var timeout = new Timeout<>(item, deadline, this);
+    size.incrementAndGet();
+    pending.add(timeout);
+    return timeout;
+  }
+
+  public int size() {
+    return size.get();
+  }
+
+  @Override
+  public void close() {
+    worker.interrupt();
+  }
+
+  private void run() {
+    while (!Thread.currentThread().isInterrupted()) {
+      long deadline = tickNanos * (tick + 1);
+      long sleep = deadline - (System.nanoTime() - startTime);
+      if (sleep > 0) {
+        try {
+          TimeUnit.NANOSECONDS.sleep(sleep);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+      transferPending();
+      expire(buckets.get((int) (tick & mask)));
+      tick++;
+    }
+  }
+
+  private void transferPending() {
+    for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+      Timeout<T> timeout = pending.poll();
+      if (timeout == null) {
+        return;
+      }
+      if (timeout.isCancelled()) {
+        continue;
+      }
+      long due = timeout.deadline / tickNanos;
+      timeout.remainingRounds = (due - tick) / buckets.size();
+      buckets.get((int) (Math.max(due, tick) & mask)).add(timeout);
+    }
+  }
+
+  private void expire(List<Timeout<T>> bucket) {
+    Iterator<Timeout<T>> iterator = bucket.iterator();
+    while (iterator.hasNext()) {
+      Timeout<T> timeout = iterator.next();
+      if (timeout.isCancelled()) {
+        iterator.remove();
+      } else if (timeout.remainingRounds <= 0) {
+        iterator.remove();
+        if (timeout.state.compareAndSet(State.WAITING, State.EXPIRED)) {
+          size.decrementAndGet();
+          try {
+            onExpire.accept(timeout.item);
+          } catch (RuntimeException e) {
+            log.warn("Expiring {} failed", timeout.item, e);
+          }
+        }
+      } else {
+        timeout.remainingRounds--;
+      }
+    }
+  }
+
+  private enum State {
+    WAITING, CANCELLED, EXPIRED
+  }
+
+  public static final class Timeout<T> {
+    private final T item;
+    private final long deadline;
+    private final HashedTimingWheel<T> wheel;
+    private final AtomicReference<State> state = new AtomicReference<>(State.WAITING);
+    private long remainingRounds;
+
+    private Timeout(T item, long deadline, HashedTimingWheel<T> wheel) {
+      this.item = item;
+      this.deadline = deadline;
+      this.wheel = wheel;
+    }
+
+    public T getItem() {
+      return item;
+    }
+
+    public boolean isCancelled() {
+      return state.get() == State.CANCELLED;
+    }
+
+    public boolean cancel() {
+      if (state.compareAndSet(State.WAITING, State.CANCELLED)) {
+        wheel.size.decrementAndGet();
+        return true;
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package io.github.adgross.beerstock.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints.
+ */
+public class IntList {
+
+  private int[] values;
+  private int size;
+
+  public IntList() {
+    this(4);
+  }
+
+  public IntList(int capacity) {
+    this.values = new int[Math.max(1, capacity)];
+  }
+
+  public void add(int value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size + (size >> 1) + 1);
+    }
+    values[size++] = value;
+  }
+
+  public int get(int index) {
+    if (index >= size) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return values[index];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public void trimToSize() {
+    values = Arrays.copyOf(values, Math.max(1, size));
+  }
+}
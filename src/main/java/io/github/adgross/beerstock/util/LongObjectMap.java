@@ -0,0 +1,134 @@
+package io.github.adgross.beerstock.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Hash map from primitive longs to objects, not thread safe.
+ *
+ * <p>Keys and values live in two parallel arrays probed linearly, so an entry
+ * costs no node and no boxed key. Removal shifts the following entries back
+ * instead of leaving tombstones.
+ */
+public class LongObjectMap<V> {
+
+  private static final long MIX = 0x9E3779B97F4A7C15L;
+
+  private long[] keys;
+  private Object[] values;
+  private int size;
+
+  public LongObjectMap() {
+    this(8);
+  }
+
+  public LongObjectMap(int capacity) {
+    int slots = Integer.highestOneBit(Math.max(2, capacity * 2) - 1) << 1;
+    this.keys = new long[slots];
+    this.values = new Object[slots];
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    int mask = keys.length - 1;
+    for (int slot = slot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        return (V) values[slot];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Maps {@code key} to {@code value}, which must not be {@code null}, and
+   * returns the previous value.
+   */
+  @SuppressWarnings("unchecked")
+  public V put(long key, V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Values must not be null");
+    }
+    int mask = keys.length - 1;
+    int slot = slot(key, mask);
+    for (; values[slot] != null; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        V previous = (V) values[slot];
+        values[slot] = value;
+        return previous;
+      }
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size * 4 > keys.length * 3) {
+      resize(keys.length * 2);
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  public V remove(long key) {
+    int mask = keys.length - 1;
+    int slot = slot(key, mask);
+    while (values[slot] != null && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    if (values[slot] == null) {
+      return null;
+    }
+    final V previous = (V) values[slot];
+    // moves back every following entry that may no longer be reached
+    int gap = slot;
+    for (int next = (gap + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+      int home = slot(keys[next], mask);
+      if (((next - home) & mask) >= ((next - gap) & mask)) {
+        keys[gap] = keys[next];
+        values[gap] = values[next];
+        gap = next;
+      }
+    }
+    values[gap] = null;
+    size--;
+    return previous;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void forEachValue(Consumer<? super V> action) {
+    for (Object value : values) {
+      if (value != null) {
+        action.accept((V) value);
+      }
+    }
+  }
+
+  public void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  private void resize(int slots) {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    keys = new long[slots];
+    values = new Object[slots];
+    int mask = slots - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldValues[i] != null) {
+        int slot = slot(oldKeys[i], mask);
+        while (values[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private static int slot(long key, int mask) {
+    long mixed = key * MIX;
+    return (int) (mixed ^ (mixed >>> 32)) & mask;
+  }
+}
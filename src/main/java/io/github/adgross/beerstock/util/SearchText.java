@@ -0,0 +1,26 @@
+package io.github.adgross.beerstock.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class SearchText {
+
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern SPACES = Pattern.compile("\\s+");
+
+  private SearchText() {
+  }
+
+  /**
+   * Folds text for matching: accents removed, lower case and single spaces.
+   */
+  public static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+    String folded = MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    return SPACES.matcher(folded).replaceAll(" ").trim();
+  }
+}
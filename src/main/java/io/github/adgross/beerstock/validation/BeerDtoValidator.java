@@ -0,0 +1,126 @@
+package io.github.adgross.beerstock.validation;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import javax.validation.constraints.Pattern;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * Checks the constraints declared on {@link BeerDto} without reflection.
+ *
+ * <p>Errors carry the same codes, fields and default messages as the Bean
+ * Validation ones, and nothing is allocated for a valid beer. The constraints
+ * are written out by hand, so any change to the annotations of {@link BeerDto}
+ * has to be mirrored here; {@code BeerDtoValidatorTests} compares both.
+ */
+public class BeerDtoValidator implements Validator {
+
+  static final String TEXT_PATTERN = "^[A-Za-z0-9áéíóúàèìòùãẽĩõũâêîôûäëïöüçÇ\\s]*$";
+  private static final String TEXT_SYMBOLS = "áéíóúàèìòùãẽĩõũâêîôûäëïöüçÇ";
+  private static final int TEXT_MAX_LENGTH = 200;
+  private static final int MAX_MIN = 1;
+  private static final int MAX_MAX = 500;
+  private static final int QUANTITY_MIN = 0;
+  private static final int QUANTITY_MAX = 100;
+
+  @Override
+  public boolean supports(Class<?> clazz) {
+    return BeerDto.class.equals(clazz);
+  }
+
+  @Override
+  public void validate(Object target, Errors errors) {
+    BeerDto beer = (BeerDto) target;
+    validateText("name", beer.getName(), errors);
+    validateText("brand", beer.getBrand(), errors);
+    validateMax(beer.getMax(), errors);
+    validateQuantity(beer.getQuantity(), errors);
+    if (beer.getType() == null) {
+      reject(errors, "type", "NotNull");
+    }
+  }
+
+  // @NotBlank @Size(min = 1, max = 200) @Pattern(regexp = TEXT_PATTERN)
+  private void validateText(String field, String value, Errors errors) {
+    if (value == null) {
+      reject(errors, field, "NotBlank");
+      return;
+    }
+    if (isBlank(value)) {
+      reject(errors, field, "NotBlank");
+    }
+    if (value.length() < 1 || value.length() > TEXT_MAX_LENGTH) {
+      reject(errors, field, "Size", "max", TEXT_MAX_LENGTH, "min", 1);
+    }
+    if (!matchesTextPattern(value)) {
+      reject(errors, field, "Pattern", "flags", new Pattern.Flag[0], "regexp", TEXT_PATTERN);
+    }
+  }
+
+  // @Positive @Min(1) @Max(500)
+  private void validateMax(int max, Errors errors) {
+    if (max <= 0) {
+      reject(errors, "max", "Positive");
+    }
+    if (max < MAX_MIN) {
+      reject(errors, "max", "Min", "value", (long) MAX_MIN);
+    }
+    if (max > MAX_MAX) {
+      reject(errors, "max", "Max", "value", (long) MAX_MAX);
+    }
+  }
+
+  // @PositiveOrZero @Min(0) @Max(100)
+  private void validateQuantity(int quantity, Errors errors) {
+    if (quantity < 0) {
+      reject(errors, "quantity", "PositiveOrZero");
+    }
+    if (quantity < QUANTITY_MIN) {
+      reject(errors, "quantity", "Min", "value", (long) QUANTITY_MIN);
+    }
+    if (quantity > QUANTITY_MAX) {
+      reject(errors, "quantity", "Max", "value", (long) QUANTITY_MAX);
+    }
+  }
+
+  // same as String.trim().isEmpty() used by @NotBlank
+  private static boolean isBlank(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) > ' ') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean matchesTextPattern(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      boolean allowed = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')
+          || (c >= '0' && c <= '9')
+          || c == ' ' || (c >= '\t' && c <= '\r')
+          || (c > 127 && TEXT_SYMBOLS.indexOf(c) >= 0);
+      if (!allowed) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Rejects a field the way Spring reports a constraint violation: the
+   * constraint name as error code, the field and the constraint attributes
+   * sorted by name as arguments.
+   */
+  static void reject(Errors errors, String field, String constraint, Object... attributes) {
+    Object[] arguments = new Object[1 + attributes.length / 2];
+    arguments[0] = new DefaultMessageSourceResolvable(
+        new String[] {errors.getObjectName() + "." + field, field}, field);
+    for (int i = 1; i < arguments.length; i++) {
+      arguments[i] = attributes[2 * i - 1];
+    }
+    errors.rejectValue(field, constraint, arguments,
+        ConstraintMessages.get(constraint, attributes));
+  }
+}
@@ -0,0 +1,61 @@
+package io.github.adgross.beerstock.validation;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.context.i18n.LocaleContextHolder;
+
+/**
+ * Default messages of the standard constraints, resolved like Hibernate
+ * Validator does: the application {@code ValidationMessages} bundle first, then
+ * the Hibernate Validator one, for the locale of the current request.
+ * Interpolated messages are cached per locale.
+ */
+final class ConstraintMessages {
+
+  private static final String USER_BUNDLE = "ValidationMessages";
+  private static final String DEFAULT_BUNDLE = "org.hibernate.validator.ValidationMessages";
+
+  private static final Map<Locale, Map<String, String>> CACHE = new ConcurrentHashMap<>();
+
+  private ConstraintMessages() {
+  }
+
+  /**
+   * Returns the interpolated message of a {@code javax.validation.constraints}
+   * annotation, {@code attributes} alternating attribute names and values.
+   */
+  static String get(String constraint, Object... attributes) {
+    Locale locale = LocaleContextHolder.getLocale();
+    return CACHE.computeIfAbsent(locale, l -> new ConcurrentHashMap<>())
+        .computeIfAbsent(constraint + Arrays.deepToString(attributes),
+            k -> resolve(constraint, attributes, locale));
+  }
+
+  private static String resolve(String constraint, Object[] attributes, Locale locale) {
+    String key = "javax.validation.constraints." + constraint + ".message";
+    String message = find(USER_BUNDLE, key, locale);
+    if (message == null) {
+      message = find(DEFAULT_BUNDLE, key, locale);
+    }
+    if (message == null) {
+      return "{" + key + "}";
+    }
+    for (int i = 0; i < attributes.length; i += 2) {
+      message = message.replace("{" + attributes[i] + "}", String.valueOf(attributes[i + 1]));
+    }
+    return message;
+  }
+
+  private static String find(String bundle, String key, Locale locale) {
+    try {
+      var messages = ResourceBundle.getBundle(bundle, locale);
+      return messages.containsKey(key) ? messages.getString(key) : null;
+    } catch (MissingResourceException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package io.github.adgross.beerstock.validation;
+
+import io.github.adgross.beerstock.dto.QuantityDto;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * Checks the constraints declared on {@link QuantityDto} without reflection,
+ * reporting them like {@link BeerDtoValidator}.
+ */
+public class QuantityDtoValidator implements Validator {
+
+  @Override
+  public boolean supports(Class<?> clazz) {
+    return QuantityDto.class.equals(clazz);
+  }
+
+  // @NotNull @Positive
+  @Override
+  public void validate(Object target, Errors errors) {
+    Integer quantity = ((QuantityDto) target).getQuantity();
+    if (quantity == null) {
+      BeerDtoValidator.reject(errors, "quantity", "NotNull");
+    } else if (quantity <= 0) {
+      BeerDtoValidator.reject(errors, "quantity", "Positive");
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package io.github.adgross.beerstock.warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Counts the successful reads of single beers and keeps the most read ones in a
+ * file, one id per line, hottest first.
+ *
+ * <p>The file is rewritten periodically and on shutdown so the next start can
+ * warm up with them. Counts are halved on every save, so beers that cooled down
+ * leave the list after a few saves.
+ */
+@Slf4j
+public class HotBeerFilter extends OncePerRequestFilter implements DisposableBean {
+
+  private static final Pattern ITEM_PATH = Pattern.compile("/api/v1/beers/(\\d+)");
+
+  private final Path file;
+  private final int capacity;
+  private final Map<Long, LongAdder> reads = new ConcurrentHashMap<>();
+
+  public HotBeerFilter(Path file, int capacity) {
+    this.file = file;
+    this.capacity = capacity;
+  }
+
+  public void record(Long id) {
+    // stop counting new beers once far more than the kept ones are tracked
+    if (reads.size() < capacity * 10 || reads.containsKey(id)) {
+      reads.computeIfAbsent(id, key -> new LongAdder()).increment();
+    }
+  }
+
+  /**
+   * Returns the hottest beers, most read first.
+   */
+  public List<Long> hottest() {
+    return reads.entrySet().stream()
+        .sorted(Map.Entry.<Long, LongAdder>comparingByValue(
+            (a, b) -> Long.compare(b.sum(), a.sum())).thenComparing(Map.Entry.comparingByKey()))
+        .limit(capacity)
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the beers saved by the last run, ignoring lines that are not ids.
+   */
+  public List<Long> load() {
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    } catch (NoSuchFileException e) {
+      return List.of();
+    } catch (IOException e) {
+      log.warn("Reading the hot beers from {} failed", file, e);
+      return List.of();
+    }
+    List<Long> ids = new ArrayList<>();
+    for (String line : lines) {
+      try {
+        ids.add(Long.valueOf(line.trim()));
+      } catch (NumberFormatException e) {
+        // skipped
+      }
+      if (ids.size() == capacity) {
+        break;
+      }
+    }
+    return ids;
+  }
+
+  @Scheduled(fixedDelayString = "#{@warmUpConfig.saveInterval.toMillis()}",
+      initialDelayString = "#{@warmUpConfig.saveInterval.toMillis()}")
+  public void save() {
+    List<Long> hottest = hottest();
+    if (hottest.isEmpty()) {
+      return;
+    }
+    String content = hottest.stream().map(String::valueOf)
+        .collect(Collectors.joining("\n", "", "\n"));
+    try {
+      Path parent = file.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      // readers never see a partly written list
+      Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+      Files.writeString(temp, content, StandardCharsets.UTF_8);
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("Saving the hot beers to {} failed", file, e);
+      return;
+    }
+    reads.entrySet().removeIf(entry -> {
+      long halved = entry.getValue().sumThenReset() / 2;
+      entry.getValue().add(halved);
+      return halved == 0;
+    });
+  }
+
+  @Override
+  public void destroy() {
+    save();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !"GET".equals(request.getMethod());
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain chain) throws ServletException, IOException {
+    chain.doFilter(request, response);
+    if (response.getStatus() != HttpServletResponse.SC_OK) {
+      return;
+    }
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    var item = ITEM_PATH.matcher(path);
+    if (item.matches()) {
+      try {
+        record(Long.valueOf(item.group(1)));
+      } catch (NumberFormatException e) {
+        // too long for an id, the beer cannot exist
+      }
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package io.github.adgross.beerstock.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.adgross.beerstock.controller.BeerController;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.BeerFields;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Warms the caches and the compiled code of the read paths before the
+ * application reports ready.
+ *
+ * <p>Runs on the main thread once the application started, so the readiness
+ * state only turns to accepting traffic when it finished. It first reads the
+ * beers that were hot in the last run, filling the lookup caches, then calls
+ * the read handlers of {@link BeerController} in rounds and serializes what they
+ * return, until all rounds ran or the time budget is spent. The full listing is
+ * only replayed for catalogues of up to {@value #MAX_LISTED} beers. The latency
+ * of each request of the first round is reported against the median of the last
+ * rounds.
+ */
+@Slf4j
+public class WarmUp {
+
+  public enum Status {
+    PENDING, RUNNING, FINISHED, TIMED_OUT, FAILED
+  }
+
+  private static final BeerFields SPARSE_FIELDS = BeerFields.valueOf("id,name,quantity");
+  private static final int SAMPLE_SIZE = 20;
+  private static final int MAX_LISTED = 500;
+
+  private final BeerController beerController;
+  private final ObjectMapper objectMapper;
+  private final HotBeerFilter hotBeerFilter;
+  private final Duration budget;
+  private final int rounds;
+
+  @Getter
+  private volatile Status status = Status.PENDING;
+  @Getter
+  private volatile long elapsedMillis;
+  @Getter
+  private volatile int preloaded;
+  @Getter
+  private volatile int completedRounds;
+  @Getter
+  private volatile Map<String, Latency> latencies = Map.of();
+
+  public WarmUp(BeerController beerController, ObjectMapper objectMapper,
+      HotBeerFilter hotBeerFilter, Duration budget, int rounds) {
+    this.beerController = beerController;
+    this.objectMapper = objectMapper;
+    this.hotBeerFilter = hotBeerFilter;
+    this.budget = budget;
+    this.rounds = rounds;
+  }
+
+  // after the indexes loaded, they are warmed up too
+  @Order(Ordered.LOWEST_PRECEDENCE)
+  @EventListener(ApplicationReadyEvent.class)
+  public void run() {
+    status = Status.RUNNING;
+    long start = System.nanoTime();
+    long deadline = start + budget.toNanos();
+    try {
+      List<BeerDto> samples = preload(hotBeerFilter.load(), deadline);
+      preloaded = samples.size();
+      // every beer is at or below its max, so this reads at most MAX_LISTED + 1
+      List<BeerDto> some = beerController.lowStock(MAX_LISTED + 1, 1);
+      if (samples.isEmpty()) {
+        samples = some.stream()
+            .limit(SAMPLE_SIZE)
+            .collect(Collectors.toList());
+      }
+      status = replay(samples, some.size() <= MAX_LISTED, deadline)
+          ? Status.FINISHED : Status.TIMED_OUT;
+    } catch (Exception e) {
+      // a cold start is slower, not broken
+      status = Status.FAILED;
+      log.warn("Warm-up failed", e);
+    }
+    elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+    log.info("Warm-up {} after {} ms, {} hot beers preloaded and {} rounds replayed",
+        status, elapsedMillis, preloaded, completedRounds);
+    latencies.forEach((request, latency) -> log.info("Warm-up {}: first {} us, warm {} us",
+        request, latency.getFirstMicros(), latency.getWarmMicros()));
+  }
+
+  private List<BeerDto> preload(List<Long> ids, long deadline) {
+    List<BeerDto> beers = new ArrayList<>();
+    for (Long id : ids) {
+      if (System.nanoTime() > deadline) {
+        break;
+      }
+      try {
+        beers.add(beerController.findById(id));
+      } catch (BeerNotFoundException e) {
+        // deleted since it was hot
+      }
+    }
+    return beers;
+  }
+
+  private boolean replay(List<BeerDto> samples, boolean listed, long deadline)
+      throws Exception {
+    Map<String, Callable<Object>> requests = requests(samples, listed);
+    Map<String, long[]> nanos = new LinkedHashMap<>();
+    requests.keySet().forEach(request -> nanos.put(request, new long[rounds]));
+    int round = 0;
+    boolean finished = true;
+    while (round < rounds && finished) {
+      for (var request : requests.entrySet()) {
+        if (System.nanoTime() > deadline) {
+          finished = false;
+          break;
+        }
+        nanos.get(request.getKey())[round] = time(request.getValue());
+      }
+      if (finished) {
+        round++;
+      }
+    }
+    completedRounds = round;
+    latencies = summarize(nanos, round);
+    return finished;
+  }
+
+  private long time(Callable<Object> request) throws Exception {
+    long start = System.nanoTime();
+    objectMapper.writeValueAsBytes(request.call());
+    return System.nanoTime() - start;
+  }
+
+  private Map<String, Callable<Object>> requests(List<BeerDto> samples, boolean listed) {
+    Map<String, Callable<Object>> requests = new LinkedHashMap<>();
+    if (listed) {
+      requests.put("list", beerController::listAll);
+    }
+    requests.put("low-stock", () -> beerController.lowStock(10, 1));
+    if (samples.isEmpty()) {
+      return requests;
+    }
+    var next = new AtomicInteger();
+    Supplier<BeerDto> sample = () ->
+        samples.get(Math.floorMod(next.getAndIncrement(), samples.size()));
+    requests.put("find", () -> beerController.findById(sample.get().getId()));
+    requests.put("find-fields",
+        () -> beerController.findById(sample.get().getId(), SPARSE_FIELDS));
+    requests.put("find-by-name", () -> beerController.findByName(sample.get().getName()));
+    requests.put("search", () -> beerController.search(firstWord(sample.get().getName()), 10));
+    requests.put("suggest",
+        () -> beerController.suggest(prefix(sample.get().getName()), 10));
+    return requests;
+  }
+
+  private static String firstWord(String name) {
+    return name.trim().split("\\s+")[0];
+  }
+
+  private static String prefix(String name) {
+    return name.substring(0, Math.min(3, name.length()));
+  }
+
+  private static Map<String, Latency> summarize(Map<String, long[]> nanos, int rounds) {
+    Map<String, Latency> summary = new LinkedHashMap<>();
+    if (rounds == 0) {
+      return summary;
+    }
+    // the last tenth of the rounds stands for the warm state
+    int warmFrom = rounds - Math.max(1, rounds / 10);
+    nanos.forEach((request, times) -> {
+      long[] warm = Arrays.copyOfRange(times, warmFrom, rounds);
+      Arrays.sort(warm);
+      summary.put(request, new Latency(times[0] / 1000, warm[warm.length / 2] / 1000));
+    });
+    return summary;
+  }
+
+  /**
+   * The latency of a request in the first round and the median of the last
+   * rounds.
+   */
+  @Value
+  public static class Latency {
+    long firstMicros;
+    long warmMicros;
+  }
+}
@@ -0,0 +1,30 @@
+package io.github.adgross.beerstock.warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+@Endpoint(id = "warmup")
+public class WarmUpEndpoint {
+
+  private final WarmUp warmUp;
+  private final HotBeerFilter hotBeerFilter;
+
+  public WarmUpEndpoint(WarmUp warmUp, HotBeerFilter hotBeerFilter) {
+    this.warmUp = warmUp;
+    this.hotBeerFilter = hotBeerFilter;
+  }
+
+  @ReadOperation
+  public Map<String, Object> report() {
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("status", warmUp.getStatus());
+    report.put("elapsedMillis", warmUp.getElapsedMillis());
+    report.put("preloaded", warmUp.getPreloaded());
+    report.put("rounds", warmUp.getCompletedRounds());
+    report.put("latencies", warmUp.getLatencies());
+    report.put("hotBeers", hotBeerFilter.hottest());
+    return report;
+  }
+}
@@ -0,0 +1,233 @@
+package io.github.adgross.beerstock.web;
+
+import io.github.adgross.beerstock.event.BeerChangedEvent;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.catalina.connector.CoyoteOutputStream;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Serves the beer list and single beers from their serialized JSON.
+ *
+ * <p>The first read of a resource goes through the controller as usual and its
+ * body is kept, together with a gzip compressed copy, stamped with the version
+ * of that resource the request started at. A change to a beer bumps the version
+ * of that beer and of the list, so a body is only served while nothing it shows
+ * changed since it was produced; hits do not reach the controller, the database
+ * or Jackson. Versions are striped by key, a collision only costs a miss.
+ *
+ * <p>At most {@code maxEntries} bodies are kept. Beyond that the oldest body is
+ * evicted, unless it was served since it was stored, in which case it gets a
+ * second chance at the back of the queue.
+ *
+ * <p>Bodies are held in read only heap buffers shared by all requests. On
+ * Tomcat a hit hands a view of the buffer to the connector, elsewhere it is
+ * copied out through a per thread chunk.
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+  private static final String COLLECTION_PATH = "/api/v1/beers";
+  private static final Pattern ITEM_PATH = Pattern.compile("/api/v1/beers/(\\d+)");
+  private static final String COLLECTION_KEY = "*";
+  private static final int CHUNK_SIZE = 8192;
+  private static final int VERSION_STRIPES = 4096;
+
+  private final int maxEntries;
+  private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final Map<String, CachedBody> bodies = new ConcurrentHashMap<>();
+  private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<byte[]> chunks = ThreadLocal.withInitial(() -> new byte[CHUNK_SIZE]);
+
+  public ResponseCacheFilter(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public int size() {
+    return bodies.size();
+  }
+
+  @EventListener
+  public void onBeerChanged(BeerChangedEvent event) {
+    String key = String.valueOf(event.getBeerId());
+    invalidate(key);
+    // readers may still see the old rows until the change commits
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          invalidate(key);
+        }
+      });
+    }
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    // parameters, such as the fields to return, change the body
+    return !"GET".equals(request.getMethod()) || request.getQueryString() != null
+        || !request.getParameterMap().isEmpty() || key(request) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain chain) throws ServletException, IOException {
+    String key = key(request);
+    long startVersion = versions.get(stripe(key));
+    CachedBody cached = bodies.get(key);
+    if (cached != null && cached.version == startVersion) {
+      cached.referenced = true;
+      hits.incrementAndGet();
+      write(cached, acceptsGzip(request), response);
+      return;
+    }
+    misses.incrementAndGet();
+    var wrapper = new ContentCachingResponseWrapper(response);
+    chain.doFilter(request, wrapper);
+    if (wrapper.getStatus() == HttpServletResponse.SC_OK
+        && wrapper.getHeader(HttpHeaders.CONTENT_ENCODING) == null
+        && isJson(wrapper.getContentType())) {
+      store(key, new CachedBody(startVersion, wrapper.getContentType(),
+          wrapper.getContentAsByteArray()));
+    }
+    wrapper.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    wrapper.copyBodyToResponse();
+  }
+
+  // a stale body stays until it is replaced or evicted, its version no longer matches
+  private void invalidate(String key) {
+    versions.incrementAndGet(stripe(key));
+    versions.incrementAndGet(stripe(COLLECTION_KEY));
+  }
+
+  private void store(String key, CachedBody body) {
+    if (bodies.put(key, body) == null) {
+      insertionOrder.add(key);
+      evictOverflow();
+    }
+  }
+
+  private void evictOverflow() {
+    while (bodies.size() > maxEntries) {
+      String oldest = insertionOrder.poll();
+      if (oldest == null) {
+        return;
+      }
+      CachedBody body = bodies.get(oldest);
+      if (body != null && body.referenced) {
+        body.referenced = false;
+        insertionOrder.add(oldest);
+      } else {
+        bodies.remove(oldest);
+      }
+    }
+  }
+
+  private static int stripe(String key) {
+    return Math.floorMod(key.hashCode(), VERSION_STRIPES);
+  }
+
+  private static String key(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    if (COLLECTION_PATH.equals(path)) {
+      return COLLECTION_KEY;
+    }
+    var item = ITEM_PATH.matcher(path);
+    return item.matches() ? item.group(1) : null;
+  }
+
+  private static boolean acceptsGzip(HttpServletRequest request) {
+    String accepted = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    return accepted != null && accepted.contains("gzip");
+  }
+
+  private static boolean isJson(String contentType) {
+    return contentType != null
+        && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+  }
+
+  private void write(CachedBody cached, boolean gzip, HttpServletResponse response)
+      throws IOException {
+    boolean compressed = gzip && cached.gzip != null;
+    ByteBuffer body = (compressed ? cached.gzip : cached.identity).duplicate();
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType(cached.contentType);
+    response.setContentLength(body.remaining());
+    response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (compressed) {
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    ServletOutputStream out = response.getOutputStream();
+    if (out instanceof CoyoteOutputStream) {
+      ((CoyoteOutputStream) out).write(body);
+      return;
+    }
+    byte[] chunk = chunks.get();
+    while (body.hasRemaining()) {
+      int length = Math.min(chunk.length, body.remaining());
+      body.get(chunk, 0, length);
+      out.write(chunk, 0, length);
+    }
+  }
+
+  private static ByteBuffer share(byte[] bytes) {
+    return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+  }
+
+  private static byte[] gzip(byte[] bytes) {
+    var compressed = new ByteArrayOutputStream(bytes.length / 4 + 32);
+    try (var out = new GZIPOutputStream(compressed)) {
+      out.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return compressed.toByteArray();
+  }
+
+  private static final class CachedBody {
+    private final long version;
+    private final String contentType;
+    private final ByteBuffer identity;
+    private final ByteBuffer gzip;
+    private volatile boolean referenced;
+
+    private CachedBody(long version, String contentType, byte[] body) {
+      this.version = version;
+      this.contentType = contentType;
+      this.identity = share(body);
+      byte[] compressed = gzip(body);
+      // tiny bodies grow when compressed
+      this.gzip = compressed.length < body.length ? share(compressed) : null;
+    }
+  }
+}
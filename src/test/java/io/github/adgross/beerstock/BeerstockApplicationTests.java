@@ -10,8 +10,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+// test.sql inserts rows behind the application, so nothing may be cached
 @SpringBootTest(classes = BeerstockApplication.class,
-    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "beerstock.response-cache.enabled=false")
 class BeerstockApplicationTests {
 
   @Autowired
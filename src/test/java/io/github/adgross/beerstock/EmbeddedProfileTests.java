@@ -0,0 +1,137 @@
+package io.github.adgross.beerstock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.QuantityDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.exception.BeerAlreadyRegisteredException;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.github.adgross.beerstock.exception.BeerStockExceededException;
+import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.MissingDeleteCriteriaException;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import io.github.adgross.beerstock.repository.InMemoryBeerRepository;
+import io.github.adgross.beerstock.services.BeerService;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = "beerstock.warmup.enabled=false")
+@ActiveProfiles("embedded")
+@AutoConfigureMockMvc
+class EmbeddedProfileTests {
+
+  @Autowired
+  private ApplicationContext context;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private BeerService beerService;
+
+  @Test
+  void runsWithoutDatabase() {
+    assertThat(context.getBeanNamesForType(DataSource.class).length, is(0));
+    assertThat(context.getBean(BeerRepository.class) instanceof InMemoryBeerRepository,
+        is(true));
+  }
+
+  // the outcomes checked by BeerServiceTests against a mocked repository
+  @Test
+  void beerServiceScenarios() throws Exception {
+    var created = beerService.createBeer(
+        new BeerDto(null, "scenario", "brand", 400, 100, BeerType.LAGER));
+    Long id = created.getId();
+
+    assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeer(
+        new BeerDto(null, "scenario", "brand", 400, 100, BeerType.LAGER)));
+    assertThrows(BeerStockExceededException.class, () -> beerService.createBeer(
+        new BeerDto(null, "too full", "brand", 10, 11, BeerType.LAGER)));
+    assertThat(beerService.find(id), is(equalTo(created)));
+    assertThat(beerService.find("scenario"), is(equalTo(created)));
+    assertThrows(BeerNotFoundException.class, () -> beerService.find("missing"));
+    assertThrows(BeerNotFoundException.class, () -> beerService.find(Long.MAX_VALUE));
+
+    assertThat(beerService.increment(id, 300).getQuantity(), is(400));
+    assertThrows(BeerStockExceededException.class, () -> beerService.increment(id, 1));
+    assertThat(beerService.decrement(id, 400).getQuantity(), is(0));
+    assertThrows(BeerStockNonExistentQuantityException.class,
+        () -> beerService.decrement(id, 1));
+    assertThrows(BeerNotFoundException.class, () -> beerService.increment(Long.MAX_VALUE, 1));
+    assertThrows(BeerNotFoundException.class, () -> beerService.decrement(Long.MAX_VALUE, 1));
+
+    final var other = beerService.createBeer(
+        new BeerDto(null, "other scenario", "scenario brand", 50, 5, BeerType.STOUT));
+    var renamed = beerService.updateBeer(id, created.toBuilder().name("renamed").build());
+    assertThat(beerService.find("renamed"), is(equalTo(renamed)));
+    assertThrows(BeerNotFoundException.class, () -> beerService.find("scenario"));
+    assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.updateBeer(id,
+        renamed.toBuilder().name("other scenario").build()));
+    assertThrows(BeerStockExceededException.class, () -> beerService.updateBeer(id,
+        renamed.toBuilder().quantity(401).build()));
+    assertThrows(BeerNotFoundException.class,
+        () -> beerService.updateBeer(Long.MAX_VALUE, renamed));
+
+    assertThrows(MissingDeleteCriteriaException.class,
+        () -> beerService.deleteBeers(null, null, false));
+    assertThat(beerService.deleteBeers("scenario brand", null, false), is(1));
+    assertThat(beerService.deleteBeers(List.of(id, other.getId())), is(1));
+    beerService.deleteBeer(id);
+    beerService.deleteBeer("missing");
+    assertThrows(BeerNotFoundException.class, () -> beerService.find(id));
+    assertThat(beerService.listAll().stream().anyMatch(beer -> beer.getId().equals(id)
+        || beer.getId().equals(other.getId())), is(false));
+  }
+
+  @Test
+  void servesTheBeerApi() throws Exception {
+    var beer = new BeerDto(null, "embedded", "brand", 100, 10, BeerType.STOUT);
+    var created = objectMapper.readValue(mockMvc.perform(post("/api/v1/beers")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(beer)))
+        .andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsString(), BeerDto.class);
+
+    mockMvc.perform(post("/api/v1/beers")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(beer)))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(patch("/api/v1/beers/{id}/decrement", created.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new QuantityDto(4))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.quantity", is(6)));
+    mockMvc.perform(get("/api/v1/beers/name/{name}", "embedded"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.quantity", is(6)));
+    mockMvc.perform(get("/api/v1/beers/search").param("query", "embedded"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id", is(created.getId().intValue())));
+    mockMvc.perform(delete("/api/v1/beers/{id}", created.getId()))
+        .andExpect(status().isNoContent());
+    mockMvc.perform(get("/api/v1/beers/{id}", created.getId()))
+        .andExpect(status().isNotFound());
+  }
+}
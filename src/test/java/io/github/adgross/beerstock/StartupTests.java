@@ -0,0 +1,111 @@
+package io.github.adgross.beerstock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestTemplate;
+import springfox.documentation.spring.web.plugins.Docket;
+
+/*
+  boots the real application (outside the test context cache) to measure the
+  startup of each profile, each run gets its own in memory database
+ */
+class StartupTests {
+
+  private final RestTemplate client = new RestTemplate();
+
+  private ConfigurableApplicationContext start(String profile) {
+    return BeerstockApplication.application().run(
+        "--spring.profiles.active=" + profile,
+        "--server.port=0",
+        "--spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+  }
+
+  private String baseUrl(ConfigurableApplicationContext context) {
+    int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+    return "http://localhost:" + port;
+  }
+
+  private StartupReport measure(String profile) {
+    long start = System.nanoTime();
+    try (var context = start(profile)) {
+      var baseUrl = baseUrl(context);
+      client.getForObject(baseUrl + "/api/v1/beers", String.class);
+      long timeToFirstRequest = (System.nanoTime() - start) / 1_000_000;
+
+      var timeline = client.postForObject(baseUrl + "/actuator/startup", Map.of(),
+          JsonNode.class);
+      assertThat(timeline, is(notNullValue()));
+      var events = timeline.path("timeline").path("events");
+      long instantiated = 0;
+      for (var event : events) {
+        if ("spring.beans.instantiate".equals(event.path("startupStep").path("name").asText())) {
+          instantiated++;
+        }
+      }
+      return new StartupReport(timeToFirstRequest, events.size(), instantiated,
+          context.getBeanNamesForType(Docket.class).length > 0);
+    }
+  }
+
+  @Test
+  void fastProfileInstantiatesFewerBeansAndSkipsSpringfox() {
+    var standard = measure("default");
+    var fast = measure("fast");
+
+    assertThat(standard.steps, is(not(0)));
+    assertThat(fast.steps, is(not(0)));
+    assertThat(fast.instantiatedBeans, is(lessThan(standard.instantiatedBeans)));
+    assertThat(standard.hasDocket, is(true));
+    assertThat(fast.hasDocket, is(false));
+  }
+
+  @Test
+  @Tag("benchmark")
+  void startupByProfile() {
+    for (String profile : new String[] {"default", "fast", "default", "fast"}) {
+      var report = measure(profile);
+      System.out.printf("profile=%s time-to-first-request=%dms steps=%d beans=%d%n",
+          profile, report.timeToFirstRequest, report.steps, report.instantiatedBeans);
+    }
+  }
+
+  @Test
+  @Tag("openapi")
+  void writeOpenApiDocument() throws Exception {
+    var output = Path.of(System.getProperty("openapi.output", "build/openapi.json"));
+    try (var context = start("default")) {
+      var document = client.getForObject(baseUrl(context) + "/v3/api-docs", String.class);
+      assertThat(document, is(notNullValue()));
+      assertThat(document.isBlank(), is(false));
+      // springfox serves the OpenAPI 3 form of the docket here, matching the file name
+      assertThat(document, containsString("\"openapi\":\"3."));
+      Files.createDirectories(output.getParent());
+      Files.writeString(output, document);
+    }
+    assertThat(Files.readAllLines(output), is(not(empty())));
+  }
+
+  @AllArgsConstructor
+  private static class StartupReport {
+    private final long timeToFirstRequest;
+    private final int steps;
+    private final long instantiatedBeans;
+    private final boolean hasDocket;
+  }
+}
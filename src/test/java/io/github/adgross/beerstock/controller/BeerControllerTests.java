@@ -7,15 +7,18 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import io.github.adgross.beerstock.dto.BeerDto;
 import io.github.adgross.beerstock.dto.QuantityDto;
+import io.github.adgross.beerstock.dto.SuggestionDto;
 import io.github.adgross.beerstock.enums.BeerType;
 import io.github.adgross.beerstock.exception.BeerAlreadyRegisteredException;
 import io.github.adgross.beerstock.exception.BeerNotFoundException;
 import io.github.adgross.beerstock.exception.BeerStockExceededException;
 import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.MissingDeleteCriteriaException;
 import io.github.adgross.beerstock.services.BeerService;
 import java.util.List;
 import org.junit.jupiter.api.Test;
@@ -34,6 +37,9 @@ public class BeerControllerTests {
   private static final String BEER_API_URL_PATH_NAME = "/api/v1/beers/name/{name}";
   private static final String BEER_API_URL_PATH_INCREMENT = "/api/v1/beers/{id}/increment";
   private static final String BEER_API_URL_PATH_DECREMENT = "/api/v1/beers/{id}/decrement";
+  private static final String BEER_API_URL_PATH_SEARCH = "/api/v1/beers/search";
+  private static final String BEER_API_URL_PATH_SUGGEST = "/api/v1/beers/suggest";
+  private static final String BEER_API_URL_PATH_LOW_STOCK = "/api/v1/beers/low-stock";
   private static final Long ID_VALID = Long.MAX_VALUE - 100;
   private static final Long ID_INVALID = 999L;
   private static final String NAME_VALID = "valid";
@@ -161,6 +167,45 @@ public class BeerControllerTests {
         .andExpect(status().isNotFound());
   }
 
+  @Test
+  void searchWithQuery() throws Exception {
+    List<BeerDto> beers = getValidBeers();
+
+    Mockito.when(beerService.search("heinekn", 5)).thenReturn(beers);
+
+    mockMvc.perform(get(BEER_API_URL_PATH_SEARCH).param("query", "heinekn").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(content().json(asJsonString(beers)));
+  }
+
+  @Test
+  void searchWithoutQuery() throws Exception {
+    mockMvc.perform(get(BEER_API_URL_PATH_SEARCH))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void suggestWithPrefix() throws Exception {
+    var suggestions = List.of(new SuggestionDto(1L, "Heineken", 30));
+
+    Mockito.when(beerService.suggest("hei", 10)).thenReturn(suggestions);
+
+    mockMvc.perform(get(BEER_API_URL_PATH_SUGGEST).param("prefix", "hei"))
+        .andExpect(status().isOk())
+        .andExpect(content().json(asJsonString(suggestions)));
+  }
+
+  @Test
+  void lowStockWithThreshold() throws Exception {
+    List<BeerDto> beers = getValidBeers();
+
+    Mockito.when(beerService.lowStock(50, 0.25)).thenReturn(beers);
+
+    mockMvc.perform(get(BEER_API_URL_PATH_LOW_STOCK).param("threshold", "0.25"))
+        .andExpect(status().isOk())
+        .andExpect(content().json(asJsonString(beers)));
+  }
+
   @Test
   void createWithValidBeers() throws Exception {
     // id is managed by JPA, so we should ignore it
@@ -262,6 +307,36 @@ public class BeerControllerTests {
         .andExpect(status().isNoContent());
   }
 
+  @Test
+  void deleteByIds() throws Exception {
+    Mockito.when(beerService.deleteBeers(List.of(1L, 2L, 3L))).thenReturn(2);
+
+    mockMvc.perform(delete(BEER_API_URL_PATH).param("ids", "1,2,3"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.deleted").value(2));
+  }
+
+  @Test
+  void deleteMatchingCriteria() throws Exception {
+    Mockito.when(beerService.deleteBeers("brand", BeerType.IPA, true)).thenReturn(5);
+
+    mockMvc.perform(delete(BEER_API_URL_PATH)
+            .param("brand", "brand")
+            .param("type", "IPA")
+            .param("outOfStock", "true"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.deleted").value(5));
+  }
+
+  @Test
+  void deleteMatchingWithoutCriteria() throws Exception {
+    Mockito.when(beerService.deleteBeers(null, null, false))
+        .thenThrow(MissingDeleteCriteriaException.class);
+
+    mockMvc.perform(delete(BEER_API_URL_PATH))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   void updateWithValidBeers() throws Exception {
     for (var beer : getValidBeers()) {
@@ -0,0 +1,95 @@
+package io.github.adgross.beerstock.index;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.event.BeerChangedEvent;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BeerChangeSequencerTests {
+
+  private BeerRepository beerRepository;
+  private BeerStockLevelIndex index;
+  private BeerChangeSequencer sequencer;
+  private final List<Integer> passed = new ArrayList<>();
+
+  private static BeerDto beer(int quantity) {
+    return new BeerDto(1L, "beer", "brand", 100, quantity, BeerType.LAGER);
+  }
+
+  @BeforeEach
+  void setUp() {
+    beerRepository = mock(BeerRepository.class);
+    index = new BeerStockLevelIndex(beerRepository, new SimpleMeterRegistry());
+    sequencer = new BeerChangeSequencer(beerRepository, List.of(index,
+        (id, current) -> passed.add(current == null ? null : current.getQuantity())));
+  }
+
+  // the first change reads the beer, then stalls until a later change of the
+  // same beer has been handled
+  private void overtaken(BeerDto stale, BeerChangedEvent later) throws Exception {
+    var reading = new CountDownLatch(1);
+    var overtaken = new CountDownLatch(1);
+    var stalled = new AtomicBoolean();
+    when(beerRepository.findCurrentDtoById(1L)).thenAnswer(call -> {
+      if (stalled.compareAndSet(false, true)) {
+        reading.countDown();
+        overtaken.await(5, TimeUnit.SECONDS);
+        return Optional.of(stale);
+      }
+      return Optional.ofNullable(later.getCurrent());
+    });
+    final var first = CompletableFuture.runAsync(
+        () -> sequencer.onBeerChanged(BeerChangedEvent.updated(beer(10), beer(11))));
+    assertThat(reading.await(5, TimeUnit.SECONDS), is(true));
+
+    sequencer.onBeerChanged(later);
+    overtaken.countDown();
+    first.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void olderReadsAreDropped() throws Exception {
+    overtaken(beer(11), BeerChangedEvent.updated(beer(11), beer(12)));
+
+    assertThat(passed, contains(12));
+    assertThat(index.lowest(10, 1), contains(beer(12)));
+  }
+
+  @Test
+  void deletedBeersStayDeleted() throws Exception {
+    index.put(beer(10));
+
+    overtaken(beer(11), BeerChangedEvent.deleted(beer(11)));
+
+    assertThat(passed, contains(nullValue()));
+    assertThat(index.size(), is(0));
+  }
+
+  @Test
+  void everyChangeIsReadAgain() {
+    when(beerRepository.findCurrentDtoById(1L)).thenReturn(Optional.of(beer(30)));
+
+    sequencer.onBeerChanged(BeerChangedEvent.created(beer(5)));
+    sequencer.onBeerChanged(BeerChangedEvent.updated(beer(5), beer(20)));
+
+    assertThat(passed, contains(30, 30));
+    assertThat(index.lowest(10, 1), contains(beer(30)));
+  }
+}
@@ -0,0 +1,132 @@
+package io.github.adgross.beerstock.index;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+public class BeerSearchIndexTests {
+
+  private BeerSearchIndex index;
+
+  private static BeerDto beer(long id, String name, String brand) {
+    return new BeerDto(id, name, brand, 100, 10, BeerType.LAGER);
+  }
+
+  private List<String> names(List<BeerDto> beers) {
+    return beers.stream().map(BeerDto::getName).collect(Collectors.toList());
+  }
+
+  @BeforeEach
+  void setUp() {
+    index = new BeerSearchIndex(mock(BeerRepository.class));
+    index.rebuild(List.of(
+        beer(1L, "Heineken", "Heineken"),
+        beer(2L, "Brahma Chopp", "Ambev"),
+        beer(3L, "Cerveja Açaí", "Colorado"),
+        beer(4L, "Bohemia Pilsen", "Ambev"),
+        beer(5L, "Heineken Zero", "Heineken")));
+  }
+
+  @Test
+  void toleratesTypos() {
+    assertThat(names(index.search("Heinekn", 1)), contains("Heineken"));
+    assertThat(names(index.search("bohemai", 10)), contains("Bohemia Pilsen"));
+  }
+
+  @Test
+  void ignoresAccentsAndCase() {
+    assertThat(names(index.search("CERVEJA ACAI", 10)), contains("Cerveja Açaí"));
+    assertThat(names(index.search("cérveja", 10)), contains("Cerveja Açaí"));
+  }
+
+  @Test
+  void ranksCloserNamesFirst() {
+    assertThat(names(index.search("heineken", 10)), contains("Heineken", "Heineken Zero"));
+  }
+
+  @Test
+  void matchesBrands() {
+    assertThat(names(index.search("ambev", 10)), contains("Brahma Chopp", "Bohemia Pilsen"));
+  }
+
+  @Test
+  void unrelatedQueryFindsNothing() {
+    assertThat(index.search("stout", 10), is(empty()));
+    assertThat(index.search("   ", 10), is(empty()));
+  }
+
+  @Test
+  void followsBeerChanges() {
+    index.onBeerState(6L, beer(6L, "Guinness", "Diageo"));
+    index.onBeerState(2L, beer(2L, "Brahma Duplo Malte", "Ambev"));
+    index.onBeerState(1L, null);
+
+    assertThat(names(index.search("guines", 10)), contains("Guinness"));
+    assertThat(names(index.search("duplo malte", 10)), contains("Brahma Duplo Malte"));
+    assertThat(index.search("chopp", 10), is(empty()));
+    assertThat(names(index.search("heineken", 10)), contains("Heineken Zero"));
+    assertThat(index.size(), is(equalTo(5)));
+  }
+
+  @Test
+  void compactsAfterManyUpdates() {
+    for (int i = 0; i < 5_000; i++) {
+      index.put(beer(4L, "Bohemia Pilsen " + i, "Ambev"));
+    }
+
+    assertThat(names(index.search("bohemia pilsen 4999", 1)), contains("Bohemia Pilsen 4999"));
+    assertThat(index.size(), is(equalTo(5)));
+  }
+
+  @Test
+  @Tag("benchmark")
+  void searchLatencyOverOneMillionBeers() {
+    var random = new Random(42);
+    var words = Arrays.asList("pale", "ale", "amber", "stout", "porter", "pilsen", "lager",
+        "weiss", "dunkel", "tripel", "session", "imperial", "golden", "hazy", "sour", "red");
+    var beers = new ArrayList<BeerDto>();
+    for (long id = 1; id <= 1_000_000; id++) {
+      var name = words.get(random.nextInt(words.size())) + " "
+          + words.get(random.nextInt(words.size())) + " " + Long.toString(id, 36);
+      beers.add(beer(id, name, "brand" + random.nextInt(5_000)));
+    }
+    long start = System.nanoTime();
+    index.rebuild(beers);
+    System.out.printf("indexed %d beers in %dms%n", index.size(),
+        (System.nanoTime() - start) / 1_000_000);
+
+    int warmup = 5_000;
+    int queries = 5_000;
+    long[] latencies = new long[queries];
+    int found = 0;
+    for (int i = -warmup; i < queries; i++) {
+      var target = beers.get(random.nextInt(beers.size()));
+      var typo = target.getName().replaceFirst("e", "");
+      long queryStart = System.nanoTime();
+      var results = index.search(typo, 10);
+      if (i >= 0) {
+        latencies[i] = System.nanoTime() - queryStart;
+        found += results.contains(target) ? 1 : 0;
+      }
+    }
+    Arrays.sort(latencies);
+    System.out.printf("search p50=%.2fms p99=%.2fms recall=%.3f%n",
+        latencies[queries / 2] / 1e6, latencies[queries * 99 / 100] / 1e6,
+        (double) found / queries);
+  }
+}
@@ -0,0 +1,186 @@
+package io.github.adgross.beerstock.index;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.adgross.beerstock.config.SnapshotConfig;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.CatalogDigestDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+public class BeerSnapshotStoreTests {
+
+  @TempDir
+  Path dir;
+
+  private BeerRepository beerRepository;
+
+  private static BeerDto beer(long id, int quantity) {
+    return new BeerDto(id, "beer " + id, "brand" + id % 7, 100, quantity, BeerType.values()[
+        (int) (id % BeerType.values().length)]);
+  }
+
+  private static CatalogDigestDto digest(List<BeerDto> beers) {
+    return new CatalogDigestDto(beers.size(),
+        beers.stream().mapToLong(BeerDto::getQuantity).sum(),
+        beers.stream().mapToLong(BeerDto::getId).max().orElse(0));
+  }
+
+  private BeerSnapshotStore store(BeerRepository repository, int slots, long strings) {
+    var config = new SnapshotConfig();
+    config.setEnabled(true);
+    config.setFile(dir.resolve("beers.bin").toString());
+    config.setInitialSlots(slots);
+    config.setInitialStrings(DataSize.ofBytes(strings));
+    return new BeerSnapshotStore(repository, config, new SimpleMeterRegistry());
+  }
+
+  private BeerSnapshotStore loaded(List<BeerDto> beers) {
+    when(beerRepository.findDigest()).thenReturn(digest(beers));
+    when(beerRepository.findAllDtos()).thenReturn(beers);
+    var store = store(beerRepository, 16, 1024);
+    store.load();
+    return store;
+  }
+
+  @BeforeEach
+  void setUp() {
+    beerRepository = mock(BeerRepository.class);
+  }
+
+  @Test
+  void servesTheLoadedCatalog() {
+    var store = loaded(List.of(beer(1, 10), beer(2, 0), beer(40, 7)));
+
+    assertThat(store.isReady(), is(true));
+    assertThat(store.size(), is(3));
+    assertThat(store.find(2L), is(Optional.of(beer(2, 0))));
+    assertThat(store.find(40L), is(Optional.of(beer(40, 7))));
+    assertThat(store.find(3L), is(Optional.empty()));
+    assertThat(store.read(1L, BeerSnapshotStore.BeerView::getQuantity), is(Optional.of(10)));
+  }
+
+  @Test
+  void followsBeerChanges() {
+    var store = loaded(List.of(beer(1, 10), beer(2, 0)));
+    var renamed = beer(2, 5).toBuilder().name("Renamed Beer").build();
+
+    store.onBeerState(2L, renamed);
+    store.onBeerState(1L, null);
+    store.onBeerState(3L, beer(3, 1));
+
+    assertThat(store.find(2L), is(Optional.of(renamed)));
+    assertThat(store.find(1L), is(Optional.empty()));
+    assertThat(store.find(3L), is(Optional.of(beer(3, 1))));
+    assertThat(store.size(), is(2));
+  }
+
+  @Test
+  void growsAndCompactsWhenFull() {
+    var store = loaded(List.of());
+    for (long id = 1; id <= 2_000; id++) {
+      store.put(beer(id, (int) (id % 100)));
+    }
+    for (long id = 1; id <= 2_000; id += 2) {
+      store.remove(id);
+      store.put(beer(id + 1, 3).toBuilder().name("renamed " + id).build());
+    }
+
+    assertThat(store.size(), is(1_000));
+    assertThat(store.find(1L), is(Optional.empty()));
+    assertThat(store.find(2_000L).orElseThrow().getName(), is(equalTo("renamed 1999")));
+    assertThat(store.find(2L).orElseThrow().getQuantity(), is(3));
+  }
+
+  @Test
+  void reusesCleanFileWhileCatalogIsUnchanged() {
+    var beers = List.of(beer(1, 10), beer(2, 0));
+    loaded(beers).destroy();
+
+    var restarted = mock(BeerRepository.class);
+    when(restarted.findDigest()).thenReturn(digest(beers));
+    var store = store(restarted, 16, 1024);
+    store.load();
+
+    verify(restarted, never()).findAllDtos();
+    assertThat(store.find(1L), is(Optional.of(beer(1, 10))));
+  }
+
+  @Test
+  void rebuildsChangedOrUncleanFile() {
+    var beers = List.of(beer(1, 10), beer(2, 0));
+    loaded(beers).destroy();
+    var changed = List.of(beer(1, 10), beer(2, 4));
+    when(beerRepository.findDigest()).thenReturn(digest(changed));
+    when(beerRepository.findAllDtos()).thenReturn(changed);
+
+    var store = store(beerRepository, 16, 1024);
+    store.load();
+
+    assertThat(store.find(2L), is(Optional.of(beer(2, 4))));
+
+    // not shut down, the file may have missed changes
+    var restarted = mock(BeerRepository.class);
+    when(restarted.findDigest()).thenReturn(digest(changed));
+    when(restarted.findAllDtos()).thenReturn(changed);
+    store(restarted, 16, 1024).load();
+
+    verify(restarted).findAllDtos();
+  }
+
+  @Test
+  @Tag("benchmark")
+  void heapAndReadsOfOneMillionBeers() {
+    var random = new Random(42);
+    var beers = new ArrayList<BeerDto>();
+    for (long id = 1; id <= 1_000_000; id++) {
+      beers.add(beer(id, random.nextInt(101)));
+    }
+    long before = usedHeap();
+    Map<Long, BeerDto> cache = new HashMap<>();
+    beers.forEach(beer -> cache.put(beer.getId(), beer.toBuilder()
+        .name(new String(beer.getName())).brand(new String(beer.getBrand())).build()));
+    final long cached = usedHeap() - before;
+    cache.clear();
+
+    before = usedHeap();
+    var store = loaded(beers);
+    long mapped = usedHeap() - before;
+
+    int reads = 1_000_000;
+    long start = System.nanoTime();
+    long sum = 0;
+    for (int i = 0; i < reads; i++) {
+      sum += store.read(1L + random.nextInt(beers.size()),
+          BeerSnapshotStore.BeerView::getQuantity).orElseThrow();
+    }
+    long elapsed = System.nanoTime() - start;
+    System.out.printf("heap: dto map %dMB, snapshot %dMB; quantity read %.0fns (%d)%n",
+        cached >> 20, mapped >> 20, (double) elapsed / reads, sum);
+  }
+
+  private static long usedHeap() {
+    System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+}
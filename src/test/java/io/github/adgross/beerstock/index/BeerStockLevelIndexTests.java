@@ -0,0 +1,117 @@
+package io.github.adgross.beerstock.index;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+public class BeerStockLevelIndexTests {
+
+  private BeerStockLevelIndex index;
+
+  private static BeerDto beer(long id, int max, int quantity) {
+    return new BeerDto(id, "beer" + id, "brand", max, quantity, BeerType.LAGER);
+  }
+
+  private static List<Long> ids(List<BeerDto> beers) {
+    return beers.stream().map(BeerDto::getId).collect(Collectors.toList());
+  }
+
+  @BeforeEach
+  void setUp() {
+    index = new BeerStockLevelIndex(mock(BeerRepository.class), new SimpleMeterRegistry());
+    index.rebuild(List.of(
+        beer(1L, 100, 50),
+        beer(2L, 10, 1),
+        beer(3L, 300, 30),
+        beer(4L, 3, 0),
+        beer(5L, 40, 40)));
+  }
+
+  @Test
+  void ranksByFillRatio() {
+    assertThat(ids(index.lowest(10, 1)), contains(4L, 2L, 3L, 1L, 5L));
+    assertThat(ids(index.lowest(2, 1)), contains(4L, 2L));
+  }
+
+  @Test
+  void stopsAtTheThreshold() {
+    assertThat(ids(index.lowest(10, 0.1)), contains(4L, 2L, 3L));
+    assertThat(ids(index.lowest(10, 0)), contains(4L));
+    assertThat(index.lowest(10, -1), is(empty()));
+  }
+
+  @Test
+  void followsBeerChanges() {
+    index.onBeerState(5L, beer(5L, 40, 0));
+    index.onBeerState(4L, null);
+    index.onBeerState(6L, beer(6L, 500, 499));
+
+    assertThat(ids(index.lowest(10, 1)), contains(5L, 2L, 3L, 1L, 6L));
+    assertThat(index.size(), is(equalTo(5)));
+  }
+
+  @Test
+  void returnedBeersAreCopies() {
+    index.lowest(1, 1).get(0).setQuantity(3);
+
+    assertThat(index.lowest(1, 1).get(0).getQuantity(), is(equalTo(0)));
+  }
+
+  @Test
+  @Tag("benchmark")
+  void lowestAgainstSortingOneMillionBeers() {
+    var random = new Random(42);
+    var beers = new ArrayList<BeerDto>();
+    for (long id = 1; id <= 1_000_000; id++) {
+      int max = 1 + random.nextInt(500);
+      beers.add(beer(id, max, random.nextInt(max + 1)));
+    }
+    long start = System.nanoTime();
+    index.rebuild(beers);
+    System.out.printf("indexed %d beers in %dms%n", index.size(),
+        (System.nanoTime() - start) / 1_000_000);
+
+    int queries = 2_000;
+    long[] latencies = new long[queries];
+    for (int i = -queries; i < queries; i++) {
+      var beer = beers.get(random.nextInt(beers.size()));
+      var changed = beer.toBuilder().quantity(random.nextInt(beer.getMax() + 1)).build();
+      index.onBeerState(beer.getId(), changed);
+      long queryStart = System.nanoTime();
+      index.lowest(50, 0.25);
+      if (i >= 0) {
+        latencies[i] = System.nanoTime() - queryStart;
+      }
+    }
+    Arrays.sort(latencies);
+
+    int sorts = 20;
+    long sortStart = System.nanoTime();
+    for (int i = 0; i < sorts; i++) {
+      beers.stream()
+          .sorted(Comparator.comparingDouble(beer -> (double) beer.getQuantity() / beer.getMax()))
+          .limit(50)
+          .collect(Collectors.toList());
+    }
+    System.out.printf("lowest 50 p50=%.1fus p99=%.1fus, full sort %.1fms%n",
+        latencies[queries / 2] / 1e3, latencies[queries * 99 / 100] / 1e3,
+        (System.nanoTime() - sortStart) / 1e6 / sorts);
+  }
+}
@@ -0,0 +1,166 @@
+package io.github.adgross.beerstock.index;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.SuggestionDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import io.github.adgross.beerstock.util.SearchText;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+public class BeerSuggestIndexTests {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private BeerSuggestIndex index;
+
+  private static BeerDto beer(long id, String name, int quantity) {
+    return new BeerDto(id, name, "brand", 1000, quantity, BeerType.LAGER);
+  }
+
+  private List<String> names(List<SuggestionDto> suggestions) {
+    return suggestions.stream().map(SuggestionDto::getName).collect(Collectors.toList());
+  }
+
+  @BeforeEach
+  void setUp() {
+    index = new BeerSuggestIndex(mock(BeerRepository.class), meterRegistry);
+    index.rebuild(List.of(
+        beer(1L, "Heineken", 30),
+        beer(2L, "Heineken Zero", 80),
+        beer(3L, "Hoegaarden", 50),
+        beer(4L, "Brahma", 10),
+        beer(5L, "Bohemia", 10),
+        beer(6L, "Cerveja Açaí", 5)));
+  }
+
+  @Test
+  void ranksByStock() {
+    assertThat(names(index.suggest("h", 10)),
+        contains("Heineken Zero", "Hoegaarden", "Heineken"));
+    assertThat(names(index.suggest("heine", 10)), contains("Heineken Zero", "Heineken"));
+    assertThat(names(index.suggest("b", 10)), contains("Bohemia", "Brahma"));
+    assertThat(names(index.suggest("h", 1)), contains("Heineken Zero"));
+  }
+
+  @Test
+  void foldsAccentsAndCase() {
+    assertThat(names(index.suggest("CERVEJA AC", 10)), contains("Cerveja Açaí"));
+    assertThat(names(index.suggest("cerveja aç", 10)), contains("Cerveja Açaí"));
+  }
+
+  @Test
+  void unknownPrefixSuggestsNothing() {
+    assertThat(index.suggest("x", 10), is(empty()));
+    assertThat(index.suggest("heinz", 10), is(empty()));
+    assertThat(index.suggest("heineken zero max", 10), is(empty()));
+  }
+
+  @Test
+  void followsBeerChanges() {
+    index.onBeerState(1L, beer(1L, "Heineken", 90));
+    index.onBeerState(3L, null);
+    index.onBeerState(7L, beer(7L, "Hop Lager", 60));
+    index.onBeerState(4L, beer(4L, "Brahma Duplo Malte", 10));
+
+    assertThat(names(index.suggest("h", 10)),
+        contains("Heineken", "Heineken Zero", "Hop Lager"));
+    assertThat(names(index.suggest("brahma", 10)), contains("Brahma Duplo Malte"));
+    assertThat(index.size(), is(equalTo(6)));
+  }
+
+  @Test
+  void reportsSizeAndMemoryPerEntry() {
+    assertThat(meterRegistry.get("beerstock.suggest.entries").gauge().value(), is(6.0));
+    assertThat(meterRegistry.get("beerstock.suggest.entry.size").gauge().value(),
+        is(greaterThan(0.0)));
+  }
+
+  @Test
+  void matchesBruteForceAfterRandomChanges() {
+    var random = new Random(7);
+    var syllables = List.of("ba", "be", "bra", "ca", "ço", "la", "le", "ma", "pi", " ");
+    Map<Long, BeerDto> beers = new HashMap<>();
+    index.rebuild(List.of());
+    for (int step = 0; step < 5_000; step++) {
+      long id = random.nextInt(300);
+      var previous = beers.get(id);
+      if (previous != null && random.nextInt(4) == 0) {
+        beers.remove(id);
+        index.onBeerState(id, null);
+        continue;
+      }
+      var name = random.nextInt(3) == 0 && previous != null
+          ? previous.getName()
+          : syllables.get(random.nextInt(9)) + syllables.get(random.nextInt(10))
+              + syllables.get(random.nextInt(10)) + id;
+      var current = beer(id, name, random.nextInt(50));
+      beers.put(id, current);
+      index.onBeerState(id, current);
+    }
+
+    for (var prefix : Arrays.asList("", "b", "ba", "bra", "c", "co", "la ", "ma", "pi", "le1")) {
+      var expected = beers.values().stream()
+          .filter(beer -> SearchText.normalize(beer.getName()).startsWith(prefix))
+          .sorted(Comparator.comparingInt(BeerDto::getQuantity).reversed()
+              .thenComparing(BeerDto::getName)
+              .thenComparing(BeerDto::getId))
+          .limit(BeerSuggestIndex.MAX_SUGGESTIONS)
+          .map(BeerDto::getName)
+          .collect(Collectors.toList());
+      assertThat(prefix, names(index.suggest(prefix, BeerSuggestIndex.MAX_SUGGESTIONS)),
+          is(equalTo(expected)));
+    }
+    assertThat(index.size(), is(equalTo(beers.size())));
+  }
+
+  @Test
+  @Tag("benchmark")
+  void suggestLatencyOverOneMillionBeers() {
+    var random = new Random(42);
+    var words = Arrays.asList("pale", "ale", "amber", "stout", "porter", "pilsen", "lager",
+        "weiss", "dunkel", "tripel", "session", "imperial", "golden", "hazy", "sour", "red");
+    var beers = new ArrayList<BeerDto>();
+    for (long id = 1; id <= 1_000_000; id++) {
+      var name = words.get(random.nextInt(words.size())) + " " + Long.toString(id, 36);
+      beers.add(beer(id, name, random.nextInt(1000)));
+    }
+    long start = System.nanoTime();
+    index.rebuild(beers);
+    System.out.printf("indexed %d names in %dms, %.0f bytes per entry%n", index.size(),
+        (System.nanoTime() - start) / 1_000_000, index.bytesPerEntry());
+
+    int warmup = 20_000;
+    int queries = 20_000;
+    long[] latencies = new long[queries];
+    for (int i = -warmup; i < queries; i++) {
+      var name = beers.get(random.nextInt(beers.size())).getName();
+      var prefix = name.substring(0, 1 + random.nextInt(name.length()));
+      long queryStart = System.nanoTime();
+      index.suggest(prefix, 10);
+      if (i >= 0) {
+        latencies[i] = System.nanoTime() - queryStart;
+      }
+    }
+    Arrays.sort(latencies);
+    System.out.printf("suggest p50=%.1fus p99=%.1fus%n",
+        latencies[queries / 2] / 1e3, latencies[queries * 99 / 100] / 1e3);
+  }
+}
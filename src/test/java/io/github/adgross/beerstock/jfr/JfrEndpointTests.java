@@ -0,0 +1,166 @@
+package io.github.adgross.beerstock.jfr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.services.BeerService;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "management.endpoints.web.exposure.include=jfr",
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:jfr;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+public class JfrEndpointTests {
+
+  private static final String EVENT_NAME = "io.github.adgross.beerstock.StockOperation";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private BeerService beerService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private BeerDto createBeer(int quantity) throws Exception {
+    var name = UUID.randomUUID().toString().replace("-", "");
+    return beerService.createBeer(new BeerDto(null, name, "brand", 100, quantity, BeerType.IPA));
+  }
+
+  private long start(String settings) throws Exception {
+    var response = mockMvc.perform(post("/actuator/jfr")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"test\",\"settings\":\"" + settings + "\"}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.state").value("RUNNING"))
+        .andReturn().getResponse().getContentAsString();
+    return objectMapper.readTree(response).path("id").asLong();
+  }
+
+  private List<RecordedEvent> download(long id) throws Exception {
+    byte[] recording = mockMvc.perform(get("/actuator/jfr/{id}", id))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    var file = Files.createTempFile("recording-", ".jfr");
+    try {
+      Files.write(file, recording);
+      return RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().equals(EVENT_NAME))
+          .collect(Collectors.toList());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void recordsStockOperationsUntilStopped() throws Exception {
+    final long id = start("default");
+    var beer = createBeer(10);
+    beerService.increment(beer.getId(), 5);
+    assertThrows(BeerStockNonExistentQuantityException.class,
+        () -> beerService.decrement(beer.getId(), 50));
+    beerService.updateBeer(beer.getId(), beer.toBuilder().quantity(3).build());
+
+    mockMvc.perform(post("/actuator/jfr/{id}", id))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.state").value("STOPPED"));
+    beerService.increment(beer.getId(), 1);
+
+    var events = download(id).stream()
+        .filter(event -> event.getLong("beerId") == beer.getId())
+        .collect(Collectors.toList());
+    assertThat(events.stream().map(event -> event.getString("operation") + " "
+            + event.getInt("delta") + " " + event.getString("outcome"))
+        .collect(Collectors.toList()), is(equalTo(List.of(
+            "create 10 ok",
+            "increment 5 ok",
+            "decrement -50 BeerStockNonExistentQuantityException",
+            "update -12 ok"))));
+    mockMvc.perform(delete("/actuator/jfr/{id}", id)).andExpect(status().isNoContent());
+    mockMvc.perform(get("/actuator/jfr/{id}", id)).andExpect(status().isNotFound());
+  }
+
+  @Test
+  void listsTheRunningRecordings() throws Exception {
+    long id = start("profile");
+
+    var response = mockMvc.perform(get("/actuator/jfr"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    mockMvc.perform(delete("/actuator/jfr/{id}", id)).andExpect(status().isNoContent());
+
+    var ids = objectMapper.readTree(response).findValues("id").stream()
+        .map(JsonNode::asLong).collect(Collectors.toList());
+    assertThat(ids, hasItem(id));
+  }
+
+  @Test
+  void unknownSettingsAreRejected() throws Exception {
+    mockMvc.perform(post("/actuator/jfr")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"settings\":\"nonexistent\"}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Tag("benchmark")
+  void eventOverhead() throws Exception {
+    var beer = createBeer(0);
+    int events = 10_000_000;
+    int increments = 20_000;
+    for (int round = 1; round <= 2; round++) {
+      for (boolean recording : new boolean[] {false, true}) {
+        try (var running = new Recording()) {
+          if (recording) {
+            running.enable(StockOperationEvent.class);
+            running.start();
+          }
+          final long eventStart = System.nanoTime();
+          for (int i = 0; i < events; i++) {
+            var event = StockOperationEvent.start("benchmark", (long) i, 1);
+            event.commit();
+          }
+          double nanosPerEvent = (System.nanoTime() - eventStart) / (double) events;
+          beerService.updateBeer(beer.getId(), beer.toBuilder().quantity(0).build());
+          final long incrementStart = System.nanoTime();
+          for (int i = 0; i < increments; i++) {
+            beerService.increment(beer.getId(), 0);
+          }
+          double incrementsPerSecond =
+              increments / ((System.nanoTime() - incrementStart) / 1e9);
+          System.out.printf("round=%d recording=%s event=%.1fns increments/s=%.0f%n", round,
+              recording, nanosPerEvent, incrementsPerSecond);
+        }
+      }
+    }
+  }
+}
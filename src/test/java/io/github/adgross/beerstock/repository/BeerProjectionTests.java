@@ -0,0 +1,135 @@
+package io.github.adgross.beerstock.repository;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import com.sun.management.ThreadMXBean;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.mapper.BeerMapper;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = {
+    "beerstock.warmup.enabled=false",
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:projection;DB_CLOSE_DELAY=-1"
+})
+public class BeerProjectionTests {
+
+  @Autowired
+  private BeerRepository beerRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+  private void insertBeers(int count) {
+    var prefix = UUID.randomUUID().toString();
+    var rows = new ArrayList<Object[]>(count);
+    for (int i = 0; i < count; i++) {
+      rows.add(new Object[] {prefix + "-" + i, "brand " + i % 100, 100, i % 100,
+          BeerType.values()[i % BeerType.values().length].name()});
+    }
+    jdbcTemplate.batchUpdate(
+        "insert into beer (name, brand, max, quantity, type) values (?, ?, ?, ?, ?)", rows);
+  }
+
+  private List<BeerDto> mappedEntities() {
+    return beerRepository.findAll().stream()
+        .sorted((a, b) -> a.getId().compareTo(b.getId()))
+        .map(beerMapper::toDto)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  void projectionsMatchMappedEntities() {
+    insertBeers(50);
+    var expected = mappedEntities();
+
+    assertThat(beerRepository.findAllDtos(), is(equalTo(expected)));
+    var first = expected.get(0);
+    assertThat(beerRepository.findDtoById(first.getId()), is(equalTo(Optional.of(first))));
+    assertThat(beerRepository.findDtoByName(first.getName()), is(equalTo(Optional.of(first))));
+    assertThat(beerRepository.findDtoById(Long.MAX_VALUE), is(equalTo(Optional.empty())));
+    assertThat(beerRepository.findDtoByName("missing"), is(equalTo(Optional.empty())));
+  }
+
+  @Test
+  void digestSumsUpTheCatalog() {
+    insertBeers(20);
+    var beers = mappedEntities();
+
+    var digest = beerRepository.findDigest();
+
+    assertThat(digest.getCount(), is(equalTo((long) beers.size())));
+    assertThat(digest.getQuantity(),
+        is(equalTo(beers.stream().mapToLong(BeerDto::getQuantity).sum())));
+    assertThat(digest.getLastId(), is(equalTo(beers.get(beers.size() - 1).getId())));
+  }
+
+  @Test
+  void projectionsLeaveNothingInThePersistenceContext() {
+    insertBeers(10);
+    var transaction = new TransactionTemplate(transactionManager);
+    transaction.setReadOnly(true);
+
+    int managed = transaction.execute(status -> {
+      beerRepository.findAllDtos();
+      return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+    });
+
+    assertThat(managed, is(equalTo(0)));
+  }
+
+  @Test
+  @Tag("benchmark")
+  void largeListEntitiesVersusProjection() {
+    insertBeers(200_000);
+    var readWrite = new TransactionTemplate(transactionManager);
+    var readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+
+    for (int round = 0; round < 3; round++) {
+      measure("entities", () -> readWrite.execute(status -> mappedEntities()));
+      measure("projection", () -> readOnly.execute(status -> beerRepository.findAllDtos()));
+    }
+  }
+
+  private void measure(String name, Supplier<List<BeerDto>> read) {
+    var threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    final long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+    final long cpuBefore = threads.getThreadCpuTime(thread);
+    final long start = System.nanoTime();
+
+    int size = read.get().size();
+
+    System.out.printf("read=%s rows=%d time=%dms cpu=%dms allocated=%dMB%n", name, size,
+        (System.nanoTime() - start) / 1_000_000,
+        (threads.getThreadCpuTime(thread) - cpuBefore) / 1_000_000,
+        (threads.getThreadAllocatedBytes(thread) - allocatedBefore) / (1024 * 1024));
+  }
+}
@@ -0,0 +1,177 @@
+package io.github.adgross.beerstock.repository;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.entity.Beer;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.services.BeerService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:second-level-cache;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+public class BeerSecondLevelCacheTests {
+
+  private static final String BEER_REGION = Beer.class.getName();
+
+  @Autowired
+  private BeerService beerService;
+
+  @Autowired
+  private BeerRepository beerRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  private BeerDto createBeer(int quantity) throws Exception {
+    var name = UUID.randomUUID().toString().replace("-", "");
+    return beerService.createBeer(new BeerDto(null, name, "brand", 100, quantity, BeerType.IPA));
+  }
+
+  @Test
+  void findByIdIsServedFromTheEntityCache() throws Exception {
+    var beer = createBeer(10);
+    beerRepository.findById(beer.getId());
+    statistics.clear();
+
+    beerRepository.findById(beer.getId());
+    beerRepository.findById(beer.getId());
+
+    assertThat(statistics.getPrepareStatementCount(), is(equalTo(0L)));
+    assertThat(statistics.getDomainDataRegionStatistics(BEER_REGION).getHitCount(),
+        is(greaterThanOrEqualTo(2L)));
+  }
+
+  @Test
+  void findByNameAlwaysReadsTheDatabase() throws Exception {
+    var beer = createBeer(10);
+    beerRepository.findByName(beer.getName());
+    statistics.clear();
+
+    assertThat(beerRepository.findByName(beer.getName()).get().getQuantity(), is(equalTo(10)));
+    assertThat(statistics.getPrepareStatementCount(), is(equalTo(1L)));
+    assertThat(statistics.getQueryCacheHitCount(), is(equalTo(0L)));
+
+    beerService.increment(beer.getId(), 5);
+    assertThat(beerRepository.findByName(beer.getName()).get().getQuantity(), is(equalTo(15)));
+
+    beerService.deleteBeer(beer.getId());
+    assertThat(beerRepository.findByName(beer.getName()).isPresent(), is(false));
+    assertThat(beerRepository.findById(beer.getId()).isPresent(), is(false));
+  }
+
+  @Test
+  void concurrentRenamesAreNeverRejected() throws Exception {
+    int beers = 4;
+    int renames = 100;
+    var prefix = UUID.randomUUID().toString().replace("-", "");
+    List<BeerDto> created = new ArrayList<>();
+    for (int i = 0; i < beers; i++) {
+      created.add(beerService.createBeer(
+          new BeerDto(null, prefix + "a" + i, "brand", 100, 10, BeerType.IPA)));
+    }
+    final AtomicBoolean running = new AtomicBoolean(true);
+    // keeps reading both names of every beer while they change hands
+    final var reader = new Thread(() -> {
+      while (running.get()) {
+        for (int i = 0; i < beers; i++) {
+          beerRepository.findByName(prefix + "a" + i);
+          beerRepository.findByName(prefix + "b" + i);
+        }
+      }
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(beers);
+    List<Future<BeerDto>> renamed = new ArrayList<>();
+    for (int i = 0; i < beers; i++) {
+      var beer = created.get(i);
+      var names = List.of(prefix + "b" + i, prefix + "a" + i);
+      renamed.add(executor.submit(() -> {
+        var current = beer;
+        for (int r = 0; r < renames; r++) {
+          // a stale hit for the new name fails with 400, a stale miss for the
+          // old one breaks the unique constraint
+          current = beerService.updateBeer(beer.getId(),
+              current.toBuilder().name(names.get(r % 2)).build());
+        }
+        return current;
+      }));
+    }
+    reader.start();
+    try {
+      for (var result : renamed) {
+        result.get();
+      }
+    } finally {
+      running.set(false);
+      reader.join();
+      executor.shutdownNow();
+    }
+
+    for (int i = 0; i < beers; i++) {
+      var id = created.get(i).getId();
+      assertThat(beerRepository.findByName(prefix + "a" + i).get().getId(), is(equalTo(id)));
+      assertThat(beerRepository.findByName(prefix + "b" + i).isPresent(), is(false));
+    }
+  }
+
+  @Test
+  void readPathsSeeUpdates() throws Exception {
+    var beer = createBeer(10);
+    beerService.find(beer.getId());
+    beerService.find(beer.getName());
+
+    beerService.updateBeer(beer.getId(), beer.toBuilder().brand("other").build());
+
+    assertThat(beerService.find(beer.getId()).getBrand(), is(equalTo("other")));
+    assertThat(beerService.find(beer.getName()).getBrand(), is(equalTo("other")));
+  }
+
+  @Test
+  void regionStatisticsAreExposedThroughActuator() throws Exception {
+    var beer = createBeer(10);
+    beerRepository.findById(beer.getId());
+    beerRepository.findById(beer.getId());
+
+    mockMvc.perform(get("/actuator/metrics/hibernate.second.level.cache.requests")
+            .param("tag", "region:" + BEER_REGION)
+            .param("tag", "result:hit"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.measurements[0].value", is(greaterThan(0.0))));
+  }
+}
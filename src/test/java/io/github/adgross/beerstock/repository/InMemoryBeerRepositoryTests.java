@@ -0,0 +1,298 @@
+package io.github.adgross.beerstock.repository;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.entity.Beer;
+import io.github.adgross.beerstock.enums.BeerType;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.dao.DataIntegrityViolationException;
+
+public class InMemoryBeerRepositoryTests {
+
+  private InMemoryBeerRepository repository;
+
+  private static Beer newBeer(String name) {
+    return new Beer(null, name, "brand", 100, 10, BeerType.LAGER);
+  }
+
+  private static List<String> names(List<BeerDto> beers) {
+    return beers.stream().map(BeerDto::getName).collect(Collectors.toList());
+  }
+
+  @BeforeEach
+  void setUp() {
+    repository = new InMemoryBeerRepository();
+  }
+
+  @Test
+  void saveAndFind() {
+    var saved = IntStream.range(0, 300)
+        .mapToObj(i -> repository.save(newBeer("beer" + i)))
+        .collect(Collectors.toList());
+
+    assertThat(repository.count(), is(equalTo(300L)));
+    for (var beer : saved) {
+      assertThat(repository.findById(beer.getId()), is(equalTo(Optional.of(beer))));
+      assertThat(repository.findByName(beer.getName()), is(equalTo(Optional.of(beer))));
+    }
+    assertThat(repository.findAll(), is(equalTo(saved)));
+    assertThat(repository.findById(12345L), is(equalTo(Optional.empty())));
+  }
+
+  @Test
+  void changesToSavedBeersAreNotShared() {
+    var beer = repository.save(newBeer("copy"));
+
+    beer.setQuantity(0);
+    repository.findById(beer.getId()).orElseThrow().setQuantity(1);
+
+    assertThat(repository.findById(beer.getId()).orElseThrow().getQuantity(), is(10));
+  }
+
+  @Test
+  void nameIsUnique() {
+    repository.save(newBeer("unique"));
+
+    assertThrows(DataIntegrityViolationException.class,
+        () -> repository.save(newBeer("unique")));
+    assertThrows(DataIntegrityViolationException.class,
+        () -> repository.save(new Beer(null, "typeless", "brand", 100, 10, null)));
+    assertThat(repository.count(), is(equalTo(1L)));
+  }
+
+  @Test
+  void insertAllIsUndoneWhenSomeNameIsTaken() {
+    repository.save(newBeer("taken"));
+
+    assertThrows(DataIntegrityViolationException.class,
+        () -> repository.insertAll(List.of(newBeer("free"), newBeer("taken"))));
+    assertThat(repository.count(), is(equalTo(1L)));
+
+    var inserted = repository.insertAll(List.of(newBeer("free"), newBeer("other")));
+    assertThat(repository.findByName("free"), is(equalTo(Optional.of(inserted.get(0)))));
+    assertThat(repository.count(), is(equalTo(3L)));
+  }
+
+  @Test
+  void renameReleasesOldName() {
+    var beer = repository.save(newBeer("old"));
+    var renamed = beer.toBuilder().name("new").build();
+
+    repository.save(renamed);
+
+    assertThat(repository.findByName("old"), is(equalTo(Optional.empty())));
+    assertThat(repository.findByName("new"), is(equalTo(Optional.of(renamed))));
+    repository.save(newBeer("old"));
+    assertThat(repository.findAll().stream().map(Beer::getName).collect(Collectors.toList()),
+        contains("new", "old"));
+  }
+
+  @Test
+  void deleteByIdsAndByName() {
+    var saved = IntStream.range(0, 10)
+        .mapToObj(i -> repository.save(newBeer("beer" + i)))
+        .collect(Collectors.toList());
+    var ids = List.of(saved.get(1).getId(), saved.get(5).getId(), 12345L);
+
+    assertThat(repository.deleteByIds(ids), is(equalTo(2)));
+    repository.deleteByName("beer7");
+
+    assertThat(repository.count(), is(equalTo(7L)));
+    assertThat(repository.findByName("beer5"), is(equalTo(Optional.empty())));
+    assertThat(repository.findByName("beer7"), is(equalTo(Optional.empty())));
+    assertThat(repository.save(newBeer("beer5")).getId(), is(equalTo(11L)));
+  }
+
+  @Test
+  void typeBucketsFollowChanges() {
+    var lager = repository.save(newBeer("lager"));
+    final var ipa = repository.save(new Beer(null, "ipa", "other", 100, 0, BeerType.IPA));
+    repository.save(new Beer(null, "empty ipa", "brand", 100, 0, BeerType.IPA));
+
+    repository.save(lager.toBuilder().type(BeerType.IPA).quantity(0).build());
+
+    assertThat(names(repository.findDtosMatchingForUpdate("brand", BeerType.IPA, true)),
+        contains("lager", "empty ipa"));
+    assertThat(names(repository.findDtosMatchingForUpdate(null, BeerType.LAGER, false)),
+        is(equalTo(List.of())));
+    repository.deleteById(ipa.getId());
+    assertThat(names(repository.findDtosMatchingForUpdate(null, BeerType.IPA, false)),
+        contains("lager", "empty ipa"));
+  }
+
+  @Test
+  void concurrentAdjustmentsLoseNothing() throws Exception {
+    var id = repository.save(newBeer("hot")).getId();
+    int threads = 8;
+    int adjustments = 2_000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<Integer>> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int delta = t % 2 == 0 ? 1 : -1;
+      workers.add(executor.submit(() -> {
+        int applied = 0;
+        for (int i = 0; i < adjustments; i++) {
+          applied += (delta > 0
+              ? repository.incrementQuantity(id, 1)
+              : repository.decrementQuantity(id, 1, 0)) * delta;
+        }
+        return applied;
+      }));
+    }
+    int applied = 0;
+    for (Future<Integer> worker : workers) {
+      applied += worker.get();
+    }
+    executor.shutdown();
+
+    var quantity = repository.findById(id).orElseThrow().getQuantity();
+    assertThat(quantity, is(equalTo(10 + applied)));
+    assertThat(repository.incrementQuantity(id, 101 - quantity), is(equalTo(0)));
+    assertThat(repository.incrementQuantity(12345L, 1), is(equalTo(0)));
+  }
+
+  @Test
+  void adjustmentsKeepConcurrentRenames() throws Exception {
+    var id = repository.save(newBeer("renamed")).getId();
+    var renaming = new AtomicBoolean(true);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<?>> workers = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      int delta = t % 2 == 0 ? 1 : -1;
+      workers.add(executor.submit(() -> {
+        while (renaming.get()) {
+          if (delta > 0) {
+            repository.incrementQuantity(id, 1);
+          } else {
+            repository.decrementQuantity(id, 1, 0);
+          }
+        }
+        return null;
+      }));
+    }
+    int reverted = 0;
+    try {
+      for (int i = 0; i < 20_000; i++) {
+        var beer = repository.findById(id).orElseThrow();
+        repository.save(beer.toBuilder().name("renamed" + i).build());
+        if (!repository.findById(id).orElseThrow().getName().equals("renamed" + i)) {
+          reverted++;
+        }
+      }
+    } finally {
+      renaming.set(false);
+    }
+    for (Future<?> worker : workers) {
+      worker.get();
+    }
+    executor.shutdown();
+
+    assertThat(reverted, is(equalTo(0)));
+  }
+
+  @Test
+  void concurrentWritersKeepNamesUnique() throws Exception {
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<Integer>> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      workers.add(executor.submit(() -> {
+        int saved = 0;
+        for (int i = 0; i < 500; i++) {
+          try {
+            repository.save(newBeer("beer" + i));
+            saved++;
+          } catch (DataIntegrityViolationException e) {
+            // another writer got the name first
+          }
+        }
+        return saved;
+      }));
+    }
+    int saved = 0;
+    for (Future<Integer> worker : workers) {
+      saved += worker.get();
+    }
+    executor.shutdown();
+
+    assertThat(saved, is(equalTo(500)));
+    assertThat(repository.count(), is(equalTo(500L)));
+  }
+
+  @Test
+  @Tag("benchmark")
+  void comparedWithH2() throws Exception {
+    int beers = 100_000;
+    int threads = 8;
+    var h2 = new ShardedBeerRepository(List.of(DataSourceBuilder.create()
+        .url("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1")
+        .username("sa")
+        .build()));
+    for (AbstractBeerRepository candidate : List.of(h2, repository)) {
+      long before = usedHeap();
+      var ids = new ArrayList<Long>();
+      for (int i = 0; i < beers; i++) {
+        ids.add(candidate.save(newBeer("beer" + i)).getId());
+      }
+      final long bytesPerBeer = (usedHeap() - before) / beers;
+
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      final long lookupStart = System.nanoTime();
+      for (int t = 0; t < threads; t++) {
+        int offset = t;
+        executor.execute(() -> {
+          for (int i = offset; i < ids.size(); i += threads) {
+            candidate.findById(ids.get(i)).orElseThrow();
+            candidate.findByName("beer" + i).orElseThrow();
+          }
+        });
+      }
+      executor.shutdown();
+      executor.awaitTermination(5, TimeUnit.MINUTES);
+      final double lookups = 2.0 * beers / ((System.nanoTime() - lookupStart) / 1e9);
+
+      executor = Executors.newFixedThreadPool(threads);
+      final long mutationStart = System.nanoTime();
+      for (int t = 0; t < threads; t++) {
+        int offset = t;
+        executor.execute(() -> {
+          for (int i = offset; i < ids.size(); i += threads) {
+            candidate.decrementQuantity(ids.get(i), 1, 0);
+          }
+        });
+      }
+      executor.shutdown();
+      executor.awaitTermination(5, TimeUnit.MINUTES);
+      double mutations = beers / ((System.nanoTime() - mutationStart) / 1e9);
+
+      System.out.printf("%s lookups=%.0f ops/s mutations=%.0f ops/s heap=%dB per beer%n",
+          candidate.getClass().getSimpleName(), lookups, mutations, bytesPerBeer);
+    }
+    h2.destroy();
+  }
+
+  private static long usedHeap() {
+    System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+}
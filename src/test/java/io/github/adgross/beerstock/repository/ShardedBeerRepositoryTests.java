@@ -0,0 +1,247 @@
+package io.github.adgross.beerstock.repository;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.adgross.beerstock.entity.Beer;
+import io.github.adgross.beerstock.enums.BeerType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.dao.DataIntegrityViolationException;
+
+public class ShardedBeerRepositoryTests {
+
+  private static final int SHARDS = 3;
+
+  private ShardedBeerRepository repository;
+
+  private static List<DataSource> createShards(int count) {
+    String prefix = UUID.randomUUID().toString();
+    return IntStream.range(0, count)
+        .mapToObj(i -> DataSourceBuilder.create()
+            .url(String.format("jdbc:h2:mem:%s-%d;DB_CLOSE_DELAY=-1", prefix, i))
+            .username("sa")
+            .build())
+        .collect(Collectors.toList());
+  }
+
+  private static Beer newBeer(String name) {
+    return new Beer(null, name, "brand", 100, 10, BeerType.LAGER);
+  }
+
+  @BeforeEach
+  void setUp() {
+    repository = new ShardedBeerRepository(createShards(SHARDS));
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    repository.destroy();
+  }
+
+  @Test
+  void saveAndFindAcrossShards() {
+    var saved = IntStream.range(0, 30)
+        .mapToObj(i -> repository.save(newBeer("beer" + i)))
+        .collect(Collectors.toList());
+
+    assertThat(repository.count(), is(equalTo(30L)));
+    for (var beer : saved) {
+      assertThat(repository.findById(beer.getId()), is(equalTo(Optional.of(beer))));
+      assertThat(repository.findByName(beer.getName()), is(equalTo(Optional.of(beer))));
+    }
+    assertThat(repository.findAll(), is(equalTo(saved)));
+  }
+
+  @Test
+  void nameIsUniqueAcrossShards() {
+    repository.save(newBeer("unique"));
+
+    assertThrows(DataIntegrityViolationException.class,
+        () -> repository.save(newBeer("unique")));
+    assertThat(repository.count(), is(equalTo(1L)));
+  }
+
+  @Test
+  void insertAllIsUndoneWhenSomeNameIsTaken() {
+    repository.save(newBeer("taken"));
+
+    assertThrows(DataIntegrityViolationException.class,
+        () -> repository.insertAll(List.of(newBeer("free"), newBeer("taken"))));
+    assertThat(repository.count(), is(equalTo(1L)));
+
+    var inserted = repository.insertAll(List.of(newBeer("free"), newBeer("other")));
+    assertThat(repository.findByName("free"), is(equalTo(Optional.of(inserted.get(0)))));
+    assertThat(repository.count(), is(equalTo(3L)));
+  }
+
+  @Test
+  void renameReleasesOldName() {
+    var beer = repository.save(newBeer("old"));
+    var renamed = beer.toBuilder().name("new").build();
+
+    repository.save(renamed);
+
+    assertThat(repository.findByName("old"), is(equalTo(Optional.empty())));
+    assertThat(repository.findByName("new"), is(equalTo(Optional.of(renamed))));
+    repository.save(newBeer("old"));
+    assertThat(repository.findAll().stream().map(Beer::getName).collect(Collectors.toList()),
+        contains("new", "old"));
+  }
+
+  @Test
+  void deleteByName() {
+    repository.save(newBeer("first"));
+    var second = repository.save(newBeer("second"));
+
+    repository.deleteByName("first");
+
+    assertThat(repository.findAll(), contains(second));
+    assertThat(repository.findByName("first"), is(equalTo(Optional.empty())));
+  }
+
+  @Test
+  void deleteByIdsAcrossShards() {
+    var saved = IntStream.range(0, 10)
+        .mapToObj(i -> repository.save(newBeer("beer" + i)))
+        .collect(Collectors.toList());
+    var ids = List.of(saved.get(1).getId(), saved.get(5).getId(), 12345L);
+
+    assertThat(repository.findDtosByIdsForUpdate(ids).size(), is(equalTo(2)));
+    assertThat(repository.deleteByIds(ids), is(equalTo(2)));
+    assertThat(repository.count(), is(equalTo(8L)));
+    assertThat(repository.findByName("beer5"), is(equalTo(Optional.empty())));
+  }
+
+  @Test
+  void concurrentAdjustmentsLoseNothing() throws Exception {
+    var id = repository.save(newBeer("hot")).getId();
+    int threads = 8;
+    int adjustments = 200;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<Integer>> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int delta = t % 2 == 0 ? 1 : -1;
+      workers.add(executor.submit(() -> {
+        int applied = 0;
+        for (int i = 0; i < adjustments; i++) {
+          applied += (delta > 0
+              ? repository.incrementQuantity(id, 1)
+              : repository.decrementQuantity(id, 1, 0)) * delta;
+        }
+        return applied;
+      }));
+    }
+    int applied = 0;
+    for (Future<Integer> worker : workers) {
+      applied += worker.get();
+    }
+    executor.shutdown();
+
+    var quantity = repository.findById(id).orElseThrow().getQuantity();
+    assertThat(quantity, is(equalTo(10 + applied)));
+    assertThat(repository.incrementQuantity(id, 101 - quantity), is(equalTo(0)));
+    assertThat(repository.decrementQuantity(id, quantity, 1), is(equalTo(0)));
+    assertThat(repository.incrementQuantity(12345L, 1), is(equalTo(0)));
+  }
+
+  @Test
+  void stockChangesKeepConcurrentRenames() throws Exception {
+    var beer = repository.save(newBeer("name0"));
+    int threads = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<?>> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      workers.add(executor.submit(() -> {
+        for (int i = 0; i < 1_000; i++) {
+          repository.incrementQuantity(beer.getId(), 1);
+          repository.decrementQuantity(beer.getId(), 1, 0);
+        }
+      }));
+    }
+    for (int i = 1; i <= 500; i++) {
+      repository.save(beer.toBuilder().name("name" + i).build());
+    }
+    for (Future<?> worker : workers) {
+      worker.get();
+    }
+    executor.shutdown();
+
+    assertThat(repository.findById(beer.getId()).orElseThrow().getName(),
+        is(equalTo("name500")));
+    assertThat(repository.findByName("name500").isPresent(), is(true));
+    assertThat(repository.save(newBeer("name250")).getName(), is(equalTo("name250")));
+  }
+
+  @Test
+  void directoryIsRebuiltFromShards() throws Exception {
+    var shards = createShards(SHARDS);
+    var first = new ShardedBeerRepository(shards);
+    var saved = first.save(newBeer("persisted"));
+
+    var second = new ShardedBeerRepository(shards);
+
+    assertThat(second.findByName("persisted"), is(equalTo(Optional.of(saved))));
+    assertThat(second.save(newBeer("next")).getId(), is(equalTo(saved.getId() + 1)));
+    first.destroy();
+  }
+
+  @Test
+  @Tag("benchmark")
+  void throughputByShardCount() throws Exception {
+    int beers = 20_000;
+    int threads = 8;
+    for (int shardCount : new int[] {1, 2, 4, 8}) {
+      var sharded = new ShardedBeerRepository(createShards(shardCount));
+      var ids = new ArrayList<Long>();
+      for (int i = 0; i < beers; i++) {
+        ids.add(sharded.save(newBeer("beer" + i)).getId());
+      }
+
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      final long start = System.nanoTime();
+      for (int t = 0; t < threads; t++) {
+        int offset = t;
+        executor.execute(() -> {
+          for (int i = offset; i < ids.size(); i += threads) {
+            if (i % 2 == 0) {
+              sharded.incrementQuantity(ids.get(i), 1);
+            } else {
+              sharded.decrementQuantity(ids.get(i), 1, 0);
+            }
+          }
+        });
+      }
+      executor.shutdown();
+      executor.awaitTermination(5, TimeUnit.MINUTES);
+      double stockChanges = beers / ((System.nanoTime() - start) / 1e9);
+
+      final long scanStart = System.nanoTime();
+      for (int i = 0; i < 10; i++) {
+        sharded.findAll();
+      }
+      double scans = 10 / ((System.nanoTime() - scanStart) / 1e9);
+
+      System.out.printf("shards=%d stock changes=%.0f ops/s full scan=%.1f scans/s%n",
+          shardCount, stockChanges, scans);
+      sharded.destroy();
+    }
+  }
+}
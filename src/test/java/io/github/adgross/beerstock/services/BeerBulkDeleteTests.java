@@ -0,0 +1,149 @@
+package io.github.adgross.beerstock.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.github.adgross.beerstock.index.BeerStockLevelIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:bulk-delete;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+public class BeerBulkDeleteTests {
+
+  @Autowired
+  private BeerService beerService;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private BeerDto createBeer(String brand, int quantity, BeerType type) throws Exception {
+    var name = UUID.randomUUID().toString().replace("-", "");
+    return beerService.createBeer(new BeerDto(null, name, brand, 100, quantity, type));
+  }
+
+  private static String uniqueBrand() {
+    return "brand" + UUID.randomUUID().toString().replace("-", "");
+  }
+
+  @Test
+  void deletesOnlyTheBeersMatchingEveryCriterion() throws Exception {
+    var brand = uniqueBrand();
+    var emptyLager = createBeer(brand, 0, BeerType.LAGER);
+    var stockedLager = createBeer(brand, 5, BeerType.LAGER);
+    final var emptyIpa = createBeer(brand, 0, BeerType.IPA);
+    final var otherBrand = createBeer(uniqueBrand(), 0, BeerType.LAGER);
+
+    mockMvc.perform(delete("/api/v1/beers")
+            .param("brand", brand)
+            .param("type", "LAGER")
+            .param("outOfStock", "true"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.deleted").value(1));
+
+    assertThrows(BeerNotFoundException.class, () -> beerService.find(emptyLager.getId()));
+    assertThat(beerService.find(stockedLager.getId()), is(equalTo(stockedLager)));
+    assertThat(beerService.find(emptyIpa.getId()), is(equalTo(emptyIpa)));
+    assertThat(beerService.find(otherBrand.getId()), is(equalTo(otherBrand)));
+    assertThat(beerService.deleteBeers(brand, null, false), is(equalTo(2)));
+  }
+
+  @Test
+  void deletedBeersLeaveTheCachesAndIndexes() throws Exception {
+    var brand = uniqueBrand();
+    var first = createBeer(brand, 1, BeerType.STOUT);
+    var second = createBeer(brand, 2, BeerType.STOUT);
+    mockMvc.perform(get("/api/v1/beers/{id}", first.getId())).andExpect(status().isOk());
+    assertThat(beerService.search(second.getName(), 1).size(), is(equalTo(1)));
+
+    mockMvc.perform(delete("/api/v1/beers")
+            .param("ids", first.getId() + "," + second.getId() + ",-1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.deleted").value(2));
+
+    mockMvc.perform(get("/api/v1/beers/{id}", first.getId())).andExpect(status().isNotFound());
+    assertThrows(BeerNotFoundException.class, () -> beerService.find(second.getName()));
+    assertThat(beerService.search(second.getName(), 1), is(empty()));
+  }
+
+  @Test
+  void rolledBackDeleteKeepsTheIndexes() throws Exception {
+    var brand = uniqueBrand();
+    var beer = createBeer(brand, 1, BeerType.PORTER);
+
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      try {
+        assertThat(beerService.deleteBeers(brand, null, false), is(equalTo(1)));
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+      status.setRollbackOnly();
+    });
+
+    assertThat(beerService.find(beer.getId()), is(equalTo(beer)));
+    assertThat(beerService.search(beer.getName(), 1), is(equalTo(List.of(beer))));
+    assertThat(beerService.suggest(beer.getName(), 1).get(0).getId(),
+        is(equalTo(beer.getId())));
+    assertThat(beerService.lowStock(BeerStockLevelIndex.MAX_RESULTS, 0.02).contains(beer),
+        is(true));
+  }
+
+  @Test
+  void deleteWithoutCriteriaIsRejected() throws Exception {
+    mockMvc.perform(delete("/api/v1/beers")).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Tag("benchmark")
+  void bulkDeleteAgainstOneByOne() throws Exception {
+    int beers = 5_000;
+    String oneByOneBrand = uniqueBrand();
+    String bulkBrand = uniqueBrand();
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < beers; i++) {
+      ids.add(createBeer(oneByOneBrand, 0, BeerType.LAGER).getId());
+      createBeer(bulkBrand, 0, BeerType.LAGER);
+    }
+
+    final long oneByOneStart = System.nanoTime();
+    for (Long id : ids) {
+      beerService.deleteBeer(id);
+    }
+    double oneByOne = (System.nanoTime() - oneByOneStart) / 1e6;
+
+    final long bulkStart = System.nanoTime();
+    int deleted = beerService.deleteBeers(bulkBrand, null, true);
+    double bulk = (System.nanoTime() - bulkStart) / 1e6;
+
+    System.out.printf("beers=%d one by one=%.0fms bulk=%.0fms%n", beers, oneByOne, bulk);
+    assertThat(deleted, is(equalTo(beers)));
+    assertThat(beerService.listAll().stream().map(BeerDto::getBrand)
+        .filter(bulkBrand::equals).collect(Collectors.toList()), is(empty()));
+  }
+}
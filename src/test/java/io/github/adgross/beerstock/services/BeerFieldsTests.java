@@ -0,0 +1,107 @@
+package io.github.adgross.beerstock.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.BeerFields;
+import io.github.adgross.beerstock.enums.BeerField;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:fields;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+public class BeerFieldsTests {
+
+  @Autowired
+  private BeerService beerService;
+
+  @Autowired
+  private BeerRepository beerRepository;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  private BeerDto createBeer() throws Exception {
+    var name = UUID.randomUUID().toString().replace("-", "");
+    return beerService.createBeer(new BeerDto(null, name, "brand", 100, 7, BeerType.IPA));
+  }
+
+  @Test
+  void fieldSetsAreParsedOnce() {
+    var fields = BeerFields.valueOf("quantity, name,id");
+
+    assertThat(fields, is(BeerFields.of(BeerField.ID, BeerField.NAME, BeerField.QUANTITY)));
+    assertThat(fields.getSelect(), is(equalTo("b.id, b.name, b.quantity")));
+    assertThat(fields.toString(), is(equalTo("id,name,quantity")));
+    assertThrows(IllegalArgumentException.class, () -> BeerFields.valueOf("id,color"));
+    assertThrows(IllegalArgumentException.class, () -> BeerFields.valueOf(" , "));
+  }
+
+  @Test
+  void onlyTheRequestedColumnsAreRead() throws Exception {
+    var beer = createBeer();
+
+    var values = beerRepository.findFieldsById(beer.getId(), BeerFields.valueOf("type,quantity"));
+
+    assertThat(values.orElseThrow(), arrayContaining(7, BeerType.IPA));
+    assertThat(beerRepository.findFieldsByName(beer.getName(), BeerFields.valueOf("id"))
+        .orElseThrow(), arrayContaining(beer.getId()));
+  }
+
+  @Test
+  void readRoutesReturnOnlyTheRequestedFields() throws Exception {
+    var beer = createBeer();
+
+    mockMvc.perform(get("/api/v1/beers/{id}", beer.getId()).param("fields", "quantity,id"))
+        .andExpect(status().isOk())
+        .andExpect(content().json(
+            "{\"id\":" + beer.getId() + ",\"quantity\":7}", true));
+    mockMvc.perform(get("/api/v1/beers/name/{name}", beer.getName()).param("fields", "type"))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"type\":\"IPA\"}", true));
+    mockMvc.perform(get("/api/v1/beers").param("fields", "id,name,quantity"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").isNumber())
+        .andExpect(jsonPath("$[0].name").isString())
+        .andExpect(jsonPath("$[0].quantity").isNumber())
+        .andExpect(jsonPath("$[0].brand").doesNotExist())
+        .andExpect(jsonPath("$[0].max").doesNotExist());
+    mockMvc.perform(get("/api/v1/beers/search")
+            .param("query", beer.getName())
+            .param("fields", "name"))
+        .andExpect(status().isOk())
+        .andExpect(content().json("[{\"name\":\"" + beer.getName() + "\"}]", true));
+    mockMvc.perform(get("/api/v1/beers/{id}", beer.getId()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.brand").value("brand"));
+  }
+
+  @Test
+  void unknownFieldsAreRejected() throws Exception {
+    var beer = createBeer();
+
+    mockMvc.perform(get("/api/v1/beers/{id}", beer.getId()).param("fields", "id,color"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/api/v1/beers").param("fields", ""))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/api/v1/beers/{id}", -1).param("fields", "id"))
+        .andExpect(status().isNotFound());
+  }
+}
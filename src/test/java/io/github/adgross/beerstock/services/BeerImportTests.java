@@ -0,0 +1,222 @@
+package io.github.adgross.beerstock.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.adgross.beerstock.config.ImportConfig;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.ImportJobDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.enums.ImportStatus;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.UUID;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.unit.DataSize;
+
+@SpringBootTest(properties = {
+    "beerstock.import.batch-size=3",
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:import;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+public class BeerImportTests {
+
+  @Autowired
+  private BeerImportService importService;
+
+  @Autowired
+  private BeerService beerService;
+
+  @Autowired
+  private ImportConfig importConfig;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private static String uniqueName() {
+    return "beer " + UUID.randomUUID().toString().replaceAll("[^a-z]", "");
+  }
+
+  private ImportJobDto submit(String csv) throws Exception {
+    var response = mockMvc.perform(post("/api/v1/beers/import")
+            .contentType("text/csv")
+            .content(csv))
+        .andExpect(status().isAccepted())
+        .andReturn().getResponse().getContentAsString();
+    return objectMapper.readValue(response, ImportJobDto.class);
+  }
+
+  private ImportJobDto awaitFinished(UUID id) throws Exception {
+    long deadline = System.nanoTime() + Duration.ofMinutes(10).toNanos();
+    var job = importService.find(id);
+    while (job.getFinishedAt() == null && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+      job = importService.find(id);
+    }
+    return job;
+  }
+
+  @Test
+  void importsValidRowsAndReportsTheOthers() throws Exception {
+    var registered = beerService.createBeer(
+        new BeerDto(null, uniqueName(), "brand", 10, 1, BeerType.IPA));
+    var first = uniqueName();
+    var second = uniqueName();
+    var third = uniqueName();
+    var csv = "Name,Brand,Max,Quantity,Type,Notes\n"
+        + first + ",Brand One,100,10,lager,\n"
+        + "\"" + second + "\",\"Brand Two\",50,0,IPA,\"with, comma\"\r\n"
+        + "\n"
+        + uniqueName() + ",Brand,many,10,LAGER\n"
+        + uniqueName() + ",Brand,10,20,LAGER\n"
+        + uniqueName() + ",Brand,10,5,SODA\n"
+        + first + ",Again,10,5,ALE\n"
+        + registered.getName() + ",Brand,10,5,ALE\n"
+        + third + ",Brand Three,10,5,STOUT\n"
+        + "short,row\n";
+
+    var job = awaitFinished(submit(csv).getId());
+
+    assertThat(job.getStatus(), is(equalTo(ImportStatus.COMPLETED)));
+    assertThat(job.getProgress(), is(equalTo(100.0)));
+    assertThat(job.getRowsRead(), is(equalTo(9L)));
+    assertThat(job.getImported(), is(equalTo(3L)));
+    assertThat(job.getRejected(), is(equalTo(6L)));
+    assertThat(beerService.find(first).getQuantity(), is(equalTo(10)));
+    assertThat(beerService.find(second).getBrand(), is(equalTo("Brand Two")));
+    assertThat(beerService.find(third).getType(), is(equalTo(BeerType.STOUT)));
+    assertThat(beerService.search(third, 1), hasSize(1));
+
+    mockMvc.perform(get("/api/v1/beers/import/{jobId}/errors", job.getId()))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString("line,field,message\n")))
+        .andExpect(content().string(containsString("5,max,\"must be a whole number\"")))
+        .andExpect(content().string(containsString("6,quantity,")))
+        .andExpect(content().string(containsString("7,type,")))
+        .andExpect(content().string(containsString("8,name,\"Beer with name " + first)))
+        .andExpect(content().string(containsString("9,name,")))
+        .andExpect(content().string(containsString("11,,\"expected at least 5 columns")));
+  }
+
+  @Test
+  void importsMultipartUploads() throws Exception {
+    var name = uniqueName();
+    var file = new MockMultipartFile("file", "beers.csv", "text/csv",
+        ("\uFEFFname,brand,max,quantity,type\n" + name + ",Brand,10,5,ALE\n")
+            .getBytes(StandardCharsets.UTF_8));
+
+    var response = mockMvc.perform(multipart("/api/v1/beers/import").file(file))
+        .andExpect(status().isAccepted())
+        .andExpect(jsonPath("$.status").exists())
+        .andReturn().getResponse().getContentAsString();
+    var job = awaitFinished(objectMapper.readValue(response, ImportJobDto.class).getId());
+
+    assertThat(job.getImported(), is(equalTo(1L)));
+    assertThat(beerService.find(name).getMax(), is(equalTo(10)));
+  }
+
+  @Test
+  void failsWithoutTheRequiredColumns() throws Exception {
+    var job = awaitFinished(submit("name,brand,max\n").getId());
+
+    assertThat(job.getStatus(), is(equalTo(ImportStatus.FAILED)));
+    assertThat(job.getError(), containsString("no quantity column"));
+  }
+
+  @Test
+  void filesAboveTheLimitAreRefused() throws Exception {
+    final DataSize maxFileSize = importConfig.getMaxFileSize();
+    importConfig.setMaxFileSize(DataSize.ofBytes(64));
+    try {
+      // more rounds than slots, a refused upload gives its slot back
+      for (int i = 0; i < 8; i++) {
+        mockMvc.perform(post("/api/v1/beers/import")
+                .contentType("text/csv")
+                .content("name,brand,max,quantity,type\n" + "x".repeat(64) + ",Brand,1,1,ALE\n"))
+            .andExpect(status().isPayloadTooLarge());
+      }
+      var name = uniqueName();
+      var job = awaitFinished(submit("name,brand,max,quantity,type\n" + name + ",B,1,1,ALE\n")
+          .getId());
+      assertThat(job.getImported(), is(equalTo(1L)));
+    } finally {
+      importConfig.setMaxFileSize(maxFileSize);
+    }
+  }
+
+  @Test
+  void unknownImportIsNotFound() throws Exception {
+    mockMvc.perform(get("/api/v1/beers/import/{jobId}", UUID.randomUUID()))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void quantityAboveMaxIsRejected() throws Exception {
+    var name = uniqueName();
+    awaitFinished(submit("name,brand,max,quantity,type\n" + name + ",Brand,10,50,ALE\n").getId());
+
+    assertThrows(BeerNotFoundException.class, () -> beerService.find(name));
+  }
+
+  @Test
+  @Tag("benchmark")
+  void importThroughput() throws Exception {
+    int created = 20_000;
+    String createdPrefix = uniqueName();
+    final long createStart = System.nanoTime();
+    for (int i = 0; i < created; i++) {
+      beerService.createBeer(new BeerDto(null, createdPrefix + " " + i, "brand", 100, i % 100,
+          BeerType.LAGER));
+    }
+    System.out.printf("one at a time rows=%d rows/s=%.0f%n", created,
+        created / ((System.nanoTime() - createStart) / 1e9));
+
+    int rows = 1_000_000;
+    var file = Files.createTempFile("beer-import-benchmark-", ".csv");
+    try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+      writer.write("name,brand,max,quantity,type\n");
+      String prefix = uniqueName();
+      for (int i = 0; i < rows; i++) {
+        writer.write(prefix + " " + i + ",Brand " + i % 100 + ",100," + i % 100 + ","
+            + BeerType.values()[i % BeerType.values().length] + "\n");
+      }
+    }
+    System.out.printf("file=%dMB%n", Files.size(file) / (1024 * 1024));
+
+    ImportJobDto job;
+    try (var csv = Files.newInputStream(file)) {
+      final long start = System.nanoTime();
+      job = importService.submit(csv);
+      job = awaitFinished(job.getId());
+      System.out.printf("rows=%d imported=%d seconds=%.1f rows/s=%d%n", job.getRowsRead(),
+          job.getImported(), (System.nanoTime() - start) / 1e9, job.getRowsPerSecond());
+    } finally {
+      Files.delete(file);
+    }
+    assertThat(job.getImported(), is(equalTo((long) rows)));
+  }
+}
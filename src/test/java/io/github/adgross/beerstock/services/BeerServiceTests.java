@@ -7,6 +7,7 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.atMostOnce;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
@@ -14,16 +15,24 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.github.adgross.beerstock.dto.BeerDto;
 import io.github.adgross.beerstock.entity.Beer;
 import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.event.BeerChangedEvent;
 import io.github.adgross.beerstock.exception.BeerAlreadyRegisteredException;
 import io.github.adgross.beerstock.exception.BeerNotFoundException;
 import io.github.adgross.beerstock.exception.BeerStockExceededException;
 import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.MissingDeleteCriteriaException;
+import io.github.adgross.beerstock.index.BeerSearchIndex;
+import io.github.adgross.beerstock.index.BeerSnapshotStore;
+import io.github.adgross.beerstock.index.BeerStockLevelIndex;
+import io.github.adgross.beerstock.index.BeerSuggestIndex;
 import io.github.adgross.beerstock.mapper.BeerMapper;
 import io.github.adgross.beerstock.repository.BeerRepository;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -32,6 +41,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -48,6 +59,30 @@ public class BeerServiceTests {
   @Mock
   private BeerRepository beerRepository;
 
+  @Mock
+  private StockMutationCoalescer stockMutationCoalescer;
+
+  @Mock
+  private StockReservations stockReservations;
+
+  @Mock
+  private BeerSearchIndex beerSearchIndex;
+
+  @Mock
+  private BeerSuggestIndex beerSuggestIndex;
+
+  @Mock
+  private BeerStockLevelIndex beerStockLevelIndex;
+
+  @Mock
+  private BeerSnapshotStore beerSnapshotStore;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
   @InjectMocks
   private BeerService beerService;
 
@@ -61,67 +96,76 @@ public class BeerServiceTests {
         .map(beerMapper::toDto)
         .collect(Collectors.toList());
 
-    when(beerRepository.findAll()).thenReturn(listBeers);
+    when(beerRepository.findAllDtos()).thenReturn(expectedList);
 
     var foundList = beerService.listAll();
     assertThat(foundList, is(not(empty())));
     assertThat(foundList, is(equalTo(expectedList)));
-    verify(beerRepository, times(1)).findAll();
+    verify(beerRepository, times(1)).findAllDtos();
   }
 
   @Test
   void listAllWithoutRegisteredBeers() {
-    List<Beer> emptyList = List.of();
+    List<BeerDto> emptyList = List.of();
 
-    when(beerRepository.findAll()).thenReturn(emptyList);
+    when(beerRepository.findAllDtos()).thenReturn(emptyList);
 
     var foundList = beerService.listAll();
     assertThat(foundList, is(empty()));
-    verify(beerRepository, times(1)).findAll();
+    verify(beerRepository, times(1)).findAllDtos();
   }
 
   @Test
   void findGivenRegisteredName() throws BeerNotFoundException {
     var expectedBeerDto = beerMapper.toDto(validBeer);
 
-    when(beerRepository.findByName(NAME_VALID))
-        .thenReturn(Optional.of(validBeer));
+    when(beerRepository.findDtoByName(NAME_VALID))
+        .thenReturn(Optional.of(expectedBeerDto));
 
     var foundBeer = beerService.find(NAME_VALID);
     assertThat(foundBeer, is(equalTo(expectedBeerDto)));
-    verify(beerRepository, times(0)).findAll();
-    verify(beerRepository, times(1)).findByName(NAME_VALID);
+    verify(beerRepository, times(0)).findAllDtos();
+    verify(beerRepository, times(1)).findDtoByName(NAME_VALID);
   }
 
   @Test
   void findGivenNotRegisteredName() {
-    when(beerRepository.findByName(NAME_INVALID)).thenReturn(Optional.empty());
+    when(beerRepository.findDtoByName(NAME_INVALID)).thenReturn(Optional.empty());
 
     assertThrows(BeerNotFoundException.class, () -> beerService.find(NAME_INVALID));
-    verify(beerRepository, times(0)).findAll();
-    verify(beerRepository, times(1)).findByName(NAME_INVALID);
+    verify(beerRepository, times(0)).findAllDtos();
+    verify(beerRepository, times(1)).findDtoByName(NAME_INVALID);
   }
 
   @Test
   void findGivenRegisteredId() throws BeerNotFoundException {
     var expectedBeerDto = beerMapper.toDto(validBeer);
 
-    when(beerRepository.findById(ID_VALID))
-        .thenReturn(Optional.of(validBeer));
+    when(beerRepository.findDtoById(ID_VALID))
+        .thenReturn(Optional.of(expectedBeerDto));
 
     var foundBeer = beerService.find(ID_VALID);
     assertThat(foundBeer, is(equalTo(expectedBeerDto)));
-    verify(beerRepository, times(0)).findAll();
-    verify(beerRepository, times(1)).findById(ID_VALID);
+    verify(beerRepository, times(0)).findAllDtos();
+    verify(beerRepository, times(1)).findDtoById(ID_VALID);
+  }
+
+  @Test
+  void findGivenIdHeldBySnapshot() throws BeerNotFoundException {
+    var expectedBeerDto = beerMapper.toDto(validBeer);
+    when(beerSnapshotStore.find(ID_VALID)).thenReturn(Optional.of(expectedBeerDto));
+
+    assertThat(beerService.find(ID_VALID), is(equalTo(expectedBeerDto)));
+    verify(beerRepository, never()).findDtoById(ID_VALID);
   }
 
   @Test
   void findGivenNotRegisteredId() {
-    when(beerRepository.findById(ID_INVALID)).thenReturn(Optional.empty());
+    when(beerRepository.findDtoById(ID_INVALID)).thenReturn(Optional.empty());
 
     assertThrows(BeerNotFoundException.class, () -> beerService.find(ID_INVALID));
-    verify(beerRepository, times(0)).findAll();
-    verify(beerRepository, times(1)).findById(ID_INVALID);
+    verify(beerRepository, times(0)).findAllDtos();
+    verify(beerRepository, times(1)).findDtoById(ID_INVALID);
   }
 
   @Test
@@ -217,6 +261,37 @@ public class BeerServiceTests {
     verify(beerRepository, atMostOnce()).deleteByName(NAME_INVALID);
   }
 
+  @Test
+  void deleteBeersGivenIds() {
+    var beer = beerMapper.toDto(validBeer);
+    when(beerRepository.findDtosByIdsForUpdate(List.of(ID_VALID, ID_INVALID)))
+        .thenReturn(List.of(beer));
+    when(beerRepository.deleteByIds(List.of(ID_VALID))).thenReturn(1);
+
+    assertThat(beerService.deleteBeers(List.of(ID_VALID, ID_INVALID)), is(equalTo(1)));
+    verify(beerRepository, never()).deleteById(any());
+    verify(eventPublisher, times(1)).publishEvent(argThat((BeerChangedEvent event) ->
+        event.getType() == BeerChangedEvent.Type.DELETED && event.getPrevious().equals(beer)));
+  }
+
+  @Test
+  void deleteBeersGivenCriteria() throws Exception {
+    var beers = List.of(beerMapper.toDto(validBeer),
+        beerMapper.toDto(validBeer.toBuilder().id(2L).name("other").build()));
+    when(beerRepository.findDtosMatchingForUpdate("brand", null, true)).thenReturn(beers);
+    when(beerRepository.deleteByIds(List.of(1L, 2L))).thenReturn(2);
+
+    assertThat(beerService.deleteBeers("brand", null, true), is(equalTo(2)));
+    verify(eventPublisher, times(2)).publishEvent(any(BeerChangedEvent.class));
+  }
+
+  @Test
+  void deleteBeersGivenNoCriteria() {
+    assertThrows(MissingDeleteCriteriaException.class,
+        () -> beerService.deleteBeers(null, null, false));
+    verify(beerRepository, never()).deleteByIds(any());
+  }
+
   @Test
   void updateBeerGivenRegisteredId()
       throws BeerNotFoundException, BeerStockExceededException, BeerAlreadyRegisteredException {
@@ -314,27 +389,29 @@ public class BeerServiceTests {
     var oldQuantity = beer.getQuantity();
     var savedBeer = beer.toBuilder().quantity(oldQuantity + inputQuantity).build();
 
-    when(beerRepository.findById(ID_VALID)).thenReturn(Optional.of(beer));
-    when(beerRepository.save(any(Beer.class))).thenReturn(savedBeer);
+    when(beerRepository.incrementQuantity(ID_VALID, inputQuantity)).thenReturn(1);
+    when(beerRepository.findCurrentDtoById(ID_VALID))
+        .thenReturn(Optional.of(beerMapper.toDto(savedBeer)));
 
     var incrementedBeer = beerService.increment(ID_VALID, inputQuantity);
     assertThat(incrementedBeer.getId(), is(equalTo(ID_VALID)));
     assertThat(incrementedBeer.getName(), is(equalTo(beer.getName())));
     assertThat(incrementedBeer.getMax(), is(equalTo(beer.getMax())));
     assertThat(incrementedBeer.getQuantity(), is(equalTo(oldQuantity + inputQuantity)));
-    verify(beerRepository, times(1)).findById(ID_VALID);
-    verify(beerRepository, times(1)).save(any(Beer.class));
+    verify(beerRepository, times(1)).incrementQuantity(ID_VALID, inputQuantity);
+    verify(beerRepository, never()).save(any(Beer.class));
+    verify(transactionManager, times(1)).commit(any());
   }
 
   @Test
   void incrementGivenNotRegisteredId() {
     int inputQuantity = 10;
 
-    when(beerRepository.findById(ID_INVALID)).thenReturn(Optional.empty());
+    when(beerRepository.findCurrentDtoById(ID_INVALID)).thenReturn(Optional.empty());
 
     assertThrows(BeerNotFoundException.class,
         () -> beerService.increment(ID_INVALID, inputQuantity));
-    verify(beerRepository, times(1)).findById(ID_INVALID);
+    verify(beerRepository, times(1)).findCurrentDtoById(ID_INVALID);
     verify(beerRepository, never()).save(any(Beer.class));
   }
 
@@ -345,12 +422,15 @@ public class BeerServiceTests {
         .max(Integer.MAX_VALUE)
         .quantity(Integer.MAX_VALUE - 1).build();
 
-    when(beerRepository.findById(ID_VALID)).thenReturn(Optional.of(beer));
+    when(beerRepository.findCurrentDtoById(ID_VALID))
+        .thenReturn(Optional.of(beerMapper.toDto(beer)));
 
     assertThrows(BeerStockExceededException.class,
         () -> beerService.increment(ID_VALID, inputQuantity));
-    verify(beerRepository, times(1)).findById(ID_VALID);
+    verify(beerRepository, times(1)).findCurrentDtoById(ID_VALID);
     verify(beerRepository, never()).save(any(Beer.class));
+    verify(transactionManager, times(1)).commit(any());
+    verify(transactionManager, never()).rollback(any());
   }
 
   @Test
@@ -361,27 +441,33 @@ public class BeerServiceTests {
     var oldQuantity = beer.getQuantity();
     var savedBeer = beer.toBuilder().quantity(oldQuantity - inputQuantity).build();
 
-    when(beerRepository.findById(ID_VALID)).thenReturn(Optional.of(beer));
-    when(beerRepository.save(any(Beer.class))).thenReturn(savedBeer);
+    var lock = new ReentrantLock();
+    when(stockReservations.lockFor(ID_VALID)).thenReturn(lock);
+    when(beerRepository.decrementQuantity(ID_VALID, inputQuantity, 0)).thenReturn(1);
+    when(beerRepository.findCurrentDtoById(ID_VALID))
+        .thenReturn(Optional.of(beerMapper.toDto(savedBeer)));
 
     var decrementedBeer = beerService.decrement(ID_VALID, inputQuantity);
     assertThat(decrementedBeer.getId(), is(equalTo(ID_VALID)));
     assertThat(decrementedBeer.getName(), is(equalTo(beer.getName())));
     assertThat(decrementedBeer.getMax(), is(equalTo(beer.getMax())));
     assertThat(decrementedBeer.getQuantity(), is(equalTo(oldQuantity - inputQuantity)));
-    verify(beerRepository, times(1)).findById(ID_VALID);
-    verify(beerRepository, times(1)).save(any(Beer.class));
+    verify(beerRepository, times(1)).decrementQuantity(ID_VALID, inputQuantity, 0);
+    verify(beerRepository, never()).save(any(Beer.class));
+    verify(transactionManager, times(1)).commit(any());
+    assertThat(lock.isLocked(), is(false));
   }
 
   @Test
   void decrementGivenNotRegisteredId() {
     int inputQuantity = 10;
 
-    when(beerRepository.findById(ID_INVALID)).thenReturn(Optional.empty());
+    when(stockReservations.lockFor(ID_INVALID)).thenReturn(new ReentrantLock());
+    when(beerRepository.findCurrentDtoById(ID_INVALID)).thenReturn(Optional.empty());
 
     assertThrows(BeerNotFoundException.class,
         () -> beerService.decrement(ID_INVALID, inputQuantity));
-    verify(beerRepository, times(1)).findById(ID_INVALID);
+    verify(beerRepository, times(1)).findCurrentDtoById(ID_INVALID);
     verify(beerRepository, never()).save(any(Beer.class));
   }
 
@@ -392,12 +478,16 @@ public class BeerServiceTests {
         .max(Integer.MAX_VALUE - 1)
         .quantity(Integer.MAX_VALUE - 1).build();
 
-    when(beerRepository.findById(ID_VALID)).thenReturn(Optional.of(beer));
+    when(stockReservations.lockFor(ID_VALID)).thenReturn(new ReentrantLock());
+    when(beerRepository.findCurrentDtoById(ID_VALID))
+        .thenReturn(Optional.of(beerMapper.toDto(beer)));
 
     assertThrows(BeerStockNonExistentQuantityException.class,
         () -> beerService.decrement(ID_VALID, inputQuantity));
-    verify(beerRepository, times(1)).findById(ID_VALID);
+    verify(beerRepository, times(1)).findCurrentDtoById(ID_VALID);
     verify(beerRepository, never()).save(any(Beer.class));
+    verify(transactionManager, times(1)).commit(any());
+    verify(transactionManager, never()).rollback(any());
   }
 
 }
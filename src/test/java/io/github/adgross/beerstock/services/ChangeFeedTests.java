@@ -0,0 +1,222 @@
+package io.github.adgross.beerstock.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import io.github.adgross.beerstock.dto.BeerChangeDto;
+import io.github.adgross.beerstock.dto.BeerChangesDto;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.exception.ChangesCompactedException;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "beerstock.changes.flush-interval=5ms",
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:changes;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+public class ChangeFeedTests {
+
+  @Autowired
+  private BeerService beerService;
+
+  @Autowired
+  private ChangeFeedService changeFeedService;
+
+  @Autowired
+  private ChangeFeedWriter writer;
+
+  @Autowired
+  private ChangeFeedCompactor compactor;
+
+  @Autowired
+  private BeerRepository beerRepository;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  private BeerDto createBeer(int quantity) throws Exception {
+    var name = UUID.randomUUID().toString().replace("-", "");
+    return beerService.createBeer(new BeerDto(null, name, "brand", 100, quantity, BeerType.IPA));
+  }
+
+  private void awaitWritten(long count) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (writer.getWritten() < count && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(writer.getWritten(), is(greaterThanOrEqualTo(count)));
+  }
+
+  private List<BeerChangeDto> readAll(long since, int limit) throws Exception {
+    List<BeerChangeDto> all = new ArrayList<>();
+    BeerChangesDto page;
+    long next = since;
+    do {
+      page = changeFeedService.changes(next, limit);
+      all.addAll(page.getChanges());
+      next = page.getNext();
+    } while (page.isMore());
+    return all;
+  }
+
+  @Test
+  void onlyTheLatestChangeOfEachBeerIsReturned() throws Exception {
+    final long written = writer.getWritten();
+    final long since = writer.getLastSeq();
+    var kept = createBeer(10);
+    var deleted = createBeer(20);
+    beerService.increment(kept.getId(), 5);
+    beerService.decrement(kept.getId(), 1);
+    beerService.deleteBeer(deleted.getId());
+    awaitWritten(written + 5);
+
+    var changes = readAll(since, 1);
+
+    assertThat(changes.stream().map(BeerChangeDto::getId).collect(Collectors.toList()),
+        contains(kept.getId(), deleted.getId()));
+    assertThat(changes.get(0).getQuantity(), is(equalTo(14)));
+    assertThat(changes.get(0).isDeleted(), is(false));
+    assertThat(changes.get(1).isDeleted(), is(true));
+    assertThat(changes.get(1).getName(), is(equalTo(null)));
+    assertThat(changes.get(0).getSeq(), is(equalTo(since + 4)));
+    assertThat(changes.get(1).getSeq(), is(equalTo(since + 5)));
+  }
+
+  @Test
+  void caughtUpClientsReceiveNothing() throws Exception {
+    final long written = writer.getWritten();
+    createBeer(1);
+    awaitWritten(written + 1);
+    long last = writer.getLastSeq();
+
+    var page = changeFeedService.changes(last, 100);
+
+    assertThat(page.getChanges().isEmpty(), is(true));
+    assertThat(page.getNext(), is(equalTo(last)));
+    assertThat(page.isMore(), is(false));
+  }
+
+  @Test
+  void fullSyncReturnsEveryBeer() throws Exception {
+    final long written = writer.getWritten();
+    var beer = createBeer(3);
+    awaitWritten(written + 1);
+
+    var ids = readAll(0, 2).stream().map(BeerChangeDto::getId).collect(Collectors.toList());
+
+    assertThat(ids, hasItem(beer.getId()));
+  }
+
+  @Test
+  void clientsBehindTheHorizonMustSyncAgain() throws Exception {
+    final long written = writer.getWritten();
+    var beer = createBeer(3);
+    final long since = writer.getLastSeq();
+    beerService.deleteBeer(beer.getId());
+    awaitWritten(written + 2);
+
+    long horizon = compactor.compact(Instant.now().plus(Duration.ofDays(30)));
+
+    assertThat(horizon, is(greaterThanOrEqualTo(since + 1)));
+    assertThrows(ChangesCompactedException.class, () -> changeFeedService.changes(since, 10));
+    assertThat(readAll(0, 100).stream().map(BeerChangeDto::getId).collect(Collectors.toList()),
+        not(hasItem(beer.getId())));
+    mockMvc.perform(get("/api/v1/beers/changes").param("since", String.valueOf(since)))
+        .andExpect(status().isGone());
+    mockMvc.perform(get("/api/v1/beers/changes").param("since", String.valueOf(horizon)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.horizon").value(horizon));
+  }
+
+  @Test
+  void overflowWritesEveryBeerAgainPastTheHorizon() throws Exception {
+    final long written = writer.getWritten();
+    final var kept = createBeer(3);
+    var lost = createBeer(4);
+    awaitWritten(written + 2);
+    final long since = writer.getLastSeq();
+    // deleted without an event, like a change dropped by a full queue
+    beerRepository.deleteById(lost.getId());
+
+    writer.overflow();
+    createBeer(5);
+
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    Map<Long, BeerChangeDto> synced = Map.of();
+    while (!(synced.containsKey(lost.getId()) && synced.get(lost.getId()).isDeleted())
+        && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+      synced = readAll(0, 100).stream()
+          .collect(Collectors.toMap(BeerChangeDto::getId, change -> change));
+    }
+
+    assertThrows(ChangesCompactedException.class, () -> changeFeedService.changes(since, 10));
+    assertThat(synced.get(lost.getId()).isDeleted(), is(true));
+    assertThat(synced.get(kept.getId()).getQuantity(), is(equalTo(3)));
+    assertThat(synced.get(kept.getId()).getSeq(), is(greaterThan(since)));
+  }
+
+  @Test
+  void sequencesAheadOfTheFeedAreRejected() throws Exception {
+    mockMvc.perform(get("/api/v1/beers/changes")
+            .param("since", String.valueOf(writer.getLastSeq() + 1000)))
+        .andExpect(status().isGone());
+  }
+
+  @Test
+  @Tag("benchmark")
+  void syncTrafficFollowsTheChanges() throws Exception {
+    int beers = 20_000;
+    int changed = 200;
+    final long created = writer.getWritten();
+    List<BeerDto> catalog = new ArrayList<>();
+    for (int i = 0; i < beers; i++) {
+      catalog.add(createBeer(i % 100));
+    }
+    awaitWritten(created + beers);
+    final long written = writer.getWritten();
+    final long since = writer.getLastSeq();
+    for (int i = 0; i < changed; i++) {
+      beerService.increment(catalog.get(i * (beers / changed)).getId(), 1);
+    }
+    awaitWritten(written + changed);
+
+    final long listStart = System.nanoTime();
+    int listBytes = mockMvc.perform(get("/api/v1/beers"))
+        .andReturn().getResponse().getContentAsByteArray().length;
+    double listMillis = (System.nanoTime() - listStart) / 1e6;
+    final long changesStart = System.nanoTime();
+    int changesBytes = mockMvc.perform(get("/api/v1/beers/changes")
+            .param("since", String.valueOf(since)))
+        .andExpect(jsonPath("$.changes.length()").value(changed))
+        .andReturn().getResponse().getContentAsByteArray().length;
+    double changesMillis = (System.nanoTime() - changesStart) / 1e6;
+    System.out.printf("beers=%d changed=%d full=%dKB %.1fms changes=%dKB %.1fms%n", beers,
+        changed, listBytes / 1024, listMillis, changesBytes / 1024, changesMillis);
+  }
+}
@@ -0,0 +1,205 @@
+package io.github.adgross.beerstock.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.exception.BeerStockExceededException;
+import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.repository.BeerRepository;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+
+/*
+  hammers a few beers from many threads and checks that every accepted change,
+  and only those, reaches the stock and that no reader ever sees it out of
+  bounds; the throughput is reported so changes to the stock path can be
+  compared
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:stock-concurrency;DB_CLOSE_DELAY=-1"
+})
+public class StockConcurrencyTests {
+
+  private static final int MAX = 100;
+  private static final int INITIAL = MAX / 2;
+  private static final int MAX_DELTA = 5;
+
+  @Autowired
+  private BeerService beerService;
+
+  @Autowired
+  private BeerRepository beerRepository;
+
+  @LocalServerPort
+  private int port;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  @FunctionalInterface
+  private interface StockOperation {
+    /**
+     * Applies the change, returning whether it was accepted.
+     */
+    boolean apply(Long id, int delta) throws Exception;
+  }
+
+  // the stored stock, the cached reads are not what is being checked
+  private int stock(Long id) {
+    return beerRepository.findCurrentDtoById(id).orElseThrow().getQuantity();
+  }
+
+  private boolean throughService(Long id, int delta) throws Exception {
+    try {
+      if (delta > 0) {
+        beerService.increment(id, delta);
+      } else {
+        beerService.decrement(id, -delta);
+      }
+      return true;
+    } catch (BeerStockExceededException | BeerStockNonExistentQuantityException e) {
+      return false;
+    }
+  }
+
+  private boolean throughHttp(Long id, int delta) throws Exception {
+    var operation = delta > 0 ? "increment" : "decrement";
+    var request = HttpRequest.newBuilder()
+        .uri(URI.create("http://localhost:" + port + "/api/v1/beers/" + id + "/" + operation))
+        .header("Content-Type", "application/json")
+        .method("PATCH", HttpRequest.BodyPublishers.ofString(
+            "{\"quantity\":" + Math.abs(delta) + "}"))
+        .build();
+    int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    if (status != 200 && status != 400) {
+      throw new IllegalStateException(operation + " of beer " + id + " answered " + status);
+    }
+    return status == 200;
+  }
+
+  // returns the operations per second
+  private double hammer(int beers, int threads, int operationsPerThread,
+      StockOperation operation) throws Exception {
+    Map<Long, AtomicInteger> accepted = new LinkedHashMap<>();
+    for (int i = 0; i < beers; i++) {
+      var name = UUID.randomUUID().toString().replace("-", "");
+      var beer = beerService.createBeer(
+          new BeerDto(null, name, "brand", MAX, INITIAL, BeerType.LAGER));
+      accepted.put(beer.getId(), new AtomicInteger());
+    }
+    List<Long> ids = new ArrayList<>(accepted.keySet());
+    final AtomicLong acceptedCount = new AtomicLong();
+    final AtomicLong outOfBounds = new AtomicLong();
+    final AtomicBoolean running = new AtomicBoolean(true);
+    final var checker = new Thread(() -> {
+      while (running.get()) {
+        for (Long id : ids) {
+          try {
+            int quantity = stock(id);
+            if (quantity < 0 || quantity > MAX) {
+              outOfBounds.incrementAndGet();
+            }
+          } catch (Exception e) {
+            outOfBounds.incrementAndGet();
+          }
+        }
+      }
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      workers.add(executor.submit(() -> {
+        start.await();
+        var random = ThreadLocalRandom.current();
+        for (int i = 0; i < operationsPerThread; i++) {
+          Long id = ids.get(random.nextInt(ids.size()));
+          int delta = (1 + random.nextInt(MAX_DELTA)) * (random.nextBoolean() ? 1 : -1);
+          if (operation.apply(id, delta)) {
+            accepted.get(id).addAndGet(delta);
+            acceptedCount.incrementAndGet();
+          }
+        }
+        return null;
+      }));
+    }
+    checker.start();
+    final long startTime = System.nanoTime();
+    start.countDown();
+    double seconds;
+    try {
+      for (Future<?> worker : workers) {
+        worker.get();
+      }
+    } finally {
+      seconds = (System.nanoTime() - startTime) / 1e9;
+      running.set(false);
+      checker.join();
+      executor.shutdownNow();
+    }
+
+    assertThat(outOfBounds.get(), is(equalTo(0L)));
+    assertThat(acceptedCount.get(), is(greaterThan(0L)));
+    for (var entry : accepted.entrySet()) {
+      int expected = INITIAL + entry.getValue().get();
+      assertThat("stock of beer " + entry.getKey(), stock(entry.getKey()),
+          is(equalTo(expected)));
+      // the read path of the API, no cache may keep a result from the burst
+      assertThat("read of beer " + entry.getKey(),
+          beerRepository.findDtoById(entry.getKey()).orElseThrow().getQuantity(),
+          is(equalTo(expected)));
+    }
+    return (double) threads * operationsPerThread / seconds;
+  }
+
+  @Test
+  void concurrentServiceCallsKeepTheStock() throws Exception {
+    hammer(3, 16, 200, this::throughService);
+  }
+
+  @Test
+  void concurrentRequestsKeepTheStock() throws Exception {
+    hammer(3, 16, 100, this::throughHttp);
+  }
+
+  @Test
+  void singleHotBeerKeepsItsStock() throws Exception {
+    hammer(1, 8, 200, this::throughService);
+  }
+
+  @Test
+  @Tag("benchmark")
+  void stockThroughputUnderContention() throws Exception {
+    for (int threads : new int[] {1, 4, 16, 64}) {
+      System.out.printf("beers=10 threads=%d service ops/s=%.0f http ops/s=%.0f%n", threads,
+          hammer(10, threads, 20_000 / threads, this::throughService),
+          hammer(10, threads, 10_000 / threads, this::throughHttp));
+    }
+  }
+}
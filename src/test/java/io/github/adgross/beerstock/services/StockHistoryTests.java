@@ -0,0 +1,157 @@
+package io.github.adgross.beerstock.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.StockBucketDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.enums.StockResolution;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "beerstock.history.flush-interval=5ms",
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:history;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+public class StockHistoryTests {
+
+  @Autowired
+  private BeerService beerService;
+
+  @Autowired
+  private StockHistoryService historyService;
+
+  @Autowired
+  private StockHistoryWriter writer;
+
+  @Autowired
+  private StockHistoryRollup rollup;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  private BeerDto createBeer(int quantity) throws Exception {
+    var name = UUID.randomUUID().toString().replace("-", "");
+    return beerService.createBeer(new BeerDto(null, name, "brand", 100, quantity, BeerType.IPA));
+  }
+
+  private void awaitWritten(long count) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (writer.getWritten() < count && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(writer.getWritten(), is(equalTo(count)));
+  }
+
+  private int movements(Long beerId) {
+    return jdbcTemplate.queryForObject(
+        "select count(*) from stock_movement where beer_id = ?", Integer.class, beerId);
+  }
+
+  @Test
+  void stockChangesAreRolledUpIntoHours() throws Exception {
+    final long written = writer.getWritten();
+    var beer = createBeer(10);
+    beerService.increment(beer.getId(), 5);
+    beerService.decrement(beer.getId(), 2);
+    awaitWritten(written + 3);
+    assertThat(movements(beer.getId()), is(equalTo(3)));
+
+    Instant now = Instant.now();
+    rollup.rollUp(now.plus(Duration.ofHours(1)));
+    var hours = historyService.history(beer.getId(), now.minus(Duration.ofHours(1)),
+        now.plus(Duration.ofHours(1)), StockResolution.HOURLY);
+
+    assertThat(movements(beer.getId()), is(equalTo(0)));
+    assertThat(hours, contains(new StockBucketDto(now.truncatedTo(ChronoUnit.HOURS), 15, 2, 3,
+        13)));
+  }
+
+  @Test
+  void oldHoursAreDownsampledIntoDays() throws Exception {
+    final long written = writer.getWritten();
+    var beer = createBeer(0);
+    Instant today = Instant.now().truncatedTo(ChronoUnit.DAYS);
+    Instant oldDay = today.minus(Duration.ofDays(10));
+    Instant recentDay = today.minus(Duration.ofDays(2));
+    writer.record(beer.getId(), 8, 8, oldDay.plus(Duration.ofHours(1)));
+    writer.record(beer.getId(), -3, 5, oldDay.plus(Duration.ofHours(5)));
+    writer.record(beer.getId(), 4, 4, recentDay.plus(Duration.ofHours(3)));
+    writer.record(beer.getId(), -1, 3, recentDay.plus(Duration.ofHours(4)));
+    awaitWritten(written + 4);
+
+    rollup.rollUp(Instant.now());
+    var from = today.minus(Duration.ofDays(11));
+    var days = historyService.history(beer.getId(), from, today, StockResolution.DAILY);
+    var hours = historyService.history(beer.getId(), from, today, StockResolution.HOURLY);
+
+    assertThat(days, contains(
+        new StockBucketDto(oldDay, 8, 3, 2, 5),
+        new StockBucketDto(recentDay, 4, 1, 2, 3)));
+    assertThat(hours.stream().map(StockBucketDto::getStart).collect(Collectors.toList()),
+        contains(recentDay.plus(Duration.ofHours(3)), recentDay.plus(Duration.ofHours(4))));
+  }
+
+  @Test
+  void unfinishedHoursAreNotRolledUp() throws Exception {
+    final long written = writer.getWritten();
+    var beer = createBeer(7);
+    awaitWritten(written + 1);
+
+    rollup.rollUp(Instant.now().truncatedTo(ChronoUnit.HOURS));
+    var hours = historyService.history(beer.getId(), Instant.now().minus(Duration.ofHours(1)),
+        Instant.now().plus(Duration.ofHours(1)), StockResolution.HOURLY);
+
+    assertThat(hours, is(empty()));
+    assertThat(movements(beer.getId()), is(equalTo(1)));
+  }
+
+  @Test
+  void historyEndpointAnswersFromBuckets() throws Exception {
+    final long written = writer.getWritten();
+    var beer = createBeer(0);
+    Instant hour = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(Duration.ofHours(2));
+    writer.record(beer.getId(), 6, 6, hour.plus(Duration.ofMinutes(10)));
+    awaitWritten(written + 1);
+    rollup.rollUp(Instant.now());
+
+    mockMvc.perform(get("/api/v1/beers/{id}/history", beer.getId())
+        .param("from", hour.minus(Duration.ofHours(1)).toString())
+        .param("resolution", "HOURLY"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].increments").value(6))
+        .andExpect(jsonPath("$[0].closingQuantity").value(6));
+    mockMvc.perform(get("/api/v1/beers/{id}/history", Long.MAX_VALUE))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void historyIsEmptyForAnInvertedRange() throws Exception {
+    var beer = createBeer(1);
+
+    assertThat(historyService.history(beer.getId(), Instant.now(),
+        Instant.now().minus(Duration.ofDays(1)), StockResolution.DAILY), hasSize(0));
+  }
+}
@@ -0,0 +1,184 @@
+package io.github.adgross.beerstock.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.adgross.beerstock.config.CoalescingConfig;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.github.adgross.beerstock.exception.BeerStockExceededException;
+import io.github.adgross.beerstock.exception.StockMutationTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+    "beerstock.coalescing.enabled=true",
+    "beerstock.coalescing.window=5ms",
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:coalescing;DB_CLOSE_DELAY=-1"
+})
+public class StockMutationCoalescerTests {
+
+  @Autowired
+  private BeerService beerService;
+
+  @Autowired
+  private StockMutationCoalescer coalescer;
+
+  @Autowired
+  private CoalescingConfig config;
+
+  @Autowired
+  private StockReservations stockReservations;
+
+  private BeerDto createBeer(int max, int quantity) throws Exception {
+    var name = UUID.randomUUID().toString().replace("-", "");
+    return beerService.createBeer(new BeerDto(null, name, "brand", max, quantity, BeerType.IPA));
+  }
+
+  private List<Future<BeerDto>> runConcurrently(int threads, List<Callable<BeerDto>> calls)
+      throws InterruptedException {
+    var executor = Executors.newFixedThreadPool(threads);
+    try {
+      return executor.invokeAll(calls);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void concurrentIncrementsAreCommittedInBatches() throws Exception {
+    var beer = createBeer(500, 0);
+    final long batchesBefore = coalescer.getCommittedBatches();
+    var calls = new ArrayList<Callable<BeerDto>>();
+    for (int i = 0; i < 400; i++) {
+      calls.add(() -> beerService.increment(beer.getId(), 1));
+    }
+
+    for (var result : runConcurrently(40, calls)) {
+      result.get();
+    }
+
+    assertThat(beerService.find(beer.getId()).getQuantity(), is(equalTo(400)));
+    assertThat(coalescer.getCommittedBatches() - batchesBefore, is(lessThan(400L)));
+  }
+
+  @Test
+  void eachMutationIsAcceptedOrRejectedOnItsOwn() throws Exception {
+    var beer = createBeer(10, 0);
+    var calls = new ArrayList<Callable<BeerDto>>();
+    for (int i = 0; i < 30; i++) {
+      calls.add(() -> beerService.increment(beer.getId(), 1));
+    }
+
+    int accepted = 0;
+    int rejected = 0;
+    for (var result : runConcurrently(30, calls)) {
+      try {
+        var incremented = result.get();
+        assertThat(incremented.getQuantity() <= incremented.getMax(), is(true));
+        accepted++;
+      } catch (ExecutionException e) {
+        assertThat(e.getCause() instanceof BeerStockExceededException, is(true));
+        rejected++;
+      }
+    }
+
+    assertThat(accepted, is(equalTo(10)));
+    assertThat(rejected, is(equalTo(20)));
+    assertThat(beerService.find(beer.getId()).getQuantity(), is(equalTo(10)));
+  }
+
+  @Test
+  void unknownBeerIsRejected() {
+    assertThrows(BeerNotFoundException.class, () -> beerService.decrement(Long.MAX_VALUE, 1));
+  }
+
+  @Test
+  void mutationNotStartedBeforeTimeoutIsDropped() throws Exception {
+    var beer = createBeer(10, 5);
+    final Duration originalWindow = config.getWindow();
+    final Duration originalTimeout = config.getTimeout();
+    config.setWindow(Duration.ofMillis(500));
+    config.setTimeout(Duration.ofMillis(50));
+    try {
+      assertThrows(StockMutationTimeoutException.class,
+          () -> beerService.increment(beer.getId(), 1));
+      Thread.sleep(1000);
+    } finally {
+      config.setWindow(originalWindow);
+      config.setTimeout(originalTimeout);
+    }
+
+    assertThat(beerService.find(beer.getId()).getQuantity(), is(equalTo(5)));
+    assertThat(beerService.increment(beer.getId(), 1).getQuantity(), is(equalTo(6)));
+  }
+
+  @Test
+  void mutationStartedBeforeTimeoutIsAnswered() throws Exception {
+    var beer = createBeer(10, 5);
+    final Duration originalTimeout = config.getTimeout();
+    config.setTimeout(Duration.ofMillis(50));
+    var executor = Executors.newSingleThreadExecutor();
+    Future<BeerDto> incremented;
+    // the batch claims the mutation, then waits for the beer lock past the timeout
+    var lock = stockReservations.lockFor(beer.getId());
+    lock.lock();
+    try {
+      incremented = executor.submit(() -> beerService.increment(beer.getId(), 1));
+      Thread.sleep(500);
+      assertThat(incremented.isDone(), is(false));
+    } finally {
+      lock.unlock();
+      config.setTimeout(originalTimeout);
+      executor.shutdown();
+    }
+
+    assertThat(incremented.get(5, TimeUnit.SECONDS).getQuantity(), is(equalTo(6)));
+    assertThat(beerService.find(beer.getId()).getQuantity(), is(equalTo(6)));
+  }
+
+  @Test
+  @Tag("benchmark")
+  void hotRowThroughputByBatchSize() throws Exception {
+    int operations = 20_000;
+    int originalBatchSize = config.getBatchSize();
+    for (int batchSize : new int[] {1, 8, 64, 256}) {
+      config.setBatchSize(batchSize);
+      var beer = createBeer(500, 250);
+      var calls = new ArrayList<Callable<BeerDto>>();
+      for (int i = 0; i < operations; i++) {
+        int delta = i % 2 == 0 ? 1 : -1;
+        calls.add(() -> delta > 0
+            ? beerService.increment(beer.getId(), 1)
+            : beerService.decrement(beer.getId(), 1));
+      }
+      final long batchesBefore = coalescer.getCommittedBatches();
+
+      long start = System.nanoTime();
+      for (var result : runConcurrently(64, calls)) {
+        result.get();
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      System.out.printf("batch-size=%d throughput=%.0f ops/s commits=%d%n",
+          batchSize, operations / seconds, coalescer.getCommittedBatches() - batchesBefore);
+    }
+    config.setBatchSize(originalBatchSize);
+  }
+}
@@ -0,0 +1,151 @@
+package io.github.adgross.beerstock.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.BeerStockNotAvailableException;
+import io.github.adgross.beerstock.exception.ReservationNotFoundException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+    "beerstock.reservations.tick=10ms",
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:reservations;DB_CLOSE_DELAY=-1"
+})
+public class StockReservationServiceTests {
+
+  private static final Duration TTL = Duration.ofMinutes(1);
+
+  @Autowired
+  private BeerService beerService;
+
+  @Autowired
+  private StockReservationService reservationService;
+
+  private BeerDto createBeer(int max, int quantity) throws Exception {
+    var name = UUID.randomUUID().toString().replace("-", "");
+    return beerService.createBeer(new BeerDto(null, name, "brand", max, quantity, BeerType.ALE));
+  }
+
+  @Test
+  void reserveReducesAvailableQuantity() throws Exception {
+    var beer = createBeer(100, 10);
+
+    var first = reservationService.reserve(beer.getId(), 6, TTL);
+    assertThat(first.getAvailable(), is(equalTo(4)));
+
+    assertThrows(BeerStockNotAvailableException.class,
+        () -> reservationService.reserve(beer.getId(), 5, TTL));
+    assertThrows(BeerStockNonExistentQuantityException.class,
+        () -> beerService.decrement(beer.getId(), 5));
+    assertThat(beerService.decrement(beer.getId(), 4).getQuantity(), is(equalTo(6)));
+  }
+
+  @Test
+  void commitRemovesReservedStock() throws Exception {
+    var beer = createBeer(100, 10);
+    var reservation = reservationService.reserve(beer.getId(), 3, TTL);
+
+    var committed = reservationService.commit(reservation.getId());
+
+    assertThat(committed.getQuantity(), is(equalTo(7)));
+    assertThrows(ReservationNotFoundException.class,
+        () -> reservationService.commit(reservation.getId()));
+    assertThat(reservationService.reserve(beer.getId(), 7, TTL).getAvailable(), is(equalTo(0)));
+  }
+
+  @Test
+  void failedCommitKeepsTheReservation() throws Exception {
+    var beer = createBeer(100, 10);
+    var reservation = reservationService.reserve(beer.getId(), 5, TTL);
+    beerService.updateBeer(beer.getId(), beer.toBuilder().quantity(2).build());
+
+    assertThrows(BeerStockNonExistentQuantityException.class,
+        () -> reservationService.commit(reservation.getId()));
+
+    assertThat(reservationService.find(reservation.getId()).getAvailable(), is(equalTo(0)));
+    beerService.increment(beer.getId(), 3);
+    assertThat(reservationService.commit(reservation.getId()).getQuantity(), is(equalTo(0)));
+  }
+
+  @Test
+  void concurrentReservationsAndDecrementsNeverOversell() throws Exception {
+    var beer = createBeer(1000, 200);
+    var calls = new ArrayList<Callable<Boolean>>();
+    for (int i = 0; i < 400; i++) {
+      calls.add(i % 2 == 0
+          ? () -> reserveOne(beer.getId())
+          : () -> decrementOne(beer.getId()));
+    }
+    var executor = Executors.newFixedThreadPool(16);
+    int accepted = 0;
+    try {
+      for (Future<Boolean> result : executor.invokeAll(calls)) {
+        accepted += result.get() ? 1 : 0;
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(accepted, is(equalTo(200)));
+    assertThrows(BeerStockNonExistentQuantityException.class,
+        () -> beerService.decrement(beer.getId(), 1));
+  }
+
+  private boolean reserveOne(Long beerId) throws Exception {
+    try {
+      reservationService.reserve(beerId, 1, TTL);
+      return true;
+    } catch (BeerStockNotAvailableException e) {
+      return false;
+    }
+  }
+
+  private boolean decrementOne(Long beerId) throws Exception {
+    try {
+      beerService.decrement(beerId, 1);
+      return true;
+    } catch (BeerStockNonExistentQuantityException e) {
+      return false;
+    }
+  }
+
+  @Test
+  void releaseReturnsReservedStock() throws Exception {
+    var beer = createBeer(100, 10);
+    var reservation = reservationService.reserve(beer.getId(), 10, TTL);
+
+    reservationService.release(reservation.getId());
+
+    assertThrows(ReservationNotFoundException.class,
+        () -> reservationService.find(reservation.getId()));
+    assertThat(beerService.find(beer.getId()).getQuantity(), is(equalTo(10)));
+    assertThat(reservationService.reserve(beer.getId(), 10, TTL).getAvailable(), is(equalTo(0)));
+  }
+
+  @Test
+  void expiredReservationReleasesStock() throws Exception {
+    var beer = createBeer(100, 10);
+    var reservation = reservationService.reserve(beer.getId(), 10, Duration.ofMillis(50));
+
+    TimeUnit.MILLISECONDS.sleep(300);
+
+    assertThrows(ReservationNotFoundException.class,
+        () -> reservationService.commit(reservation.getId()));
+    assertThat(beerService.decrement(beer.getId(), 10).getQuantity(), is(equalTo(0)));
+  }
+}
@@ -0,0 +1,433 @@
+package io.github.adgross.beerstock.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.WarehouseDto;
+import io.github.adgross.beerstock.dto.WarehouseStockDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.github.adgross.beerstock.exception.BeerStockExceededException;
+import io.github.adgross.beerstock.exception.BeerStockNonExistentQuantityException;
+import io.github.adgross.beerstock.exception.InvalidTransferException;
+import io.github.adgross.beerstock.exception.WarehouseStockNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:warehouses;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+public class WarehouseStockTests {
+
+  @Autowired
+  private BeerService beerService;
+
+  @Autowired
+  private WarehouseService warehouseService;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  private static String uniqueName() {
+    return UUID.randomUUID().toString().replace("-", "");
+  }
+
+  private BeerDto createBeer() throws Exception {
+    return beerService.createBeer(new BeerDto(null, uniqueName(), "brand", 100, 0, BeerType.ALE));
+  }
+
+  private WarehouseDto createWarehouse() throws Exception {
+    return warehouseService.create(WarehouseDto.builder().name(uniqueName()).build());
+  }
+
+  @Test
+  void stockIsKeptPerWarehouse() throws Exception {
+    var beer = createBeer();
+    var north = createWarehouse();
+    var south = createWarehouse();
+
+    warehouseService.setStock(north.getId(), beer.getId(), 50, 10);
+    warehouseService.setStock(south.getId(), beer.getId(), 20, 5);
+    warehouseService.increment(north.getId(), beer.getId(), 40);
+    warehouseService.decrement(south.getId(), beer.getId(), 5);
+
+    assertThrows(BeerStockExceededException.class,
+        () -> warehouseService.increment(north.getId(), beer.getId(), 1));
+    assertThrows(BeerStockNonExistentQuantityException.class,
+        () -> warehouseService.decrement(south.getId(), beer.getId(), 1));
+    var stock = warehouseService.findStock(beer.getId());
+    assertThat(stock.getTotal(), is(equalTo(50L)));
+    assertThat(stock.getWarehouses(), contains(
+        new WarehouseStockDto(north.getId(), beer.getId(), 50, 50),
+        new WarehouseStockDto(south.getId(), beer.getId(), 20, 0)));
+    assertThat(warehouseService.find(north.getId()).getQuantity(), is(equalTo(50L)));
+    assertThat(warehouseService.find(south.getId()).getQuantity(), is(equalTo(0L)));
+  }
+
+  @Test
+  void settingTheStockAdjustsTheWarehouseTotal() throws Exception {
+    var first = createBeer();
+    var second = createBeer();
+    var warehouse = createWarehouse();
+
+    warehouseService.setStock(warehouse.getId(), first.getId(), 30, 30);
+    warehouseService.setStock(warehouse.getId(), second.getId(), 30, 12);
+    warehouseService.setStock(warehouse.getId(), first.getId(), 40, 8);
+
+    assertThat(warehouseService.find(warehouse.getId()).getQuantity(), is(equalTo(20L)));
+    assertThrows(BeerStockExceededException.class,
+        () -> warehouseService.setStock(warehouse.getId(), first.getId(), 10, 11));
+    assertThrows(BeerNotFoundException.class,
+        () -> warehouseService.setStock(warehouse.getId(), -1L, 10, 1));
+    assertThrows(WarehouseStockNotFoundException.class,
+        () -> warehouseService.increment(-1L, first.getId(), 1));
+  }
+
+  @Test
+  void deletedBeersLeaveTheWarehouses() throws Exception {
+    var beer = createBeer();
+    var kept = createBeer();
+    var warehouse = createWarehouse();
+    warehouseService.setStock(warehouse.getId(), beer.getId(), 30, 7);
+    warehouseService.setStock(warehouse.getId(), kept.getId(), 30, 3);
+
+    beerService.deleteBeer(beer.getId());
+
+    assertThat(warehouseService.find(warehouse.getId()).getQuantity(), is(equalTo(3L)));
+    assertThrows(WarehouseStockNotFoundException.class,
+        () -> warehouseService.findStock(warehouse.getId(), beer.getId()));
+    assertThrows(BeerNotFoundException.class, () -> warehouseService.findStock(beer.getId()));
+    assertThat(warehouseService.findStock(createBeer().getId()).getWarehouses(), is(empty()));
+  }
+
+  @Test
+  void deleteDuringChangesKeepsTheTotals() throws Exception {
+    var kept = createBeer();
+    var warehouse = createWarehouse();
+    warehouseService.setStock(warehouse.getId(), kept.getId(), 100, 5);
+    for (int round = 0; round < 20; round++) {
+      var beer = createBeer();
+      warehouseService.setStock(warehouse.getId(), beer.getId(), 1000, 10);
+      var start = new CountDownLatch(1);
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      List<Future<?>> workers = new ArrayList<>();
+      for (int t = 0; t < 3; t++) {
+        workers.add(executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < 20; i++) {
+            try {
+              warehouseService.increment(warehouse.getId(), beer.getId(), 1);
+            } catch (WarehouseStockNotFoundException e) {
+              // the beer is gone
+            }
+          }
+          return null;
+        }));
+      }
+      workers.add(executor.submit(() -> {
+        start.await();
+        beerService.deleteBeer(beer.getId());
+        return null;
+      }));
+      start.countDown();
+      for (Future<?> worker : workers) {
+        worker.get();
+      }
+      executor.shutdown();
+
+      assertThat(warehouseService.find(warehouse.getId()).getQuantity(), is(equalTo(5L)));
+    }
+  }
+
+  @Test
+  void concurrentChangesKeepTheTotals() throws Exception {
+    List<BeerDto> beers = List.of(createBeer(), createBeer(), createBeer(), createBeer());
+    List<WarehouseDto> warehouses = List.of(createWarehouse(), createWarehouse());
+    for (var warehouse : warehouses) {
+      for (var beer : beers) {
+        warehouseService.setStock(warehouse.getId(), beer.getId(), 100, 50);
+      }
+    }
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<?>> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      var warehouse = warehouses.get(t % warehouses.size());
+      int seed = t;
+      workers.add(executor.submit(() -> {
+        for (int i = 0; i < 100; i++) {
+          var beer = beers.get((seed + i) % beers.size());
+          int quantity = 1 + (seed + i) % 7;
+          try {
+            if ((seed + i) % 2 == 0) {
+              warehouseService.increment(warehouse.getId(), beer.getId(), quantity);
+            } else {
+              warehouseService.decrement(warehouse.getId(), beer.getId(), quantity);
+            }
+          } catch (BeerStockExceededException | BeerStockNonExistentQuantityException e) {
+            // rejected changes leave the stock as it was
+          }
+        }
+        return null;
+      }));
+    }
+    for (Future<?> worker : workers) {
+      worker.get();
+    }
+    executor.shutdown();
+
+    long total = 0;
+    for (var warehouse : warehouses) {
+      long stocked = 0;
+      for (var beer : beers) {
+        stocked += warehouseService.findStock(warehouse.getId(), beer.getId()).getQuantity();
+      }
+      assertThat(warehouseService.find(warehouse.getId()).getQuantity(), is(equalTo(stocked)));
+      total += stocked;
+    }
+    long beerTotals = 0;
+    for (var beer : beers) {
+      var stock = warehouseService.findStock(beer.getId());
+      assertThat(stock.getTotal(), is(equalTo(stock.getWarehouses().stream()
+          .mapToLong(WarehouseStockDto::getQuantity).sum())));
+      beerTotals += stock.getTotal();
+    }
+    assertThat(beerTotals, is(equalTo(total)));
+  }
+
+  @Test
+  void concurrentFirstWritesBecomeUpdates() throws Exception {
+    for (int round = 0; round < 10; round++) {
+      var beer = createBeer();
+      var warehouse = createWarehouse();
+      int threads = 4;
+      var start = new CountDownLatch(1);
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      List<Future<WarehouseStockDto>> writes = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int quantity = 10 + t;
+        writes.add(executor.submit(() -> {
+          start.await();
+          return warehouseService.setStock(warehouse.getId(), beer.getId(), 100, quantity);
+        }));
+      }
+      start.countDown();
+      for (var write : writes) {
+        write.get();
+      }
+      executor.shutdown();
+
+      long stocked = warehouseService.findStock(warehouse.getId(), beer.getId()).getQuantity();
+      assertThat(warehouseService.find(warehouse.getId()).getQuantity(), is(equalTo(stocked)));
+      assertThat(warehouseService.findStock(beer.getId()).getTotal(), is(equalTo(stocked)));
+    }
+  }
+
+  @Test
+  void transferMovesStockOrNothing() throws Exception {
+    var beer = createBeer();
+    var other = createBeer();
+    var north = createWarehouse();
+    var south = createWarehouse();
+    warehouseService.setStock(north.getId(), beer.getId(), 20, 15);
+    warehouseService.setStock(south.getId(), beer.getId(), 20, 10);
+    warehouseService.setStock(south.getId(), other.getId(), 20, 0);
+
+    var moved = warehouseService.transfer(north.getId(), beer.getId(),
+        south.getId(), beer.getId(), 6);
+
+    assertThat(moved.getFrom().getQuantity(), is(equalTo(9)));
+    assertThat(moved.getTo().getQuantity(), is(equalTo(16)));
+    assertThrows(BeerStockExceededException.class, () -> warehouseService.transfer(
+        north.getId(), beer.getId(), south.getId(), beer.getId(), 5));
+    assertThrows(BeerStockNonExistentQuantityException.class, () -> warehouseService.transfer(
+        south.getId(), other.getId(), north.getId(), beer.getId(), 1));
+    assertThrows(InvalidTransferException.class, () -> warehouseService.transfer(
+        south.getId(), beer.getId(), south.getId(), beer.getId(), 1));
+    assertThrows(WarehouseStockNotFoundException.class, () -> warehouseService.transfer(
+        north.getId(), other.getId(), south.getId(), other.getId(), 1));
+    warehouseService.transfer(south.getId(), beer.getId(), south.getId(), other.getId(), 16);
+
+    assertThat(warehouseService.findStock(north.getId(), beer.getId()).getQuantity(),
+        is(equalTo(9)));
+    assertThat(warehouseService.findStock(south.getId(), other.getId()).getQuantity(),
+        is(equalTo(16)));
+    assertThat(warehouseService.find(north.getId()).getQuantity(), is(equalTo(9L)));
+    assertThat(warehouseService.find(south.getId()).getQuantity(), is(equalTo(16L)));
+  }
+
+  @Test
+  void oppositeTransfersDoNotDeadlock() throws Exception {
+    var transfers = oppositeTransfers(8, 100);
+
+    assertThat(transfers.failures, is(empty()));
+    assertThat(transfers.stock(), is(equalTo(transfers.initial)));
+  }
+
+  @Test
+  @Tag("benchmark")
+  void oppositeTransfersUnderContention() throws Exception {
+    for (int threads : new int[] {2, 8, 32, 64}) {
+      var transfers = oppositeTransfers(threads, 4000 / threads);
+      long[] latencies = transfers.latencies.stream().mapToLong(Long::longValue).sorted()
+          .toArray();
+      System.out.printf("threads=%d transfers=%d moved=%d p50=%.2fms p99=%.2fms max=%.2fms%n",
+          threads, latencies.length, transfers.moved.get(),
+          latencies[latencies.length / 2] / 1e6,
+          latencies[(int) (latencies.length * 0.99)] / 1e6,
+          latencies[latencies.length - 1] / 1e6);
+      assertThat(transfers.failures, is(empty()));
+      assertThat(transfers.stock(), is(equalTo(transfers.initial)));
+    }
+  }
+
+  // half of the threads move stock from north to south and the other half back,
+  // alternating the beers, so every pair of transfers locks the same rows
+  private Transfers oppositeTransfers(int threads, int perThread) throws Exception {
+    List<BeerDto> beers = List.of(createBeer(), createBeer());
+    var north = createWarehouse();
+    var south = createWarehouse();
+    for (var beer : beers) {
+      warehouseService.setStock(north.getId(), beer.getId(), 100, 50);
+      warehouseService.setStock(south.getId(), beer.getId(), 100, 50);
+    }
+    var transfers = new Transfers(north, south, beers, 200);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    var start = new CountDownLatch(1);
+    List<Future<?>> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      var from = t % 2 == 0 ? north : south;
+      var to = t % 2 == 0 ? south : north;
+      int seed = t;
+      workers.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < perThread; i++) {
+          var source = beers.get((seed / 2 + i) % beers.size());
+          var target = beers.get((seed / 2 + i + seed % 3) % beers.size());
+          int quantity = 1 + (seed + i) % 9;
+          long begin = System.nanoTime();
+          try {
+            warehouseService.transfer(from.getId(), source.getId(), to.getId(),
+                target.getId(), quantity);
+            transfers.moved.incrementAndGet();
+          } catch (BeerStockExceededException | BeerStockNonExistentQuantityException e) {
+            // rejected transfers leave both stocks as they were
+          } catch (Exception e) {
+            transfers.failures.add(e.toString());
+          }
+          transfers.latencies.add(System.nanoTime() - begin);
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> worker : workers) {
+      worker.get();
+    }
+    executor.shutdown();
+    return transfers;
+  }
+
+  private class Transfers {
+    private final List<WarehouseDto> warehouses;
+    private final List<BeerDto> beers;
+    private final long initial;
+    private final AtomicInteger moved = new AtomicInteger();
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+    Transfers(WarehouseDto north, WarehouseDto south, List<BeerDto> beers, long initial) {
+      this.warehouses = List.of(north, south);
+      this.beers = beers;
+      this.initial = initial;
+    }
+
+    long stock() throws Exception {
+      long stock = 0;
+      for (var warehouse : warehouses) {
+        long stocked = 0;
+        for (var beer : beers) {
+          stocked += warehouseService.findStock(warehouse.getId(), beer.getId()).getQuantity();
+        }
+        assertThat(warehouseService.find(warehouse.getId()).getQuantity(), is(equalTo(stocked)));
+        stock += stocked;
+      }
+      return stock;
+    }
+  }
+
+  @Test
+  void warehouseRoutes() throws Exception {
+    var beer = createBeer();
+    var name = uniqueName();
+    mockMvc.perform(post("/api/v1/warehouses")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"" + name + "\"}"))
+        .andExpect(status().isCreated());
+    var warehouse = warehouseService.listAll().stream()
+        .filter(w -> w.getName().equals(name))
+        .collect(Collectors.toList()).get(0);
+    String stock = "/api/v1/warehouses/" + warehouse.getId() + "/beers/" + beer.getId();
+
+    mockMvc.perform(put(stock)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"max\":10,\"quantity\":4}"))
+        .andExpect(status().isOk());
+    mockMvc.perform(patch(stock + "/increment")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"quantity\":6}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.quantity").value(10));
+    mockMvc.perform(patch(stock + "/increment")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"quantity\":1}"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(patch(stock + "/decrement")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"quantity\":0}"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/api/v1/warehouses/beers/{beerId}", beer.getId()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.total").value(10));
+    mockMvc.perform(get("/api/v1/warehouses/{warehouseId}", warehouse.getId()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.quantity").value(10));
+    mockMvc.perform(get("/api/v1/warehouses/-1/beers/{beerId}", beer.getId()))
+        .andExpect(status().isNotFound());
+    mockMvc.perform(post("/api/v1/warehouses/transfers")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"fromWarehouseId\":" + warehouse.getId() + ",\"fromBeerId\":"
+                + beer.getId() + ",\"toWarehouseId\":" + warehouse.getId()
+                + ",\"toBeerId\":" + beer.getId() + ",\"quantity\":1}"))
+        .andExpect(status().isBadRequest());
+  }
+}
@@ -0,0 +1,199 @@
+package io.github.adgross.beerstock.sql;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.adgross.beerstock.BeerstockApplication;
+import io.github.adgross.beerstock.config.SqlLogConfig;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.services.BeerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "beerstock.warmup.enabled=false",
+    "beerstock.sql-log.slow-threshold=0ms",
+    "management.endpoints.web.exposure.include=sql,metrics",
+    "beerstock.response-cache.enabled=false",
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:sql-log;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+public class SqlLogTests {
+
+  @Autowired
+  private SqlLog sqlLog;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private BeerService beerService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+  private static SqlLog unstarted(double samplingRatio, Duration slowThreshold,
+      int queueCapacity) {
+    var config = new SqlLogConfig();
+    config.setSamplingRatio(samplingRatio);
+    config.setSlowThreshold(slowThreshold);
+    config.setQueueCapacity(queueCapacity);
+    return new SqlLog(new SimpleMeterRegistry(), new ObjectMapper(), config);
+  }
+
+  @BeforeEach
+  void attachAppender() {
+    appender.start();
+    ((Logger) LoggerFactory.getLogger("beerstock.sql")).addAppender(appender);
+  }
+
+  @AfterEach
+  void detachAppender() {
+    ((Logger) LoggerFactory.getLogger("beerstock.sql")).detachAppender(appender);
+  }
+
+  private List<JsonNode> awaitLogged(long count) throws Exception {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (sqlLog.getLogged() < count && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    List<JsonNode> entries = new ArrayList<>();
+    for (ILoggingEvent event : new ArrayList<>(appender.list)) {
+      entries.add(objectMapper.readTree(event.getFormattedMessage()));
+    }
+    return entries;
+  }
+
+  @Test
+  void shapesCollapseLiteralsAndInLists() {
+    assertThat(SqlLog.shape("select *  from beer\n where id in (?, ?, ?) and name = 'it''s'"),
+        is(equalTo("select * from beer where id in (?) and name = ?")));
+    assertThat(SqlLog.shape("select beer0_.id as id1_0_ from beer beer0_ where max > 10.5"),
+        is(equalTo("select beer0_.id as id1_0_ from beer beer0_ where max > ?")));
+    assertThat(SqlLog.shape("delete from beer where id in (?,?)"),
+        is(equalTo(SqlLog.shape("delete from beer where id in (?, ?, ?, ?)"))));
+  }
+
+  @Test
+  void slowStatementsAreLoggedWithTheirParametersAndPlan() throws Exception {
+    var brand = UUID.randomUUID().toString().replace("-", "");
+    beerService.createBeer(new BeerDto(null, brand, brand, 100, 1, BeerType.IPA));
+    final long logged = sqlLog.getLogged();
+    appender.list.clear();
+
+    mockMvc.perform(delete("/api/v1/beers").param("brand", brand)).andExpect(status().isOk());
+
+    var entries = awaitLogged(logged + 1);
+    var select = entries.stream()
+        .filter(entry -> entry.path("sql").asText().startsWith("select"))
+        .filter(entry -> entry.path("parameters").toString().contains(brand))
+        .findFirst()
+        .orElseThrow(() -> new AssertionError("no select of " + brand + " in " + entries));
+    assertThat(select.path("slow").asBoolean(), is(true));
+    assertThat(select.path("shape").asText().startsWith("select"), is(true));
+    assertThat(select.path("plan").asText().toUpperCase().contains("BEER"), is(true));
+    assertThat(appender.list.get(0).getLevel(), is(equalTo(Level.WARN)));
+  }
+
+  @Test
+  void latencyByShapeIsServedByTheActuator() throws Exception {
+    beerService.listAll();
+
+    mockMvc.perform(get("/actuator/sql"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.shapes[*].shape", not(hasItem(SqlLog.OTHER_SHAPE))))
+        .andExpect(jsonPath("$.shapes[0].count").isNumber());
+  }
+
+  @Test
+  void fastStatementsAreSampled() throws Exception {
+    var sampledNone = unstarted(0, Duration.ofHours(1), 10);
+    var sampledAll = unstarted(1, Duration.ofHours(1), 2);
+
+    for (int i = 0; i < 5; i++) {
+      sampledNone.record(dataSource, "select 1", new Bindings(), 1_000, false);
+      sampledAll.record(dataSource, "select 1", new Bindings(), 1_000, false);
+    }
+
+    assertThat(sampledNone.getPending(), is(equalTo(0)));
+    assertThat(sampledAll.getPending(), is(equalTo(2)));
+    assertThat(sampledAll.getDropped(), is(equalTo(3L)));
+    assertThat(sampledAll.shapes().get(0).getCount(), is(greaterThanOrEqualTo(5L)));
+  }
+
+  private static void measure(String label, String... settings) throws Exception {
+    var args = new ArrayList<>(List.of(settings));
+    args.add("--server.port=0");
+    args.add("--beerstock.tracing.enabled=false");
+    args.add("--spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    try (var context = BeerstockApplication.application().run(args.toArray(String[]::new))) {
+      var service = context.getBean(BeerService.class);
+      var id = service.createBeer(new BeerDto(null, "benchmark", "brand", 1_000_000, 0,
+          BeerType.LAGER)).getId();
+      int operations = 50_000;
+      for (int i = 0; i < operations / 4; i++) {
+        service.increment(id, 1);
+      }
+      long[] latencies = new long[operations];
+      final long start = System.nanoTime();
+      for (int i = 0; i < operations; i++) {
+        long operationStart = System.nanoTime();
+        service.increment(id, 1);
+        latencies[i] = System.nanoTime() - operationStart;
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      Arrays.sort(latencies);
+      System.out.printf("%s increments/s=%.0f p50=%.0fus p99=%.0fus%n", label,
+          operations / seconds, latencies[operations / 2] / 1e3,
+          latencies[operations * 99 / 100] / 1e3);
+    }
+  }
+
+  @Test
+  @Tag("benchmark")
+  void sqlLoggingOverhead() throws Exception {
+    // the applications share the JIT, only the last round is comparable
+    for (int round = 1; round <= 3; round++) {
+      measure(round + " none", "--beerstock.sql-log.enabled=false",
+          "--spring.jpa.show-sql=false");
+      measure(round + " show-sql", "--beerstock.sql-log.enabled=false",
+          "--spring.jpa.show-sql=true");
+      measure(round + " sql-log", "--spring.jpa.show-sql=false");
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package io.github.adgross.beerstock.tracing;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.adgross.beerstock.BeerstockApplication;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.exception.BeerNotFoundException;
+import io.github.adgross.beerstock.utils.JsonConvertUtils;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
+
+@SpringBootTest(properties = {
+    "beerstock.tracing.sampling-ratio=0",
+    "management.endpoints.web.exposure.include=traces",
+    "beerstock.response-cache.enabled=false",
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:tracing;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+public class TracingTests {
+
+  private static final String PARENT_SPAN_ID = "00f067aa0ba902b7";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private MemorySpanExporter exporter;
+
+  private static String newTraceId() {
+    return UUID.randomUUID().toString().replace("-", "");
+  }
+
+  private static String traceparent(String traceId, boolean sampled) {
+    return "00-" + traceId + "-" + PARENT_SPAN_ID + (sampled ? "-01" : "-00");
+  }
+
+  private List<SpanData> spans(String traceId) {
+    return exporter.getSpans().stream()
+        .filter(span -> span.getTraceId().equals(traceId))
+        .collect(Collectors.toList());
+  }
+
+  private static SpanData named(List<SpanData> spans, String name) {
+    return spans.stream().filter(span -> span.getName().equals(name)).findFirst()
+        .orElseThrow(() -> new AssertionError("no span " + name + " in " + spans));
+  }
+
+  @Test
+  void requestIsTracedThroughEveryLayer() throws Exception {
+    var traceId = newTraceId();
+    var name = UUID.randomUUID().toString().replace("-", "");
+    var beer = new BeerDto(null, name, "brand", 100, 10, BeerType.LAGER);
+
+    var response = mockMvc.perform(post("/api/v1/beers")
+            .header("traceparent", traceparent(traceId, true))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(JsonConvertUtils.asJsonString(beer)))
+        .andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsString();
+    final long id = objectMapper.readValue(response, BeerDto.class).getId();
+
+    var spans = spans(traceId);
+    var request = named(spans, "POST /api/v1/beers");
+    final var controller = named(spans, "BeerController.createBeer");
+    final var service = named(spans, "BeerService.createBeer");
+    final var mapper = named(spans, "BeerMapper.toModel");
+    final var insert = named(spans, "INSERT");
+    assertThat(request.getKind(), is(equalTo(SpanKind.SERVER)));
+    assertThat(request.getParentSpanId(), is(equalTo(PARENT_SPAN_ID)));
+    assertThat(request.getAttributes().get(AttributeKey.longKey("http.status_code")),
+        is(equalTo(201L)));
+    assertThat(controller.getParentSpanId(), is(equalTo(request.getSpanId())));
+    assertThat(service.getParentSpanId(), is(equalTo(controller.getSpanId())));
+    assertThat(mapper.getParentSpanId(), is(equalTo(service.getSpanId())));
+    assertThat(insert.getAttributes().get(AttributeKey.stringKey("db.statement")),
+        containsString("insert into beer"));
+    assertThat(insert.getAttributes().get(AttributeKey.stringKey("db.system")),
+        is(equalTo("h2")));
+    assertThat(service.getAttributes().get(Tracing.BEER_ID), is(equalTo(id)));
+  }
+
+  @Test
+  void failuresAreTaggedWithTheExceptionType() throws Exception {
+    var traceId = newTraceId();
+
+    mockMvc.perform(get("/api/v1/beers/{id}", 987654321L)
+            .header("traceparent", traceparent(traceId, true)))
+        .andExpect(status().isNotFound());
+
+    var spans = spans(traceId);
+    var request = named(spans, "GET /api/v1/beers/{id}");
+    var service = named(spans, "BeerService.find");
+    assertThat(request.getAttributes().get(AttributeKey.longKey("http.status_code")),
+        is(equalTo(404L)));
+    assertThat(service.getAttributes().get(Tracing.BEER_ID), is(equalTo(987654321L)));
+    assertThat(service.getAttributes().get(Tracing.EXCEPTION_TYPE),
+        is(equalTo(BeerNotFoundException.class.getName())));
+    assertThat(named(spans, "BeerController.findById").getAttributes()
+        .get(Tracing.EXCEPTION_TYPE), is(equalTo(BeerNotFoundException.class.getName())));
+  }
+
+  @Test
+  void requestsThatAreNotSampledLeaveNoSpans() throws Exception {
+    var traceId = newTraceId();
+    final int before = exporter.getSpans().size();
+
+    mockMvc.perform(get("/api/v1/beers").header("traceparent", traceparent(traceId, false)))
+        .andExpect(status().isOk());
+    mockMvc.perform(get("/api/v1/beers")).andExpect(status().isOk());
+
+    assertThat(spans(traceId), is(empty()));
+    assertThat(exporter.getSpans().size(), is(equalTo(before)));
+  }
+
+  private static void measure(String label, String... settings) throws Exception {
+    var args = new ArrayList<>(List.of(settings));
+    args.add("--server.port=0");
+    args.add("--beerstock.response-cache.enabled=false");
+    args.add("--spring.jpa.show-sql=false");
+    args.add("--spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    try (var context = BeerstockApplication.application().run(args.toArray(String[]::new))) {
+      int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+      var url = "http://localhost:" + port + "/api/v1/beers";
+      var client = new RestTemplate();
+      List<Long> ids = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        var name = UUID.randomUUID().toString().replace("-", "");
+        ids.add(client.postForObject(url, new BeerDto(null, name, "brand", 100, 10,
+            BeerType.LAGER), BeerDto.class).getId());
+      }
+      int requests = 20_000;
+      for (int i = 0; i < requests / 4; i++) {
+        client.getForObject(url + "/" + ids.get(i % ids.size()), String.class);
+      }
+      long[] latencies = new long[requests];
+      final long start = System.nanoTime();
+      for (int i = 0; i < requests; i++) {
+        long requestStart = System.nanoTime();
+        client.getForObject(url + "/" + ids.get(i % ids.size()), String.class);
+        latencies[i] = System.nanoTime() - requestStart;
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      Arrays.sort(latencies);
+      System.out.printf("%s requests/s=%.0f p50=%.0fus p99=%.0fus%n", label, requests / seconds,
+          latencies[requests / 2] / 1e3, latencies[requests * 99 / 100] / 1e3);
+    }
+  }
+
+  @Test
+  @Tag("benchmark")
+  void tracingOverhead() throws Exception {
+    var file = Files.createTempFile("traces-", ".jsonl");
+    try {
+      // the applications share the JIT, only the last round is comparable
+      for (int round = 1; round <= 2; round++) {
+        measure(round + " disabled", "--beerstock.tracing.enabled=false");
+        measure(round + " ratio=0", "--beerstock.tracing.sampling-ratio=0");
+        measure(round + " ratio=0.01", "--beerstock.tracing.sampling-ratio=0.01");
+        measure(round + " ratio=1 memory", "--beerstock.tracing.sampling-ratio=1");
+        measure(round + " ratio=1 file", "--beerstock.tracing.sampling-ratio=1",
+            "--beerstock.tracing.exporter=file", "--beerstock.tracing.file=" + file);
+      }
+      System.out.printf("file=%dKB%n", Files.size(file) / 1024);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void tracesAreServedByTheActuator() throws Exception {
+    var traceId = newTraceId();
+    mockMvc.perform(get("/api/v1/beers").header("traceparent", traceparent(traceId, true)))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(get("/actuator/traces/{traceId}", traceId))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[*].name", hasItem("BeerService.listAll")));
+  }
+}
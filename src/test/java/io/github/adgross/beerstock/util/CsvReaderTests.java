@@ -0,0 +1,67 @@
+package io.github.adgross.beerstock.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class CsvReaderTests {
+
+  private static List<List<String>> readAll(String csv) throws IOException {
+    List<List<String>> records = new ArrayList<>();
+    try (var reader = new CsvReader(new StringReader(csv))) {
+      for (var record = reader.next(); record != null; record = reader.next()) {
+        records.add(record);
+      }
+    }
+    return records;
+  }
+
+  @Test
+  void readsPlainRecordsWithAnyLineEnding() throws IOException {
+    assertThat(readAll("a,b\n1,2\r\n3,4\r5,6"), is(equalTo(List.of(
+        List.of("a", "b"), List.of("1", "2"), List.of("3", "4"), List.of("5", "6")))));
+  }
+
+  @Test
+  void keepsEmptyFields() throws IOException {
+    assertThat(readAll(",a,,\n"), is(equalTo(List.of(List.of("", "a", "", "")))));
+  }
+
+  @Test
+  void readsQuotedFields() throws IOException {
+    assertThat(readAll("\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\"\n\"\",x\n"), is(equalTo(List.of(
+        List.of("a,b", "say \"hi\"", "two\nlines"), List.of("", "x")))));
+  }
+
+  @Test
+  void reportsTheLineEachRecordStartsOn() throws IOException {
+    try (var reader = new CsvReader(new StringReader("a\n\"b\nc\"\r\nd\n"))) {
+      reader.next();
+      assertThat(reader.getLine(), is(equalTo(1L)));
+      reader.next();
+      assertThat(reader.getLine(), is(equalTo(2L)));
+      reader.next();
+      assertThat(reader.getLine(), is(equalTo(4L)));
+      assertThat(reader.next(), is(nullValue()));
+    }
+  }
+
+  @Test
+  void failsOnUnclosedQuote() {
+    assertThrows(IOException.class, () -> readAll("a,\"b\n"));
+  }
+
+  @Test
+  void readsRecordsLargerThanTheBuffer() throws IOException {
+    var name = "x".repeat(20_000);
+    assertThat(readAll(name + ",\"" + name + "\"\n"), is(equalTo(List.of(List.of(name, name)))));
+  }
+}
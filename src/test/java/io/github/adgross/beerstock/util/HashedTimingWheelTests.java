@@ -0,0 +1,83 @@
+package io.github.adgross.beerstock.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class HashedTimingWheelTests {
+
+  @Test
+  void expiresAfterDelay() throws InterruptedException {
+    Map<String, Long> expiredAt = new ConcurrentHashMap<>();
+    var latch = new CountDownLatch(2);
+    try (var wheel = new HashedTimingWheel<String>("test-wheel", Duration.ofMillis(10), 8,
+        item -> {
+          expiredAt.put(item, System.nanoTime());
+          latch.countDown();
+        })) {
+      final long start = System.nanoTime();
+      wheel.schedule("short", Duration.ofMillis(30));
+      // longer than one revolution of the wheel
+      wheel.schedule("long", Duration.ofMillis(200));
+
+      assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+      assertThat(TimeUnit.NANOSECONDS.toMillis(expiredAt.get("short") - start),
+          is(greaterThanOrEqualTo(30L)));
+      assertThat(TimeUnit.NANOSECONDS.toMillis(expiredAt.get("long") - start),
+          is(greaterThanOrEqualTo(200L)));
+      assertThat(wheel.size(), is(equalTo(0)));
+    }
+  }
+
+  @Test
+  void cancelledTimeoutsDoNotExpire() throws InterruptedException {
+    List<Integer> expired = new ArrayList<>();
+    var latch = new CountDownLatch(1);
+    try (var wheel = new HashedTimingWheel<Integer>("test-wheel", Duration.ofMillis(5), 16,
+        item -> {
+          synchronized (expired) {
+            expired.add(item);
+          }
+          latch.countDown();
+        })) {
+      var cancelled = wheel.schedule(1, Duration.ofMillis(20));
+      wheel.schedule(2, Duration.ofMillis(40));
+
+      assertThat(cancelled.cancel(), is(true));
+      assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+      TimeUnit.MILLISECONDS.sleep(50);
+      synchronized (expired) {
+        assertThat(expired, is(equalTo(List.of(2))));
+      }
+      assertThat(cancelled.cancel(), is(false));
+    }
+  }
+
+  @Test
+  void handlesManyConcurrentTimeouts() throws InterruptedException {
+    int timeouts = 300_000;
+    var latch = new CountDownLatch(timeouts / 2);
+    try (var wheel = new HashedTimingWheel<Integer>("test-wheel", Duration.ofMillis(10), 512,
+        item -> latch.countDown())) {
+      for (int i = 0; i < timeouts; i++) {
+        var timeout = wheel.schedule(i, Duration.ofMillis(50 + i % 200));
+        if (i % 2 == 0) {
+          timeout.cancel();
+        }
+      }
+
+      assertThat(latch.await(10, TimeUnit.SECONDS), is(true));
+      assertThat(wheel.size(), is(equalTo(0)));
+    }
+  }
+}
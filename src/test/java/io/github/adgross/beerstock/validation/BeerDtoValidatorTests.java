@@ -0,0 +1,161 @@
+package io.github.adgross.beerstock.validation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.dto.QuantityDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.validation.MessageInterpolatorFactory;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+public class BeerDtoValidatorTests {
+
+  // configured like the validator Spring Boot gives to Spring MVC
+  private static final LocalValidatorFactoryBean beanValidator = new LocalValidatorFactoryBean();
+
+  private final BeerDtoValidator beerDtoValidator = new BeerDtoValidator();
+  private final QuantityDtoValidator quantityDtoValidator = new QuantityDtoValidator();
+  private final BeerDto validBeer = new BeerDto(1L, "name", "brand", 400, 100, BeerType.LAGER);
+
+  @BeforeAll
+  static void setUpBeanValidator() {
+    beanValidator.setMessageInterpolator(new MessageInterpolatorFactory().getObject());
+    beanValidator.afterPropertiesSet();
+  }
+
+  @AfterEach
+  void resetLocale() {
+    LocaleContextHolder.resetLocaleContext();
+  }
+
+  private static Set<String> errors(Validator validator, Object target, String objectName) {
+    Errors errors = new BeanPropertyBindingResult(target, objectName);
+    validator.validate(target, errors);
+    return errors.getFieldErrors().stream()
+        .map(error -> String.join("|", error.getField(), String.valueOf(error.getRejectedValue()),
+            String.join(",", error.getCodes()), error.getDefaultMessage()))
+        .collect(Collectors.toSet());
+  }
+
+  private void assertSameErrors(BeerDto beer) {
+    assertThat(beer.toString(), errors(beerDtoValidator, beer, "beerDto"),
+        is(equalTo(errors(beanValidator, beer, "beerDto"))));
+  }
+
+  private List<BeerDto> getEdgeCaseBeers() {
+    return List.of(
+        validBeer,
+        new BeerDto(1L, "a", "áéíóúàèìòù ãẽĩõũâêîôûäëïöüçÇ", 400, 100, BeerType.PILSEN),
+        new BeerDto(Long.MAX_VALUE, "x".repeat(200), "y".repeat(200), 500, 0, BeerType.ALE),
+        validBeer.toBuilder().name(null).brand(null).type(null).build(),
+        validBeer.toBuilder().name("").brand("   ").build(),
+        validBeer.toBuilder().name("\t\n").brand("a\u000Bb\fc\r").build(),
+        validBeer.toBuilder().name("a".repeat(201)).brand("a/".repeat(150)).build(),
+        validBeer.toBuilder().name("a/bc").brand("a%b").build(),
+        validBeer.toBuilder().name("cañón").brand("Ⅻ").build(),
+        validBeer.toBuilder().name("á").brand(" ").build(),
+        validBeer.toBuilder().name("🍺").brand(" \u0000 ").build(),
+        validBeer.toBuilder().max(0).quantity(-1).build(),
+        validBeer.toBuilder().max(-5).quantity(101).build(),
+        validBeer.toBuilder().max(501).quantity(0).build(),
+        validBeer.toBuilder().max(Integer.MIN_VALUE).quantity(Integer.MAX_VALUE).build());
+  }
+
+  @Test
+  void reportsTheSameErrorsAsBeanValidation() {
+    for (BeerDto beer : getEdgeCaseBeers()) {
+      assertSameErrors(beer);
+    }
+  }
+
+  @Test
+  void reportsTheSameErrorsForRandomBeers() {
+    var random = new Random(33);
+    var alphabet = "aZ09 \táãçÇñ/%_-.́🍺";
+    var types = Arrays.asList(BeerType.values());
+    for (int i = 0; i < 5_000; i++) {
+      var text = new StringBuilder[] {new StringBuilder(), new StringBuilder()};
+      for (var builder : text) {
+        int length = random.nextInt(4) == 0 ? random.nextInt(260) : random.nextInt(8);
+        for (int j = 0; j < length; j++) {
+          builder.appendCodePoint(alphabet.codePointAt(
+              alphabet.offsetByCodePoints(0, random.nextInt(alphabet.codePointCount(0,
+                  alphabet.length())))));
+        }
+      }
+      assertSameErrors(new BeerDto((long) i,
+          random.nextInt(10) == 0 ? null : text[0].toString(),
+          random.nextInt(10) == 0 ? null : text[1].toString(),
+          random.nextInt(520) - 10, random.nextInt(120) - 10,
+          random.nextInt(10) == 0 ? null : types.get(random.nextInt(types.size()))));
+    }
+  }
+
+  @Test
+  void reportsTheSameMessagesInTheRequestLocale() {
+    LocaleContextHolder.setLocale(new Locale("pt", "BR"));
+    var beer = validBeer.toBuilder().name("a/b").brand("").max(0).type(null).build();
+
+    assertThat(errors(beerDtoValidator, beer, "beerDto"), is(not(empty())));
+    assertSameErrors(beer);
+  }
+
+  @Test
+  void reportsTheSameErrorsForQuantities() {
+    for (Integer quantity : Arrays.asList(null, Integer.MIN_VALUE, -1, 0, 1, 500)) {
+      var dto = new QuantityDto(quantity);
+      assertThat(errors(quantityDtoValidator, dto, "quantityDto"),
+          is(equalTo(errors(beanValidator, dto, "quantityDto"))));
+    }
+  }
+
+  private static double nanosPerValidation(Validator validator, List<BeerDto> beers) {
+    int operations = 0;
+    final long start = System.nanoTime();
+    long elapsed;
+    do {
+      for (BeerDto beer : beers) {
+        validator.validate(beer, new BeanPropertyBindingResult(beer, "beerDto"));
+        operations++;
+      }
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < 2_000_000_000L);
+    return (double) elapsed / operations;
+  }
+
+  @Test
+  @Tag("benchmark")
+  void validationCostAgainstBeanValidation() {
+    var valid = new ArrayList<BeerDto>();
+    for (int i = 0; i < 100; i++) {
+      valid.add(validBeer.toBuilder().name("Beer número " + i).quantity(i).build());
+    }
+    var invalid = getEdgeCaseBeers().subList(3, getEdgeCaseBeers().size());
+    for (int round = 0; round < 2; round++) {
+      for (var validator : List.of(beanValidator, beerDtoValidator)) {
+        System.out.printf("round=%d %s valid=%.0fns/op invalid=%.0fns/op%n", round,
+            validator.getClass().getSimpleName(), nanosPerValidation(validator, valid),
+            nanosPerValidation(validator, invalid));
+      }
+    }
+  }
+}
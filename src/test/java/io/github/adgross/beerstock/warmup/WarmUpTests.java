@@ -0,0 +1,135 @@
+package io.github.adgross.beerstock.warmup;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.adgross.beerstock.controller.BeerController;
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.services.BeerService;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "beerstock.warmup.enabled=true",
+    "beerstock.warmup.rounds=20",
+    "beerstock.warmup.hot-beers-file=${java.io.tmpdir}/beerstock-warmup-tests/hot-beers.txt",
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:warmup;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+public class WarmUpTests {
+
+  @Autowired
+  private WarmUp warmUp;
+
+  @Autowired
+  private BeerService beerService;
+
+  @Autowired
+  private BeerController beerController;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  private BeerDto createBeer() throws Exception {
+    var name = UUID.randomUUID().toString().replace("-", "");
+    return beerService.createBeer(new BeerDto(null, name, "brand", 100, 7, BeerType.IPA));
+  }
+
+  @Test
+  void readyOnceWarmedUp() throws Exception {
+    assertThat(warmUp.getStatus(), is(WarmUp.Status.FINISHED));
+    assertThat(warmUp.getCompletedRounds(), is(20));
+    assertThat(warmUp.getLatencies(), hasKey("list"));
+
+    mockMvc.perform(get("/actuator/health/readiness"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status", is("UP")));
+  }
+
+  @Test
+  void replaysReadsOfTheSampledBeers(@TempDir Path dir) throws Exception {
+    var beer = createBeer();
+    var hotBeers = new HotBeerFilter(dir.resolve("hot-beers.txt"), 10);
+    hotBeers.record(beer.getId());
+    hotBeers.save();
+    var run = new WarmUp(beerController, objectMapper, hotBeers, Duration.ofMinutes(1), 5);
+
+    run.run();
+
+    assertThat(run.getStatus(), is(WarmUp.Status.FINISHED));
+    assertThat(run.getPreloaded(), is(1));
+    assertThat(run.getLatencies().keySet(), contains("list", "low-stock", "find",
+        "find-fields", "find-by-name", "search", "suggest"));
+  }
+
+  @Test
+  void stopsWhenTheBudgetIsSpent(@TempDir Path dir) {
+    var run = new WarmUp(beerController, objectMapper,
+        new HotBeerFilter(dir.resolve("hot-beers.txt"), 10), Duration.ZERO, 1000);
+
+    run.run();
+
+    assertThat(run.getStatus(), is(WarmUp.Status.TIMED_OUT));
+    assertThat(run.getCompletedRounds(), is(0));
+  }
+
+  @Test
+  void readsOfSingleBeersAreCounted() throws Exception {
+    var beer = createBeer();
+
+    for (int i = 0; i < 3; i++) {
+      mockMvc.perform(get("/api/v1/beers/" + beer.getId())).andExpect(status().isOk());
+    }
+    mockMvc.perform(get("/api/v1/beers/0")).andExpect(status().isNotFound());
+
+    mockMvc.perform(get("/actuator/warmup"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.hotBeers[0]", is(beer.getId().intValue())));
+  }
+
+  @Test
+  void hotBeersSurviveRestarts(@TempDir Path dir) throws Exception {
+    var file = dir.resolve("hot-beers.txt");
+    var hotBeers = new HotBeerFilter(file, 2);
+    List.of(3L, 1L, 3L, 2L, 3L, 1L, 3L).forEach(hotBeers::record);
+
+    hotBeers.save();
+
+    assertThat(Files.readAllLines(file), contains("3", "1"));
+    assertThat(new HotBeerFilter(file, 2).load(), contains(3L, 1L));
+    // counts are halved on save, beers read once are forgotten
+    assertThat(hotBeers.hottest(), contains(3L, 1L));
+    hotBeers.save();
+    assertThat(hotBeers.hottest(), contains(3L));
+    assertThat(new HotBeerFilter(dir.resolve("missing.txt"), 2).load(), is(empty()));
+  }
+
+  @Test
+  void malformedLinesAreSkipped(@TempDir Path dir) throws Exception {
+    var file = dir.resolve("hot-beers.txt");
+    Files.writeString(file, "7\nnot an id\n\n 9 \n");
+
+    assertThat(new HotBeerFilter(file, 10).load(), contains(7L, 9L));
+  }
+}
@@ -0,0 +1,188 @@
+package io.github.adgross.beerstock.web;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import io.github.adgross.beerstock.dto.BeerDto;
+import io.github.adgross.beerstock.enums.BeerType;
+import io.github.adgross.beerstock.services.BeerService;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "spring.datasource.url=jdbc:h2:mem:response-cache;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+public class ResponseCacheFilterTests {
+
+  private static final String BEER_API_URL_PATH = "/api/v1/beers";
+  private static final String BEER_API_URL_PATH_ID = "/api/v1/beers/{id}";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private BeerService beerService;
+
+  @Autowired
+  private ResponseCacheFilter filter;
+
+  private BeerDto createBeer(int quantity) throws Exception {
+    var name = UUID.randomUUID().toString().replace("-", "");
+    return beerService.createBeer(new BeerDto(null, name, "brand", 100, quantity, BeerType.IPA));
+  }
+
+  private BeerDto createBeer(String brand) throws Exception {
+    var name = UUID.randomUUID().toString().replace("-", "");
+    return beerService.createBeer(new BeerDto(null, name, brand, 100, 1, BeerType.IPA));
+  }
+
+  private String read(String path, Object... variables) throws Exception {
+    return mockMvc.perform(get(path, variables))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+  }
+
+  private static void fetch(ResponseCacheFilter filter, MockFilterChain chain, long id)
+      throws Exception {
+    chain.reset();
+    var response = new MockHttpServletResponse();
+    filter.doFilter(new MockHttpServletRequest("GET", BEER_API_URL_PATH + "/" + id), response,
+        chain);
+    assertThat(response.getContentAsString(), is(equalTo(
+        "{\"uri\":\"" + BEER_API_URL_PATH + "/" + id + "\"}")));
+  }
+
+  @Test
+  void repeatedReadsAreServedFromTheCache() throws Exception {
+    var beer = createBeer(10);
+    final long hits = filter.getHits();
+    final long misses = filter.getMisses();
+
+    var first = read(BEER_API_URL_PATH_ID, beer.getId());
+    var second = read(BEER_API_URL_PATH_ID, beer.getId());
+    var list = read(BEER_API_URL_PATH);
+
+    assertThat(second, is(equalTo(first)));
+    assertThat(read(BEER_API_URL_PATH), is(equalTo(list)));
+    assertThat(filter.getMisses() - misses, is(equalTo(2L)));
+    assertThat(filter.getHits() - hits, is(equalTo(2L)));
+  }
+
+  @Test
+  void changesInvalidateCachedBodies() throws Exception {
+    var beer = createBeer(10);
+    read(BEER_API_URL_PATH_ID, beer.getId());
+    read(BEER_API_URL_PATH);
+
+    beerService.increment(beer.getId(), 5);
+
+    mockMvc.perform(get(BEER_API_URL_PATH_ID, beer.getId()))
+        .andExpect(jsonPath("$.quantity").value(15));
+    mockMvc.perform(get(BEER_API_URL_PATH))
+        .andExpect(jsonPath("$[?(@.id == " + beer.getId() + ")].quantity").value(15));
+
+    beerService.deleteBeer(beer.getId());
+
+    mockMvc.perform(get(BEER_API_URL_PATH_ID, beer.getId()))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void changesKeepOtherBeersCached() throws Exception {
+    var changed = createBeer(10);
+    var untouched = createBeer(10);
+    read(BEER_API_URL_PATH_ID, untouched.getId());
+
+    beerService.increment(changed.getId(), 1);
+    final long hits = filter.getHits();
+
+    read(BEER_API_URL_PATH_ID, untouched.getId());
+    assertThat(filter.getHits() - hits, is(equalTo(1L)));
+  }
+
+  @Test
+  void evictsOldBodiesBeyondMaxEntries() throws Exception {
+    var small = new ResponseCacheFilter(2);
+    var chain = new MockFilterChain(new HttpServlet() {
+      @Override
+      protected void doGet(HttpServletRequest request, HttpServletResponse response)
+          throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"uri\":\"" + request.getRequestURI() + "\"}");
+      }
+    });
+
+    for (long id : new long[] {1, 2, 1, 3}) {
+      fetch(small, chain, id);
+    }
+    final long misses = small.getMisses();
+    fetch(small, chain, 1);
+    fetch(small, chain, 3);
+    fetch(small, chain, 2);
+
+    assertThat(small.size(), is(equalTo(2)));
+    assertThat(small.getMisses() - misses, is(equalTo(1L)));
+  }
+
+  @Test
+  void gzipVariantHoldsTheSameBody() throws Exception {
+    var beer = createBeer("brand ".repeat(30));
+    var identity = read(BEER_API_URL_PATH_ID, beer.getId());
+
+    var response = mockMvc.perform(get(BEER_API_URL_PATH_ID, beer.getId())
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+        .andReturn().getResponse();
+
+    try (var in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+      assertThat(new String(in.readAllBytes(), response.getCharacterEncoding()),
+          is(equalTo(identity)));
+    }
+  }
+
+  @Test
+  void smallBodiesAreNotCompressed() throws Exception {
+    var beer = createBeer(3);
+    read(BEER_API_URL_PATH_ID, beer.getId());
+
+    mockMvc.perform(get(BEER_API_URL_PATH_ID, beer.getId())
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andExpect(jsonPath("$.quantity").value(3));
+  }
+
+  @Test
+  void errorsAreNotCached() throws Exception {
+    final long misses = filter.getMisses();
+
+    mockMvc.perform(get(BEER_API_URL_PATH_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
+    mockMvc.perform(get(BEER_API_URL_PATH_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
+
+    assertThat(filter.getMisses() - misses, is(equalTo(2L)));
+  }
+}